@@ -0,0 +1,78 @@
+package com.camerannonces.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.cache.JCacheMetrics;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.cache.jcache.internal.JCacheRegionFactory;
+import org.hibernate.cache.spi.RegionFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import javax.cache.Cache;
+import javax.cache.CacheManager;
+
+/**
+ * Métriques du cache de second niveau Hibernate, par région
+ * - hibernate.cache.hit.ratio{region}: succès / (succès + échecs), "query" pour le cache de requêtes
+ * - cache.gets / cache.puts / cache.evictions{cache}: statistiques JCache de chaque région (Caffeine)
+ * Les compteurs bruts (hibernate.second.level.cache.requests, hibernate.query.cache.requests...)
+ * sont publiés par hibernate-micrometer.
+ */
+@Component
+public class HibernateCacheMetrics {
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void bindRegions() {
+        SessionFactoryImplementor sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+        Statistics statistics = sessionFactory.getStatistics();
+
+        for (String region : statistics.getSecondLevelCacheRegionNames()) {
+            Gauge.builder("hibernate.cache.hit.ratio", statistics,
+                            stats -> ratio(stats.getCacheRegionStatistics(region)))
+                    .description("Part des lectures de la région servies sans requête SQL")
+                    .tags(Tags.of("region", region))
+                    .register(meterRegistry);
+        }
+        Gauge.builder("hibernate.cache.hit.ratio", statistics,
+                        stats -> ratio(stats.getQueryCacheHitCount(), stats.getQueryCacheMissCount()))
+                .description("Part des requêtes des repositories servies par le cache de requêtes")
+                .tags(Tags.of("region", "query"))
+                .register(meterRegistry);
+
+        RegionFactory regionFactory = sessionFactory.getCache().getRegionFactory();
+        if (regionFactory instanceof JCacheRegionFactory jcache) {
+            CacheManager cacheManager = jcache.getCacheManager();
+            for (String name : cacheManager.getCacheNames()) {
+                Cache<Object, Object> cache = cacheManager.getCache(name);
+                if (cache != null) {
+                    JCacheMetrics.monitor(meterRegistry, cache, Tags.empty());
+                }
+            }
+        }
+
+        System.out.println("📈 Cache Hibernate: " + statistics.getSecondLevelCacheRegionNames().length
+                + " régions suivies dans les métriques");
+    }
+
+    private static double ratio(CacheRegionStatistics region) {
+        return region == null ? 0 : ratio(region.getHitCount(), region.getMissCount());
+    }
+
+    private static double ratio(long hits, long misses) {
+        long total = hits + misses;
+        return total == 0 ? 0 : (double) hits / total;
+    }
+}
@@ -0,0 +1,153 @@
+package com.camerannonces.config;
+
+import com.camerannonces.reference.ReferenceDataRegistry;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.server.PathContainer;
+import org.springframework.stereotype.Component;
+import org.springframework.util.DigestUtils;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Requêtes GET conditionnelles (ETag + Cache-Control) des endpoints publics
+ * - Référentiel pur (catégories, villes, quartiers): ETag fort = empreinte de la photo en mémoire,
+ *   le 304 est rendu avant d'atteindre le contrôleur
+ * - Comptages, recherche: ETag fort = MD5 du corps (comptages changent en continu), le 304 évite l'envoi du JSON
+ * - Détail d'annonce: ETag faible du contenu hors compteurs, posé par le contrôleur (chaque lecture compte une vue,
+ *   le corps n'est donc jamais identique d'un appel à l'autre); "private, no-cache": toujours revalidé
+ * Seules les réponses 200 et 304 reçoivent ETag et Cache-Control; "private" si la requête est authentifiée.
+ */
+@Component
+public class HttpCacheFilter extends OncePerRequestFilter {
+
+    /**
+     * Famille d'endpoints et politique de cache associée
+     */
+    enum Family {
+        REFERENCE(true, true, maxAge(Duration.ofMinutes(5), Duration.ofDays(1)),
+                "/api/categories", "/api/categories/search", "/api/categories/{id:\\d+}",
+                "/api/cities", "/api/cities/regions", "/api/cities/region/{region}", "/api/cities/search",
+                "/api/cities/{id:\\d+}", "/api/cities/{cityId:\\d+}/quartiers",
+                "/api/cities/quartiers", "/api/cities/quartiers/search"),
+        REFERENCE_COUNTS(false, true, maxAge(Duration.ofMinutes(1), Duration.ofMinutes(5)),
+                "/api/categories/with-count", "/api/categories/popular",
+                "/api/cities/with-listings", "/api/cities/popular", "/api/cities/stats-by-region",
+                "/api/cities/quartiers/with-listings", "/api/cities/quartiers/popular"),
+        LISTING(false, false, "no-cache",
+                "/api/listings/{id:\\d+}"),
+        SEARCH(false, true, maxAge(Duration.ofSeconds(30), Duration.ofMinutes(2)),
+                "/api/search", "/api/search/**");
+
+        private final boolean versioned;
+        private final boolean shared;
+        private final String cacheControl;
+        private final List<PathPattern> patterns;
+
+        Family(boolean versioned, boolean shared, String cacheControl, String... patterns) {
+            this.versioned = versioned;
+            this.shared = shared;
+            this.cacheControl = cacheControl;
+            this.patterns = Arrays.stream(patterns).map(PathPatternParser.defaultInstance::parse).toList();
+        }
+
+        private static String maxAge(Duration maxAge, Duration staleWhileRevalidate) {
+            return "max-age=" + maxAge.toSeconds() + ", stale-while-revalidate=" + staleWhileRevalidate.toSeconds();
+        }
+
+        String cacheControl(boolean authenticated) {
+            return (shared && !authenticated ? "public, " : "private, ") + cacheControl;
+        }
+
+        static Family of(HttpServletRequest request) {
+            PathContainer path = PathContainer.parsePath(
+                    request.getRequestURI().substring(request.getContextPath().length()));
+            for (Family family : values()) {
+                for (PathPattern pattern : family.patterns) {
+                    if (pattern.matches(path)) {
+                        return family;
+                    }
+                }
+            }
+            return null;
+        }
+    }
+
+    @Autowired
+    private ReferenceDataRegistry referenceData;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !"GET".equals(request.getMethod());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+
+        Family family = Family.of(request);
+        if (family == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        String cacheControl = family.cacheControl(request.getHeader(HttpHeaders.AUTHORIZATION) != null);
+
+        // Référentiel: l'ETag est connu sans exécuter le contrôleur
+        String versionTag = null;
+        if (family.versioned) {
+            versionTag = "\"ref-" + referenceData.snapshot().getFingerprint() + "\"";
+            if (new ServletWebRequest(request, response).checkNotModified(versionTag)) {
+                response.setHeader(HttpHeaders.CACHE_CONTROL, cacheControl);
+                notModified(family, "before-handler", 0);
+                return;
+            }
+        }
+
+        ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+        filterChain.doFilter(request, wrapper);
+
+        if (wrapper.getStatus() == HttpServletResponse.SC_NOT_MODIFIED && !response.isCommitted()) {
+            // ETag posé et vérifié par le contrôleur
+            response.setHeader(HttpHeaders.CACHE_CONTROL, cacheControl);
+            notModified(family, "handler", 0);
+        } else if (wrapper.getStatus() == HttpServletResponse.SC_OK && !response.isCommitted()) {
+            String handlerTag = wrapper.getHeader(HttpHeaders.ETAG);
+            String eTag = versionTag != null ? versionTag
+                    : handlerTag != null ? handlerTag
+                    : "\"" + DigestUtils.md5DigestAsHex(wrapper.getContentInputStream()) + "\"";
+            response.setHeader(HttpHeaders.CACHE_CONTROL, cacheControl);
+            if (new ServletWebRequest(request, response).checkNotModified(eTag)) {
+                // Corps calculé mais non envoyé
+                notModified(family, "after-handler", wrapper.getContentSize());
+                return;
+            }
+        }
+        wrapper.copyBodyToResponse();
+    }
+
+    private void notModified(Family family, String stage, int bytesSaved) {
+        meterRegistry.counter("http.cache.not.modified",
+                "family", family.name().toLowerCase(), "stage", stage).increment();
+        if (bytesSaved > 0) {
+            meterRegistry.counter("http.cache.bytes.saved", "family", family.name().toLowerCase())
+                    .increment(bytesSaved);
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.camerannonces.config;
+
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class JacksonConfig {
+
+    /**
+     * Accès aux accesseurs des DTO (records) par lambdas générées plutôt que par réflexion
+     * Spring Boot enregistre tout bean Module dans l'ObjectMapper auto-configuré
+     * (sans typage par défaut: aucune information de type n'est écrite dans les réponses)
+     */
+    @Bean
+    public Module blackbirdModule() {
+        return new BlackbirdModule();
+    }
+}
@@ -0,0 +1,238 @@
+package com.camerannonces.config;
+
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Table déclarative des routes de l'API, unique source pour SecurityConfig et le filtre JWT
+ * - SecurityConfig enregistre les règles dans l'ordre (permitAll / authenticated)
+ * - JwtAuthenticationFilter ne lit pas le token sur les routes PUBLIC
+ * Les motifs sont compilés au démarrage en un arbre de segments; la classification d'une requête
+ * parcourt l'URI sans rien allouer (ni découpage, ni regex). Première règle correspondante = gagnante,
+ * comme dans Spring Security; sans correspondance: AUTHENTICATED.
+ * Localisation: src/main/java/com/camerannonces/config/RouteTable.java
+ */
+@Component
+public class RouteTable {
+
+    /**
+     * Niveau d'accès d'une route
+     */
+    public enum Access {
+        /** Accès libre, token ignoré */
+        PUBLIC,
+        /** Accès libre, token lu s'il est présent (userId disponible pour le contrôleur) */
+        OPTIONAL_AUTH,
+        /** Authentification requise */
+        AUTHENTICATED;
+
+        public boolean permitted() {
+            return this != AUTHENTICATED;
+        }
+    }
+
+    /**
+     * Règle de la table (method == null: toutes les méthodes)
+     * Motifs supportés: segments littéraux, "*", "{var}", "{var:[0-9]+}" et "**" en fin de motif
+     */
+    public record Rule(String method, String pattern, Access access) {
+    }
+
+    // ==========================================
+    // TABLE DES ROUTES (ordre = priorité)
+    // ==========================================
+
+    private static final List<Rule> RULES = List.of(
+            new Rule(null, "/error", Access.PUBLIC),
+            new Rule(null, "/api/auth/**", Access.PUBLIC),
+            new Rule(null, "/api/test/**", Access.OPTIONAL_AUTH),
+
+            // Référentiel et recherche: lecture publique
+            new Rule("GET", "/api/categories/**", Access.PUBLIC),
+            new Rule(null, "/api/categories/**", Access.OPTIONAL_AUTH),
+            new Rule("GET", "/api/cities/**", Access.PUBLIC),
+            new Rule(null, "/api/cities/**", Access.OPTIONAL_AUTH),
+            new Rule("GET", "/api/search/**", Access.PUBLIC),
+            new Rule(null, "/api/search/**", Access.OPTIONAL_AUTH),
+
+            // Annonces: liste et détail publics, autres lectures avec token facultatif
+            new Rule(null, "/api/listings/*/view", Access.OPTIONAL_AUTH),
+            new Rule("GET", "/api/listings", Access.PUBLIC),
+            new Rule("GET", "/api/listings/{id:[0-9]+}", Access.PUBLIC),
+            new Rule("GET", "/api/listings/**", Access.OPTIONAL_AUTH),
+
+            // Endpoints protégés
+            new Rule(null, "/api/user/**", Access.AUTHENTICATED),
+            new Rule(null, "/api/favorites/**", Access.AUTHENTICATED),
+            new Rule("POST", "/api/listings", Access.AUTHENTICATED),
+            new Rule("PUT", "/api/listings/**", Access.AUTHENTICATED),
+            new Rule("DELETE", "/api/listings/**", Access.AUTHENTICATED)
+    );
+
+    private static final int NO_MATCH = Integer.MAX_VALUE;
+
+    private final Rule[] rules;
+    private final Node root = new Node();
+
+    public RouteTable() {
+        this(RULES);
+    }
+
+    RouteTable(List<Rule> rules) {
+        this.rules = rules.toArray(new Rule[0]);
+        for (int i = 0; i < this.rules.length; i++) {
+            compile(i, this.rules[i].pattern());
+        }
+    }
+
+    public List<Rule> getRules() {
+        return List.of(rules);
+    }
+
+    /**
+     * Niveau d'accès d'une requête (chemin sans context path)
+     */
+    public Access classify(String method, String path) {
+        int index = match(root, path, 0, method, NO_MATCH);
+        return index == NO_MATCH ? Access.AUTHENTICATED : rules[index].access();
+    }
+
+    public boolean isPublic(String method, String path) {
+        return classify(method, path) == Access.PUBLIC;
+    }
+
+    // ==========================================
+    // COMPILATION
+    // ==========================================
+
+    private void compile(int index, String pattern) {
+        if (!pattern.startsWith("/")) {
+            throw new IllegalArgumentException("Motif de route invalide: " + pattern);
+        }
+        String[] segments = pattern.substring(1).split("/");
+        Node node = root;
+        for (int i = 0; i < segments.length; i++) {
+            String segment = segments[i];
+            if (segment.equals("**")) {
+                if (i != segments.length - 1) {
+                    throw new IllegalArgumentException("'**' doit terminer le motif: " + pattern);
+                }
+                node.restRules = append(node.restRules, index);
+                return;
+            }
+            node = node.child(segment, pattern);
+        }
+        node.endRules = append(node.endRules, index);
+    }
+
+    private static int[] append(int[] indexes, int index) {
+        int[] result = Arrays.copyOf(indexes, indexes.length + 1);
+        result[indexes.length] = index;
+        return result;
+    }
+
+    // ==========================================
+    // CLASSIFICATION (sans allocation)
+    // ==========================================
+
+    /**
+     * Plus petit index de règle correspondant à path[pos..], borné par best
+     */
+    private int match(Node node, String path, int pos, String method, int best) {
+        // "**" couvre aussi zéro segment ("/api/search/**" accepte "/api/search")
+        best = firstMatching(node.restRules, method, best);
+
+        int length = path.length();
+        if (pos == length) {
+            return firstMatching(node.endRules, method, best);
+        }
+        if (path.charAt(pos) != '/') {
+            return best;
+        }
+
+        int start = pos + 1;
+        int end = path.indexOf('/', start);
+        if (end < 0) {
+            end = length;
+        }
+        int segmentLength = end - start;
+        if (segmentLength == 0) {
+            return best;
+        }
+
+        for (int i = 0; i < node.literals.length; i++) {
+            String literal = node.literals[i];
+            if (literal.length() == segmentLength && path.regionMatches(start, literal, 0, segmentLength)) {
+                best = match(node.literalChildren[i], path, end, method, best);
+            }
+        }
+        if (node.digits != null && isDigits(path, start, end)) {
+            best = match(node.digits, path, end, method, best);
+        }
+        if (node.any != null) {
+            best = match(node.any, path, end, method, best);
+        }
+        return best;
+    }
+
+    private int firstMatching(int[] indexes, String method, int best) {
+        // Index croissants: le premier qui accepte la méthode est le meilleur du nœud
+        for (int index : indexes) {
+            if (index >= best) {
+                return best;
+            }
+            String ruleMethod = rules[index].method();
+            if (ruleMethod == null || ruleMethod.equals(method)) {
+                return index;
+            }
+        }
+        return best;
+    }
+
+    private static boolean isDigits(String path, int start, int end) {
+        for (int i = start; i < end; i++) {
+            char c = path.charAt(i);
+            if (c < '0' || c > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Nœud de l'arbre: un segment de chemin
+     */
+    private static final class Node {
+        private String[] literals = new String[0];
+        private Node[] literalChildren = new Node[0];
+        private Node digits;
+        private Node any;
+        private int[] endRules = new int[0];
+        private int[] restRules = new int[0];
+
+        private Node child(String segment, String pattern) {
+            if (segment.equals("*") || segment.matches("\\{\\w+}")) {
+                return any != null ? any : (any = new Node());
+            }
+            if (segment.matches("\\{\\w+:\\[0-9]\\+}")) {
+                return digits != null ? digits : (digits = new Node());
+            }
+            if (segment.isEmpty() || segment.contains("*") || segment.contains("{")) {
+                throw new IllegalArgumentException("Segment non supporté '" + segment + "' dans " + pattern);
+            }
+            for (int i = 0; i < literals.length; i++) {
+                if (literals[i].equals(segment)) {
+                    return literalChildren[i];
+                }
+            }
+            List<String> names = new ArrayList<>(List.of(literals));
+            names.add(segment);
+            literals = names.toArray(new String[0]);
+            literalChildren = Arrays.copyOf(literalChildren, literalChildren.length + 1);
+            return literalChildren[literalChildren.length - 1] = new Node();
+        }
+    }
+}
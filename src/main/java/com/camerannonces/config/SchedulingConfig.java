@@ -0,0 +1,11 @@
+package com.camerannonces.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+
+    // Tâches planifiées (@Scheduled): vidage des compteurs d'annonces, etc.
+}
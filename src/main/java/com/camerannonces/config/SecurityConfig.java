@@ -4,6 +4,7 @@ import com.camerannonces.jwt.JwtAuthenticationFilter;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpMethod;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
@@ -28,6 +29,9 @@ public class SecurityConfig {
     @Autowired
     private JwtAuthenticationFilter jwtAuthenticationFilter;
 
+    @Autowired
+    private RouteTable routeTable;
+
     @Bean
     public PasswordEncoder passwordEncoder() {
         return new BCryptPasswordEncoder();
@@ -43,26 +47,22 @@ public class SecurityConfig {
                 .cors(cors -> cors.configurationSource(corsConfigurationSource()))
 
                 // Configuration des autorisations
-                .authorizeHttpRequests(authz -> authz
-                        // Endpoints publics (pas d'authentification)
-                        .requestMatchers("/api/auth/**").permitAll()
-                        .requestMatchers("/api/test/**").permitAll()
-                        .requestMatchers("/api/categories/**").permitAll()
-                        .requestMatchers("/api/cities/**").permitAll()
-                        .requestMatchers("/api/search/**").permitAll()
-                        .requestMatchers("/api/listings/*/view").permitAll()
-                        .requestMatchers("GET", "/api/listings/**").permitAll()
-
-                        // Endpoints protégés (authentification requise)
-                        .requestMatchers("/api/user/**").authenticated()
-                        .requestMatchers("/api/favorites/**").authenticated()
-                        .requestMatchers("POST", "/api/listings").authenticated()
-                        .requestMatchers("PUT", "/api/listings/**").authenticated()
-                        .requestMatchers("DELETE", "/api/listings/**").authenticated()
-
-                        // Tous les autres endpoints sont protégés
-                        .anyRequest().authenticated()
-                )
+                .authorizeHttpRequests(authz -> {
+                    // Règles issues de la table des routes, partagée avec le filtre JWT
+                    for (RouteTable.Rule rule : routeTable.getRules()) {
+                        var matcher = rule.method() == null
+                                ? authz.requestMatchers(rule.pattern())
+                                : authz.requestMatchers(HttpMethod.valueOf(rule.method()), rule.pattern());
+                        if (rule.access().permitted()) {
+                            matcher.permitAll();
+                        } else {
+                            matcher.authenticated();
+                        }
+                    }
+
+                    // Tous les autres endpoints sont protégés
+                    authz.anyRequest().authenticated();
+                })
 
                 // Configuration de session (stateless pour JWT)
                 .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
@@ -1,6 +1,7 @@
 package com.camerannonces.controller;
 
 import com.camerannonces.entity.Category;
+import com.camerannonces.reference.CategoryRef;
 import com.camerannonces.service.CategoryService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
@@ -26,7 +27,7 @@ public class CategoryController {
     @GetMapping
     public ResponseEntity<?> getAllCategories() {
         try {
-            List<Category> categories = categoryService.getAllActiveCategories();
+            List<CategoryRef> categories = categoryService.getAllActiveCategories();
 
             Map<String, Object> response = new HashMap<>();
             response.put("success", true);
@@ -48,13 +49,13 @@ public class CategoryController {
     @GetMapping("/{id}")
     public ResponseEntity<?> getCategoryById(@PathVariable Long id) {
         try {
-            Optional<Category> categoryOpt = categoryService.getCategoryById(id);
+            Optional<CategoryRef> categoryOpt = categoryService.getCategoryById(id);
 
             if (!categoryOpt.isPresent()) {
                 return ResponseEntity.notFound().build();
             }
 
-            Category category = categoryOpt.get();
+            CategoryRef category = categoryOpt.get();
 
             Map<String, Object> response = new HashMap<>();
             response.put("success", true);
@@ -75,7 +76,7 @@ public class CategoryController {
     @GetMapping("/search")
     public ResponseEntity<?> searchCategories(@RequestParam String keyword) {
         try {
-            List<Category> categories = categoryService.searchCategories(keyword);
+            List<CategoryRef> categories = categoryService.searchCategories(keyword);
 
             Map<String, Object> response = new HashMap<>();
             response.put("success", true);
@@ -119,7 +120,7 @@ public class CategoryController {
     @GetMapping("/popular")
     public ResponseEntity<?> getPopularCategories() {
         try {
-            List<Category> categories = categoryService.getMostPopularCategories();
+            List<CategoryRef> categories = categoryService.getMostPopularCategories();
 
             Map<String, Object> response = new HashMap<>();
             response.put("success", true);
@@ -164,7 +165,7 @@ public class CategoryController {
             Map<String, Object> response = new HashMap<>();
             response.put("success", true);
             response.put("message", "Catégorie créée avec succès");
-            response.put("category", createCategoryResponse(category));
+            response.put("category", createCategoryResponse(CategoryRef.of(category)));
 
             return ResponseEntity.ok(response);
 
@@ -197,7 +198,7 @@ public class CategoryController {
             Map<String, Object> response = new HashMap<>();
             response.put("success", true);
             response.put("message", "Catégorie mise à jour avec succès");
-            response.put("category", createCategoryResponse(category));
+            response.put("category", createCategoryResponse(CategoryRef.of(category)));
 
             return ResponseEntity.ok(response);
 
@@ -232,21 +233,21 @@ public class CategoryController {
     // MÉTHODES UTILITAIRES
     // ============================================
 
-    private Map<String, Object> createCategoryResponse(Category category) {
+    private Map<String, Object> createCategoryResponse(CategoryRef category) {
         Map<String, Object> response = new HashMap<>();
-        response.put("id", category.getId());
-        response.put("nom", category.getNom());
-        response.put("nomAnglais", category.getNomAnglais());
-        response.put("emoji", category.getEmoji());
-        response.put("description", category.getDescription());
-        response.put("ordreAffichage", category.getOrdreAffichage());
-        response.put("isActive", category.getIsActive());
-        response.put("dateCreation", category.getDateCreation());
+        response.put("id", category.id());
+        response.put("nom", category.nom());
+        response.put("nomAnglais", category.nomAnglais());
+        response.put("emoji", category.emoji());
+        response.put("description", category.description());
+        response.put("ordreAffichage", category.ordreAffichage());
+        response.put("isActive", category.isActive());
+        response.put("dateCreation", category.dateCreation());
         return response;
     }
 
     private Map<String, Object> createCategoryWithCountResponse(Object[] data) {
-        Category category = (Category) data[0];
+        CategoryRef category = (CategoryRef) data[0];
         Long count = (Long) data[1];
 
         Map<String, Object> response = createCategoryResponse(category);
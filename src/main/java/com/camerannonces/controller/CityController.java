@@ -2,6 +2,8 @@ package com.camerannonces.controller;
 
 import com.camerannonces.entity.City;
 import com.camerannonces.entity.Quartier;
+import com.camerannonces.reference.CityRef;
+import com.camerannonces.reference.QuartierRef;
 import com.camerannonces.service.CityService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
@@ -27,7 +29,7 @@ public class CityController {
     @GetMapping
     public ResponseEntity<?> getAllCities() {
         try {
-            List<City> cities = cityService.getAllActiveCities();
+            List<CityRef> cities = cityService.getAllActiveCities();
 
             Map<String, Object> response = new HashMap<>();
             response.put("success", true);
@@ -70,7 +72,7 @@ public class CityController {
     @GetMapping("/region/{region}")
     public ResponseEntity<?> getCitiesByRegion(@PathVariable String region) {
         try {
-            List<City> cities = cityService.getCitiesByRegion(region);
+            List<CityRef> cities = cityService.getCitiesByRegion(region);
 
             Map<String, Object> response = new HashMap<>();
             response.put("success", true);
@@ -92,13 +94,13 @@ public class CityController {
     @GetMapping("/{id}")
     public ResponseEntity<?> getCityById(@PathVariable Long id) {
         try {
-            Optional<City> cityOpt = cityService.getCityById(id);
+            Optional<CityRef> cityOpt = cityService.getCityById(id);
 
             if (!cityOpt.isPresent()) {
                 return ResponseEntity.notFound().build();
             }
 
-            City city = cityOpt.get();
+            CityRef city = cityOpt.get();
 
             Map<String, Object> response = new HashMap<>();
             response.put("success", true);
@@ -119,7 +121,7 @@ public class CityController {
     @GetMapping("/search")
     public ResponseEntity<?> searchCities(@RequestParam String keyword) {
         try {
-            List<City> cities = cityService.searchCities(keyword);
+            List<CityRef> cities = cityService.searchCities(keyword);
 
             Map<String, Object> response = new HashMap<>();
             response.put("success", true);
@@ -141,7 +143,7 @@ public class CityController {
     @GetMapping("/with-listings")
     public ResponseEntity<?> getCitiesWithListings() {
         try {
-            List<City> cities = cityService.getCitiesWithActiveListings();
+            List<CityRef> cities = cityService.getCitiesWithActiveListings();
 
             Map<String, Object> response = new HashMap<>();
             response.put("success", true);
@@ -216,7 +218,7 @@ public class CityController {
     @GetMapping("/{cityId}/quartiers")
     public ResponseEntity<?> getQuartiersByCity(@PathVariable Long cityId) {
         try {
-            List<Quartier> quartiers = cityService.getQuartiersByCity(cityId);
+            List<QuartierRef> quartiers = cityService.getQuartiersByCity(cityId);
 
             Map<String, Object> response = new HashMap<>();
             response.put("success", true);
@@ -238,7 +240,7 @@ public class CityController {
     @GetMapping("/quartiers")
     public ResponseEntity<?> getQuartiersByCityName(@RequestParam String ville) {
         try {
-            List<Quartier> quartiers = cityService.getQuartiersByCityName(ville);
+            List<QuartierRef> quartiers = cityService.getQuartiersByCityName(ville);
 
             Map<String, Object> response = new HashMap<>();
             response.put("success", true);
@@ -260,7 +262,7 @@ public class CityController {
     @GetMapping("/quartiers/search")
     public ResponseEntity<?> searchQuartiers(@RequestParam String keyword) {
         try {
-            List<Quartier> quartiers = cityService.searchQuartiers(keyword);
+            List<QuartierRef> quartiers = cityService.searchQuartiers(keyword);
 
             Map<String, Object> response = new HashMap<>();
             response.put("success", true);
@@ -282,7 +284,7 @@ public class CityController {
     @GetMapping("/quartiers/with-listings")
     public ResponseEntity<?> getQuartiersWithListings() {
         try {
-            List<Quartier> quartiers = cityService.getQuartiersWithActiveListings();
+            List<QuartierRef> quartiers = cityService.getQuartiersWithActiveListings();
 
             Map<String, Object> response = new HashMap<>();
             response.put("success", true);
@@ -343,7 +345,7 @@ public class CityController {
             Map<String, Object> response = new HashMap<>();
             response.put("success", true);
             response.put("message", "Ville créée avec succès");
-            response.put("city", createCityResponse(city));
+            response.put("city", createCityResponse(CityRef.of(city)));
 
             return ResponseEntity.ok(response);
 
@@ -373,7 +375,7 @@ public class CityController {
             Map<String, Object> response = new HashMap<>();
             response.put("success", true);
             response.put("message", "Quartier créé avec succès");
-            response.put("quartier", createQuartierResponse(quartier));
+            response.put("quartier", createQuartierResponse(cityService.toRef(quartier)));
 
             return ResponseEntity.ok(response);
 
@@ -387,18 +389,18 @@ public class CityController {
     // MÉTHODES UTILITAIRES
     // ============================================
 
-    private Map<String, Object> createCityResponse(City city) {
+    private Map<String, Object> createCityResponse(CityRef city) {
         Map<String, Object> response = new HashMap<>();
-        response.put("id", city.getId());
-        response.put("nom", city.getNom());
-        response.put("region", city.getRegion());
-        response.put("isActive", city.getIsActive());
-        response.put("dateCreation", city.getDateCreation());
+        response.put("id", city.id());
+        response.put("nom", city.nom());
+        response.put("region", city.region());
+        response.put("isActive", city.isActive());
+        response.put("dateCreation", city.dateCreation());
         return response;
     }
 
     private Map<String, Object> createCityWithCountResponse(Object[] data) {
-        City city = (City) data[0];
+        CityRef city = (CityRef) data[0];
         Long count = (Long) data[1];
 
         Map<String, Object> response = createCityResponse(city);
@@ -406,25 +408,25 @@ public class CityController {
         return response;
     }
 
-    private Map<String, Object> createQuartierResponse(Quartier quartier) {
+    private Map<String, Object> createQuartierResponse(QuartierRef quartier) {
         Map<String, Object> response = new HashMap<>();
-        response.put("id", quartier.getId());
-        response.put("nom", quartier.getNom());
-        response.put("isActive", quartier.getIsActive());
-        response.put("dateCreation", quartier.getDateCreation());
+        response.put("id", quartier.id());
+        response.put("nom", quartier.nom());
+        response.put("isActive", quartier.isActive());
+        response.put("dateCreation", quartier.dateCreation());
 
         // Ajouter les infos de la ville
         Map<String, Object> cityInfo = new HashMap<>();
-        cityInfo.put("id", quartier.getCity().getId());
-        cityInfo.put("nom", quartier.getCity().getNom());
-        cityInfo.put("region", quartier.getCity().getRegion());
+        cityInfo.put("id", quartier.city().id());
+        cityInfo.put("nom", quartier.city().nom());
+        cityInfo.put("region", quartier.city().region());
         response.put("city", cityInfo);
 
         return response;
     }
 
     private Map<String, Object> createQuartierWithCountResponse(Object[] data) {
-        Quartier quartier = (Quartier) data[0];
+        QuartierRef quartier = (QuartierRef) data[0];
         Long count = (Long) data[1];
 
         Map<String, Object> response = createQuartierResponse(quartier);
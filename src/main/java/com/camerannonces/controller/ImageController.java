@@ -1,17 +1,24 @@
 package com.camerannonces.controller;
 
+import com.camerannonces.dto.AuthenticatedUser;
 import com.camerannonces.entity.ListingImage;
 import com.camerannonces.entity.User;
-import com.camerannonces.service.AuthService;
+import com.camerannonces.enums.ImageStatus;
+import com.camerannonces.service.AuthenticatedUserCache;
+import com.camerannonces.service.ImageProcessingPipeline;
 import com.camerannonces.service.ImageService;
+import com.camerannonces.service.UserService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.DeferredResult;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Contrôleur pour la gestion des images
@@ -22,11 +29,20 @@ import java.util.Map;
 @CrossOrigin(origins = "*")
 public class ImageController {
 
+    // Attente maximale d'un suivi de traitement (GET /api/images/{imageId}/status?attenteMs=)
+    private static final long MAX_ATTENTE_MS = 30_000;
+
     @Autowired
     private ImageService imageService;
 
     @Autowired
-    private AuthService authService;
+    private ImageProcessingPipeline imageProcessingPipeline;
+
+    @Autowired
+    private AuthenticatedUserCache authenticatedUsers;
+
+    @Autowired
+    private UserService userService;
 
     // ============================================
     // PROFILE IMAGES
@@ -39,17 +55,16 @@ public class ImageController {
     @PostMapping("/profile")
     public ResponseEntity<?> uploadProfileImage(
             @RequestParam("file") MultipartFile file,
-            @RequestHeader("Authorization") String authHeader) {
+            @RequestAttribute(value = "userId", required = false) Long userId) {
         try {
-            // Extraire userId du token
-            User user = getUserFromToken(authHeader);
+            AuthenticatedUser user = authenticatedUsers.require(userId);
 
             if (file.isEmpty()) {
                 return ResponseEntity.badRequest()
                         .body(createErrorResponse("Aucun fichier sélectionné"));
             }
 
-            String imageUrl = imageService.uploadProfileImage(user.getId(), file);
+            String imageUrl = imageService.uploadProfileImage(user.id(), file);
 
             Map<String, Object> response = new HashMap<>();
             response.put("success", true);
@@ -69,10 +84,10 @@ public class ImageController {
      * DELETE /api/images/profile
      */
     @DeleteMapping("/profile")
-    public ResponseEntity<?> deleteProfileImage(@RequestHeader("Authorization") String authHeader) {
+    public ResponseEntity<?> deleteProfileImage(@RequestAttribute(value = "userId", required = false) Long userId) {
         try {
-            User user = getUserFromToken(authHeader);
-            imageService.deleteProfileImage(user.getId());
+            AuthenticatedUser user = authenticatedUsers.require(userId);
+            imageService.deleteProfileImage(user.id());
 
             Map<String, Object> response = new HashMap<>();
             response.put("success", true);
@@ -91,14 +106,18 @@ public class ImageController {
      * GET /api/images/profile
      */
     @GetMapping("/profile")
-    public ResponseEntity<?> getProfileImage(@RequestHeader("Authorization") String authHeader) {
+    public ResponseEntity<?> getProfileImage(@RequestAttribute(value = "userId", required = false) Long userId) {
         try {
-            User user = getUserFromToken(authHeader);
+            AuthenticatedUser user = authenticatedUsers.require(userId);
+
+            String imageUrl = userService.getUserById(user.id())
+                    .map(User::getProfileImageUrl)
+                    .orElse(null);
 
             Map<String, Object> response = new HashMap<>();
             response.put("success", true);
-            response.put("imageUrl", user.getProfileImageUrl());
-            response.put("hasImage", user.getProfileImageUrl() != null);
+            response.put("imageUrl", imageUrl);
+            response.put("hasImage", imageUrl != null);
 
             return ResponseEntity.ok(response);
 
@@ -113,7 +132,7 @@ public class ImageController {
     // ============================================
 
     /**
-     * Uploader une image pour une annonce
+     * Uploader une image pour une annonce (traitement asynchrone: 202, statut EN_COURS)
      * POST /api/images/listing/{listingId}
      */
     @PostMapping("/listing/{listingId}")
@@ -121,25 +140,30 @@ public class ImageController {
             @PathVariable Long listingId,
             @RequestParam("file") MultipartFile file,
             @RequestParam(value = "isPrincipale", defaultValue = "false") boolean isPrincipale,
-            @RequestHeader("Authorization") String authHeader) {
+            @RequestAttribute(value = "userId", required = false) Long userId) {
         try {
-            User user = getUserFromToken(authHeader);
+            AuthenticatedUser user = authenticatedUsers.require(userId);
 
             if (file.isEmpty()) {
                 return ResponseEntity.badRequest()
                         .body(createErrorResponse("Aucun fichier sélectionné"));
             }
 
+            if (!imageProcessingPipeline.hasCapacity()) {
+                return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                        .body(createErrorResponse("Trop d'images en cours de traitement, réessayez dans un instant"));
+            }
+
             ListingImage image = imageService.saveListingImage(
-                    listingId, user.getId(), file, isPrincipale
+                    listingId, user, file, isPrincipale
             );
 
             Map<String, Object> response = new HashMap<>();
             response.put("success", true);
-            response.put("message", "Image uploadée avec succès");
+            response.put("message", "Image reçue, traitement en cours");
             response.put("image", createImageResponse(image));
 
-            return ResponseEntity.ok(response);
+            return ResponseEntity.accepted().body(response);
 
         } catch (Exception e) {
             return ResponseEntity.badRequest()
@@ -148,45 +172,40 @@ public class ImageController {
     }
 
     /**
-     * Uploader plusieurs images en une fois
+     * Uploader plusieurs images en une fois (première image acceptée = principale)
+     * Vérifications faites une fois pour tout le lot; traitement en parallèle, suivi par image
      * POST /api/images/listing/{listingId}/multiple
      */
     @PostMapping("/listing/{listingId}/multiple")
     public ResponseEntity<?> uploadMultipleImages(
             @PathVariable Long listingId,
             @RequestParam("files") MultipartFile[] files,
-            @RequestHeader("Authorization") String authHeader) {
+            @RequestAttribute(value = "userId", required = false) Long userId) {
         try {
-            User user = getUserFromToken(authHeader);
+            AuthenticatedUser user = authenticatedUsers.require(userId);
 
             if (files.length == 0) {
                 return ResponseEntity.badRequest()
                         .body(createErrorResponse("Aucun fichier sélectionné"));
             }
 
-            int successCount = 0;
-            int errorCount = 0;
-
-            for (int i = 0; i < files.length; i++) {
-                MultipartFile file = files[i];
-                boolean isPrincipale = (i == 0); // Première image = principale
-
-                try {
-                    imageService.saveListingImage(listingId, user.getId(), file, isPrincipale);
-                    successCount++;
-                } catch (Exception e) {
-                    errorCount++;
-                    System.err.println("❌ Erreur upload image " + i + ": " + e.getMessage());
-                }
+            if (!imageProcessingPipeline.hasCapacity(files.length)) {
+                return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                        .body(createErrorResponse("Trop d'images en cours de traitement, réessayez dans un instant"));
             }
 
+            ImageService.BatchUpload upload = imageService.saveListingImages(listingId, user, List.of(files));
+            upload.erreurs().forEach(erreur -> System.err.println("❌ Erreur upload image: " + erreur));
+
             Map<String, Object> response = new HashMap<>();
             response.put("success", true);
-            response.put("message", successCount + " images uploadées");
-            response.put("successCount", successCount);
-            response.put("errorCount", errorCount);
+            response.put("message", upload.imageIds().size() + " images reçues, traitement en cours");
+            response.put("successCount", upload.imageIds().size());
+            response.put("errorCount", upload.erreurs().size());
+            response.put("imageIds", upload.imageIds());
+            response.put("errors", upload.erreurs());
 
-            return ResponseEntity.ok(response);
+            return ResponseEntity.accepted().body(response);
 
         } catch (Exception e) {
             return ResponseEntity.badRequest()
@@ -194,6 +213,52 @@ public class ImageController {
         }
     }
 
+    /**
+     * Suivre le traitement d'une image (statut EN_COURS, PRET ou ECHEC)
+     * Avec attenteMs > 0: la réponse attend la fin du traitement (au plus 30 s);
+     * 410 si l'image est supprimée pendant l'attente
+     * GET /api/images/{imageId}/status
+     */
+    @GetMapping("/{imageId}/status")
+    public DeferredResult<ResponseEntity<?>> getProcessingStatus(
+            @PathVariable Long imageId,
+            @RequestParam(value = "attenteMs", defaultValue = "0") long attenteMs,
+            @RequestAttribute(value = "userId", required = false) Long userId) {
+        try {
+            AuthenticatedUser user = authenticatedUsers.require(userId);
+
+            // Futur lu avant l'image: un traitement terminé entre les deux donne un statut final en base
+            CompletableFuture<ImageStatus> processed = imageProcessingPipeline.whenProcessed(imageId);
+            ListingImage image = imageService.getOwnedImage(imageId, user.id());
+
+            if (attenteMs <= 0 || processed == null || image.getStatutTraitement() != ImageStatus.EN_COURS) {
+                return immediate(createStatusResponse(image));
+            }
+
+            // Pas de réponse avant la fin du traitement ou l'expiration (statut EN_COURS)
+            ResponseEntity<?> pending = createStatusResponse(image);
+            DeferredResult<ResponseEntity<?>> result =
+                    new DeferredResult<>(Math.min(attenteMs, MAX_ATTENTE_MS), () -> pending);
+            processed.whenComplete((status, error) -> {
+                if (status == ImageStatus.SUPPRIMEE) {
+                    result.setResult(ResponseEntity.status(HttpStatus.GONE)
+                            .body(createErrorResponse("Image supprimée pendant le traitement")));
+                    return;
+                }
+                try {
+                    result.setResult(createStatusResponse(imageService.getOwnedImage(imageId, user.id())));
+                } catch (Exception e) {
+                    result.setResult(ResponseEntity.badRequest().body(createErrorResponse(e.getMessage())));
+                }
+            });
+            return result;
+
+        } catch (Exception e) {
+            return immediate(ResponseEntity.badRequest()
+                    .body(createErrorResponse(e.getMessage())));
+        }
+    }
+
     /**
      * Obtenir toutes les images d'une annonce
      * GET /api/images/listing/{listingId}
@@ -254,10 +319,10 @@ public class ImageController {
     @DeleteMapping("/{imageId}")
     public ResponseEntity<?> deleteImage(
             @PathVariable Long imageId,
-            @RequestHeader("Authorization") String authHeader) {
+            @RequestAttribute(value = "userId", required = false) Long userId) {
         try {
-            User user = getUserFromToken(authHeader);
-            imageService.deleteListingImage(imageId, user.getId());
+            AuthenticatedUser user = authenticatedUsers.require(userId);
+            imageService.deleteListingImage(imageId, user.id());
 
             Map<String, Object> response = new HashMap<>();
             response.put("success", true);
@@ -278,10 +343,10 @@ public class ImageController {
     @PostMapping("/{imageId}/set-main")
     public ResponseEntity<?> setAsMainImage(
             @PathVariable Long imageId,
-            @RequestHeader("Authorization") String authHeader) {
+            @RequestAttribute(value = "userId", required = false) Long userId) {
         try {
-            User user = getUserFromToken(authHeader);
-            imageService.setAsMainImage(imageId, user.getId());
+            AuthenticatedUser user = authenticatedUsers.require(userId);
+            imageService.setAsMainImage(imageId, user.id());
 
             Map<String, Object> response = new HashMap<>();
             response.put("success", true);
@@ -303,9 +368,9 @@ public class ImageController {
     public ResponseEntity<?> reorderImages(
             @PathVariable Long listingId,
             @RequestBody Map<String, Object> request,
-            @RequestHeader("Authorization") String authHeader) {
+            @RequestAttribute(value = "userId", required = false) Long userId) {
         try {
-            User user = getUserFromToken(authHeader);
+            AuthenticatedUser user = authenticatedUsers.require(userId);
 
             @SuppressWarnings("unchecked")
             List<Long> imageIds = (List<Long>) request.get("imageIds");
@@ -315,7 +380,7 @@ public class ImageController {
                         .body(createErrorResponse("Liste des IDs d'images requise"));
             }
 
-            imageService.reorderImages(listingId, imageIds, user.getId());
+            imageService.reorderImages(listingId, imageIds, user.id());
 
             Map<String, Object> response = new HashMap<>();
             response.put("success", true);
@@ -338,10 +403,10 @@ public class ImageController {
      * GET /api/images/stats
      */
     @GetMapping("/stats")
-    public ResponseEntity<?> getImageStats(@RequestHeader("Authorization") String authHeader) {
+    public ResponseEntity<?> getImageStats(@RequestAttribute(value = "userId", required = false) Long userId) {
         try {
             // Vérifier que l'utilisateur est authentifié
-            getUserFromToken(authHeader);
+            authenticatedUsers.require(userId);
 
             Long totalStorage = imageService.getTotalStorageUsed();
             Double averageSize = imageService.getAverageFileSize();
@@ -371,31 +436,16 @@ public class ImageController {
     // MÉTHODES UTILITAIRES
     // ============================================
 
-    /**
-     * Extraire l'utilisateur du token JWT
-     */
-    private User getUserFromToken(String authHeader) {
-        String token = extractTokenFromHeader(authHeader);
-        return authService.validateTokenAndGetUser(token);
-    }
-
-    /**
-     * Extraire le token de l'en-tête Authorization
-     */
-    private String extractTokenFromHeader(String authHeader) {
-        if (authHeader != null && authHeader.startsWith("Bearer ")) {
-            return authHeader.substring(7);
-        }
-        throw new RuntimeException("Token d'autorisation manquant ou format invalide");
-    }
-
     /**
      * Créer une réponse image formatée
      */
     private Map<String, Object> createImageResponse(ListingImage image) {
         Map<String, Object> response = new HashMap<>();
         response.put("id", image.getId());
-        response.put("url", image.getUrl()); // URL directe Backblaze B2
+        response.put("url", image.getUrl()); // URL directe Backblaze B2 (1200 px)
+        response.put("mediumUrl", image.getMediumUrl()); // 600 px
+        response.put("thumbnailUrl", image.getThumbnailUrl()); // 300 px
+        response.put("statutTraitement", image.getStatutTraitement());
         response.put("nomFichier", image.getNomFichier());
         response.put("tailleFichier", image.getTailleFichier());
         response.put("ordreAffichage", image.getOrdreAffichage());
@@ -410,6 +460,23 @@ public class ImageController {
         return response;
     }
 
+    /**
+     * Créer une réponse de suivi du traitement
+     */
+    private ResponseEntity<?> createStatusResponse(ListingImage image) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("termine", image.getStatutTraitement() != ImageStatus.EN_COURS);
+        response.put("image", createImageResponse(image));
+        return ResponseEntity.ok(response);
+    }
+
+    private static DeferredResult<ResponseEntity<?>> immediate(ResponseEntity<?> response) {
+        DeferredResult<ResponseEntity<?>> result = new DeferredResult<>();
+        result.setResult(response);
+        return result;
+    }
+
     /**
      * Formater la taille du fichier
      */
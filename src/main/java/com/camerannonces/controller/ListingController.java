@@ -1,11 +1,17 @@
 package com.camerannonces.controller;
 
+import com.camerannonces.dto.CursorPage;
+import com.camerannonces.dto.ListingDetailView;
+import com.camerannonces.dto.ListingPageResponse;
+import com.camerannonces.dto.ListingSummaryResponse;
+import com.camerannonces.dto.ListingSummaryView;
 import com.camerannonces.entity.Listing;
-import com.camerannonces.entity.ListingImage;
 import com.camerannonces.enums.EtatProduit;
 import com.camerannonces.enums.ListingStatus;
-import com.camerannonces.repository.ListingImageRepository;
 import com.camerannonces.service.ListingService;
+import com.camerannonces.service.ListingCounterBuffer;
+import com.camerannonces.service.ListingSummaries;
+import com.camerannonces.service.ListingSummaryService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
@@ -27,7 +33,10 @@ public class ListingController {
     private ListingService listingService;
 
     @Autowired
-    private ListingImageRepository listingImageRepository;
+    private ListingSummaryService listingSummaryService;
+
+    @Autowired
+    private ListingCounterBuffer listingCounterBuffer;
 
     /**
      * Créer une nouvelle annonce
@@ -88,23 +97,22 @@ public class ListingController {
     /**
      * Obtenir toutes les annonces actives avec pagination
      * GET /api/listings?page=0&size=20
+     * GET /api/listings?after=&size=20 (curseur: première page, puis after=nextCursor)
      */
     @GetMapping
     public ResponseEntity<?> getAllListings(@RequestParam(defaultValue = "0") int page,
-                                            @RequestParam(defaultValue = "20") int size) {
+                                            @RequestParam(defaultValue = "20") int size,
+                                            @RequestParam(required = false) String after) {
         try {
-            Pageable pageable = PageRequest.of(page, size);
-            Page<Listing> listings = listingService.getAllActiveListings(pageable);
+            if (after != null) {
+                CursorPage<ListingSummaryView> listings = listingService.getActiveListingsAfter(after, size);
+                return ResponseEntity.ok(ListingPageResponse.of(listings, createSummaryResponses(listings.getContent())));
+            }
 
-            Map<String, Object> response = new HashMap<>();
-            response.put("success", true);
-            response.put("listings", listings.getContent().stream()
-                    .map(this::createListingSummaryResponse).toList());
-            response.put("totalElements", listings.getTotalElements());
-            response.put("totalPages", listings.getTotalPages());
-            response.put("currentPage", page);
+            Pageable pageable = PageRequest.of(page, size);
+            Page<ListingSummaryView> listings = listingService.getActiveListingSummaries(pageable);
 
-            return ResponseEntity.ok(response);
+            return ResponseEntity.ok(ListingPageResponse.of(listings, createSummaryResponses(listings.getContent())));
 
         } catch (Exception e) {
             return ResponseEntity.badRequest()
@@ -119,19 +127,20 @@ public class ListingController {
     @GetMapping("/{id}")
     public ResponseEntity<?> getListingById(@PathVariable Long id) {
         try {
-            Optional<Listing> listingOpt = listingService.getListingByIdAndIncrementViews(id);
+            Optional<ListingDetailView> detailOpt = listingService.getListingDetailAndIncrementViews(id);
 
-            if (!listingOpt.isPresent()) {
+            if (!detailOpt.isPresent()) {
                 return ResponseEntity.notFound().build();
             }
 
-            Listing listing = listingOpt.get();
-
             Map<String, Object> response = new HashMap<>();
             response.put("success", true);
-            response.put("listing", createListingDetailResponse(listing));
+            response.put("listing", createListingDetailResponse(detailOpt.get()));
 
-            return ResponseEntity.ok(response);
+            // Vue comptée même si le client a déjà ce contenu (304 rendu par Spring MVC, ETag faible)
+            return ResponseEntity.ok()
+                    .eTag(detailOpt.get().contentTag())
+                    .body(response);
 
         } catch (Exception e) {
             return ResponseEntity.badRequest()
@@ -242,24 +251,24 @@ public class ListingController {
     /**
      * Obtenir les annonces par catégorie
      * GET /api/listings/category/{categoryId}
+     * GET /api/listings/category/{categoryId}?after=&size=20 (curseur)
      */
     @GetMapping("/category/{categoryId}")
     public ResponseEntity<?> getListingsByCategory(@PathVariable Long categoryId,
                                                    @RequestParam(defaultValue = "0") int page,
-                                                   @RequestParam(defaultValue = "20") int size) {
+                                                   @RequestParam(defaultValue = "20") int size,
+                                                   @RequestParam(required = false) String after) {
         try {
+            if (after != null) {
+                CursorPage<ListingSummaryView> listings = listingService.getListingsByCategoryAfter(categoryId, after, size);
+                return ResponseEntity.ok(ListingPageResponse.of(listings, createSummaryResponses(listings.getContent()))
+                        .withCategoryId(categoryId));
+            }
+
             Pageable pageable = PageRequest.of(page, size);
-            Page<Listing> listings = listingService.getListingsByCategory(categoryId, pageable);
+            Page<ListingSummaryView> listings = listingService.getListingSummariesByCategory(categoryId, pageable);
 
-            Map<String, Object> response = new HashMap<>();
-            response.put("success", true);
-            response.put("listings", listings.getContent().stream()
-                    .map(this::createListingSummaryResponse).toList());
-            response.put("totalElements", listings.getTotalElements());
-            response.put("totalPages", listings.getTotalPages());
-            response.put("currentPage", page);
-
-            return ResponseEntity.ok(response);
+            return ResponseEntity.ok(ListingPageResponse.of(listings, createSummaryResponses(listings.getContent())));
 
         } catch (Exception e) {
             return ResponseEntity.badRequest()
@@ -300,8 +309,7 @@ public class ListingController {
 
             Map<String, Object> response = new HashMap<>();
             response.put("success", true);
-            response.put("listings", similarListings.stream()
-                    .map(this::createListingSummaryResponse).toList());
+            response.put("listings", createListingSummaryResponses(similarListings));
 
             return ResponseEntity.ok(response);
 
@@ -328,94 +336,79 @@ public class ListingController {
         response.put("telephoneContact", listing.getTelephoneContact());
         response.put("statut", listing.getStatut());
         response.put("dateCreation", listing.getDateCreation());
-        response.put("vues", listing.getVues());
-        response.put("contactsWhatsapp", listing.getContactsWhatsapp());
+        response.put("vues", listingCounterBuffer.views(listing));
+        response.put("contactsWhatsapp", listingCounterBuffer.whatsappContacts(listing));
         return response;
     }
 
-    private Map<String, Object> createListingSummaryResponse(Listing listing) {
-        Map<String, Object> response = new HashMap<>();
-        response.put("id", listing.getId());
-        response.put("titre", listing.getTitre());
-        response.put("description", listing.getDescription());
-        response.put("prix", listing.getPrix());
-        response.put("prixNegociable", listing.getPrixNegociable());
-        response.put("etatProduit", listing.getEtatProduit());
-        response.put("ville", listing.getVille());
-        response.put("quartier", listing.getQuartier());
-        response.put("dateCreation", listing.getDateCreation());
-        response.put("vues", listing.getVues());
-        response.put("isPremium", listing.getIsPremium());
-        response.put("isUrgent", listing.getIsUrgent());
-        System.out.println("🔍 DEBUG Listing ID: " + listing.getId());
-
-        // ✅ DIESE ZEILEN MÜSSEN DA SEIN
-        ListingImage mainImage = listingImageRepository
-                .findByListingIdAndIsPrincipaleTrue(listing.getId())
-                .orElse(null);
-
-        if (mainImage != null) {
-            response.put("mainImageUrl", mainImage.getUrl());
-            System.out.println("✅ MainImage URL: " + mainImage.getUrl());
-        } else {
-            List<ListingImage> images = listingImageRepository
-                    .findByListingIdOrderByOrdreAffichage(listing.getId());
-            if (!images.isEmpty()) {
-                response.put("mainImageUrl", images.get(0).getUrl());
-                System.out.println("✅ First Image URL: " + images.get(0).getUrl());
-            } else {
-                System.out.println("❌ No images found for listing " + listing.getId());
-            }
-        }
-
-        // Category Info
-        if (listing.getCategory() != null) {
-            Map<String, Object> categoryInfo = new HashMap<>();
-            categoryInfo.put("id", listing.getCategory().getId());
-            categoryInfo.put("nom", listing.getCategory().getNom());
-            categoryInfo.put("emoji", listing.getCategory().getEmoji());
-            response.put("category", categoryInfo);
-        }
+    /**
+     * Résumés d'annonces déjà chargées: catégories chargées en lot
+     */
+    private List<ListingSummaryResponse> createListingSummaryResponses(List<Listing> listings) {
+        ListingSummaries summaries = listingSummaryService.load(listings);
+        return createSummaryResponses(listings.stream()
+                .map(listing -> ListingSummaryView.of(listing, summaries.category(listing)))
+                .toList());
+    }
 
-        return response;
+    private List<ListingSummaryResponse> createSummaryResponses(List<ListingSummaryView> listings) {
+        return listings.stream()
+                .map(listing -> ListingSummaryResponse.feed(listing,
+                        listingCounterBuffer.views(listing.id(), listing.vues())))
+                .toList();
     }
 
-    private Map<String, Object> createListingDetailResponse(Listing listing) {
-        Map<String, Object> response = createListingResponse(listing);
+    /**
+     * Détail depuis le cache: compteurs complétés par les incréments en attente
+     */
+    private Map<String, Object> createListingDetailResponse(ListingDetailView listing) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("id", listing.id());
+        response.put("titre", listing.titre());
+        response.put("description", listing.description());
+        response.put("prix", listing.prix());
+        response.put("prixNegociable", listing.prixNegociable());
+        response.put("etatProduit", listing.etatProduit());
+        response.put("ville", listing.ville());
+        response.put("quartier", listing.quartier());
+        response.put("telephoneContact", listing.telephoneContact());
+        response.put("statut", listing.statut());
+        response.put("dateCreation", listing.dateCreation());
+        response.put("vues", listingCounterBuffer.views(listing.id(), listing.vues()));
+        response.put("contactsWhatsapp", listingCounterBuffer.whatsappContacts(listing.id(), listing.contactsWhatsapp()));
 
         // Ajouter les détails supplémentaires
-        response.put("adresseComplete", listing.getAdresseComplete());
-        response.put("emailContact", listing.getEmailContact());
-        response.put("livraisonSurPlace", listing.getLivraisonSurPlace());
-        response.put("livraisonDomicile", listing.getLivraisonDomicile());
-        response.put("livraisonGare", listing.getLivraisonGare());
-        response.put("paiementCash", listing.getPaiementCash());
-        response.put("paiementMobileMoney", listing.getPaiementMobileMoney());
-        response.put("paiementVirement", listing.getPaiementVirement());
-        response.put("isPremium", listing.getIsPremium());
-        response.put("isUrgent", listing.getIsUrgent());
-        response.put("isVerified", listing.getIsVerified());
+        response.put("adresseComplete", listing.adresseComplete());
+        response.put("emailContact", listing.emailContact());
+        response.put("livraisonSurPlace", listing.livraisonSurPlace());
+        response.put("livraisonDomicile", listing.livraisonDomicile());
+        response.put("livraisonGare", listing.livraisonGare());
+        response.put("paiementCash", listing.paiementCash());
+        response.put("paiementMobileMoney", listing.paiementMobileMoney());
+        response.put("paiementVirement", listing.paiementVirement());
+        response.put("isPremium", listing.isPremium());
+        response.put("isUrgent", listing.isUrgent());
+        response.put("isVerified", listing.isVerified());
 
         // ✅ : Ajouter les images
-        List<ListingImage> images = listingImageRepository.findByListingIdOrderByOrdreAffichage(listing.getId());
-        response.put("images", images.stream()
+        response.put("images", listing.images().stream()
                 .map(this::createImageResponse)
                 .toList());
 
         // Ajouter les infos de l'utilisateur
         Map<String, Object> userInfo = new HashMap<>();
-        userInfo.put("id", listing.getUser().getId());
-        userInfo.put("nom", listing.getUser().getNom());
-        userInfo.put("isBoutique", listing.getUser().getIsBoutique());
-        userInfo.put("nomBoutique", listing.getUser().getNomBoutique());
-        userInfo.put("dateCreation", listing.getUser().getDateCreation());
+        userInfo.put("id", listing.user().id());
+        userInfo.put("nom", listing.user().nom());
+        userInfo.put("isBoutique", listing.user().isBoutique());
+        userInfo.put("nomBoutique", listing.user().nomBoutique());
+        userInfo.put("dateCreation", listing.user().dateCreation());
         response.put("user", userInfo);
 
         // Ajouter les infos de la catégorie
         Map<String, Object> categoryInfo = new HashMap<>();
-        categoryInfo.put("id", listing.getCategory().getId());
-        categoryInfo.put("nom", listing.getCategory().getNom());
-        categoryInfo.put("emoji", listing.getCategory().getEmoji());
+        categoryInfo.put("id", listing.categoryId());
+        categoryInfo.put("nom", listing.categoryNom());
+        categoryInfo.put("emoji", listing.categoryEmoji());
         response.put("category", categoryInfo);
 
         return response;
@@ -424,15 +417,17 @@ public class ListingController {
     /**
      * ✅ : Créer une réponse image
      */
-    private Map<String, Object> createImageResponse(ListingImage image) {
+    private Map<String, Object> createImageResponse(ListingDetailView.Image image) {
         Map<String, Object> response = new HashMap<>();
-        response.put("id", image.getId());
-        response.put("url", image.getUrl());
-        response.put("nomFichier", image.getNomFichier());
-        response.put("tailleFichier", image.getTailleFichier());
-        response.put("isPrincipale", image.getIsPrincipale());
-        response.put("ordreAffichage", image.getOrdreAffichage());
-        response.put("dateUpload", image.getDateUpload());
+        response.put("id", image.id());
+        response.put("url", image.url());
+        response.put("mediumUrl", image.mediumUrl());
+        response.put("thumbnailUrl", image.thumbnailUrl());
+        response.put("nomFichier", image.nomFichier());
+        response.put("tailleFichier", image.tailleFichier());
+        response.put("isPrincipale", image.isPrincipale());
+        response.put("ordreAffichage", image.ordreAffichage());
+        response.put("dateUpload", image.dateUpload());
         return response;
     }
 
@@ -1,7 +1,13 @@
 package com.camerannonces.controller;
 
-import com.camerannonces.entity.Listing;
+import com.camerannonces.dto.CursorPage;
+import com.camerannonces.dto.ListingPageResponse;
+import com.camerannonces.dto.ListingSummaryResponse;
+import com.camerannonces.dto.ListingSummaryView;
+import com.camerannonces.entity.User;
 import com.camerannonces.enums.EtatProduit;
+import com.camerannonces.service.ListingCounterBuffer;
+import com.camerannonces.service.ListingSummaryService;
 import com.camerannonces.service.SearchService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
@@ -22,17 +28,30 @@ public class SearchController {
     @Autowired
     private SearchService searchService;
 
+    @Autowired
+    private ListingSummaryService listingSummaryService;
+
+    @Autowired
+    private ListingCounterBuffer listingCounterBuffer;
+
     /**
      * Recherche simple par mot-clé
      * GET /api/search?keyword=iphone&page=0&size=20
+     * GET /api/search?keyword=iphone&after=&size=20 (curseur: première page, puis after=nextCursor)
      */
     @GetMapping
     public ResponseEntity<?> searchByKeyword(@RequestParam(required = false) String keyword,
                                              @RequestParam(defaultValue = "0") int page,
-                                             @RequestParam(defaultValue = "20") int size) {
+                                             @RequestParam(defaultValue = "20") int size,
+                                             @RequestParam(required = false) String after) {
         try {
+            if (after != null) {
+                CursorPage<ListingSummaryView> listings = searchService.searchByKeywordAfter(keyword, after, size);
+                return ResponseEntity.ok(createCursorResponse(listings).withKeyword(keyword));
+            }
+
             Pageable pageable = PageRequest.of(page, size);
-            Page<Listing> listings;
+            Page<ListingSummaryView> listings;
 
             if (keyword == null || keyword.trim().isEmpty()) {
                 // Si pas de mot-clé, retourner toutes les annonces actives
@@ -41,16 +60,8 @@ public class SearchController {
                 listings = searchService.searchByKeyword(keyword, pageable);
             }
 
-            Map<String, Object> response = new HashMap<>();
-            response.put("success", true);
-            response.put("listings", listings.getContent().stream()
-                    .map(this::createListingResponse).toList());
-            response.put("totalElements", listings.getTotalElements());
-            response.put("totalPages", listings.getTotalPages());
-            response.put("currentPage", page);
-            response.put("keyword", keyword);
-
-            return ResponseEntity.ok(response);
+            return ResponseEntity.ok(ListingPageResponse.of(listings, createSummaryResponses(listings.getContent()))
+                    .withKeyword(keyword));
 
         } catch (Exception e) {
             return ResponseEntity.badRequest()
@@ -68,25 +79,21 @@ public class SearchController {
             @RequestParam(required = false) Long categoryId,
             @RequestParam(required = false) String ville,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "20") int size) {
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(required = false) String after) {
         try {
+            if (after != null) {
+                CursorPage<ListingSummaryView> listings = searchService.searchWithBasicFiltersAfter(
+                        keyword, categoryId, ville, after, size);
+                return ResponseEntity.ok(createCursorResponse(listings)
+                        .withFilters(appliedFilters(keyword, categoryId, ville)));
+            }
+
             Pageable pageable = PageRequest.of(page, size);
-            Page<Listing> listings = searchService.searchWithBasicFilters(keyword, categoryId, ville, pageable);
+            Page<ListingSummaryView> listings = searchService.searchWithBasicFilters(keyword, categoryId, ville, pageable);
 
-            Map<String, Object> response = new HashMap<>();
-            response.put("success", true);
-            response.put("listings", listings.getContent().stream()
-                    .map(this::createListingResponse).toList());
-            response.put("totalElements", listings.getTotalElements());
-            response.put("totalPages", listings.getTotalPages());
-            response.put("currentPage", page);
-            response.put("filters", Map.of(
-                    "keyword", keyword,
-                    "categoryId", categoryId,
-                    "ville", ville
-            ));
-
-            return ResponseEntity.ok(response);
+            return ResponseEntity.ok(ListingPageResponse.of(listings, createSummaryResponses(listings.getContent()))
+                    .withFilters(appliedFilters(keyword, categoryId, ville)));
 
         } catch (Exception e) {
             return ResponseEntity.badRequest()
@@ -121,7 +128,7 @@ public class SearchController {
             int page = filters.get("page") != null ? Integer.valueOf(filters.get("page").toString()) : 0;
             int size = filters.get("size") != null ? Integer.valueOf(filters.get("size").toString()) : 20;
 
-            Page<Listing> listings = searchService.advancedSearch(
+            Page<ListingSummaryView> listings = searchService.advancedSearch(
                     keyword, categoryId, ville, quartier, minPrix, maxPrix,
                     etatProduit, prixNegociable, livraisonDomicile, paiementMobileMoney,
                     isBoutique, sortBy, sortDirection, page, size
@@ -129,8 +136,7 @@ public class SearchController {
 
             Map<String, Object> response = new HashMap<>();
             response.put("success", true);
-            response.put("listings", listings.getContent().stream()
-                    .map(this::createListingResponse).toList());
+            response.put("listings", createSummaryResponses(listings.getContent()));
             response.put("totalElements", listings.getTotalElements());
             response.put("totalPages", listings.getTotalPages());
             response.put("currentPage", page);
@@ -151,21 +157,19 @@ public class SearchController {
     @GetMapping("/category/{categoryId}")
     public ResponseEntity<?> searchByCategory(@PathVariable Long categoryId,
                                               @RequestParam(defaultValue = "0") int page,
-                                              @RequestParam(defaultValue = "20") int size) {
+                                              @RequestParam(defaultValue = "20") int size,
+                                              @RequestParam(required = false) String after) {
         try {
-            Pageable pageable = PageRequest.of(page, size);
-            Page<Listing> listings = searchService.searchByCategory(categoryId, pageable);
+            if (after != null) {
+                CursorPage<ListingSummaryView> listings = searchService.searchByCategoryAfter(categoryId, after, size);
+                return ResponseEntity.ok(createCursorResponse(listings).withCategoryId(categoryId));
+            }
 
-            Map<String, Object> response = new HashMap<>();
-            response.put("success", true);
-            response.put("listings", listings.getContent().stream()
-                    .map(this::createListingResponse).toList());
-            response.put("totalElements", listings.getTotalElements());
-            response.put("totalPages", listings.getTotalPages());
-            response.put("currentPage", page);
-            response.put("categoryId", categoryId);
+            Pageable pageable = PageRequest.of(page, size);
+            Page<ListingSummaryView> listings = searchService.searchByCategory(categoryId, pageable);
 
-            return ResponseEntity.ok(response);
+            return ResponseEntity.ok(ListingPageResponse.of(listings, createSummaryResponses(listings.getContent()))
+                    .withCategoryId(categoryId));
 
         } catch (Exception e) {
             return ResponseEntity.badRequest()
@@ -180,21 +184,19 @@ public class SearchController {
     @GetMapping("/city/{ville}")
     public ResponseEntity<?> searchByCity(@PathVariable String ville,
                                           @RequestParam(defaultValue = "0") int page,
-                                          @RequestParam(defaultValue = "20") int size) {
+                                          @RequestParam(defaultValue = "20") int size,
+                                          @RequestParam(required = false) String after) {
         try {
-            Pageable pageable = PageRequest.of(page, size);
-            Page<Listing> listings = searchService.searchByCity(ville, pageable);
+            if (after != null) {
+                CursorPage<ListingSummaryView> listings = searchService.searchByCityAfter(ville, after, size);
+                return ResponseEntity.ok(createCursorResponse(listings).withVille(ville));
+            }
 
-            Map<String, Object> response = new HashMap<>();
-            response.put("success", true);
-            response.put("listings", listings.getContent().stream()
-                    .map(this::createListingResponse).toList());
-            response.put("totalElements", listings.getTotalElements());
-            response.put("totalPages", listings.getTotalPages());
-            response.put("currentPage", page);
-            response.put("ville", ville);
+            Pageable pageable = PageRequest.of(page, size);
+            Page<ListingSummaryView> listings = searchService.searchByCity(ville, pageable);
 
-            return ResponseEntity.ok(response);
+            return ResponseEntity.ok(ListingPageResponse.of(listings, createSummaryResponses(listings.getContent()))
+                    .withVille(ville));
 
         } catch (Exception e) {
             return ResponseEntity.badRequest()
@@ -213,12 +215,11 @@ public class SearchController {
                                                 @RequestParam(defaultValue = "20") int size) {
         try {
             Pageable pageable = PageRequest.of(page, size);
-            Page<Listing> listings = searchService.searchByPriceRange(min, max, pageable);
+            Page<ListingSummaryView> listings = searchService.searchByPriceRange(min, max, pageable);
 
             Map<String, Object> response = new HashMap<>();
             response.put("success", true);
-            response.put("listings", listings.getContent().stream()
-                    .map(this::createListingResponse).toList());
+            response.put("listings", createSummaryResponses(listings.getContent()));
             response.put("totalElements", listings.getTotalElements());
             response.put("totalPages", listings.getTotalPages());
             response.put("currentPage", page);
@@ -241,17 +242,9 @@ public class SearchController {
                                                 @RequestParam(defaultValue = "20") int size) {
         try {
             Pageable pageable = PageRequest.of(page, size);
-            Page<Listing> listings = searchService.getPremiumListings(pageable);
+            Page<ListingSummaryView> listings = searchService.getPremiumListings(pageable);
 
-            Map<String, Object> response = new HashMap<>();
-            response.put("success", true);
-            response.put("listings", listings.getContent().stream()
-                    .map(this::createListingResponse).toList());
-            response.put("totalElements", listings.getTotalElements());
-            response.put("totalPages", listings.getTotalPages());
-            response.put("currentPage", page);
-
-            return ResponseEntity.ok(response);
+            return ResponseEntity.ok(ListingPageResponse.of(listings, createSummaryResponses(listings.getContent())));
 
         } catch (Exception e) {
             return ResponseEntity.badRequest()
@@ -268,17 +261,9 @@ public class SearchController {
                                                @RequestParam(defaultValue = "20") int size) {
         try {
             Pageable pageable = PageRequest.of(page, size);
-            Page<Listing> listings = searchService.getUrgentListings(pageable);
-
-            Map<String, Object> response = new HashMap<>();
-            response.put("success", true);
-            response.put("listings", listings.getContent().stream()
-                    .map(this::createListingResponse).toList());
-            response.put("totalElements", listings.getTotalElements());
-            response.put("totalPages", listings.getTotalPages());
-            response.put("currentPage", page);
+            Page<ListingSummaryView> listings = searchService.getUrgentListings(pageable);
 
-            return ResponseEntity.ok(response);
+            return ResponseEntity.ok(ListingPageResponse.of(listings, createSummaryResponses(listings.getContent())));
 
         } catch (Exception e) {
             return ResponseEntity.badRequest()
@@ -295,17 +280,9 @@ public class SearchController {
                                                  @RequestParam(defaultValue = "20") int size) {
         try {
             Pageable pageable = PageRequest.of(page, size);
-            Page<Listing> listings = searchService.getBoutiqueListings(pageable);
-
-            Map<String, Object> response = new HashMap<>();
-            response.put("success", true);
-            response.put("listings", listings.getContent().stream()
-                    .map(this::createListingResponse).toList());
-            response.put("totalElements", listings.getTotalElements());
-            response.put("totalPages", listings.getTotalPages());
-            response.put("currentPage", page);
+            Page<ListingSummaryView> listings = searchService.getBoutiqueListings(pageable);
 
-            return ResponseEntity.ok(response);
+            return ResponseEntity.ok(ListingPageResponse.of(listings, createSummaryResponses(listings.getContent())));
 
         } catch (Exception e) {
             return ResponseEntity.badRequest()
@@ -322,17 +299,9 @@ public class SearchController {
                                                    @RequestParam(defaultValue = "20") int size) {
         try {
             Pageable pageable = PageRequest.of(page, size);
-            Page<Listing> listings = searchService.getMostViewedListings(pageable);
+            Page<ListingSummaryView> listings = searchService.getMostViewedListings(pageable);
 
-            Map<String, Object> response = new HashMap<>();
-            response.put("success", true);
-            response.put("listings", listings.getContent().stream()
-                    .map(this::createListingResponse).toList());
-            response.put("totalElements", listings.getTotalElements());
-            response.put("totalPages", listings.getTotalPages());
-            response.put("currentPage", page);
-
-            return ResponseEntity.ok(response);
+            return ResponseEntity.ok(ListingPageResponse.of(listings, createSummaryResponses(listings.getContent())));
 
         } catch (Exception e) {
             return ResponseEntity.badRequest()
@@ -350,12 +319,11 @@ public class SearchController {
                                                @RequestParam(defaultValue = "20") int size) {
         try {
             Pageable pageable = PageRequest.of(page, size);
-            Page<Listing> listings = searchService.getRecentListings(days, pageable);
+            Page<ListingSummaryView> listings = searchService.getRecentListings(days, pageable);
 
             Map<String, Object> response = new HashMap<>();
             response.put("success", true);
-            response.put("listings", listings.getContent().stream()
-                    .map(this::createListingResponse).toList());
+            response.put("listings", createSummaryResponses(listings.getContent()));
             response.put("totalElements", listings.getTotalElements());
             response.put("totalPages", listings.getTotalPages());
             response.put("currentPage", page);
@@ -377,16 +345,16 @@ public class SearchController {
     public ResponseEntity<?> getSuggestions(@RequestParam String keyword,
                                             @RequestParam(defaultValue = "10") int limit) {
         try {
-            List<Listing> suggestions = searchService.getSuggestions(keyword, limit);
+            List<ListingSummaryView> suggestions = searchService.getSuggestions(keyword, limit);
 
             Map<String, Object> response = new HashMap<>();
             response.put("success", true);
             response.put("suggestions", suggestions.stream()
                     .map(listing -> Map.of(
-                            "id", listing.getId(),
-                            "titre", listing.getTitre(),
-                            "prix", listing.getPrix(),
-                            "ville", listing.getVille()
+                            "id", listing.id(),
+                            "titre", listing.titre(),
+                            "prix", listing.prix(),
+                            "ville", listing.ville()
                     )).toList());
 
             return ResponseEntity.ok(response);
@@ -411,11 +379,7 @@ public class SearchController {
             Map<String, Object> response = new HashMap<>();
             response.put("success", true);
             response.put("count", count);
-            response.put("filters", Map.of(
-                    "keyword", keyword,
-                    "categoryId", categoryId,
-                    "ville", ville
-            ));
+            response.put("filters", appliedFilters(keyword, categoryId, ville));
 
             return ResponseEntity.ok(response);
 
@@ -429,39 +393,40 @@ public class SearchController {
     // MÉTHODES UTILITAIRES
     // ============================================
 
-    private Map<String, Object> createListingResponse(Listing listing) {
-        Map<String, Object> response = new HashMap<>();
-        response.put("id", listing.getId());
-        response.put("titre", listing.getTitre());
-        response.put("description", listing.getDescription());
-        response.put("prix", listing.getPrix());
-        response.put("prixNegociable", listing.getPrixNegociable());
-        response.put("etatProduit", listing.getEtatProduit());
-        response.put("ville", listing.getVille());
-        response.put("quartier", listing.getQuartier());
-        response.put("telephoneContact", listing.getTelephoneContact());
-        response.put("dateCreation", listing.getDateCreation());
-        response.put("vues", listing.getVues());
-        response.put("contactsWhatsapp", listing.getContactsWhatsapp());
-        response.put("isPremium", listing.getIsPremium());
-        response.put("isUrgent", listing.getIsUrgent());
-
-        // Infos utilisateur
-        Map<String, Object> userInfo = new HashMap<>();
-        userInfo.put("id", listing.getUser().getId());
-        userInfo.put("nom", listing.getUser().getNom());
-        userInfo.put("isBoutique", listing.getUser().getIsBoutique());
-        userInfo.put("nomBoutique", listing.getUser().getNomBoutique());
-        response.put("user", userInfo);
-
-        // Infos catégorie
-        Map<String, Object> categoryInfo = new HashMap<>();
-        categoryInfo.put("id", listing.getCategory().getId());
-        categoryInfo.put("nom", listing.getCategory().getNom());
-        categoryInfo.put("emoji", listing.getCategory().getEmoji());
-        response.put("category", categoryInfo);
+    /**
+     * Réponses d'une page de résumés (projection): seuls les vendeurs sont chargés, en une requête
+     */
+    private List<ListingSummaryResponse> createSummaryResponses(List<ListingSummaryView> listings) {
+        Map<Long, User> sellers = listingSummaryService.loadSellersById(
+                listings.stream().map(ListingSummaryView::userId).toList());
+        return listings.stream()
+                .map(listing -> createListingResponse(listing, sellers.get(listing.userId())))
+                .toList();
+    }
 
-        return response;
+    private ListingSummaryResponse createListingResponse(ListingSummaryView listing, User seller) {
+        return ListingSummaryResponse.search(listing,
+                listingCounterBuffer.views(listing.id(), listing.vues()),
+                listingCounterBuffer.whatsappContacts(listing.id(), listing.contactsWhatsapp()),
+                seller);
+    }
+
+    /**
+     * Réponse d'une page à curseur (pas de totalElements: aucun COUNT n'est exécuté)
+     */
+    private ListingPageResponse createCursorResponse(CursorPage<ListingSummaryView> listings) {
+        return ListingPageResponse.of(listings, createSummaryResponses(listings.getContent()));
+    }
+
+    /**
+     * Filtres appliqués (HashMap: les filtres absents valent null)
+     */
+    private Map<String, Object> appliedFilters(String keyword, Long categoryId, String ville) {
+        Map<String, Object> filters = new HashMap<>();
+        filters.put("keyword", keyword);
+        filters.put("categoryId", categoryId);
+        filters.put("ville", ville);
+        return filters;
     }
 
     private Map<String, Object> createErrorResponse(String message) {
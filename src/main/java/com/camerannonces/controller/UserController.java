@@ -1,9 +1,13 @@
 package com.camerannonces.controller;
 
+import com.camerannonces.entity.Category;
 import com.camerannonces.entity.Listing;
 import com.camerannonces.entity.User;
 import com.camerannonces.enums.PlanType;
 import com.camerannonces.service.ListingService;
+import com.camerannonces.service.ListingCounterBuffer;
+import com.camerannonces.service.ListingSummaries;
+import com.camerannonces.service.ListingSummaryService;
 import com.camerannonces.service.UserService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
@@ -13,6 +17,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 
@@ -27,6 +32,12 @@ public class UserController {
     @Autowired
     private ListingService listingService;
 
+    @Autowired
+    private ListingSummaryService listingSummaryService;
+
+    @Autowired
+    private ListingCounterBuffer listingCounterBuffer;
+
     /**
      * Obtenir le profil de l'utilisateur connecté
      * GET /api/user/profile
@@ -96,8 +107,7 @@ public class UserController {
 
             Map<String, Object> response = new HashMap<>();
             response.put("success", true);
-            response.put("listings", listings.getContent().stream()
-                    .map(this::createListingResponse).toList());
+            response.put("listings", createListingResponses(listings.getContent()));
             response.put("totalElements", listings.getTotalElements());
             response.put("totalPages", listings.getTotalPages());
             response.put("currentPage", page);
@@ -124,8 +134,7 @@ public class UserController {
 
             Map<String, Object> response = new HashMap<>();
             response.put("success", true);
-            response.put("listings", listings.getContent().stream()
-                    .map(this::createListingResponse).toList());
+            response.put("listings", createListingResponses(listings.getContent()));
             response.put("totalElements", listings.getTotalElements());
             response.put("totalPages", listings.getTotalPages());
             response.put("currentPage", page);
@@ -278,7 +287,17 @@ public class UserController {
         return userResponse;
     }
 
-    private Map<String, Object> createListingResponse(Listing listing) {
+    /**
+     * Réponses d'une page d'annonces: images principales et catégories chargées en lot
+     */
+    private List<Map<String, Object>> createListingResponses(List<Listing> listings) {
+        ListingSummaries summaries = listingSummaryService.load(listings);
+        return listings.stream()
+                .map(listing -> createListingResponse(listing, summaries))
+                .toList();
+    }
+
+    private Map<String, Object> createListingResponse(Listing listing, ListingSummaries summaries) {
         Map<String, Object> response = new HashMap<>();
         response.put("id", listing.getId());
         response.put("titre", listing.getTitre());
@@ -289,10 +308,21 @@ public class UserController {
         response.put("statut", listing.getStatut());
         response.put("dateCreation", listing.getDateCreation());
         response.put("dateExpiration", listing.getDateExpiration());
-        response.put("vues", listing.getVues());
-        response.put("contactsWhatsapp", listing.getContactsWhatsapp());
+        response.put("vues", listingCounterBuffer.views(listing));
+        response.put("contactsWhatsapp", listingCounterBuffer.whatsappContacts(listing));
         response.put("isPremium", listing.getIsPremium());
         response.put("isUrgent", listing.getIsUrgent());
+        response.put("mainImageUrl", listing.getMainImageUrl());
+        response.put("thumbnailUrl", listing.getThumbnailUrl());
+
+        Category category = summaries.category(listing);
+        if (category != null) {
+            Map<String, Object> categoryInfo = new HashMap<>();
+            categoryInfo.put("id", category.getId());
+            categoryInfo.put("nom", category.getNom());
+            categoryInfo.put("emoji", category.getEmoji());
+            response.put("category", categoryInfo);
+        }
         return response;
     }
 
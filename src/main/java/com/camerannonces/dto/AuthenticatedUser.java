@@ -0,0 +1,20 @@
+package com.camerannonces.dto;
+
+import com.camerannonces.enums.PlanType;
+
+/**
+ * Utilisateur authentifié tel que les contrôleurs en ont besoin (identité, plan, compte actif)
+ * Construit par UserRepository.findAuthenticatedUser ("SELECT new", sans charger l'entité)
+ * et gardé quelques secondes par AuthenticatedUserCache
+ */
+public record AuthenticatedUser(
+        Long id,
+        String telephone,
+        PlanType plan,
+        Boolean isActive
+) {
+
+    public boolean active() {
+        return Boolean.TRUE.equals(isActive);
+    }
+}
@@ -0,0 +1,119 @@
+package com.camerannonces.dto;
+
+import com.camerannonces.entity.Category;
+import com.camerannonces.entity.Listing;
+import com.camerannonces.entity.ListingImage;
+import com.camerannonces.entity.User;
+import com.camerannonces.enums.EtatProduit;
+import com.camerannonces.enums.ListingStatus;
+import org.springframework.util.DigestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Détail complet d'une annonce (GET /api/listings/{id}): annonce, galerie, vendeur et catégorie
+ * Immuable, partagé entre les requêtes par ListingDetailCache. Vues et contacts sont les valeurs
+ * en base: les incréments en attente sont ajoutés à l'affichage (ListingCounterBuffer)
+ */
+public record ListingDetailView(
+        Long id,
+        String titre,
+        String description,
+        Integer prix,
+        Boolean prixNegociable,
+        EtatProduit etatProduit,
+        String ville,
+        String quartier,
+        String adresseComplete,
+        String telephoneContact,
+        String emailContact,
+        ListingStatus statut,
+        LocalDateTime dateCreation,
+        Integer vues,
+        Integer contactsWhatsapp,
+        Boolean livraisonSurPlace,
+        Boolean livraisonDomicile,
+        Boolean livraisonGare,
+        Boolean paiementCash,
+        Boolean paiementMobileMoney,
+        Boolean paiementVirement,
+        Boolean isPremium,
+        Boolean isUrgent,
+        Boolean isVerified,
+        List<Image> images,
+        Seller user,
+        Long categoryId,
+        String categoryNom,
+        String categoryEmoji
+) {
+
+    public ListingDetailView {
+        images = List.copyOf(images);
+    }
+
+    public record Image(
+            Long id,
+            String url,
+            String mediumUrl,
+            String thumbnailUrl,
+            String nomFichier,
+            Integer tailleFichier,
+            Boolean isPrincipale,
+            Integer ordreAffichage,
+            LocalDateTime dateUpload
+    ) {
+        static Image of(ListingImage image) {
+            return new Image(image.getId(), image.getUrl(), image.getMediumUrl(), image.getThumbnailUrl(),
+                    image.getNomFichier(), image.getTailleFichier(), image.getIsPrincipale(),
+                    image.getOrdreAffichage(), image.getDateUpload());
+        }
+    }
+
+    public record Seller(
+            Long id,
+            String nom,
+            Boolean isBoutique,
+            String nomBoutique,
+            LocalDateTime dateCreation
+    ) {
+        static Seller of(User user) {
+            return new Seller(user.getId(), user.getNom(), user.getIsBoutique(), user.getNomBoutique(),
+                    user.getDateCreation());
+        }
+    }
+
+    /**
+     * Détail d'une annonce chargée (vendeur et catégorie lus dans la même transaction)
+     * Galerie: images traitées seulement (variantes disponibles)
+     */
+    public static ListingDetailView of(Listing listing, List<ListingImage> images) {
+        Category category = listing.getCategory();
+        return new ListingDetailView(
+                listing.getId(), listing.getTitre(), listing.getDescription(), listing.getPrix(),
+                listing.getPrixNegociable(), listing.getEtatProduit(), listing.getVille(), listing.getQuartier(),
+                listing.getAdresseComplete(), listing.getTelephoneContact(), listing.getEmailContact(),
+                listing.getStatut(), listing.getDateCreation(), listing.getVues(), listing.getContactsWhatsapp(),
+                listing.getLivraisonSurPlace(), listing.getLivraisonDomicile(), listing.getLivraisonGare(),
+                listing.getPaiementCash(), listing.getPaiementMobileMoney(), listing.getPaiementVirement(),
+                listing.getIsPremium(), listing.getIsUrgent(), listing.getIsVerified(),
+                images.stream().filter(ListingImage::isPrete).map(Image::of).toList(),
+                Seller.of(listing.getUser()),
+                category.getId(), category.getNom(), category.getEmoji()
+        );
+    }
+
+    /**
+     * ETag faible du détail (W/"..."): empreinte du contenu affiché, compteurs exclus
+     * Faible et non fort: le corps n'est pas identique octet pour octet d'une lecture à l'autre (les vues changent)
+     */
+    public String contentTag() {
+        ListingDetailView content = new ListingDetailView(id, titre, description, prix, prixNegociable, etatProduit,
+                ville, quartier, adresseComplete, telephoneContact, emailContact, statut, dateCreation, null, null,
+                livraisonSurPlace, livraisonDomicile, livraisonGare, paiementCash, paiementMobileMoney,
+                paiementVirement, isPremium, isUrgent, isVerified, images, user, categoryId, categoryNom,
+                categoryEmoji);
+        return "W/\"" + DigestUtils.md5DigestAsHex(content.toString().getBytes(StandardCharsets.UTF_8)) + "\"";
+    }
+}
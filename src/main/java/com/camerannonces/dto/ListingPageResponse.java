@@ -0,0 +1,58 @@
+// ListingPageResponse.java
+package com.camerannonces.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import org.springframework.data.domain.Page;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Réponse d'une page d'annonces (pagination classique ou par curseur)
+ * Les champs null sont omis: une page classique n'a pas de curseur, une page à curseur n'a pas de total
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record ListingPageResponse(
+        boolean success,
+        List<ListingSummaryResponse> listings,
+        Long totalElements,
+        Integer totalPages,
+        Integer currentPage,
+        String nextCursor,
+        Boolean hasNext,
+        String keyword,
+        Long categoryId,
+        String ville,
+        Map<String, Object> filters
+) {
+
+    public static ListingPageResponse of(Page<?> page, List<ListingSummaryResponse> listings) {
+        return new ListingPageResponse(true, listings, page.getTotalElements(), page.getTotalPages(),
+                page.getNumber(), null, null, null, null, null, null);
+    }
+
+    public static ListingPageResponse of(CursorPage<?> page, List<ListingSummaryResponse> listings) {
+        return new ListingPageResponse(true, listings, null, null, null,
+                page.getNextCursor(), page.getHasNext(), null, null, null, null);
+    }
+
+    public ListingPageResponse withKeyword(String keyword) {
+        return new ListingPageResponse(success, listings, totalElements, totalPages, currentPage,
+                nextCursor, hasNext, keyword, categoryId, ville, filters);
+    }
+
+    public ListingPageResponse withCategoryId(Long categoryId) {
+        return new ListingPageResponse(success, listings, totalElements, totalPages, currentPage,
+                nextCursor, hasNext, keyword, categoryId, ville, filters);
+    }
+
+    public ListingPageResponse withVille(String ville) {
+        return new ListingPageResponse(success, listings, totalElements, totalPages, currentPage,
+                nextCursor, hasNext, keyword, categoryId, ville, filters);
+    }
+
+    public ListingPageResponse withFilters(Map<String, Object> filters) {
+        return new ListingPageResponse(success, listings, totalElements, totalPages, currentPage,
+                nextCursor, hasNext, keyword, categoryId, ville, filters);
+    }
+}
@@ -0,0 +1,76 @@
+// ListingSummaryResponse.java
+package com.camerannonces.dto;
+
+import com.camerannonces.entity.User;
+import com.camerannonces.enums.EtatProduit;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.time.LocalDateTime;
+
+/**
+ * Annonce dans une liste (fils, recherche), sérialisée telle quelle par Jackson
+ * Les champs null sont omis: les fils n'envoient ni téléphone, ni contacts, ni vendeur
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record ListingSummaryResponse(
+        Long id,
+        String titre,
+        String description,
+        Integer prix,
+        Boolean prixNegociable,
+        EtatProduit etatProduit,
+        String ville,
+        String quartier,
+        String telephoneContact,
+        LocalDateTime dateCreation,
+        Integer vues,
+        Integer contactsWhatsapp,
+        Boolean isPremium,
+        Boolean isUrgent,
+        String mainImageUrl,
+        String thumbnailUrl,
+        SellerInfo user,
+        CategoryInfo category
+) {
+
+    /**
+     * Résumé d'un fil d'annonces (sans contact ni vendeur)
+     */
+    public static ListingSummaryResponse feed(ListingSummaryView listing, int vues) {
+        return new ListingSummaryResponse(
+                listing.id(), listing.titre(), listing.description(), listing.prix(), listing.prixNegociable(),
+                listing.etatProduit(), listing.ville(), listing.quartier(), null, listing.dateCreation(),
+                vues, null, listing.isPremium(), listing.isUrgent(),
+                listing.mainImageUrl(), listing.mainImageUrl() != null ? listing.thumbnailUrl() : null,
+                null, CategoryInfo.of(listing));
+    }
+
+    /**
+     * Résultat de recherche (avec téléphone, contacts WhatsApp et vendeur)
+     */
+    public static ListingSummaryResponse search(ListingSummaryView listing, int vues, int contactsWhatsapp,
+                                                User seller) {
+        return new ListingSummaryResponse(
+                listing.id(), listing.titre(), listing.description(), listing.prix(), listing.prixNegociable(),
+                listing.etatProduit(), listing.ville(), listing.quartier(), listing.telephoneContact(),
+                listing.dateCreation(), vues, contactsWhatsapp, listing.isPremium(), listing.isUrgent(),
+                listing.mainImageUrl(), listing.thumbnailUrl(),
+                seller != null ? SellerInfo.of(seller) : null, CategoryInfo.of(listing));
+    }
+
+    public record SellerInfo(Long id, String nom, Boolean isBoutique, String nomBoutique) {
+
+        static SellerInfo of(User user) {
+            return new SellerInfo(user.getId(), user.getNom(), user.getIsBoutique(), user.getNomBoutique());
+        }
+    }
+
+    public record CategoryInfo(Long id, String nom, String emoji) {
+
+        static CategoryInfo of(ListingSummaryView listing) {
+            return listing.categoryId() != null
+                    ? new CategoryInfo(listing.categoryId(), listing.categoryNom(), listing.categoryEmoji())
+                    : null;
+        }
+    }
+}
@@ -0,0 +1,62 @@
+// ListingSummaryView.java
+package com.camerannonces.dto;
+
+import com.camerannonces.entity.Category;
+import com.camerannonces.entity.Listing;
+import com.camerannonces.enums.EtatProduit;
+
+import java.time.LocalDateTime;
+
+/**
+ * Résumé d'annonce pour les listes (fils, recherche)
+ * Construit directement par les requêtes JPQL "SELECT new" de ListingRepository: aucune entité
+ * n'est chargée ni suivie par le contexte de persistance, et seules les colonnes affichées sont lues
+ * (description tronquée, sans adresse complète ni options de livraison/paiement)
+ */
+public record ListingSummaryView(
+        Long id,
+        String titre,
+        String description,
+        Integer prix,
+        Boolean prixNegociable,
+        EtatProduit etatProduit,
+        String ville,
+        String quartier,
+        String telephoneContact,
+        LocalDateTime dateCreation,
+        Integer vues,
+        Integer contactsWhatsapp,
+        Boolean isPremium,
+        Boolean isUrgent,
+        String mainImageUrl,
+        String thumbnailUrl,
+        Long categoryId,
+        String categoryNom,
+        String categoryEmoji,
+        Long userId
+) {
+
+    // Longueur de la description dans les listes (le détail de l'annonce la donne en entier)
+    public static final int DESCRIPTION_LENGTH = 200;
+
+    /**
+     * Résumé d'une annonce déjà chargée (endpoints qui travaillent encore sur l'entité)
+     */
+    public static ListingSummaryView of(Listing listing, Category category) {
+        String description = listing.getDescription();
+        if (description != null && description.length() > DESCRIPTION_LENGTH) {
+            description = description.substring(0, DESCRIPTION_LENGTH);
+        }
+        return new ListingSummaryView(
+                listing.getId(), listing.getTitre(), description, listing.getPrix(), listing.getPrixNegociable(),
+                listing.getEtatProduit(), listing.getVille(), listing.getQuartier(), listing.getTelephoneContact(),
+                listing.getDateCreation(), listing.getVues(), listing.getContactsWhatsapp(),
+                listing.getIsPremium(), listing.getIsUrgent(), listing.getMainImageUrl(), listing.getThumbnailUrl(),
+                category != null ? category.getId() : null,
+                category != null ? category.getNom() : null,
+                category != null ? category.getEmoji() : null,
+                // getId() sur un proxy LAZY ne déclenche pas de chargement
+                listing.getUser() != null ? listing.getUser().getId() : null
+        );
+    }
+}
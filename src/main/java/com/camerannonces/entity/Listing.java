@@ -47,6 +47,13 @@ public class Listing {
     @Column(length = 50)
     private String quartier;
 
+    // Ville et quartier résolus dans le référentiel (filtres et compteurs)
+    @Column(name = "city_id")
+    private Long cityId;
+
+    @Column(name = "quartier_id")
+    private Long quartierId;
+
     @Column(name = "adresse_complete", columnDefinition = "TEXT")
     private String adresseComplete;
 
@@ -77,13 +84,21 @@ public class Listing {
     @Column(name = "email_contact", length = 100)
     private String emailContact;
 
-    // Statistiques
-    @Column
+    // Statistiques: écrites uniquement par ListingCounterBuffer (UPDATE groupé). Non modifiables par l'entité:
+    // un save() réécrirait les valeurs lues au chargement et effacerait les incréments vidés entre-temps
+    @Column(updatable = false)
     private Integer vues = 0;
 
-    @Column(name = "contacts_whatsapp")
+    @Column(name = "contacts_whatsapp", updatable = false)
     private Integer contactsWhatsapp = 0;
 
+    // Image principale (copie de listing_images, tenue à jour par ImageService)
+    @Column(name = "main_image_url", length = 500)
+    private String mainImageUrl;
+
+    @Column(name = "thumbnail_url", length = 500)
+    private String thumbnailUrl;
+
     // Status et dates
     @Enumerated(EnumType.STRING)
     @Column
@@ -156,6 +171,12 @@ public class Listing {
     public String getQuartier() { return quartier; }
     public void setQuartier(String quartier) { this.quartier = quartier; }
 
+    public Long getCityId() { return cityId; }
+    public void setCityId(Long cityId) { this.cityId = cityId; }
+
+    public Long getQuartierId() { return quartierId; }
+    public void setQuartierId(Long quartierId) { this.quartierId = quartierId; }
+
     public String getAdresseComplete() { return adresseComplete; }
     public void setAdresseComplete(String adresseComplete) { this.adresseComplete = adresseComplete; }
 
@@ -189,6 +210,12 @@ public class Listing {
     public Integer getContactsWhatsapp() { return contactsWhatsapp; }
     public void setContactsWhatsapp(Integer contactsWhatsapp) { this.contactsWhatsapp = contactsWhatsapp; }
 
+    public String getMainImageUrl() { return mainImageUrl; }
+    public void setMainImageUrl(String mainImageUrl) { this.mainImageUrl = mainImageUrl; }
+
+    public String getThumbnailUrl() { return thumbnailUrl; }
+    public void setThumbnailUrl(String thumbnailUrl) { this.thumbnailUrl = thumbnailUrl; }
+
     public ListingStatus getStatut() { return statut; }
     public void setStatut(ListingStatus statut) { this.statut = statut; }
 
@@ -1,5 +1,6 @@
 package com.camerannonces.entity;
 
+import com.camerannonces.enums.ImageStatus;
 import jakarta.persistence.*;
 import org.hibernate.annotations.CreationTimestamp;
 
@@ -17,9 +18,20 @@ public class ListingImage {
     @JoinColumn(name = "listing_id", nullable = false)
     private Listing listing;
 
-    @Column(nullable = false, length = 500)
+    // Variante 1200 px (null tant que le traitement n'est pas terminé)
+    @Column(length = 500)
     private String url;
 
+    @Column(name = "medium_url", length = 500)
+    private String mediumUrl;
+
+    @Column(name = "thumbnail_url", length = 500)
+    private String thumbnailUrl;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "statut_traitement", nullable = false, length = 20)
+    private ImageStatus statutTraitement = ImageStatus.PRET;
+
     @Column(name = "nom_fichier")
     private String nomFichier;
 
@@ -54,6 +66,12 @@ public class ListingImage {
     public String getUrl() { return url; }
     public void setUrl(String url) { this.url = url; }
 
+    public String getMediumUrl() { return mediumUrl; }
+    public void setMediumUrl(String mediumUrl) { this.mediumUrl = mediumUrl; }
+
+    public String getThumbnailUrl() { return thumbnailUrl; }
+    public void setThumbnailUrl(String thumbnailUrl) { this.thumbnailUrl = thumbnailUrl; }
+
     public String getNomFichier() { return nomFichier; }
     public void setNomFichier(String nomFichier) { this.nomFichier = nomFichier; }
 
@@ -68,4 +86,10 @@ public class ListingImage {
 
     public LocalDateTime getDateUpload() { return dateUpload; }
     public void setDateUpload(LocalDateTime dateUpload) { this.dateUpload = dateUpload; }
+
+    public ImageStatus getStatutTraitement() { return statutTraitement; }
+    public void setStatutTraitement(ImageStatus statutTraitement) { this.statutTraitement = statutTraitement; }
+
+    // Variantes disponibles: affichable dans la galerie et comme image principale
+    public boolean isPrete() { return statutTraitement == ImageStatus.PRET; }
 }
\ No newline at end of file
@@ -0,0 +1,22 @@
+package com.camerannonces.enums;
+
+/**
+ * Traitement d'une image d'annonce (variantes 300 / 600 / 1200 px)
+ * SUPPRIMEE n'est jamais enregistrée: fin du suivi d'une image supprimée pendant son traitement
+ */
+public enum ImageStatus {
+    EN_COURS("En cours de traitement"),
+    PRET("Prête"),
+    ECHEC("Échec du traitement"),
+    SUPPRIMEE("Supprimée pendant le traitement");
+
+    private final String displayName;
+
+    ImageStatus(String displayName) {
+        this.displayName = displayName;
+    }
+
+    public String getDisplayName() {
+        return displayName;
+    }
+}
@@ -0,0 +1,32 @@
+package com.camerannonces.event;
+
+/**
+ * Événement publié quand une annonce est créée, modifiée, change de statut ou est supprimée
+ * Les écouteurs (index de recherche, caches...) le traitent après le commit de la transaction
+ */
+public class ListingChangedEvent {
+
+    public enum Type {
+        CREATED,
+        UPDATED,
+        STATUS_CHANGED,
+        DELETED
+    }
+
+    private final Long listingId;
+    private final Type type;
+
+    public ListingChangedEvent(Long listingId, Type type) {
+        this.listingId = listingId;
+        this.type = type;
+    }
+
+    public Long getListingId() { return listingId; }
+
+    public Type getType() { return type; }
+
+    @Override
+    public String toString() {
+        return "ListingChangedEvent{listingId=" + listingId + ", type=" + type + "}";
+    }
+}
@@ -0,0 +1,23 @@
+package com.camerannonces.event;
+
+import java.util.Map;
+
+/**
+ * Événement publié par ListingCounterBuffer après l'écriture en base d'un lot d'incréments
+ * Deltas par annonce: {vues, contacts WhatsApp}
+ */
+public class ListingCountersFlushedEvent {
+
+    private final Map<Long, long[]> deltas;
+
+    public ListingCountersFlushedEvent(Map<Long, long[]> deltas) {
+        this.deltas = deltas;
+    }
+
+    public Map<Long, long[]> getDeltas() { return deltas; }
+
+    @Override
+    public String toString() {
+        return "ListingCountersFlushedEvent{listings=" + deltas.size() + "}";
+    }
+}
@@ -0,0 +1,30 @@
+package com.camerannonces.event;
+
+/**
+ * Événement publié par ImageService quand une image d'annonce est acceptée (statut EN_COURS)
+ * Après le commit, ImageProcessingPipeline décode le contenu, produit les variantes et les uploade
+ */
+public class ListingImageUploadedEvent {
+
+    private final Long imageId;
+    private final Long listingId;
+    private final byte[] content;
+
+    public ListingImageUploadedEvent(Long imageId, Long listingId, byte[] content) {
+        this.imageId = imageId;
+        this.listingId = listingId;
+        this.content = content;
+    }
+
+    public Long getImageId() { return imageId; }
+
+    public Long getListingId() { return listingId; }
+
+    public byte[] getContent() { return content; }
+
+    @Override
+    public String toString() {
+        return "ListingImageUploadedEvent{imageId=" + imageId + ", listingId=" + listingId
+                + ", bytes=" + content.length + "}";
+    }
+}
@@ -0,0 +1,23 @@
+package com.camerannonces.event;
+
+import java.util.List;
+
+/**
+ * Événement publié par ListingExpirationJob après le commit d'un lot d'annonces passées ACTIVE -> EXPIRE
+ * Un seul événement par lot: les écouteurs (index de recherche, caches) retirent les annonces sans relire la base
+ */
+public class ListingsExpiredEvent {
+
+    private final List<Long> listingIds;
+
+    public ListingsExpiredEvent(List<Long> listingIds) {
+        this.listingIds = listingIds;
+    }
+
+    public List<Long> getListingIds() { return listingIds; }
+
+    @Override
+    public String toString() {
+        return "ListingsExpiredEvent{listings=" + listingIds.size() + "}";
+    }
+}
@@ -0,0 +1,27 @@
+package com.camerannonces.event;
+
+/**
+ * Événement publié quand une catégorie, une ville ou un quartier est créé ou modifié
+ * Le référentiel en mémoire est rechargé après le commit de la transaction
+ */
+public class ReferenceDataChangedEvent {
+
+    public enum Type {
+        CATEGORY,
+        CITY,
+        QUARTIER
+    }
+
+    private final Type type;
+
+    public ReferenceDataChangedEvent(Type type) {
+        this.type = type;
+    }
+
+    public Type getType() { return type; }
+
+    @Override
+    public String toString() {
+        return "ReferenceDataChangedEvent{type=" + type + "}";
+    }
+}
@@ -0,0 +1,21 @@
+package com.camerannonces.event;
+
+/**
+ * Événement publié quand le statut ou le plan d'un utilisateur change
+ * Les écouteurs (cache des utilisateurs authentifiés) le traitent après le commit de la transaction
+ */
+public class UserChangedEvent {
+
+    private final Long userId;
+
+    public UserChangedEvent(Long userId) {
+        this.userId = userId;
+    }
+
+    public Long getUserId() { return userId; }
+
+    @Override
+    public String toString() {
+        return "UserChangedEvent{userId=" + userId + "}";
+    }
+}
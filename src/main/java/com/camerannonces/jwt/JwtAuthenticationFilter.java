@@ -1,5 +1,6 @@
 package com.camerannonces.jwt;
 
+import com.camerannonces.config.RouteTable;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -27,6 +28,9 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     @Autowired
     private JwtProperties jwtProperties;
 
+    @Autowired
+    private RouteTable routeTable;
+
     @Override
     protected void doFilterInternal(HttpServletRequest request,
                                     HttpServletResponse response,
@@ -42,9 +46,11 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             String jwt = extractJwtFromRequest(request);
 
             if (jwt != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-                String telephone = jwtTokenProvider.extractUsername(jwt);
+                // Une seule vérification (signature + expiration), servie par le cache si déjà faite
+                JwtPrincipal principal = jwtTokenProvider.verify(jwt);
+                String telephone = principal.telephone();
 
-                if (telephone != null && jwtTokenProvider.validateToken(jwt, telephone)) {
+                if (telephone != null) {
                     // Créer l'authentification Spring Security
                     UsernamePasswordAuthenticationToken authentication =
                             new UsernamePasswordAuthenticationToken(telephone, null, new ArrayList<>());
@@ -53,7 +59,7 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
                     SecurityContextHolder.getContext().setAuthentication(authentication);
 
                     // Ajouter des attributs à la requête pour accès facile
-                    Long userId = jwtTokenProvider.extractUserId(jwt);
+                    Long userId = principal.userId();
                     request.setAttribute("userId", userId);
                     request.setAttribute("telephone", telephone);
 
@@ -84,36 +90,8 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     @Override
     protected boolean shouldNotFilter(HttpServletRequest request) throws ServletException {
-        String path = request.getRequestURI();
-        String method = request.getMethod();
-
-        // Endpoints publics qui ne nécessitent pas d'authentification
-        return isPublicEndpoint(path, method);
-    }
-
-    /**
-     * Déterminer si un endpoint est public
-     */
-    private boolean isPublicEndpoint(String path, String method) {
-        // Endpoints d'authentification
-        if (path.startsWith("/api/auth/")) {
-            return true;
-        }
-
-        // Endpoints publics en lecture seule
-        if ("GET".equals(method)) {
-            return path.startsWith("/api/categories") ||
-                    path.startsWith("/api/cities") ||
-                    path.equals("/api/listings") ||
-                    path.matches("/api/listings/[0-9]+") ||
-                    path.startsWith("/api/search");
-        }
-
-        // Autres endpoints publics
-        return path.startsWith("/error") ||
-                path.startsWith("/h2-console") ||
-                path.startsWith("/swagger") ||
-                path.startsWith("/v3/api-docs") ||
-                path.startsWith("/actuator");
+        // Endpoints publics qui ne nécessitent pas d'authentification (même table que SecurityConfig)
+        return routeTable.isPublic(request.getMethod(),
+                request.getRequestURI().substring(request.getContextPath().length()));
     }
-}
\ No newline at end of file
+}
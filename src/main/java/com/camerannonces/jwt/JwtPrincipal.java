@@ -0,0 +1,23 @@
+package com.camerannonces.jwt;
+
+import java.time.Instant;
+
+/**
+ * Contenu d'un token JWT vérifié (signature et expiration contrôlées une seule fois)
+ * Localisation: src/main/java/com/camerannonces/jwt/JwtPrincipal.java
+ */
+public record JwtPrincipal(
+        Long userId,
+        String telephone,
+        String type,
+        Instant expiration
+) {
+
+    public boolean isExpired() {
+        return !expiration.isAfter(Instant.now());
+    }
+
+    public long remainingMillis() {
+        return Math.max(0, expiration.toEpochMilli() - System.currentTimeMillis());
+    }
+}
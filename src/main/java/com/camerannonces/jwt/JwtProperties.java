@@ -14,6 +14,7 @@ public class JwtProperties {
     private String secret;
     private String issuer = "camerannonces-platform";
     private boolean enabled = true;
+    private long verifiedCacheSize = 10000; // 0 = vérification complète à chaque requête
     private AccessToken accessToken = new AccessToken();
     private RefreshToken refreshToken = new RefreshToken();
 
@@ -45,6 +46,14 @@ public class JwtProperties {
         this.enabled = enabled;
     }
 
+    public long getVerifiedCacheSize() {
+        return verifiedCacheSize;
+    }
+
+    public void setVerifiedCacheSize(long verifiedCacheSize) {
+        this.verifiedCacheSize = verifiedCacheSize;
+    }
+
     public AccessToken getAccessToken() {
         return accessToken;
     }
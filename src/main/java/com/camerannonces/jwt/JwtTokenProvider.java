@@ -1,12 +1,21 @@
 package com.camerannonces.jwt;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import javax.crypto.SecretKey;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
@@ -22,6 +31,29 @@ public class JwtTokenProvider {
     @Autowired
     private JwtProperties jwtProperties;
 
+    // Construits une fois: décodage du secret, clé HMAC et parseur sont immuables
+    private SecretKey signingKey;
+    private JwtParser parser;
+
+    // Tokens déjà vérifiés, par empreinte SHA-256 (le token lui-même n'est pas gardé), jusqu'à leur expiration
+    private Cache<ByteBuffer, JwtPrincipal> verifiedTokens;
+
+    @PostConstruct
+    void init() {
+        signingKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(jwtProperties.getSecret()));
+        parser = Jwts.parser()
+                .verifyWith(signingKey)
+                .build();
+
+        if (jwtProperties.getVerifiedCacheSize() > 0) {
+            verifiedTokens = Caffeine.newBuilder()
+                    .maximumSize(jwtProperties.getVerifiedCacheSize())
+                    .expireAfter(Expiry.creating((ByteBuffer hash, JwtPrincipal principal) ->
+                            Duration.ofMillis(principal.remainingMillis())))
+                    .build();
+        }
+    }
+
     /**
      * Générer un token d'accès
      */
@@ -59,38 +91,77 @@ public class JwtTokenProvider {
                 .issuer(jwtProperties.getIssuer())
                 .issuedAt(now)
                 .expiration(expiryDate)
-                .signWith(getSigningKey())
+                .signWith(signingKey)
                 .compact();
     }
 
+    /**
+     * Vérifier un token (signature + expiration) et lire son contenu en une seule passe
+     * Un token déjà vérifié est servi par le cache jusqu'à son expiration
+     */
+    public JwtPrincipal verify(String token) {
+        if (token == null || token.isBlank()) {
+            throw new JwtException("Token vide ou null");
+        }
+        if (verifiedTokens == null) {
+            return parse(token);
+        }
+
+        ByteBuffer hash = ByteBuffer.wrap(sha256(token));
+        JwtPrincipal principal = verifiedTokens.getIfPresent(hash);
+        if (principal == null || principal.isExpired()) {
+            principal = parse(token);
+            verifiedTokens.put(hash, principal);
+        }
+        return principal;
+    }
+
+    private JwtPrincipal parse(String token) {
+        Claims claims = extractAllClaims(token);
+        if (claims.getExpiration() == null) {
+            throw new JwtException("Token sans date d'expiration");
+        }
+        return new JwtPrincipal(toUserId(claims.get("userId")), claims.getSubject(),
+                claims.get("type", String.class), claims.getExpiration().toInstant());
+    }
+
+    private static Long toUserId(Object userId) {
+        if (userId instanceof Integer) {
+            return ((Integer) userId).longValue();
+        } else if (userId instanceof Long) {
+            return (Long) userId;
+        } else {
+            return userId != null ? Long.valueOf(userId.toString()) : null;
+        }
+    }
+
+    private static byte[] sha256(String token) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 indisponible", e);
+        }
+    }
+
     /**
      * Extraire le username (téléphone) du token
      */
     public String extractUsername(String token) {
-        return extractClaim(token, Claims::getSubject);
+        return verify(token).telephone();
     }
 
     /**
      * Extraire l'ID utilisateur du token
      */
     public Long extractUserId(String token) {
-        return extractClaim(token, claims -> {
-            Object userId = claims.get("userId");
-            if (userId instanceof Integer) {
-                return ((Integer) userId).longValue();
-            } else if (userId instanceof Long) {
-                return (Long) userId;
-            } else {
-                return Long.valueOf(userId.toString());
-            }
-        });
+        return verify(token).userId();
     }
 
     /**
      * Extraire le type de token
      */
     public String extractTokenType(String token) {
-        return extractClaim(token, claims -> claims.get("type", String.class));
+        return verify(token).type();
     }
 
     /**
@@ -106,9 +177,7 @@ public class JwtTokenProvider {
      */
     private Claims extractAllClaims(String token) {
         try {
-            return Jwts.parser()
-                    .verifyWith(getSigningKey())
-                    .build()
+            return parser
                     .parseSignedClaims(token)
                     .getPayload();
         } catch (ExpiredJwtException e) {
@@ -121,6 +190,9 @@ public class JwtTokenProvider {
             throw new JwtException("Signature du token invalide", e);
         } catch (IllegalArgumentException e) {
             throw new JwtException("Token vide ou null", e);
+        } catch (io.jsonwebtoken.JwtException e) {
+            // Signature invalide (io.jsonwebtoken.security.SignatureException) et autres erreurs jjwt
+            throw new JwtException("Token invalide", e);
         }
     }
 
@@ -129,8 +201,8 @@ public class JwtTokenProvider {
      */
     public boolean validateToken(String token, String telephone) {
         try {
-            final String extractedUsername = extractUsername(token);
-            return (extractedUsername.equals(telephone)) && !isTokenExpired(token);
+            JwtPrincipal principal = verify(token);
+            return principal.telephone().equals(telephone) && !principal.isExpired();
         } catch (Exception e) {
             return false;
         }
@@ -153,7 +225,7 @@ public class JwtTokenProvider {
      */
     public boolean isTokenExpired(String token) {
         try {
-            return extractExpiration(token).before(new Date());
+            return verify(token).isExpired();
         } catch (Exception e) {
             return true;
         }
@@ -163,7 +235,7 @@ public class JwtTokenProvider {
      * Extraire la date d'expiration
      */
     public Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
+        return Date.from(verify(token).expiration());
     }
 
     /**
@@ -171,22 +243,12 @@ public class JwtTokenProvider {
      */
     public long getRemainingExpiration(String token) {
         try {
-            Date expiration = extractExpiration(token);
-            long remaining = expiration.getTime() - System.currentTimeMillis();
-            return Math.max(0, remaining);
+            return verify(token).remainingMillis();
         } catch (Exception e) {
             return 0;
         }
     }
 
-    /**
-     * Obtenir la clé de signature
-     */
-    private SecretKey getSigningKey() {
-        byte[] keyBytes = Decoders.BASE64.decode(jwtProperties.getSecret());
-        return Keys.hmacShaKeyFor(keyBytes);
-    }
-
     /**
      * Créer une réponse JWT complète
      */
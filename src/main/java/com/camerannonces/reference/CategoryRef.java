@@ -0,0 +1,30 @@
+package com.camerannonces.reference;
+
+import com.camerannonces.entity.Category;
+
+import java.time.LocalDateTime;
+
+/**
+ * Catégorie du référentiel en mémoire (copie immuable de l'entité)
+ */
+public record CategoryRef(
+        Long id,
+        String nom,
+        String nomAnglais,
+        String emoji,
+        String description,
+        Integer ordreAffichage,
+        Boolean isActive,
+        LocalDateTime dateCreation
+) {
+
+    public static CategoryRef of(Category category) {
+        return new CategoryRef(category.getId(), category.getNom(), category.getNomAnglais(), category.getEmoji(),
+                category.getDescription(), category.getOrdreAffichage(), category.getIsActive(),
+                category.getDateCreation());
+    }
+
+    boolean active() {
+        return Boolean.TRUE.equals(isActive);
+    }
+}
@@ -0,0 +1,25 @@
+package com.camerannonces.reference;
+
+import com.camerannonces.entity.City;
+
+import java.time.LocalDateTime;
+
+/**
+ * Ville du référentiel en mémoire (copie immuable de l'entité)
+ */
+public record CityRef(
+        Long id,
+        String nom,
+        String region,
+        Boolean isActive,
+        LocalDateTime dateCreation
+) {
+
+    public static CityRef of(City city) {
+        return new CityRef(city.getId(), city.getNom(), city.getRegion(), city.getIsActive(), city.getDateCreation());
+    }
+
+    boolean active() {
+        return Boolean.TRUE.equals(isActive);
+    }
+}
@@ -0,0 +1,123 @@
+package com.camerannonces.reference;
+
+import com.camerannonces.search.FrenchAnalyzer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Index de préfixes immuable: mots (minuscules, sans accents) triés, recherche par dichotomie
+ * "doua" trouve Douala, "bonab" trouve Bonabéri; une requête de plusieurs mots exige que
+ * chacun soit le préfixe d'un mot de l'entrée. Les résultats gardent l'ordre de la liste indexée.
+ */
+final class PrefixIndex<T> {
+
+    private final List<T> values;
+    // Mots triés et, pour chacun, la position de l'entrée dans values
+    private final String[] words;
+    private final int[] entries;
+
+    private PrefixIndex(List<T> values, String[] words, int[] entries) {
+        this.values = values;
+        this.words = words;
+        this.entries = entries;
+    }
+
+    /**
+     * Indexer chaque valeur sous les mots des textes fournis (nom, région, ville...)
+     */
+    static <T> PrefixIndex<T> build(List<T> values, Function<T, List<String>> texts) {
+        List<Posting> postings = new ArrayList<>();
+        for (int i = 0; i < values.size(); i++) {
+            for (String text : texts.apply(values.get(i))) {
+                for (String word : words(text)) {
+                    postings.add(new Posting(word, i));
+                }
+            }
+        }
+        postings.sort((a, b) -> a.word.equals(b.word)
+                ? Integer.compare(a.entry, b.entry)
+                : a.word.compareTo(b.word));
+
+        String[] words = new String[postings.size()];
+        int[] entries = new int[postings.size()];
+        for (int i = 0; i < postings.size(); i++) {
+            words[i] = postings.get(i).word;
+            entries[i] = postings.get(i).entry;
+        }
+        return new PrefixIndex<>(List.copyOf(values), words, entries);
+    }
+
+    /**
+     * Entrées dont chaque mot de la requête est le préfixe d'un de leurs mots
+     */
+    List<T> search(String query) {
+        List<String> prefixes = words(query);
+        if (prefixes.isEmpty()) {
+            return List.of();
+        }
+
+        BitSet matches = null;
+        for (String prefix : prefixes) {
+            BitSet found = matching(prefix);
+            if (matches == null) {
+                matches = found;
+            } else {
+                matches.and(found);
+            }
+            if (matches.isEmpty()) {
+                return List.of();
+            }
+        }
+
+        List<T> results = new ArrayList<>(matches.cardinality());
+        for (int i = matches.nextSetBit(0); i >= 0; i = matches.nextSetBit(i + 1)) {
+            results.add(values.get(i));
+        }
+        return results;
+    }
+
+    private BitSet matching(String prefix) {
+        BitSet found = new BitSet(values.size());
+        int from = Arrays.binarySearch(words, prefix);
+        if (from < 0) {
+            from = -from - 1;
+        } else {
+            // Premier mot égal au préfixe (les doublons sont contigus)
+            while (from > 0 && words[from - 1].equals(prefix)) {
+                from--;
+            }
+        }
+        for (int i = from; i < words.length && words[i].startsWith(prefix); i++) {
+            found.set(entries[i]);
+        }
+        return found;
+    }
+
+    /**
+     * Mots d'un texte: minuscules sans accents, découpés sur les caractères non alphanumériques
+     */
+    private static List<String> words(String text) {
+        List<String> words = new ArrayList<>();
+        if (text == null) {
+            return words;
+        }
+        String folded = FrenchAnalyzer.fold(text);
+        int start = -1;
+        for (int i = 0; i <= folded.length(); i++) {
+            boolean letterOrDigit = i < folded.length() && Character.isLetterOrDigit(folded.charAt(i));
+            if (letterOrDigit && start < 0) {
+                start = i;
+            } else if (!letterOrDigit && start >= 0) {
+                words.add(folded.substring(start, i));
+                start = -1;
+            }
+        }
+        return words;
+    }
+
+    private record Posting(String word, int entry) {}
+}
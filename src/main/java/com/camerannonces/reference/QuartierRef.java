@@ -0,0 +1,26 @@
+package com.camerannonces.reference;
+
+import com.camerannonces.entity.Quartier;
+
+import java.time.LocalDateTime;
+
+/**
+ * Quartier du référentiel en mémoire, avec sa ville (aucune relation LAZY)
+ */
+public record QuartierRef(
+        Long id,
+        String nom,
+        Boolean isActive,
+        LocalDateTime dateCreation,
+        CityRef city
+) {
+
+    static QuartierRef of(Quartier quartier, CityRef city) {
+        return new QuartierRef(quartier.getId(), quartier.getNom(), quartier.getIsActive(),
+                quartier.getDateCreation(), city);
+    }
+
+    boolean active() {
+        return Boolean.TRUE.equals(isActive);
+    }
+}
@@ -0,0 +1,123 @@
+package com.camerannonces.reference;
+
+import com.camerannonces.entity.Quartier;
+import com.camerannonces.event.ReferenceDataChangedEvent;
+import com.camerannonces.repository.CategoryRepository;
+import com.camerannonces.repository.CityRepository;
+import com.camerannonces.repository.QuartierRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Référentiel en mémoire des catégories, villes et quartiers
+ * Chargé au démarrage (3 requêtes), puis remplacé en bloc après chaque modification admin
+ * (ReferenceDataChangedEvent, après commit) et périodiquement pour les autres instances.
+ * Les lecteurs ne voient jamais une photo à moitié construite.
+ */
+@Component
+public class ReferenceDataRegistry {
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private CityRepository cityRepository;
+
+    @Autowired
+    private QuartierRepository quartierRepository;
+
+    private final AtomicLong versions = new AtomicLong();
+
+    private volatile ReferenceDataSnapshot snapshot;
+
+    /**
+     * Photo courante (chargée à la première lecture si le démarrage n'est pas terminé)
+     */
+    public ReferenceDataSnapshot snapshot() {
+        ReferenceDataSnapshot current = snapshot;
+        if (current == null) {
+            synchronized (this) {
+                current = snapshot;
+                if (current == null) {
+                    current = reload();
+                }
+            }
+        }
+        return current;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        reload();
+    }
+
+    /**
+     * Recharger après le commit d'une modification de catégorie, ville ou quartier
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    @Transactional(propagation = Propagation.REQUIRES_NEW, readOnly = true)
+    public void onReferenceDataChanged(ReferenceDataChangedEvent event) {
+        reload();
+    }
+
+    /**
+     * Rafraîchissement périodique: modifications faites par une autre instance
+     */
+    @Scheduled(fixedDelayString = "${reference-data.refresh-interval-ms:600000}",
+            initialDelayString = "${reference-data.refresh-interval-ms:600000}")
+    public void refresh() {
+        try {
+            reload();
+        } catch (Exception e) {
+            System.err.println("❌ Erreur rafraîchissement du référentiel: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Quartier chargé depuis la base, avec la ville du référentiel (sans charger la relation LAZY)
+     */
+    public QuartierRef toRef(Quartier quartier) {
+        Long cityId = quartier.getCity().getId();
+        return QuartierRef.of(quartier, snapshot().getCity(cityId)
+                .orElseGet(() -> CityRef.of(quartier.getCity())));
+    }
+
+    synchronized ReferenceDataSnapshot reload() {
+        long start = System.currentTimeMillis();
+
+        List<CategoryRef> categories = categoryRepository.findAll().stream()
+                .map(CategoryRef::of)
+                .toList();
+        List<CityRef> cities = cityRepository.findAll().stream()
+                .map(CityRef::of)
+                .toList();
+        Map<Long, CityRef> citiesById = cities.stream()
+                .collect(Collectors.toMap(CityRef::id, Function.identity()));
+        // getCity().getId() lit la clé étrangère du proxy, sans requête supplémentaire
+        List<QuartierRef> quartiers = quartierRepository.findAll().stream()
+                .filter(quartier -> citiesById.containsKey(quartier.getCity().getId()))
+                .map(quartier -> QuartierRef.of(quartier, citiesById.get(quartier.getCity().getId())))
+                .toList();
+
+        ReferenceDataSnapshot loaded = new ReferenceDataSnapshot(versions.incrementAndGet(),
+                categories, cities, quartiers);
+        snapshot = loaded;
+        System.out.println("📚 Référentiel v" + loaded.getVersion() + " chargé: " + categories.size()
+                + " catégories, " + cities.size() + " villes, " + quartiers.size() + " quartiers en "
+                + (System.currentTimeMillis() - start) + " ms");
+        return loaded;
+    }
+}
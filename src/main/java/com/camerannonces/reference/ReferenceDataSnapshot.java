@@ -0,0 +1,263 @@
+package com.camerannonces.reference;
+
+import com.camerannonces.search.FrenchAnalyzer;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Photo immuable des catégories, villes et quartiers
+ * Toutes les listes et tous les index sont calculés à la construction: les lectures ne font
+ * que des accès en mémoire. Une nouvelle photo remplace l'ancienne en bloc (ReferenceDataRegistry).
+ */
+public final class ReferenceDataSnapshot {
+
+    private final long version;
+    private final LocalDateTime loadedAt;
+    // Empreinte du contenu: identique d'une instance à l'autre pour les mêmes données (ETag HTTP)
+    private final String fingerprint;
+
+    // Catégories
+    private final List<CategoryRef> categories;
+    private final List<CategoryRef> activeCategories;
+    private final Map<Long, CategoryRef> categoriesById;
+    private final Map<String, CategoryRef> categoriesByNom;
+    private final PrefixIndex<CategoryRef> categoryIndex;
+
+    // Villes
+    private final List<CityRef> activeCities;
+    private final Map<Long, CityRef> citiesById;
+    private final Map<String, CityRef> citiesByNom;
+    private final Map<String, CityRef> citiesByKey;
+    private final Map<String, List<CityRef>> activeCitiesByRegion;
+    private final List<String> regions;
+    private final List<Object[]> cityCountsByRegion;
+    private final PrefixIndex<CityRef> cityIndex;
+
+    // Quartiers
+    private final Map<Long, List<QuartierRef>> activeQuartiersByCityId;
+    private final Map<String, List<QuartierRef>> activeQuartiersByCityNom;
+    private final Map<String, List<QuartierRef>> quartiersByRegion;
+    private final Map<Long, QuartierRef> quartiersById;
+    private final Map<String, QuartierRef> quartiersByCityAndKey;
+    private final Map<String, List<QuartierRef>> quartiersByKey;
+    private final PrefixIndex<QuartierRef> quartierIndex;
+
+    ReferenceDataSnapshot(long version, List<CategoryRef> categories, List<CityRef> cities,
+                          List<QuartierRef> quartiers) {
+        this.version = version;
+        this.loadedAt = LocalDateTime.now();
+
+        // Même ordre que findAllByOrderByOrdreAffichage / findByIsActiveTrueOrderByOrdreAffichage
+        this.categories = categories.stream()
+                .sorted(Comparator.comparing(CategoryRef::ordreAffichage, Comparator.nullsLast(Comparator.naturalOrder()))
+                        .thenComparing(CategoryRef::id))
+                .toList();
+        this.activeCategories = this.categories.stream().filter(CategoryRef::active).toList();
+        this.categoriesById = indexBy(this.categories, CategoryRef::id);
+        this.categoriesByNom = indexBy(this.categories, CategoryRef::nom);
+        this.categoryIndex = PrefixIndex.build(this.categories,
+                category -> List.of(nullToEmpty(category.nom()), nullToEmpty(category.nomAnglais()),
+                        nullToEmpty(category.description())));
+
+        List<CityRef> citiesByName = cities.stream()
+                .sorted(Comparator.comparing(CityRef::nom).thenComparing(CityRef::id))
+                .toList();
+        this.activeCities = citiesByName.stream().filter(CityRef::active).toList();
+        this.citiesById = indexBy(citiesByName, CityRef::id);
+        this.citiesByNom = indexBy(citiesByName, CityRef::nom);
+        // Homonymes (même clé): ville active d'abord, puis plus petit id
+        this.citiesByKey = indexBy(cities.stream()
+                .sorted(Comparator.comparing((CityRef city) -> !city.active()).thenComparing(CityRef::id))
+                .toList(), city -> locationKey(city.nom()));
+        this.activeCitiesByRegion = groupBy(activeCities, CityRef::region);
+        Map<String, Long> counts = citiesByName.stream()
+                .collect(Collectors.groupingBy(CityRef::region, TreeMap::new, Collectors.counting()));
+        this.regions = List.copyOf(counts.keySet());
+        this.cityCountsByRegion = counts.entrySet().stream()
+                .map(entry -> new Object[]{entry.getKey(), entry.getValue()})
+                .toList();
+        this.cityIndex = PrefixIndex.build(citiesByName, city -> List.of(city.nom(), city.region()));
+
+        List<QuartierRef> quartiersByName = quartiers.stream()
+                .sorted(Comparator.comparing(QuartierRef::nom).thenComparing(QuartierRef::id))
+                .toList();
+        List<QuartierRef> activeQuartiers = quartiersByName.stream().filter(QuartierRef::active).toList();
+        this.activeQuartiersByCityId = groupBy(activeQuartiers, quartier -> quartier.city().id());
+        this.activeQuartiersByCityNom = groupBy(activeQuartiers, quartier -> quartier.city().nom());
+        this.quartiersByRegion = groupBy(quartiersByName, quartier -> quartier.city().region());
+        this.quartiersById = indexBy(quartiersByName, QuartierRef::id);
+        this.quartiersByCityAndKey = indexBy(quartiersByName,
+                quartier -> quartier.city().id() + "/" + locationKey(quartier.nom()));
+        this.quartiersByKey = groupBy(quartiersByName, quartier -> locationKey(quartier.nom()));
+        this.quartierIndex = PrefixIndex.build(quartiersByName,
+                quartier -> List.of(quartier.nom(), quartier.city().nom()));
+
+        this.fingerprint = fingerprint(this.categories, citiesByName, quartiersByName);
+    }
+
+    public long getVersion() { return version; }
+
+    public LocalDateTime getLoadedAt() { return loadedAt; }
+
+    public String getFingerprint() { return fingerprint; }
+
+    // ============================================
+    // CATÉGORIES
+    // ============================================
+
+    public List<CategoryRef> getCategories() { return categories; }
+
+    public List<CategoryRef> getActiveCategories() { return activeCategories; }
+
+    public Optional<CategoryRef> getCategory(Long id) {
+        return Optional.ofNullable(categoriesById.get(id));
+    }
+
+    public Optional<CategoryRef> getCategoryByNom(String nom) {
+        return Optional.ofNullable(categoriesByNom.get(nom));
+    }
+
+    public List<CategoryRef> searchCategories(String keyword) {
+        return categoryIndex.search(keyword);
+    }
+
+    // ============================================
+    // VILLES
+    // ============================================
+
+    public List<CityRef> getActiveCities() { return activeCities; }
+
+    public Optional<CityRef> getCity(Long id) {
+        return Optional.ofNullable(citiesById.get(id));
+    }
+
+    public Optional<CityRef> getCityByNom(String nom) {
+        return Optional.ofNullable(citiesByNom.get(nom));
+    }
+
+    /**
+     * Ville correspondant à une saisie libre ("yaounde", " DOUALA ", "Kribi-") ou vide
+     * Plusieurs villes de même nom: la ville active de plus petit id
+     */
+    public Optional<CityRef> resolveCity(String ville) {
+        return ville != null ? Optional.ofNullable(citiesByKey.get(locationKey(ville))) : Optional.empty();
+    }
+
+    public List<CityRef> getActiveCitiesByRegion(String region) {
+        return activeCitiesByRegion.getOrDefault(region, List.of());
+    }
+
+    public List<String> getRegions() { return regions; }
+
+    /**
+     * [région, nombre de villes], par région (comme CityRepository.countCitiesByRegion)
+     */
+    public List<Object[]> getCityCountsByRegion() { return cityCountsByRegion; }
+
+    public List<CityRef> searchCities(String keyword) {
+        return cityIndex.search(keyword);
+    }
+
+    // ============================================
+    // QUARTIERS
+    // ============================================
+
+    public List<QuartierRef> getActiveQuartiersByCity(Long cityId) {
+        return activeQuartiersByCityId.getOrDefault(cityId, List.of());
+    }
+
+    public List<QuartierRef> getActiveQuartiersByCityNom(String cityNom) {
+        return activeQuartiersByCityNom.getOrDefault(cityNom, List.of());
+    }
+
+    public List<QuartierRef> getQuartiersByRegion(String region) {
+        return quartiersByRegion.getOrDefault(region, List.of());
+    }
+
+    public Optional<QuartierRef> getQuartier(Long id) {
+        return Optional.ofNullable(quartiersById.get(id));
+    }
+
+    /**
+     * Quartier d'une ville correspondant à une saisie libre, ou vide
+     */
+    public Optional<QuartierRef> resolveQuartier(Long cityId, String quartier) {
+        return quartier != null
+                ? Optional.ofNullable(quartiersByCityAndKey.get(cityId + "/" + locationKey(quartier)))
+                : Optional.empty();
+    }
+
+    /**
+     * Quartiers de toutes les villes portant ce nom (le même nom existe dans plusieurs villes)
+     */
+    public List<QuartierRef> resolveQuartiers(String quartier) {
+        return quartier != null ? quartiersByKey.getOrDefault(locationKey(quartier), List.of()) : List.of();
+    }
+
+    public List<QuartierRef> searchQuartiers(String keyword) {
+        return quartierIndex.search(keyword);
+    }
+
+    // ============================================
+    // CONSTRUCTION
+    // ============================================
+
+    private static <T, K> Map<K, T> indexBy(List<T> values, Function<T, K> key) {
+        Map<K, T> index = new LinkedHashMap<>();
+        for (T value : values) {
+            index.putIfAbsent(key.apply(value), value);
+        }
+        return Map.copyOf(index);
+    }
+
+    private static <T, K> Map<K, List<T>> groupBy(List<T> values, Function<T, K> key) {
+        Map<K, List<T>> groups = new LinkedHashMap<>();
+        for (T value : values) {
+            groups.computeIfAbsent(key.apply(value), k -> new ArrayList<>()).add(value);
+        }
+        return groups.entrySet().stream()
+                .collect(Collectors.toUnmodifiableMap(Map.Entry::getKey, entry -> List.copyOf(entry.getValue())));
+    }
+
+    /**
+     * Nom de lieu normalisé: minuscules sans accents, ponctuation et espaces réduits à un espace
+     */
+    static String locationKey(String name) {
+        return String.join(" ", FrenchAnalyzer.fold(name).split("[^\\p{L}\\p{N}]+")).trim();
+    }
+
+    private static String nullToEmpty(String value) {
+        return value != null ? value : "";
+    }
+
+    /**
+     * SHA-256 des catégories, villes et quartiers (dans l'ordre de tri de la photo)
+     */
+    private static String fingerprint(List<CategoryRef> categories, List<CityRef> cities, List<QuartierRef> quartiers) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (List<?> refs : List.of(categories, cities, quartiers)) {
+                for (Object ref : refs) {
+                    digest.update(ref.toString().getBytes(StandardCharsets.UTF_8));
+                    digest.update((byte) '\n');
+                }
+            }
+            return HexFormat.of().formatHex(digest.digest(), 0, 16);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 indisponible", e);
+        }
+    }
+}
@@ -1,8 +1,11 @@
 package com.camerannonces.repository;
 
 import com.camerannonces.entity.Category;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
@@ -12,32 +15,34 @@ import java.util.Optional;
 @Repository
 public interface CategoryRepository extends JpaRepository<Category, Long> {
 
+    // Toutes les recherches passent par le cache de requêtes Hibernate (invalidé à chaque écriture de la table)
+
     // Recherche de base
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     Optional<Category> findByNom(String nom);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     Optional<Category> findByNomAnglais(String nomAnglais);
 
     // Catégories actives
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     List<Category> findByIsActiveTrueOrderByOrdreAffichage();
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     List<Category> findByIsActiveTrue();
 
     // Recherche textuelle
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     @Query("SELECT c FROM Category c WHERE " +
             "LOWER(c.nom) LIKE LOWER(CONCAT('%', :keyword, '%')) OR " +
             "LOWER(c.nomAnglais) LIKE LOWER(CONCAT('%', :keyword, '%')) OR " +
             "LOWER(c.description) LIKE LOWER(CONCAT('%', :keyword, '%'))")
     List<Category> searchByKeyword(@Param("keyword") String keyword);
 
-    // Statistiques
-    @Query("SELECT c, COUNT(l) FROM Category c LEFT JOIN c.listings l GROUP BY c")
-    List<Object[]> getCategoriesWithListingCount();
-
-    @Query("SELECT c FROM Category c LEFT JOIN c.listings l " +
-            "WHERE l.statut = 'ACTIVE' " +
-            "GROUP BY c " +
-            "ORDER BY COUNT(l) DESC")
-    List<Category> findMostPopularCategories();
-
     // Ordre d'affichage
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     List<Category> findAllByOrderByOrdreAffichage();
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     Optional<Category> findTopByOrderByOrdreAffichageDesc();
 }
\ No newline at end of file
@@ -1,8 +1,11 @@
 package com.camerannonces.repository;
 
 import com.camerannonces.entity.City;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
@@ -12,41 +15,42 @@ import java.util.Optional;
 @Repository
 public interface CityRepository extends JpaRepository<City, Long> {
 
+    // Toutes les recherches passent par le cache de requêtes Hibernate (invalidé à chaque écriture de la table)
+
     // Recherche de base
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     Optional<City> findByNom(String nom);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     List<City> findByRegion(String region);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     List<City> findByNomContainingIgnoreCase(String nom);
 
     // Villes actives
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     List<City> findByIsActiveTrueOrderByNom();
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     List<City> findByIsActiveTrue();
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     List<City> findByRegionAndIsActiveTrue(String region);
 
     // Statistiques par région
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     @Query("SELECT c.region, COUNT(c) FROM City c GROUP BY c.region ORDER BY c.region")
     List<Object[]> countCitiesByRegion();
 
     // Recherche textuelle
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     @Query("SELECT c FROM City c WHERE " +
             "LOWER(c.nom) LIKE LOWER(CONCAT('%', :keyword, '%')) OR " +
             "LOWER(c.region) LIKE LOWER(CONCAT('%', :keyword, '%'))")
     List<City> searchByKeyword(@Param("keyword") String keyword);
 
-    // Villes avec annonces
-    @Query("SELECT DISTINCT c FROM City c " +
-            "JOIN Listing l ON l.ville = c.nom " +
-            "WHERE l.statut = 'ACTIVE'")
-    List<City> findCitiesWithActiveListings();
-
-    // Villes populaires (avec le plus d'annonces)
-    @Query("SELECT c, COUNT(l) FROM City c " +
-            "LEFT JOIN Listing l ON l.ville = c.nom " +
-            "WHERE l.statut = 'ACTIVE' " +
-            "GROUP BY c " +
-            "ORDER BY COUNT(l) DESC")
-    List<Object[]> findMostPopularCities();
-
     // Toutes les régions distinctes
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     @Query("SELECT DISTINCT c.region FROM City c ORDER BY c.region")
     List<String> findAllRegions();
 }
\ No newline at end of file
@@ -20,8 +20,9 @@ public interface ListingImageRepository extends JpaRepository<ListingImage, Long
     // Image principale
     Optional<ListingImage> findByListingIdAndIsPrincipaleTrue(Long listingId);
 
-    // Nombre d'images par annonce
-    @Query("SELECT COUNT(li) FROM ListingImage li WHERE li.listing.id = :listingId")
+    // Nombre d'images par annonce (les images en échec de traitement ne comptent pas dans la limite du plan)
+    @Query("SELECT COUNT(li) FROM ListingImage li WHERE li.listing.id = :listingId " +
+            "AND li.statutTraitement <> com.camerannonces.enums.ImageStatus.ECHEC")
     long countByListingId(@Param("listingId") Long listingId);
 
     // Images récentes
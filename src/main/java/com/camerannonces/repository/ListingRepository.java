@@ -1,10 +1,13 @@
 package com.camerannonces.repository;
 
+import com.camerannonces.dto.ListingSummaryView;
 import com.camerannonces.entity.Listing;
 import com.camerannonces.enums.EtatProduit;
 import com.camerannonces.enums.ListingStatus;
+import com.camerannonces.search.IndexedListing;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
@@ -12,7 +15,9 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface ListingRepository extends JpaRepository<Listing, Long> {
@@ -38,20 +43,20 @@ public interface ListingRepository extends JpaRepository<Listing, Long> {
     // RECHERCHES PAR LOCALISATION
     // ============================================
 
-    // Par ville
-    List<Listing> findByVilleAndStatutOrderByDateCreationDesc(String ville, ListingStatus statut);
-    Page<Listing> findByVilleAndStatut(String ville, ListingStatus statut, Pageable pageable);
+    // Par ville (clé du référentiel, voir ReferenceDataSnapshot.resolveCity)
+    List<Listing> findByCityIdAndStatutOrderByDateCreationDesc(Long cityId, ListingStatus statut);
+    Page<Listing> findByCityIdAndStatut(Long cityId, ListingStatus statut, Pageable pageable);
 
     // Par ville et catégorie
-    Page<Listing> findByVilleAndCategoryIdAndStatut(String ville, Long categoryId,
-                                                    ListingStatus statut, Pageable pageable);
+    Page<Listing> findByCityIdAndCategoryIdAndStatut(Long cityId, Long categoryId,
+                                                     ListingStatus statut, Pageable pageable);
 
-    // Par quartier
-    Page<Listing> findByQuartierAndStatut(String quartier, ListingStatus statut, Pageable pageable);
+    // Par quartier (un même nom peut désigner des quartiers de plusieurs villes)
+    Page<Listing> findByQuartierIdInAndStatut(Collection<Long> quartierIds, ListingStatus statut, Pageable pageable);
 
     // Par ville et quartier
-    Page<Listing> findByVilleAndQuartierAndStatut(String ville, String quartier,
-                                                  ListingStatus statut, Pageable pageable);
+    Page<Listing> findByCityIdAndQuartierIdAndStatut(Long cityId, Long quartierId,
+                                                     ListingStatus statut, Pageable pageable);
 
     // ============================================
     // RECHERCHES PAR PRIX
@@ -86,18 +91,21 @@ public interface ListingRepository extends JpaRepository<Listing, Long> {
     // ============================================
 
     // Recherche complète avec tous les filtres
+    // quartierIds: quartier de la ville filtrée, ou tous les quartiers homonymes sans ville (voir SearchService);
+    // filterQuartier = false désactive ce filtre (une liste ne peut pas être comparée à NULL)
     @Query("SELECT l FROM Listing l WHERE " +
             "(:categoryId IS NULL OR l.category.id = :categoryId) AND " +
-            "(:ville IS NULL OR l.ville = :ville) AND " +
-            "(:quartier IS NULL OR l.quartier = :quartier) AND " +
+            "(:cityId IS NULL OR l.cityId = :cityId) AND " +
+            "(:filterQuartier = false OR l.quartierId IN (:quartierIds)) AND " +
             "(:minPrix IS NULL OR l.prix >= :minPrix) AND " +
             "(:maxPrix IS NULL OR l.prix <= :maxPrix) AND " +
             "(:etatProduit IS NULL OR l.etatProduit = :etatProduit) AND " +
             "(:prixNegociable IS NULL OR l.prixNegociable = :prixNegociable) AND " +
             "l.statut = :statut")
     Page<Listing> findWithFilters(@Param("categoryId") Long categoryId,
-                                  @Param("ville") String ville,
-                                  @Param("quartier") String quartier,
+                                  @Param("cityId") Long cityId,
+                                  @Param("filterQuartier") Boolean filterQuartier,
+                                  @Param("quartierIds") Collection<Long> quartierIds,
                                   @Param("minPrix") Integer minPrix,
                                   @Param("maxPrix") Integer maxPrix,
                                   @Param("etatProduit") EtatProduit etatProduit,
@@ -105,6 +113,160 @@ public interface ListingRepository extends JpaRepository<Listing, Long> {
                                   @Param("statut") ListingStatus statut,
                                   Pageable pageable);
 
+    // ============================================
+    // RÉSUMÉS DE LISTE (PROJECTION, SANS ENTITÉS)
+    // ============================================
+    // Colonnes affichées uniquement, catégorie jointe, vendeur réduit à sa clé étrangère
+
+    String SUMMARY_SELECT = "SELECT new com.camerannonces.dto.ListingSummaryView(" +
+            "l.id, l.titre, SUBSTRING(l.description, 1, " + ListingSummaryView.DESCRIPTION_LENGTH + "), " +
+            "l.prix, l.prixNegociable, l.etatProduit, l.ville, l.quartier, l.telephoneContact, l.dateCreation, " +
+            "l.vues, l.contactsWhatsapp, l.isPremium, l.isUrgent, l.mainImageUrl, l.thumbnailUrl, " +
+            "c.id, c.nom, c.emoji, l.user.id) " +
+            "FROM Listing l LEFT JOIN l.category c ";
+
+    @Query(value = SUMMARY_SELECT + "WHERE l.statut = :statut ORDER BY l.dateCreation DESC, l.id DESC",
+            countQuery = "SELECT COUNT(l) FROM Listing l WHERE l.statut = :statut")
+    Page<ListingSummaryView> findSummariesByStatut(@Param("statut") ListingStatus statut, Pageable pageable);
+
+    @Query(value = SUMMARY_SELECT + "WHERE l.category.id = :categoryId AND l.statut = :statut " +
+            "ORDER BY l.dateCreation DESC, l.id DESC",
+            countQuery = "SELECT COUNT(l) FROM Listing l WHERE l.category.id = :categoryId AND l.statut = :statut")
+    Page<ListingSummaryView> findSummariesByCategoryIdAndStatut(@Param("categoryId") Long categoryId,
+                                                                @Param("statut") ListingStatus statut,
+                                                                Pageable pageable);
+
+    @Query(value = SUMMARY_SELECT + "WHERE l.cityId = :cityId AND l.statut = :statut " +
+            "ORDER BY l.dateCreation DESC, l.id DESC",
+            countQuery = "SELECT COUNT(l) FROM Listing l WHERE l.cityId = :cityId AND l.statut = :statut")
+    Page<ListingSummaryView> findSummariesByCityIdAndStatut(@Param("cityId") Long cityId,
+                                                            @Param("statut") ListingStatus statut,
+                                                            Pageable pageable);
+
+    // Mêmes filtres que findWithFilters; le tri vient du Pageable
+    String SUMMARY_FILTERS = "WHERE (:categoryId IS NULL OR l.category.id = :categoryId) AND " +
+            "(:cityId IS NULL OR l.cityId = :cityId) AND " +
+            "(:filterQuartier = false OR l.quartierId IN (:quartierIds)) AND " +
+            "(:minPrix IS NULL OR l.prix >= :minPrix) AND " +
+            "(:maxPrix IS NULL OR l.prix <= :maxPrix) AND " +
+            "(:etatProduit IS NULL OR l.etatProduit = :etatProduit) AND " +
+            "(:prixNegociable IS NULL OR l.prixNegociable = :prixNegociable) AND " +
+            "l.statut = :statut";
+
+    @Query(value = SUMMARY_SELECT + SUMMARY_FILTERS,
+            countQuery = "SELECT COUNT(l) FROM Listing l " + SUMMARY_FILTERS)
+    Page<ListingSummaryView> findSummariesWithFilters(@Param("categoryId") Long categoryId,
+                                                      @Param("cityId") Long cityId,
+                                                      @Param("filterQuartier") Boolean filterQuartier,
+                                                      @Param("quartierIds") Collection<Long> quartierIds,
+                                                      @Param("minPrix") Integer minPrix,
+                                                      @Param("maxPrix") Integer maxPrix,
+                                                      @Param("etatProduit") EtatProduit etatProduit,
+                                                      @Param("prixNegociable") Boolean prixNegociable,
+                                                      @Param("statut") ListingStatus statut,
+                                                      Pageable pageable);
+
+    @Query(value = SUMMARY_SELECT + "WHERE l.statut = :statut AND l.prix BETWEEN :minPrix AND :maxPrix " +
+            "ORDER BY l.dateCreation DESC",
+            countQuery = "SELECT COUNT(l) FROM Listing l WHERE l.statut = :statut " +
+                    "AND l.prix BETWEEN :minPrix AND :maxPrix")
+    Page<ListingSummaryView> findSummariesByPrixBetween(@Param("minPrix") Integer minPrix,
+                                                        @Param("maxPrix") Integer maxPrix,
+                                                        @Param("statut") ListingStatus statut,
+                                                        Pageable pageable);
+
+    @Query(value = SUMMARY_SELECT + "WHERE l.isPremium = true AND l.statut = :statut ORDER BY l.dateCreation DESC",
+            countQuery = "SELECT COUNT(l) FROM Listing l WHERE l.isPremium = true AND l.statut = :statut")
+    Page<ListingSummaryView> findPremiumSummaries(@Param("statut") ListingStatus statut, Pageable pageable);
+
+    @Query(value = SUMMARY_SELECT + "WHERE l.isUrgent = true AND l.statut = :statut ORDER BY l.dateCreation DESC",
+            countQuery = "SELECT COUNT(l) FROM Listing l WHERE l.isUrgent = true AND l.statut = :statut")
+    Page<ListingSummaryView> findUrgentSummaries(@Param("statut") ListingStatus statut, Pageable pageable);
+
+    @Query(value = SUMMARY_SELECT + "WHERE l.user.isBoutique = true AND l.statut = :statut",
+            countQuery = "SELECT COUNT(l) FROM Listing l WHERE l.user.isBoutique = true AND l.statut = :statut")
+    Page<ListingSummaryView> findBoutiqueSummaries(@Param("statut") ListingStatus statut, Pageable pageable);
+
+    @Query(value = SUMMARY_SELECT + "WHERE l.statut = :statut ORDER BY l.vues DESC",
+            countQuery = "SELECT COUNT(l) FROM Listing l WHERE l.statut = :statut")
+    Page<ListingSummaryView> findMostViewedSummaries(@Param("statut") ListingStatus statut, Pageable pageable);
+
+    @Query(value = SUMMARY_SELECT + "WHERE l.dateCreation > :since AND l.statut = :statut",
+            countQuery = "SELECT COUNT(l) FROM Listing l WHERE l.dateCreation > :since AND l.statut = :statut")
+    Page<ListingSummaryView> findRecentSummaries(@Param("since") LocalDateTime since,
+                                                 @Param("statut") ListingStatus statut,
+                                                 Pageable pageable);
+
+    // Page d'une recherche classée: l'ordre des ids est rétabli par l'appelant
+    // Le statut est revérifié: l'index en mémoire peut encore contenir une annonce vendue ou expirée
+    @Query(SUMMARY_SELECT + "WHERE l.id IN (:ids) AND l.statut = :statut")
+    List<ListingSummaryView> findSummariesByIdInAndStatut(@Param("ids") Collection<Long> ids,
+                                                          @Param("statut") ListingStatus statut);
+
+    // ============================================
+    // PAGINATION PAR CURSEUR (KEYSET, SANS COUNT)
+    // ============================================
+    // Ordre: date_creation DESC, id DESC (index composites de la migration V3)
+    // Le Pageable ne sert qu'à la taille: Spring Data lit size + 1 lignes pour hasNext
+
+    @Query(SUMMARY_SELECT + "WHERE l.statut = :statut ORDER BY l.dateCreation DESC, l.id DESC")
+    Slice<ListingSummaryView> findFeedByStatut(@Param("statut") ListingStatus statut, Pageable pageable);
+
+    @Query(SUMMARY_SELECT + "WHERE l.statut = :statut " +
+            "AND (l.dateCreation, l.id) < (:afterDate, :afterId) " +
+            "ORDER BY l.dateCreation DESC, l.id DESC")
+    Slice<ListingSummaryView> findFeedByStatutAfter(@Param("statut") ListingStatus statut,
+                                                    @Param("afterDate") LocalDateTime afterDate,
+                                                    @Param("afterId") Long afterId,
+                                                    Pageable pageable);
+
+    @Query(SUMMARY_SELECT + "WHERE l.category.id = :categoryId AND l.statut = :statut " +
+            "ORDER BY l.dateCreation DESC, l.id DESC")
+    Slice<ListingSummaryView> findFeedByCategoryIdAndStatut(@Param("categoryId") Long categoryId,
+                                                            @Param("statut") ListingStatus statut,
+                                                            Pageable pageable);
+
+    @Query(SUMMARY_SELECT + "WHERE l.category.id = :categoryId AND l.statut = :statut " +
+            "AND (l.dateCreation, l.id) < (:afterDate, :afterId) " +
+            "ORDER BY l.dateCreation DESC, l.id DESC")
+    Slice<ListingSummaryView> findFeedByCategoryIdAndStatutAfter(@Param("categoryId") Long categoryId,
+                                                                 @Param("statut") ListingStatus statut,
+                                                                 @Param("afterDate") LocalDateTime afterDate,
+                                                                 @Param("afterId") Long afterId,
+                                                                 Pageable pageable);
+
+    @Query(SUMMARY_SELECT + "WHERE l.cityId = :cityId AND l.statut = :statut " +
+            "ORDER BY l.dateCreation DESC, l.id DESC")
+    Slice<ListingSummaryView> findFeedByCityIdAndStatut(@Param("cityId") Long cityId,
+                                                       @Param("statut") ListingStatus statut,
+                                                       Pageable pageable);
+
+    @Query(SUMMARY_SELECT + "WHERE l.cityId = :cityId AND l.statut = :statut " +
+            "AND (l.dateCreation, l.id) < (:afterDate, :afterId) " +
+            "ORDER BY l.dateCreation DESC, l.id DESC")
+    Slice<ListingSummaryView> findFeedByCityIdAndStatutAfter(@Param("cityId") Long cityId,
+                                                            @Param("statut") ListingStatus statut,
+                                                            @Param("afterDate") LocalDateTime afterDate,
+                                                            @Param("afterId") Long afterId,
+                                                            Pageable pageable);
+
+    @Query(SUMMARY_SELECT + "WHERE l.cityId = :cityId AND l.category.id = :categoryId AND l.statut = :statut " +
+            "ORDER BY l.dateCreation DESC, l.id DESC")
+    Slice<ListingSummaryView> findFeedByCityIdAndCategoryIdAndStatut(@Param("cityId") Long cityId,
+                                                                    @Param("categoryId") Long categoryId,
+                                                                    @Param("statut") ListingStatus statut,
+                                                                    Pageable pageable);
+
+    @Query(SUMMARY_SELECT + "WHERE l.cityId = :cityId AND l.category.id = :categoryId " +
+            "AND l.statut = :statut AND (l.dateCreation, l.id) < (:afterDate, :afterId) " +
+            "ORDER BY l.dateCreation DESC, l.id DESC")
+    Slice<ListingSummaryView> findFeedByCityIdAndCategoryIdAndStatutAfter(@Param("cityId") Long cityId,
+                                                                         @Param("categoryId") Long categoryId,
+                                                                         @Param("statut") ListingStatus statut,
+                                                                         @Param("afterDate") LocalDateTime afterDate,
+                                                                         @Param("afterId") Long afterId,
+                                                                         Pageable pageable);
+
     // ============================================
     // RECHERCHE TEXTUELLE AMÉLIORÉE (FULL-TEXT SEARCH)
     // ============================================
@@ -113,44 +275,48 @@ public interface ListingRepository extends JpaRepository<Listing, Long> {
      * Recherche AMÉLIORÉE avec Full-Text Search PostgreSQL
      * Supporte la recherche en français avec variations de mots
      * Exemple: "voiture" trouvera "Toyota", "automobile", etc.
+     * Utilise search_vector (GIN) et les index trigrammes sur titre/description (migration V2)
      */
     @Query(value = """
         SELECT l.* FROM listings l
-        LEFT JOIN categories c ON l.category_id = c.id
         WHERE l.statut = :statut
         AND (
-            -- Full-text search sur titre + description (français)
-            to_tsvector('french', COALESCE(l.titre, '') || ' ' || COALESCE(l.description, ''))
-            @@ plainto_tsquery('french', :keyword)
-            
-            -- OU recherche exacte (fallback)
-            OR LOWER(l.titre) LIKE LOWER(CONCAT('%', :keyword, '%'))
-            OR LOWER(l.description) LIKE LOWER(CONCAT('%', :keyword, '%'))
-            
-            -- OU recherche dans le nom de la catégorie
-            OR LOWER(c.nom) LIKE LOWER(CONCAT('%', :keyword, '%'))
-            OR LOWER(c.nom_anglais) LIKE LOWER(CONCAT('%', :keyword, '%'))
+            -- Full-text search sur le vecteur indexé (français)
+            l.search_vector @@ plainto_tsquery('french', :keyword)
+
+            -- OU recherche par sous-chaîne (index trigrammes)
+            OR l.titre ILIKE CONCAT('%', :keyword, '%')
+            OR l.description ILIKE CONCAT('%', :keyword, '%')
+
+            -- OU recherche dans le nom de la catégorie (résolue une seule fois)
+            OR l.category_id = ANY(ARRAY(
+                SELECT c.id FROM categories c
+                WHERE c.nom ILIKE CONCAT('%', :keyword, '%')
+                OR c.nom_anglais ILIKE CONCAT('%', :keyword, '%')))
         )
-        ORDER BY 
+        ORDER BY
             -- Priorité: correspondance exacte dans le titre
-            CASE WHEN LOWER(l.titre) LIKE LOWER(CONCAT('%', :keyword, '%')) THEN 0 
-                 WHEN LOWER(c.nom) LIKE LOWER(CONCAT('%', :keyword, '%')) THEN 1
-                 ELSE 2 
+            CASE WHEN l.titre ILIKE CONCAT('%', :keyword, '%') THEN 0
+                 WHEN l.category_id = ANY(ARRAY(
+                     SELECT c.id FROM categories c
+                     WHERE c.nom ILIKE CONCAT('%', :keyword, '%')
+                     OR c.nom_anglais ILIKE CONCAT('%', :keyword, '%'))) THEN 1
+                 ELSE 2
             END,
             l.is_premium DESC,
             l.date_creation DESC
         """,
             countQuery = """
         SELECT COUNT(*) FROM listings l
-        LEFT JOIN categories c ON l.category_id = c.id
         WHERE l.statut = :statut
         AND (
-            to_tsvector('french', COALESCE(l.titre, '') || ' ' || COALESCE(l.description, ''))
-            @@ plainto_tsquery('french', :keyword)
-            OR LOWER(l.titre) LIKE LOWER(CONCAT('%', :keyword, '%'))
-            OR LOWER(l.description) LIKE LOWER(CONCAT('%', :keyword, '%'))
-            OR LOWER(c.nom) LIKE LOWER(CONCAT('%', :keyword, '%'))
-            OR LOWER(c.nom_anglais) LIKE LOWER(CONCAT('%', :keyword, '%'))
+            l.search_vector @@ plainto_tsquery('french', :keyword)
+            OR l.titre ILIKE CONCAT('%', :keyword, '%')
+            OR l.description ILIKE CONCAT('%', :keyword, '%')
+            OR l.category_id = ANY(ARRAY(
+                SELECT c.id FROM categories c
+                WHERE c.nom ILIKE CONCAT('%', :keyword, '%')
+                OR c.nom_anglais ILIKE CONCAT('%', :keyword, '%')))
         )
         """,
             nativeQuery = true)
@@ -163,45 +329,300 @@ public interface ListingRepository extends JpaRepository<Listing, Long> {
      */
     @Query(value = """
         SELECT l.* FROM listings l
-        LEFT JOIN categories c ON l.category_id = c.id
         WHERE l.statut = :statut
         AND (:categoryId IS NULL OR l.category_id = :categoryId)
-        AND (:ville IS NULL OR LOWER(l.ville) = LOWER(:ville))
+        AND (:cityId IS NULL OR l.city_id = :cityId)
         AND (
-            :keyword IS NULL 
-            OR to_tsvector('french', COALESCE(l.titre, '') || ' ' || COALESCE(l.description, ''))
-               @@ plainto_tsquery('french', :keyword)
-            OR LOWER(l.titre) LIKE LOWER(CONCAT('%', :keyword, '%'))
-            OR LOWER(l.description) LIKE LOWER(CONCAT('%', :keyword, '%'))
-            OR LOWER(c.nom) LIKE LOWER(CONCAT('%', :keyword, '%'))
+            :keyword IS NULL
+            OR l.search_vector @@ plainto_tsquery('french', :keyword)
+            OR l.titre ILIKE CONCAT('%', :keyword, '%')
+            OR l.description ILIKE CONCAT('%', :keyword, '%')
+            OR l.category_id = ANY(ARRAY(
+                SELECT c.id FROM categories c WHERE c.nom ILIKE CONCAT('%', :keyword, '%')))
         )
-        ORDER BY 
-            CASE WHEN LOWER(l.titre) LIKE LOWER(CONCAT('%', :keyword, '%')) THEN 0 ELSE 1 END,
+        ORDER BY
+            CASE WHEN l.titre ILIKE CONCAT('%', :keyword, '%') THEN 0 ELSE 1 END,
             l.is_premium DESC,
             l.date_creation DESC
         """,
             countQuery = """
         SELECT COUNT(*) FROM listings l
-        LEFT JOIN categories c ON l.category_id = c.id
         WHERE l.statut = :statut
         AND (:categoryId IS NULL OR l.category_id = :categoryId)
-        AND (:ville IS NULL OR LOWER(l.ville) = LOWER(:ville))
+        AND (:cityId IS NULL OR l.city_id = :cityId)
         AND (
-            :keyword IS NULL 
-            OR to_tsvector('french', COALESCE(l.titre, '') || ' ' || COALESCE(l.description, ''))
-               @@ plainto_tsquery('french', :keyword)
-            OR LOWER(l.titre) LIKE LOWER(CONCAT('%', :keyword, '%'))
-            OR LOWER(l.description) LIKE LOWER(CONCAT('%', :keyword, '%'))
-            OR LOWER(c.nom) LIKE LOWER(CONCAT('%', :keyword, '%'))
+            :keyword IS NULL
+            OR l.search_vector @@ plainto_tsquery('french', :keyword)
+            OR l.titre ILIKE CONCAT('%', :keyword, '%')
+            OR l.description ILIKE CONCAT('%', :keyword, '%')
+            OR l.category_id = ANY(ARRAY(
+                SELECT c.id FROM categories c WHERE c.nom ILIKE CONCAT('%', :keyword, '%')))
         )
         """,
             nativeQuery = true)
     Page<Listing> searchWithFilters(@Param("keyword") String keyword,
                                     @Param("categoryId") Long categoryId,
-                                    @Param("ville") String ville,
+                                    @Param("cityId") Long cityId,
                                     @Param("statut") String statut,
                                     Pageable pageable);
 
+    // ============================================
+    // RECHERCHE MULTI-TERMES (SYNONYMES EN UNE SEULE REQUÊTE)
+    // ============================================
+
+    /**
+     * Recherche classée sur tous les synonymes à la fois
+     * :tsquery = 'terme1' | 'terme2' ... et :pattern = terme1|terme2... (voir SearchTerms)
+     * Pertinence: titre (2) > catégorie (1) > reste (0), puis score full-text dans [0,1)
+     */
+    @Query(value = """
+        SELECT r.* FROM (
+            SELECT l.*,
+                (CASE WHEN l.titre ~* :pattern THEN 2
+                      WHEN l.category_id = ANY(ARRAY(
+                          SELECT c.id FROM categories c
+                          WHERE c.nom ~* :pattern OR c.nom_anglais ~* :pattern)) THEN 1
+                      ELSE 0
+                 END)::double precision
+                + ts_rank(l.search_vector, to_tsquery('french', :tsquery), 32) AS pertinence
+            FROM listings l
+            WHERE l.statut = :statut
+            AND (:categoryId IS NULL OR l.category_id = :categoryId)
+            AND (:cityId IS NULL OR l.city_id = :cityId)
+            AND (
+                l.search_vector @@ to_tsquery('french', :tsquery)
+                OR l.titre ~* :pattern
+                OR l.description ~* :pattern
+                OR l.category_id = ANY(ARRAY(
+                    SELECT c.id FROM categories c
+                    WHERE c.nom ~* :pattern OR c.nom_anglais ~* :pattern))
+            )
+        ) r
+        ORDER BY r.pertinence DESC, r.is_premium DESC, r.date_creation DESC, r.id DESC
+        """,
+            countQuery = """
+        SELECT COUNT(*) FROM listings l
+        WHERE l.statut = :statut
+        AND (:categoryId IS NULL OR l.category_id = :categoryId)
+        AND (:cityId IS NULL OR l.city_id = :cityId)
+        AND (
+            l.search_vector @@ to_tsquery('french', :tsquery)
+            OR l.titre ~* :pattern
+            OR l.description ~* :pattern
+            OR l.category_id = ANY(ARRAY(
+                SELECT c.id FROM categories c
+                WHERE c.nom ~* :pattern OR c.nom_anglais ~* :pattern))
+        )
+        """,
+            nativeQuery = true)
+    Page<Listing> searchByTerms(@Param("tsquery") String tsquery,
+                                @Param("pattern") String pattern,
+                                @Param("categoryId") Long categoryId,
+                                @Param("cityId") Long cityId,
+                                @Param("statut") String statut,
+                                Pageable pageable);
+
+    /**
+     * Ids d'une page de searchByTerms (même ordre), pour charger ensuite les résumés par findSummariesByIdInAndStatut
+     */
+    @Query(value = """
+        SELECT r.id FROM (
+            SELECT l.id, l.is_premium, l.date_creation,
+                (CASE WHEN l.titre ~* :pattern THEN 2
+                      WHEN l.category_id = ANY(ARRAY(
+                          SELECT c.id FROM categories c
+                          WHERE c.nom ~* :pattern OR c.nom_anglais ~* :pattern)) THEN 1
+                      ELSE 0
+                 END)::double precision
+                + ts_rank(l.search_vector, to_tsquery('french', :tsquery), 32) AS pertinence
+            FROM listings l
+            WHERE l.statut = :statut
+            AND (:categoryId IS NULL OR l.category_id = :categoryId)
+            AND (:cityId IS NULL OR l.city_id = :cityId)
+            AND (
+                l.search_vector @@ to_tsquery('french', :tsquery)
+                OR l.titre ~* :pattern
+                OR l.description ~* :pattern
+                OR l.category_id = ANY(ARRAY(
+                    SELECT c.id FROM categories c
+                    WHERE c.nom ~* :pattern OR c.nom_anglais ~* :pattern))
+            )
+        ) r
+        ORDER BY r.pertinence DESC, r.is_premium DESC, r.date_creation DESC, r.id DESC
+        LIMIT :limit OFFSET :offset
+        """,
+            nativeQuery = true)
+    List<Long> searchIdsByTerms(@Param("tsquery") String tsquery,
+                                @Param("pattern") String pattern,
+                                @Param("categoryId") Long categoryId,
+                                @Param("cityId") Long cityId,
+                                @Param("statut") String statut,
+                                @Param("limit") int limit,
+                                @Param("offset") long offset);
+
+    /**
+     * Même filtre que searchByTerms mais sans tri par pertinence
+     * Le tri est fourni par le Pageable (colonnes SQL: prix, date_creation, vues, titre)
+     */
+    @Query(value = """
+        SELECT l.* FROM listings l
+        WHERE l.statut = :statut
+        AND (:categoryId IS NULL OR l.category_id = :categoryId)
+        AND (:cityId IS NULL OR l.city_id = :cityId)
+        AND (
+            l.search_vector @@ to_tsquery('french', :tsquery)
+            OR l.titre ~* :pattern
+            OR l.description ~* :pattern
+            OR l.category_id = ANY(ARRAY(
+                SELECT c.id FROM categories c
+                WHERE c.nom ~* :pattern OR c.nom_anglais ~* :pattern))
+        )
+        """,
+            countQuery = """
+        SELECT COUNT(*) FROM listings l
+        WHERE l.statut = :statut
+        AND (:categoryId IS NULL OR l.category_id = :categoryId)
+        AND (:cityId IS NULL OR l.city_id = :cityId)
+        AND (
+            l.search_vector @@ to_tsquery('french', :tsquery)
+            OR l.titre ~* :pattern
+            OR l.description ~* :pattern
+            OR l.category_id = ANY(ARRAY(
+                SELECT c.id FROM categories c
+                WHERE c.nom ~* :pattern OR c.nom_anglais ~* :pattern))
+        )
+        """,
+            nativeQuery = true)
+    Page<Listing> searchByTermsSorted(@Param("tsquery") String tsquery,
+                                      @Param("pattern") String pattern,
+                                      @Param("categoryId") Long categoryId,
+                                      @Param("cityId") Long cityId,
+                                      @Param("statut") String statut,
+                                      Pageable pageable);
+
+    /**
+     * Nombre de résultats de la recherche multi-termes
+     */
+    @Query(value = """
+        SELECT COUNT(*) FROM listings l
+        WHERE l.statut = :statut
+        AND (:categoryId IS NULL OR l.category_id = :categoryId)
+        AND (:cityId IS NULL OR l.city_id = :cityId)
+        AND (
+            l.search_vector @@ to_tsquery('french', :tsquery)
+            OR l.titre ~* :pattern
+            OR l.description ~* :pattern
+            OR l.category_id = ANY(ARRAY(
+                SELECT c.id FROM categories c
+                WHERE c.nom ~* :pattern OR c.nom_anglais ~* :pattern))
+        )
+        """,
+            nativeQuery = true)
+    long countByTerms(@Param("tsquery") String tsquery,
+                      @Param("pattern") String pattern,
+                      @Param("categoryId") Long categoryId,
+                      @Param("cityId") Long cityId,
+                      @Param("statut") String statut);
+
+    /**
+     * Clés de tri de la recherche classée, pagination par curseur (sans COUNT)
+     * Chaque ligne: [id, pertinence, is_premium, date_creation]; les annonces sont chargées ensuite par id
+     */
+    @Query(value = """
+        SELECT r.id, r.pertinence, r.is_premium, r.date_creation FROM (
+            SELECT l.id, l.is_premium, l.date_creation,
+                (CASE WHEN l.titre ~* :pattern THEN 2
+                      WHEN l.category_id = ANY(ARRAY(
+                          SELECT c.id FROM categories c
+                          WHERE c.nom ~* :pattern OR c.nom_anglais ~* :pattern)) THEN 1
+                      ELSE 0
+                 END)::double precision
+                + ts_rank(l.search_vector, to_tsquery('french', :tsquery), 32) AS pertinence
+            FROM listings l
+            WHERE l.statut = :statut
+            AND (:categoryId IS NULL OR l.category_id = :categoryId)
+            AND (:cityId IS NULL OR l.city_id = :cityId)
+            AND (
+                l.search_vector @@ to_tsquery('french', :tsquery)
+                OR l.titre ~* :pattern
+                OR l.description ~* :pattern
+                OR l.category_id = ANY(ARRAY(
+                    SELECT c.id FROM categories c
+                    WHERE c.nom ~* :pattern OR c.nom_anglais ~* :pattern))
+            )
+        ) r
+        ORDER BY r.pertinence DESC, r.is_premium DESC, r.date_creation DESC, r.id DESC
+        LIMIT :limit
+        """,
+            nativeQuery = true)
+    List<Object[]> searchKeysByTerms(@Param("tsquery") String tsquery,
+                                     @Param("pattern") String pattern,
+                                     @Param("categoryId") Long categoryId,
+                                     @Param("cityId") Long cityId,
+                                     @Param("statut") String statut,
+                                     @Param("limit") int limit);
+
+    /**
+     * Page suivante de searchKeysByTerms: lignes strictement après le curseur (comparaison de tuples)
+     */
+    @Query(value = """
+        SELECT r.id, r.pertinence, r.is_premium, r.date_creation FROM (
+            SELECT l.id, l.is_premium, l.date_creation,
+                (CASE WHEN l.titre ~* :pattern THEN 2
+                      WHEN l.category_id = ANY(ARRAY(
+                          SELECT c.id FROM categories c
+                          WHERE c.nom ~* :pattern OR c.nom_anglais ~* :pattern)) THEN 1
+                      ELSE 0
+                 END)::double precision
+                + ts_rank(l.search_vector, to_tsquery('french', :tsquery), 32) AS pertinence
+            FROM listings l
+            WHERE l.statut = :statut
+            AND (:categoryId IS NULL OR l.category_id = :categoryId)
+            AND (:cityId IS NULL OR l.city_id = :cityId)
+            AND (
+                l.search_vector @@ to_tsquery('french', :tsquery)
+                OR l.titre ~* :pattern
+                OR l.description ~* :pattern
+                OR l.category_id = ANY(ARRAY(
+                    SELECT c.id FROM categories c
+                    WHERE c.nom ~* :pattern OR c.nom_anglais ~* :pattern))
+            )
+        ) r
+        WHERE (r.pertinence, r.is_premium, r.date_creation, r.id)
+            < (:afterScore, :afterPremium, :afterDate, :afterId)
+        ORDER BY r.pertinence DESC, r.is_premium DESC, r.date_creation DESC, r.id DESC
+        LIMIT :limit
+        """,
+            nativeQuery = true)
+    List<Object[]> searchKeysByTermsAfter(@Param("tsquery") String tsquery,
+                                          @Param("pattern") String pattern,
+                                          @Param("categoryId") Long categoryId,
+                                          @Param("cityId") Long cityId,
+                                          @Param("statut") String statut,
+                                          @Param("afterScore") Double afterScore,
+                                          @Param("afterPremium") Boolean afterPremium,
+                                          @Param("afterDate") LocalDateTime afterDate,
+                                          @Param("afterId") Long afterId,
+                                          @Param("limit") int limit);
+
+    // ============================================
+    // INDEX DE RECHERCHE EN MÉMOIRE
+    // ============================================
+
+    // Chargement par lots (keyset sur l'id) pour la construction de l'index
+    @Query("SELECT new com.camerannonces.search.IndexedListing(l.id, l.titre, l.description, c.id, c.nom, " +
+            "l.cityId, l.ville, l.quartier, l.isPremium, l.dateCreation, l.dateDerniereRemontee) " +
+            "FROM Listing l JOIN l.category c WHERE l.statut = :statut AND l.id > :afterId ORDER BY l.id")
+    List<IndexedListing> findIndexedListings(@Param("statut") ListingStatus statut,
+                                             @Param("afterId") Long afterId,
+                                             Pageable pageable);
+
+    // Une annonce, si elle a le statut demandé
+    @Query("SELECT new com.camerannonces.search.IndexedListing(l.id, l.titre, l.description, c.id, c.nom, " +
+            "l.cityId, l.ville, l.quartier, l.isPremium, l.dateCreation, l.dateDerniereRemontee) " +
+            "FROM Listing l JOIN l.category c WHERE l.id = :id AND l.statut = :statut")
+    Optional<IndexedListing> findIndexedListing(@Param("id") Long id, @Param("statut") ListingStatus statut);
+
     // ============================================
     // ANNONCES PREMIUM ET SPÉCIALES
     // ============================================
@@ -227,11 +648,12 @@ public interface ListingRepository extends JpaRepository<Listing, Long> {
     List<Listing> findByDateCreationAfterAndStatutOrderByDateCreationDesc(LocalDateTime date, ListingStatus statut);
     Page<Listing> findByDateCreationAfterAndStatut(LocalDateTime date, ListingStatus statut, Pageable pageable);
 
-    // Annonces d'aujourd'hui
+    // Annonces d'aujourd'hui (borne sur date_creation: utilisable par l'index)
     @Query("SELECT l FROM Listing l WHERE l.statut = :statut AND " +
-            "CAST(l.dateCreation AS date) = CURRENT_DATE " +
+            "l.dateCreation >= :startOfDay " +
             "ORDER BY l.dateCreation DESC")
-    List<Listing> findTodayListings(@Param("statut") ListingStatus statut);
+    List<Listing> findTodayListings(@Param("startOfDay") LocalDateTime startOfDay,
+                                    @Param("statut") ListingStatus statut);
 
     // Annonces de cette semaine
     @Query("SELECT l FROM Listing l WHERE l.statut = :statut AND " +
@@ -254,10 +676,10 @@ public interface ListingRepository extends JpaRepository<Listing, Long> {
 
     // Annonces similaires (même catégorie et ville)
     @Query("SELECT l FROM Listing l WHERE l.statut = :statut AND " +
-            "l.category.id = :categoryId AND l.ville = :ville AND l.id != :excludeId " +
+            "l.category.id = :categoryId AND l.cityId = :cityId AND l.id != :excludeId " +
             "ORDER BY l.dateCreation DESC")
     List<Listing> findSimilarListings(@Param("categoryId") Long categoryId,
-                                      @Param("ville") String ville,
+                                      @Param("cityId") Long cityId,
                                       @Param("excludeId") Long excludeId,
                                       @Param("statut") ListingStatus statut,
                                       Pageable pageable);
@@ -282,14 +704,6 @@ public interface ListingRepository extends JpaRepository<Listing, Long> {
     // Compter par statut
     long countByStatut(ListingStatus statut);
 
-    // Compter par catégorie
-    @Query("SELECT l.category.nom, COUNT(l) FROM Listing l WHERE l.statut = :statut GROUP BY l.category")
-    List<Object[]> countByCategory(@Param("statut") ListingStatus statut);
-
-    // Compter par ville
-    @Query("SELECT l.ville, COUNT(l) FROM Listing l WHERE l.statut = :statut GROUP BY l.ville ORDER BY COUNT(l) DESC")
-    List<Object[]> countByCity(@Param("statut") ListingStatus statut);
-
     // Compter par mois
     @Query("SELECT YEAR(l.dateCreation), MONTH(l.dateCreation), COUNT(l) FROM Listing l " +
             "WHERE l.statut = :statut GROUP BY YEAR(l.dateCreation), MONTH(l.dateCreation) " +
@@ -324,9 +738,4 @@ public interface ListingRepository extends JpaRepository<Listing, Long> {
     @Modifying
     @Query("UPDATE Listing l SET l.dateDerniereRemontee = :now WHERE l.id = :id")
     void boostListing(@Param("id") Long id, @Param("now") LocalDateTime now);
-
-    // Marquer comme expiré
-    @Modifying
-    @Query("UPDATE Listing l SET l.statut = 'EXPIRE' WHERE l.dateExpiration < :now AND l.statut = 'ACTIVE'")
-    int markExpiredListings(@Param("now") LocalDateTime now);
 }
\ No newline at end of file
@@ -1,8 +1,11 @@
 package com.camerannonces.repository;
 
 import com.camerannonces.entity.Quartier;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
@@ -12,43 +15,41 @@ import java.util.Optional;
 @Repository
 public interface QuartierRepository extends JpaRepository<Quartier, Long> {
 
+    // Toutes les recherches passent par le cache de requêtes Hibernate (invalidé à chaque écriture de la table)
+
     // Recherche de base
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     List<Quartier> findByCityId(Long cityId);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     List<Quartier> findByCityIdAndIsActiveTrue(Long cityId);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     Optional<Quartier> findByNomAndCityId(String nom, Long cityId);
 
     // Recherche par ville
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     @Query("SELECT q FROM Quartier q JOIN q.city c WHERE c.nom = :cityName")
     List<Quartier> findByCityName(@Param("cityName") String cityName);
 
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     @Query("SELECT q FROM Quartier q JOIN q.city c " +
             "WHERE c.nom = :cityName AND q.isActive = true")
     List<Quartier> findByCityNameAndActive(@Param("cityName") String cityName);
 
     // Recherche par région
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     @Query("SELECT q FROM Quartier q JOIN q.city c WHERE c.region = :region")
     List<Quartier> findByRegion(@Param("region") String region);
 
     // Quartiers actifs
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     List<Quartier> findByIsActiveTrueOrderByNom();
 
     // Recherche textuelle
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     @Query("SELECT q FROM Quartier q JOIN q.city c WHERE " +
             "LOWER(q.nom) LIKE LOWER(CONCAT('%', :keyword, '%')) OR " +
             "LOWER(c.nom) LIKE LOWER(CONCAT('%', :keyword, '%'))")
     List<Quartier> searchByKeyword(@Param("keyword") String keyword);
-
-    // Quartiers avec annonces
-    @Query("SELECT DISTINCT q FROM Quartier q " +
-            "JOIN Listing l ON l.quartier = q.nom " +
-            "WHERE l.statut = 'ACTIVE'")
-    List<Quartier> findQuartiersWithActiveListings();
-
-    // Statistiques
-    @Query("SELECT q, COUNT(l) FROM Quartier q " +
-            "LEFT JOIN Listing l ON l.quartier = q.nom " +
-            "WHERE l.statut = 'ACTIVE' " +
-            "GROUP BY q " +
-            "ORDER BY COUNT(l) DESC")
-    List<Object[]> findMostPopularQuartiers();
 }
\ No newline at end of file
@@ -1,10 +1,12 @@
 package com.camerannonces.repository;
 
+import com.camerannonces.dto.AuthenticatedUser;
 import com.camerannonces.entity.User;
 import com.camerannonces.enums.PlanType;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -22,6 +24,11 @@ public interface UserRepository extends JpaRepository<User, Long> {
     boolean existsByTelephone(String telephone);
     boolean existsByEmail(String email);
 
+    // Utilisateur authentifié (AuthenticatedUserCache): identité, plan et statut seulement
+    @Query("SELECT new com.camerannonces.dto.AuthenticatedUser(u.id, u.telephone, u.planActuel, u.isActive) " +
+            "FROM User u WHERE u.id = :id")
+    Optional<AuthenticatedUser> findAuthenticatedUser(@Param("id") Long id);
+
     // Recherche par localisation
     List<User> findByVille(String ville);
     List<User> findByVilleAndQuartier(String ville, String quartier);
@@ -42,9 +49,12 @@ public interface UserRepository extends JpaRepository<User, Long> {
     List<User> findByDateCreationAfter(LocalDateTime date);
     List<User> findByDerniereConnexionAfter(LocalDateTime date);
 
-    // Plans expirés
-    @Query("SELECT u FROM User u WHERE u.dateExpirationPlan < :now AND u.planActuel != 'GRATUIT'")
-    List<User> findUsersWithExpiredPlan(@Param("now") LocalDateTime now);
+    // Plans expirés: remis en gratuit par lots (UserService.resetExpiredPlans), ou un seul à la publication
+    // Repasser en gratuit un plan expiré (sans effet si le plan a été renouvelé entre-temps)
+    @Modifying
+    @Query("UPDATE User u SET u.planActuel = com.camerannonces.enums.PlanType.GRATUIT, u.dateExpirationPlan = null " +
+            "WHERE u.id = :id AND u.dateExpirationPlan < :now")
+    int downgradeExpiredPlan(@Param("id") Long id, @Param("now") LocalDateTime now);
 
     // Statistiques
     @Query("SELECT COUNT(u) FROM User u WHERE u.isBoutique = true")
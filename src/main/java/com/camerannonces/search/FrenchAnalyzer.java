@@ -0,0 +1,97 @@
+package com.camerannonces.search;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Analyse de texte pour l'index en mémoire
+ * Minuscules, suppression des accents, découpage sur les caractères non alphanumériques,
+ * mots vides français et racinisation légère (pluriels)
+ */
+public final class FrenchAnalyzer {
+
+    private static final int MIN_TOKEN_LENGTH = 2;
+
+    private static final Set<String> STOP_WORDS = Set.of(
+            "le", "la", "les", "de", "des", "du", "un", "une", "et", "ou", "en", "au", "aux",
+            "pour", "par", "sur", "avec", "sans", "dans", "ce", "ces", "cet", "cette", "son", "sa",
+            "ses", "est", "sont", "qui", "que", "quoi", "ne", "pas", "plus", "tres", "tout", "tous",
+            "nous", "vous", "il", "elle", "ils", "elles", "je", "tu", "on", "mon", "ma", "mes"
+    );
+
+    private FrenchAnalyzer() {}
+
+    /**
+     * Découper un texte en termes indexables
+     */
+    public static List<String> analyze(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null || text.isEmpty()) {
+            return tokens;
+        }
+
+        String folded = fold(text);
+        int start = -1;
+        for (int i = 0; i <= folded.length(); i++) {
+            boolean letterOrDigit = i < folded.length() && Character.isLetterOrDigit(folded.charAt(i));
+            if (letterOrDigit && start < 0) {
+                start = i;
+            } else if (!letterOrDigit && start >= 0) {
+                addToken(tokens, folded.substring(start, i));
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+
+    /**
+     * Minuscules sans accents ("Téléphone" -> "telephone")
+     */
+    public static String fold(String text) {
+        if (text == null) {
+            return null;
+        }
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+        StringBuilder sb = new StringBuilder(decomposed.length());
+        for (int i = 0; i < decomposed.length(); i++) {
+            char c = decomposed.charAt(i);
+            if (Character.getType(c) == Character.NON_SPACING_MARK) {
+                continue;
+            }
+            // Ligatures courantes en français
+            if (c == 'œ' || c == 'Œ') {
+                sb.append("oe");
+            } else if (c == 'æ' || c == 'Æ') {
+                sb.append("ae");
+            } else {
+                sb.append(c);
+            }
+        }
+        return sb.toString().toLowerCase(Locale.ROOT);
+    }
+
+    private static void addToken(List<String> tokens, String token) {
+        if (token.length() < MIN_TOKEN_LENGTH || STOP_WORDS.contains(token)) {
+            return;
+        }
+        tokens.add(stem(token));
+    }
+
+    /**
+     * Racinisation minimale des pluriels en -s / -x ("voitures" -> "voiture")
+     * Appliquée à l'identique aux documents et aux requêtes
+     */
+    static String stem(String token) {
+        int length = token.length();
+        if (length > 3 && Character.isLetter(token.charAt(length - 1))) {
+            char last = token.charAt(length - 1);
+            if ((last == 's' || last == 'x') && token.charAt(length - 2) != 's') {
+                return token.substring(0, length - 1);
+            }
+        }
+        return token;
+    }
+}
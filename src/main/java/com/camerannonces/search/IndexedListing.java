@@ -0,0 +1,30 @@
+package com.camerannonces.search;
+
+import java.time.LocalDateTime;
+
+/**
+ * Champs d'une annonce ACTIVE nécessaires à l'index en mémoire
+ * Chargé par projection JPQL (ListingRepository.findIndexedListings)
+ */
+public record IndexedListing(Long id,
+                             String titre,
+                             String description,
+                             Long categoryId,
+                             String categoryNom,
+                             Long cityId,
+                             String ville,
+                             String quartier,
+                             Boolean isPremium,
+                             LocalDateTime dateCreation,
+                             LocalDateTime dateDerniereRemontee) {
+
+    /**
+     * Date utilisée pour le bonus de fraîcheur (une remontée rajeunit l'annonce)
+     */
+    public LocalDateTime dateReference() {
+        if (dateDerniereRemontee != null && (dateCreation == null || dateDerniereRemontee.isAfter(dateCreation))) {
+            return dateDerniereRemontee;
+        }
+        return dateCreation;
+    }
+}
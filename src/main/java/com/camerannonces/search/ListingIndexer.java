@@ -0,0 +1,115 @@
+package com.camerannonces.search;
+
+import com.camerannonces.enums.ListingStatus;
+import com.camerannonces.event.ListingChangedEvent;
+import com.camerannonces.event.ListingsExpiredEvent;
+import com.camerannonces.repository.ListingRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Alimente ListingSearchIndex: construction complète au démarrage puis mises à jour incrémentales
+ * à chaque ListingChangedEvent (après commit)
+ */
+@Component
+@ConditionalOnProperty(name = "search.backend", havingValue = "memory")
+public class ListingIndexer {
+
+    private static final int BATCH_SIZE = 2_000;
+
+    @Autowired
+    private ListingRepository listingRepository;
+
+    @Autowired
+    private ListingSearchIndex searchIndex;
+
+    // Annonces modifiées pendant la construction: la version chargée par lot peut être périmée
+    private final Set<Long> changedDuringBuild = ConcurrentHashMap.newKeySet();
+    private volatile boolean building;
+
+    /**
+     * Construire l'index en arrière-plan (la recherche reste sur PostgreSQL tant qu'il n'est pas prêt)
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        Thread builder = new Thread(this::build, "search-index-builder");
+        builder.setDaemon(true);
+        builder.start();
+    }
+
+    void build() {
+        building = true;
+        long start = System.currentTimeMillis();
+        try {
+            long afterId = 0L;
+            int indexed = 0;
+            while (true) {
+                List<IndexedListing> batch = listingRepository.findIndexedListings(
+                        ListingStatus.ACTIVE, afterId, PageRequest.of(0, BATCH_SIZE));
+                for (IndexedListing listing : batch) {
+                    if (!changedDuringBuild.contains(listing.id())) {
+                        searchIndex.index(listing);
+                        indexed++;
+                    }
+                }
+                if (batch.size() < BATCH_SIZE) {
+                    break;
+                }
+                afterId = batch.get(batch.size() - 1).id();
+            }
+            searchIndex.markReady();
+            System.out.println("🔎 Index de recherche prêt: " + indexed + " annonces en "
+                    + (System.currentTimeMillis() - start) + " ms");
+        } catch (Exception e) {
+            System.err.println("❌ Erreur construction index de recherche: " + e.getMessage());
+        } finally {
+            building = false;
+            changedDuringBuild.clear();
+        }
+    }
+
+    /**
+     * Répercuter une modification d'annonce dans l'index
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    @Transactional(propagation = Propagation.REQUIRES_NEW, readOnly = true)
+    public void onListingChanged(ListingChangedEvent event) {
+        Long listingId = event.getListingId();
+        if (building) {
+            changedDuringBuild.add(listingId);
+        }
+
+        if (event.getType() == ListingChangedEvent.Type.DELETED) {
+            searchIndex.remove(listingId);
+            return;
+        }
+
+        listingRepository.findIndexedListing(listingId, ListingStatus.ACTIVE)
+                .ifPresentOrElse(searchIndex::index, () -> searchIndex.remove(listingId));
+    }
+
+    /**
+     * Annonces expirées en masse: retirées de l'index sans relecture
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onListingsExpired(ListingsExpiredEvent event) {
+        for (Long listingId : event.getListingIds()) {
+            if (building) {
+                changedDuringBuild.add(listingId);
+            }
+            searchIndex.remove(listingId);
+        }
+    }
+}
@@ -0,0 +1,489 @@
+package com.camerannonces.search;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Index inversé en mémoire des annonces ACTIVE (titre, description, catégorie, ville, quartier)
+ * Score BM25 avec bonus premium et fraîcheur
+ * Activé avec search.backend=memory (voir SearchService)
+ */
+@Component
+@ConditionalOnProperty(name = "search.backend", havingValue = "memory")
+public class ListingSearchIndex {
+
+    // Paramètres BM25
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+
+    // Poids des champs (fréquence pondérée)
+    private static final int TITLE_WEIGHT = 3;
+    private static final int CATEGORY_WEIGHT = 2;
+    private static final int LOCATION_WEIGHT = 1;
+    private static final int DESCRIPTION_WEIGHT = 1;
+
+    // Bonus appliqués au score BM25
+    private static final double PREMIUM_BOOST = 1.3;
+    private static final double RECENCY_BOOST = 0.5;
+    private static final double RECENCY_HALF_LIFE_DAYS = 14.0;
+    private static final double MILLIS_PER_DAY = 86_400_000.0;
+    private static final double MAX_BOOST = PREMIUM_BOOST * (1 + RECENCY_BOOST);
+
+    // Compactage quand plus de 20% des documents sont supprimés
+    private static final double COMPACTION_RATIO = 0.2;
+    private static final int COMPACTION_MIN_DOCS = 1_000;
+
+    private static final int INITIAL_CAPACITY = 1_024;
+
+    // Annonce sans clé de ville: ne correspond à aucun filtre
+    private static final long NO_CITY = Long.MIN_VALUE;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Map<String, PostingList> postings = new HashMap<>();
+    private final Map<Long, Integer> docByListing = new HashMap<>();
+    private final BitSet deleted = new BitSet();
+
+    // Données par document (indexées par docId interne)
+    private long[] listingIds = new long[INITIAL_CAPACITY];
+    private long[] categoryIds = new long[INITIAL_CAPACITY];
+    private long[] cityIds = new long[INITIAL_CAPACITY];
+    private int[] docLengths = new int[INITIAL_CAPACITY];
+    private long[] dateReferences = new long[INITIAL_CAPACITY];
+    private boolean[] premium = new boolean[INITIAL_CAPACITY];
+
+    private int maxDoc;
+    private int liveDocs;
+    private long totalLength;
+
+    private volatile boolean ready;
+
+    // ============================================
+    // MISE À JOUR
+    // ============================================
+
+    /**
+     * Ajouter ou remplacer une annonce dans l'index
+     */
+    public void index(IndexedListing listing) {
+        Map<String, Integer> termFrequencies = termFrequencies(listing);
+        long dateReference = listing.dateReference() != null
+                ? listing.dateReference().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli()
+                : 0L;
+
+        lock.writeLock().lock();
+        try {
+            removeInternal(listing.id());
+
+            int doc = maxDoc++;
+            ensureCapacity(maxDoc);
+            listingIds[doc] = listing.id();
+            categoryIds[doc] = listing.categoryId() != null ? listing.categoryId() : -1L;
+            cityIds[doc] = listing.cityId() != null ? listing.cityId() : NO_CITY;
+            dateReferences[doc] = dateReference;
+            premium[doc] = Boolean.TRUE.equals(listing.isPremium());
+
+            int length = 0;
+            for (Map.Entry<String, Integer> entry : termFrequencies.entrySet()) {
+                postings.computeIfAbsent(entry.getKey(), term -> new PostingList()).add(doc, entry.getValue());
+                length += entry.getValue();
+            }
+            docLengths[doc] = length;
+            totalLength += length;
+            liveDocs++;
+            docByListing.put(listing.id(), doc);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Indexer un lot d'annonces (construction initiale)
+     */
+    public void indexAll(Collection<IndexedListing> listings) {
+        for (IndexedListing listing : listings) {
+            index(listing);
+        }
+    }
+
+    /**
+     * Retirer une annonce (vendue, supprimée, suspendue, expirée)
+     */
+    public void remove(Long listingId) {
+        lock.writeLock().lock();
+        try {
+            removeInternal(listingId);
+            if (maxDoc >= COMPACTION_MIN_DOCS && (maxDoc - liveDocs) > maxDoc * COMPACTION_RATIO) {
+                compact();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean contains(Long listingId) {
+        lock.readLock().lock();
+        try {
+            return docByListing.containsKey(listingId);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return liveDocs;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public void markReady() {
+        this.ready = true;
+    }
+
+    // ============================================
+    // RECHERCHE
+    // ============================================
+
+    /**
+     * Rechercher les annonces correspondant à au moins un des termes (OR), triées par pertinence
+     *
+     * @param terms      termes bruts (mot-clé enrichi), analysés ici
+     * @param categoryId filtre optionnel
+     * @param cityId     filtre optionnel (clé du référentiel, comme listings.city_id)
+     */
+    public SearchHits search(Collection<String> terms, Long categoryId, Long cityId, int offset, int limit) {
+        return search(terms, categoryId, cityId, offset, null, null, System.currentTimeMillis(), limit);
+    }
+
+    /**
+     * Page suivant la clé (score, id) de la dernière annonce renvoyée
+     * Le bonus de fraîcheur est calculé à l'instant de la première page (scoredAt): l'ordre ne change pas
+     * d'une page à l'autre
+     */
+    public SearchHits searchAfter(Collection<String> terms, Long categoryId, Long cityId,
+                                  Double afterScore, Long afterId, long scoredAt, int limit) {
+        return search(terms, categoryId, cityId, 0, afterScore, afterId, scoredAt, limit);
+    }
+
+    private SearchHits search(Collection<String> terms, Long categoryId, Long cityId, int offset,
+                              Double afterScore, Long afterId, long now, int limit) {
+        Set<String> tokens = new LinkedHashSet<>();
+        for (String term : terms) {
+            tokens.addAll(FrenchAnalyzer.analyze(term));
+        }
+        if (tokens.isEmpty() || limit <= 0) {
+            return new SearchHits(List.of(), 0);
+        }
+
+        lock.readLock().lock();
+        try {
+            // Un lecteur par terme présent dans l'index
+            List<PostingList.Reader> readerList = new ArrayList<>(tokens.size());
+            List<Double> idfList = new ArrayList<>(tokens.size());
+            for (String token : tokens) {
+                PostingList list = postings.get(token);
+                if (list != null) {
+                    PostingList.Reader reader = list.reader();
+                    if (reader.next()) {
+                        readerList.add(reader);
+                        idfList.add(idf(list.docFreq()));
+                    }
+                }
+            }
+            if (readerList.isEmpty()) {
+                return new SearchHits(List.of(), 0);
+            }
+
+            PostingList.Reader[] readers = readerList.toArray(new PostingList.Reader[0]);
+            double[] idfs = new double[readers.length];
+            for (int i = 0; i < idfs.length; i++) {
+                idfs[i] = idfList.get(i);
+            }
+            boolean[] exhausted = new boolean[readers.length];
+            int active = readers.length;
+
+            double avgLength = liveDocs > 0 ? (double) totalLength / liveDocs : 1.0;
+            // Un document de plus que la page: existence d'une page suivante
+            TopDocs top = new TopDocs(offset + limit + 1);
+            int totalHits = 0;
+
+            // Parcours document par document (fusion des listes triées), sans tableau de scores global
+            while (active > 0) {
+                int doc = Integer.MAX_VALUE;
+                for (int i = 0; i < readers.length; i++) {
+                    if (!exhausted[i] && readers[i].doc() < doc) {
+                        doc = readers[i].doc();
+                    }
+                }
+
+                // Filtres évalués avant le score: les documents écartés ne coûtent qu'un avancement
+                boolean accepted = !deleted.get(doc)
+                        && (categoryId == null || categoryIds[doc] == categoryId)
+                        && (cityId == null || cityIds[doc] == cityId);
+                double norm = accepted ? K1 * (1 - B + B * docLengths[doc] / avgLength) : 0;
+
+                double score = 0;
+                for (int i = 0; i < readers.length; i++) {
+                    if (!exhausted[i] && readers[i].doc() == doc) {
+                        if (accepted) {
+                            int tf = readers[i].termFreq();
+                            score += idfs[i] * (tf * (K1 + 1)) / (tf + norm);
+                        }
+                        if (!readers[i].next()) {
+                            exhausted[i] = true;
+                            active--;
+                        }
+                    }
+                }
+
+                if (!accepted) {
+                    continue;
+                }
+
+                totalHits++;
+                // Le bonus n'est calculé que si le document peut encore entrer dans le top k
+                if (top.accepts(score * MAX_BOOST)) {
+                    double boosted = score * boost(doc, now);
+                    // Déjà renvoyé dans une page précédente
+                    if (afterScore != null && !TopDocs.better(afterScore, afterId, boosted, listingIds[doc])) {
+                        continue;
+                    }
+                    top.offer(doc, boosted, listingIds[doc]);
+                }
+            }
+
+            TopDocs.Ranked ranked = top.sorted();
+            int end = Math.min(ranked.docs().length, offset + limit);
+            List<Long> ids = new ArrayList<>(Math.max(0, end - offset));
+            for (int i = offset; i < end; i++) {
+                ids.add(listingIds[ranked.docs()[i]]);
+            }
+            return new SearchHits(ids, totalHits, end > offset ? ranked.scores()[end - 1] : 0,
+                    ranked.docs().length > end);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private double idf(int docFreq) {
+        int n = Math.max(liveDocs, docFreq);
+        return Math.log(1 + (n - docFreq + 0.5) / (docFreq + 0.5));
+    }
+
+    private double boost(int doc, long now) {
+        double boost = premium[doc] ? PREMIUM_BOOST : 1.0;
+        if (dateReferences[doc] > 0) {
+            double ageDays = Math.max(0, (now - dateReferences[doc]) / MILLIS_PER_DAY);
+            boost *= 1 + RECENCY_BOOST * Math.pow(0.5, ageDays / RECENCY_HALF_LIFE_DAYS);
+        }
+        return boost;
+    }
+
+    // ============================================
+    // INTERNE
+    // ============================================
+
+    private Map<String, Integer> termFrequencies(IndexedListing listing) {
+        Map<String, Integer> frequencies = new HashMap<>();
+        addField(frequencies, listing.titre(), TITLE_WEIGHT);
+        addField(frequencies, listing.description(), DESCRIPTION_WEIGHT);
+        addField(frequencies, listing.categoryNom(), CATEGORY_WEIGHT);
+        addField(frequencies, listing.ville(), LOCATION_WEIGHT);
+        addField(frequencies, listing.quartier(), LOCATION_WEIGHT);
+        return frequencies;
+    }
+
+    private void addField(Map<String, Integer> frequencies, String text, int weight) {
+        for (String token : FrenchAnalyzer.analyze(text)) {
+            frequencies.merge(token, weight, Integer::sum);
+        }
+    }
+
+    private void removeInternal(Long listingId) {
+        Integer doc = docByListing.remove(listingId);
+        if (doc != null) {
+            deleted.set(doc);
+            liveDocs--;
+            totalLength -= docLengths[doc];
+        }
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > listingIds.length) {
+            int newCapacity = Math.max(capacity, listingIds.length * 2);
+            listingIds = Arrays.copyOf(listingIds, newCapacity);
+            categoryIds = Arrays.copyOf(categoryIds, newCapacity);
+            cityIds = Arrays.copyOf(cityIds, newCapacity);
+            docLengths = Arrays.copyOf(docLengths, newCapacity);
+            dateReferences = Arrays.copyOf(dateReferences, newCapacity);
+            premium = Arrays.copyOf(premium, newCapacity);
+        }
+    }
+
+    /**
+     * Renuméroter les documents vivants et réécrire les postings sans les supprimés
+     * Appelé sous verrou d'écriture
+     */
+    private void compact() {
+        int[] remap = new int[maxDoc];
+        int next = 0;
+        for (int doc = 0; doc < maxDoc; doc++) {
+            if (deleted.get(doc)) {
+                remap[doc] = -1;
+            } else {
+                remap[doc] = next;
+                listingIds[next] = listingIds[doc];
+                categoryIds[next] = categoryIds[doc];
+                cityIds[next] = cityIds[doc];
+                docLengths[next] = docLengths[doc];
+                dateReferences[next] = dateReferences[doc];
+                premium[next] = premium[doc];
+                next++;
+            }
+        }
+
+        postings.replaceAll((term, list) -> {
+            PostingList compacted = new PostingList();
+            PostingList.Reader reader = list.reader();
+            while (reader.next()) {
+                int newDoc = remap[reader.doc()];
+                if (newDoc >= 0) {
+                    compacted.add(newDoc, reader.termFreq());
+                }
+            }
+            compacted.trim();
+            return compacted;
+        });
+        postings.values().removeIf(list -> list.docFreq() == 0);
+
+        docByListing.clear();
+        for (int doc = 0; doc < next; doc++) {
+            docByListing.put(listingIds[doc], doc);
+        }
+        deleted.clear();
+        maxDoc = next;
+        System.out.println("🗜️ Index de recherche compacté: " + maxDoc + " annonces, " + postings.size() + " termes");
+    }
+
+    /**
+     * Les k meilleurs documents (tas min de taille k)
+     */
+    private static final class TopDocs {
+        private final int[] docs;
+        private final double[] scores;
+        private final long[] tieBreakers;
+        private int size;
+
+        TopDocs(int capacity) {
+            this.docs = new int[capacity];
+            this.scores = new double[capacity];
+            this.tieBreakers = new long[capacity];
+        }
+
+        /**
+         * Un document de ce score maximal peut-il encore entrer ?
+         */
+        boolean accepts(double maxScore) {
+            return size < docs.length || maxScore >= scores[0];
+        }
+
+        void offer(int doc, double score, long tieBreaker) {
+            if (size < docs.length) {
+                docs[size] = doc;
+                scores[size] = score;
+                tieBreakers[size] = tieBreaker;
+                siftUp(size++);
+            } else if (better(score, tieBreaker, scores[0], tieBreakers[0])) {
+                docs[0] = doc;
+                scores[0] = score;
+                tieBreakers[0] = tieBreaker;
+                siftDown(0);
+            }
+        }
+
+        /**
+         * Documents (et leurs scores) du meilleur au moins bon
+         */
+        record Ranked(int[] docs, double[] scores) {}
+
+        Ranked sorted() {
+            int[] sortedDocs = new int[size];
+            double[] sortedScores = new double[size];
+            for (int i = size - 1; i >= 0; i--) {
+                sortedDocs[i] = docs[0];
+                sortedScores[i] = scores[0];
+                swap(0, --size);
+                siftDown(0);
+            }
+            return new Ranked(sortedDocs, sortedScores);
+        }
+
+        // Score plus élevé d'abord, puis id le plus récent
+        private static boolean better(double score, long tie, double otherScore, long otherTie) {
+            return score > otherScore || (score == otherScore && tie > otherTie);
+        }
+
+        private void siftUp(int i) {
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+                if (better(scores[parent], tieBreakers[parent], scores[i], tieBreakers[i])) {
+                    swap(i, parent);
+                    i = parent;
+                } else {
+                    return;
+                }
+            }
+        }
+
+        private void siftDown(int i) {
+            while (true) {
+                int left = 2 * i + 1;
+                if (left >= size) {
+                    return;
+                }
+                int worst = left;
+                int right = left + 1;
+                if (right < size && better(scores[left], tieBreakers[left], scores[right], tieBreakers[right])) {
+                    worst = right;
+                }
+                if (better(scores[i], tieBreakers[i], scores[worst], tieBreakers[worst])) {
+                    swap(i, worst);
+                    i = worst;
+                } else {
+                    return;
+                }
+            }
+        }
+
+        private void swap(int a, int b) {
+            int doc = docs[a];
+            docs[a] = docs[b];
+            docs[b] = doc;
+            double score = scores[a];
+            scores[a] = scores[b];
+            scores[b] = score;
+            long tie = tieBreakers[a];
+            tieBreakers[a] = tieBreakers[b];
+            tieBreakers[b] = tie;
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.camerannonces.search;
+
+import java.util.Arrays;
+
+/**
+ * Liste de postings compressée: paires (écart de docId, fréquence) encodées en varint
+ * Les docIds sont ajoutés dans l'ordre croissant (un nouveau document reçoit toujours un nouvel id)
+ */
+final class PostingList {
+
+    private byte[] data = new byte[8];
+    private int size;
+    private int lastDoc = -1;
+    private int docFreq;
+
+    void add(int doc, int termFreq) {
+        if (doc <= lastDoc) {
+            throw new IllegalArgumentException("docId non croissant: " + doc + " <= " + lastDoc);
+        }
+        ensureCapacity(10);
+        writeVInt(doc - lastDoc);
+        writeVInt(termFreq);
+        lastDoc = doc;
+        docFreq++;
+    }
+
+    /**
+     * Nombre de documents de la liste (documents supprimés compris jusqu'au compactage)
+     */
+    int docFreq() {
+        return docFreq;
+    }
+
+    int sizeInBytes() {
+        return size;
+    }
+
+    Reader reader() {
+        return new Reader(data, size);
+    }
+
+    /**
+     * Réduire le tableau à la taille utile
+     */
+    void trim() {
+        if (data.length > size) {
+            data = Arrays.copyOf(data, Math.max(size, 1));
+        }
+    }
+
+    private void ensureCapacity(int extra) {
+        if (size + extra > data.length) {
+            data = Arrays.copyOf(data, Math.max(data.length * 2, size + extra));
+        }
+    }
+
+    private void writeVInt(int value) {
+        while ((value & ~0x7F) != 0) {
+            data[size++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        data[size++] = (byte) value;
+    }
+
+    /**
+     * Parcours séquentiel des postings
+     */
+    static final class Reader {
+        private final byte[] data;
+        private final int limit;
+        private int pos;
+        private int doc = -1;
+        private int termFreq;
+
+        private Reader(byte[] data, int limit) {
+            this.data = data;
+            this.limit = limit;
+        }
+
+        boolean next() {
+            if (pos >= limit) {
+                return false;
+            }
+            doc += readVInt();
+            termFreq = readVInt();
+            return true;
+        }
+
+        int doc() {
+            return doc;
+        }
+
+        int termFreq() {
+            return termFreq;
+        }
+
+        private int readVInt() {
+            int value = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = data[pos++];
+                value |= (b & 0x7F) << shift;
+                shift += 7;
+            } while ((b & 0x80) != 0);
+            return value;
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.camerannonces.search;
+
+import java.util.List;
+
+/**
+ * Résultat d'une recherche dans l'index: ids des annonces de la page (ordre de pertinence) et total
+ * lastScore: score de la dernière annonce de la page (clé du curseur), hasMore: d'autres résultats suivent
+ */
+public record SearchHits(List<Long> listingIds, int totalHits, double lastScore, boolean hasMore) {
+
+    public SearchHits(List<Long> listingIds, int totalHits) {
+        this(listingIds, totalHits, 0, false);
+    }
+}
@@ -2,10 +2,12 @@ package com.camerannonces.service;
 
 import com.camerannonces.entity.User;
 import com.camerannonces.enums.PlanType;
+import com.camerannonces.event.UserChangedEvent;
 import com.camerannonces.jwt.JwtResponse;
 import com.camerannonces.jwt.JwtTokenProvider;
 import com.camerannonces.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -37,6 +39,9 @@ public class AuthService {
     @Autowired
     private AfricasTalkingSmsService smsService;
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     /**
      * Inscription d'un nouvel utilisateur avec JWT (ancienne méthode - téléphone uniquement)
      */
@@ -408,6 +413,7 @@ public class AuthService {
         // Désactiver l'utilisateur
         user.setIsActive(false);
         userRepository.save(user);
+        eventPublisher.publishEvent(new UserChangedEvent(userId));
     }
 
     /**
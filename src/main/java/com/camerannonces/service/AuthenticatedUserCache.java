@@ -0,0 +1,83 @@
+package com.camerannonces.service;
+
+import com.camerannonces.dto.AuthenticatedUser;
+import com.camerannonces.event.UserChangedEvent;
+import com.camerannonces.repository.UserRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+
+/**
+ * Utilisateurs authentifiés (id, plan, compte actif) pour les contrôleurs, à partir de l'attribut
+ * "userId" posé par JwtAuthenticationFilter: une requête SQL par utilisateur et par intervalle,
+ * au lieu d'une par requête HTTP
+ * Invalidé après commit de UserChangedEvent (suspension, réactivation, changement de plan);
+ * l'expiration courte couvre les modifications faites par une autre instance.
+ */
+@Service
+public class AuthenticatedUserCache {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${auth.user-cache.max-size:10000}")
+    private long maxSize;
+
+    @Value("${auth.user-cache.ttl-seconds:30}")
+    private long ttlSeconds;
+
+    private Cache<Long, AuthenticatedUser> cache;
+
+    @PostConstruct
+    void init() {
+        cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "auth.user");
+    }
+
+    /**
+     * Utilisateur de la requête, compte actif obligatoire
+     */
+    public AuthenticatedUser require(Long userId) {
+        if (userId == null) {
+            throw new RuntimeException("Utilisateur non authentifié");
+        }
+
+        // Chargements concurrents d'un même utilisateur regroupés; un utilisateur absent n'est pas gardé
+        AuthenticatedUser user = cache.get(userId, id -> userRepository.findAuthenticatedUser(id).orElse(null));
+        if (user == null) {
+            throw new RuntimeException("Utilisateur non trouvé");
+        }
+        if (!user.active()) {
+            throw new RuntimeException("Compte suspendu");
+        }
+        return user;
+    }
+
+    public void invalidate(Long userId) {
+        cache.invalidate(userId);
+    }
+
+    /**
+     * Un chargement en cours pendant le commit est attendu puis retiré (invalidate attend le calcul de la clé)
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        invalidate(event.getUserId());
+    }
+}
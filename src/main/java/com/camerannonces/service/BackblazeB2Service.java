@@ -66,20 +66,30 @@ public class BackblazeB2Service {
         String extension = originalFilename != null && originalFilename.contains(".")
                 ? originalFilename.substring(originalFilename.lastIndexOf("."))
                 : ".jpg";
+        return uploadBytes(file.getBytes(), file.getContentType(), folder, extension);
+    }
+
+    /**
+     * Upload un contenu déjà en mémoire (variantes produites par ImageProcessingPipeline)
+     * Appelable depuis plusieurs threads: S3Client est thread-safe
+     * @param extension Extension du fichier, point compris (ex: ".jpg")
+     * @return URL publique du fichier
+     */
+    public String uploadBytes(byte[] content, String contentType, String folder, String extension) {
         String fileName = folder + "/" + UUID.randomUUID().toString() + extension;
 
         // Upload vers B2
         PutObjectRequest putObjectRequest = PutObjectRequest.builder()
                 .bucket(bucketName)
                 .key(fileName)
-                .contentType(file.getContentType())
+                .contentType(contentType)
                 .acl(ObjectCannedACL.PUBLIC_READ) // Public accessible
                 .build();
 
-        s3Client.putObject(putObjectRequest, RequestBody.fromBytes(file.getBytes()));
+        s3Client.putObject(putObjectRequest, RequestBody.fromBytes(content));
 
         // Générer URL publique
-        String publicUrl = endpoint.replace("https://", "https://") + "/" + bucketName + "/" + fileName;
+        String publicUrl = endpoint + "/" + bucketName + "/" + fileName;
 
         System.out.println("✅ File uploaded: " + fileName);
         System.out.println("🔗 URL: " + publicUrl);
@@ -93,18 +103,11 @@ public class BackblazeB2Service {
      */
     public void deleteFile(String fileUrl) {
         try {
-            // Extraire le nom du fichier de l'URL
-            String fileName = fileUrl.substring(fileUrl.lastIndexOf("/") + 1);
-
-            // Trouver le dossier (profiles/ ou listings/)
-            String folder = "";
-            if (fileUrl.contains("/profiles/")) {
-                folder = "profiles/";
-            } else if (fileUrl.contains("/listings/")) {
-                folder = "listings/";
-            }
-
-            String key = folder + fileName;
+            // Clé = chemin complet après le bucket (ex: listings/thumbnails/<uuid>.jpg)
+            String bucketPrefix = "/" + bucketName + "/";
+            String key = fileUrl.contains(bucketPrefix)
+                    ? fileUrl.substring(fileUrl.indexOf(bucketPrefix) + bucketPrefix.length())
+                    : fileUrl.substring(fileUrl.lastIndexOf("/") + 1);
 
             DeleteObjectRequest deleteObjectRequest = DeleteObjectRequest.builder()
                     .bucket(bucketName)
@@ -1,12 +1,19 @@
 package com.camerannonces.service;
 
 import com.camerannonces.entity.Category;
+import com.camerannonces.enums.ListingStatus;
+import com.camerannonces.event.ReferenceDataChangedEvent;
+import com.camerannonces.reference.CategoryRef;
+import com.camerannonces.reference.ReferenceDataRegistry;
+import com.camerannonces.reference.ReferenceDataSnapshot;
 import com.camerannonces.repository.CategoryRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @Service
@@ -16,53 +23,69 @@ public class CategoryService {
     @Autowired
     private CategoryRepository categoryRepository;
 
+    @Autowired
+    private ReferenceDataRegistry referenceData;
+
+    @Autowired
+    private ListingStatsService listingStatsService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     /**
      * Obtenir toutes les catégories actives ordonnées
      */
-    public List<Category> getAllActiveCategories() {
-        return categoryRepository.findByIsActiveTrueOrderByOrdreAffichage();
+    public List<CategoryRef> getAllActiveCategories() {
+        return referenceData.snapshot().getActiveCategories();
     }
 
     /**
      * Obtenir toutes les catégories
      */
-    public List<Category> getAllCategories() {
-        return categoryRepository.findAllByOrderByOrdreAffichage();
+    public List<CategoryRef> getAllCategories() {
+        return referenceData.snapshot().getCategories();
     }
 
     /**
      * Obtenir une catégorie par ID
      */
-    public Optional<Category> getCategoryById(Long id) {
-        return categoryRepository.findById(id);
+    public Optional<CategoryRef> getCategoryById(Long id) {
+        return referenceData.snapshot().getCategory(id);
     }
 
     /**
      * Obtenir une catégorie par nom
      */
-    public Optional<Category> getCategoryByNom(String nom) {
-        return categoryRepository.findByNom(nom);
+    public Optional<CategoryRef> getCategoryByNom(String nom) {
+        return referenceData.snapshot().getCategoryByNom(nom);
     }
 
     /**
-     * Rechercher des catégories
+     * Rechercher des catégories (préfixes de mots, sans accents: "telephon", "electro")
      */
-    public List<Category> searchCategories(String keyword) {
-        return categoryRepository.searchByKeyword(keyword);
+    public List<CategoryRef> searchCategories(String keyword) {
+        return referenceData.snapshot().searchCategories(keyword);
     }
 
     /**
-     * Obtenir les catégories avec le nombre d'annonces
+     * Obtenir les catégories avec le nombre d'annonces (tous statuts): [CategoryRef, Long]
      */
     public List<Object[]> getCategoriesWithListingCount() {
-        return categoryRepository.getCategoriesWithListingCount();
+        Map<String, Long> counts = listingStatsService.countsAllStatuses(ListingStatsService.Dimension.CATEGORY);
+        return referenceData.snapshot().getCategories().stream()
+                .map(category -> new Object[]{category, counts.getOrDefault(String.valueOf(category.id()), 0L)})
+                .toList();
     }
 
     /**
-     * Obtenir les catégories les plus populaires
+     * Obtenir les catégories les plus populaires (annonces actives)
      */
-    public List<Category> getMostPopularCategories() {
-        return categoryRepository.findMostPopularCategories();
+    public List<CategoryRef> getMostPopularCategories() {
+        ReferenceDataSnapshot snapshot = referenceData.snapshot();
+        return listingStatsService.countsByStatus(ListingStatsService.Dimension.CATEGORY, ListingStatus.ACTIVE)
+                .keySet().stream()
+                .flatMap(id -> snapshot.getCategory(Long.valueOf(id)).stream())
+                .toList();
     }
 
     /**
@@ -84,7 +107,9 @@ public class CategoryService {
         category.setOrdreAffichage(ordreAffichage);
         category.setIsActive(true);
 
-        return categoryRepository.save(category);
+        Category saved = categoryRepository.save(category);
+        eventPublisher.publishEvent(new ReferenceDataChangedEvent(ReferenceDataChangedEvent.Type.CATEGORY));
+        return saved;
     }
 
     /**
@@ -103,7 +128,9 @@ public class CategoryService {
         if (ordreAffichage != null) category.setOrdreAffichage(ordreAffichage);
         if (isActive != null) category.setIsActive(isActive);
 
-        return categoryRepository.save(category);
+        Category saved = categoryRepository.save(category);
+        eventPublisher.publishEvent(new ReferenceDataChangedEvent(ReferenceDataChangedEvent.Type.CATEGORY));
+        return saved;
     }
 
     /**
@@ -116,5 +143,6 @@ public class CategoryService {
 
         category.setIsActive(!category.getIsActive());
         categoryRepository.save(category);
+        eventPublisher.publishEvent(new ReferenceDataChangedEvent(ReferenceDataChangedEvent.Type.CATEGORY));
     }
 }
\ No newline at end of file
@@ -2,9 +2,16 @@ package com.camerannonces.service;
 
 import com.camerannonces.entity.City;
 import com.camerannonces.entity.Quartier;
+import com.camerannonces.enums.ListingStatus;
+import com.camerannonces.event.ReferenceDataChangedEvent;
+import com.camerannonces.reference.CityRef;
+import com.camerannonces.reference.QuartierRef;
+import com.camerannonces.reference.ReferenceDataRegistry;
+import com.camerannonces.reference.ReferenceDataSnapshot;
 import com.camerannonces.repository.CityRepository;
 import com.camerannonces.repository.QuartierRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -21,67 +28,83 @@ public class CityService {
     @Autowired
     private QuartierRepository quartierRepository;
 
+    @Autowired
+    private ReferenceDataRegistry referenceData;
+
+    @Autowired
+    private ListingStatsService listingStatsService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     /**
      * Obtenir toutes les villes actives
      */
-    public List<City> getAllActiveCities() {
-        return cityRepository.findByIsActiveTrueOrderByNom();
+    public List<CityRef> getAllActiveCities() {
+        return referenceData.snapshot().getActiveCities();
     }
 
     /**
      * Obtenir toutes les régions
      */
     public List<String> getAllRegions() {
-        return cityRepository.findAllRegions();
+        return referenceData.snapshot().getRegions();
     }
 
     /**
      * Obtenir les villes par région
      */
-    public List<City> getCitiesByRegion(String region) {
-        return cityRepository.findByRegionAndIsActiveTrue(region);
+    public List<CityRef> getCitiesByRegion(String region) {
+        return referenceData.snapshot().getActiveCitiesByRegion(region);
     }
 
     /**
      * Obtenir une ville par ID
      */
-    public Optional<City> getCityById(Long id) {
-        return cityRepository.findById(id);
+    public Optional<CityRef> getCityById(Long id) {
+        return referenceData.snapshot().getCity(id);
     }
 
     /**
      * Obtenir une ville par nom
      */
-    public Optional<City> getCityByNom(String nom) {
-        return cityRepository.findByNom(nom);
+    public Optional<CityRef> getCityByNom(String nom) {
+        return referenceData.snapshot().getCityByNom(nom);
     }
 
     /**
-     * Rechercher des villes
+     * Rechercher des villes (préfixes de mots du nom ou de la région, sans accents)
      */
-    public List<City> searchCities(String keyword) {
-        return cityRepository.searchByKeyword(keyword);
+    public List<CityRef> searchCities(String keyword) {
+        return referenceData.snapshot().searchCities(keyword);
     }
 
     /**
      * Obtenir les villes avec des annonces actives
      */
-    public List<City> getCitiesWithActiveListings() {
-        return cityRepository.findCitiesWithActiveListings();
+    public List<CityRef> getCitiesWithActiveListings() {
+        return getMostPopularCities().stream()
+                .map(data -> (CityRef) data[0])
+                .toList();
     }
 
     /**
-     * Obtenir les villes les plus populaires (avec le plus d'annonces)
+     * Obtenir les villes les plus populaires (avec le plus d'annonces actives): [CityRef, Long]
      */
     public List<Object[]> getMostPopularCities() {
-        return cityRepository.findMostPopularCities();
+        ReferenceDataSnapshot snapshot = referenceData.snapshot();
+        return listingStatsService.countsByStatus(ListingStatsService.Dimension.CITY, ListingStatus.ACTIVE)
+                .entrySet().stream()
+                .flatMap(count -> snapshot.getCity(Long.valueOf(count.getKey())).stream()
+                        .map(city -> new Object[]{city, count.getValue()}))
+                .toList();
     }
 
     /**
      * Obtenir les statistiques par région
      */
     public List<Object[]> getCitiesStatsByRegion() {
-        return cityRepository.countCitiesByRegion();
+        return referenceData.snapshot().getCityCountsByRegion();
     }
 
     // ============================================
@@ -91,43 +114,57 @@ public class CityService {
     /**
      * Obtenir tous les quartiers d'une ville
      */
-    public List<Quartier> getQuartiersByCity(Long cityId) {
-        return quartierRepository.findByCityIdAndIsActiveTrue(cityId);
+    public List<QuartierRef> getQuartiersByCity(Long cityId) {
+        return referenceData.snapshot().getActiveQuartiersByCity(cityId);
     }
 
     /**
      * Obtenir tous les quartiers d'une ville par nom
      */
-    public List<Quartier> getQuartiersByCityName(String cityName) {
-        return quartierRepository.findByCityNameAndActive(cityName);
+    public List<QuartierRef> getQuartiersByCityName(String cityName) {
+        return referenceData.snapshot().getActiveQuartiersByCityNom(cityName);
     }
 
     /**
      * Obtenir tous les quartiers par région
      */
-    public List<Quartier> getQuartiersByRegion(String region) {
-        return quartierRepository.findByRegion(region);
+    public List<QuartierRef> getQuartiersByRegion(String region) {
+        return referenceData.snapshot().getQuartiersByRegion(region);
     }
 
     /**
-     * Rechercher des quartiers
+     * Rechercher des quartiers (préfixes de mots du quartier ou de sa ville, sans accents)
      */
-    public List<Quartier> searchQuartiers(String keyword) {
-        return quartierRepository.searchByKeyword(keyword);
+    public List<QuartierRef> searchQuartiers(String keyword) {
+        return referenceData.snapshot().searchQuartiers(keyword);
     }
 
     /**
      * Obtenir les quartiers avec des annonces actives
      */
-    public List<Quartier> getQuartiersWithActiveListings() {
-        return quartierRepository.findQuartiersWithActiveListings();
+    public List<QuartierRef> getQuartiersWithActiveListings() {
+        return getMostPopularQuartiers().stream()
+                .map(data -> (QuartierRef) data[0])
+                .toList();
     }
 
     /**
-     * Obtenir les quartiers les plus populaires
+     * Obtenir les quartiers les plus populaires (annonces actives): [QuartierRef, Long]
      */
     public List<Object[]> getMostPopularQuartiers() {
-        return quartierRepository.findMostPopularQuartiers();
+        ReferenceDataSnapshot snapshot = referenceData.snapshot();
+        return listingStatsService.countsByStatus(ListingStatsService.Dimension.QUARTIER, ListingStatus.ACTIVE)
+                .entrySet().stream()
+                .flatMap(count -> snapshot.getQuartier(Long.valueOf(count.getKey())).stream()
+                        .map(quartier -> new Object[]{quartier, count.getValue()}))
+                .toList();
+    }
+
+    /**
+     * Quartier chargé depuis la base, avec sa ville lue dans le référentiel
+     */
+    public QuartierRef toRef(Quartier quartier) {
+        return referenceData.toRef(quartier);
     }
 
     /**
@@ -144,7 +181,9 @@ public class CityService {
         city.setRegion(region);
         city.setIsActive(true);
 
-        return cityRepository.save(city);
+        City saved = cityRepository.save(city);
+        eventPublisher.publishEvent(new ReferenceDataChangedEvent(ReferenceDataChangedEvent.Type.CITY));
+        return saved;
     }
 
     /**
@@ -165,6 +204,8 @@ public class CityService {
         quartier.setCity(city);
         quartier.setIsActive(true);
 
-        return quartierRepository.save(quartier);
+        Quartier saved = quartierRepository.save(quartier);
+        eventPublisher.publishEvent(new ReferenceDataChangedEvent(ReferenceDataChangedEvent.Type.QUARTIER));
+        return saved;
     }
 }
\ No newline at end of file
@@ -0,0 +1,158 @@
+package com.camerannonces.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.MemoryCacheImageInputStream;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Décodage des images en mémoire bornée
+ * - Dimensions lues dans l'en-tête (ImageReader), sans décoder les pixels
+ * - Décodage sous-échantillonné (ImageReadParam.setSourceSubsampling): une photo 4000x3000 destinée
+ *   à une variante de 1200 px est lue en 1334x1000 (5 Mo au lieu de 48 Mo)
+ * - Sémaphore global en Ko: la mémoire des images décodées et de leurs variantes, tous threads confondus,
+ *   reste sous image.decode.max-memory-mb; les décodages suivants attendent
+ */
+@Component
+public class ImageDecoder {
+
+    // Image décodée + copies réduites pendant le traitement
+    private static final int WORKING_COPIES = 2;
+    private static final int BYTES_PER_PIXEL = 4;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${image.decode.max-memory-mb:192}")
+    private int maxMemoryMb;
+
+    @Value("${image.decode.max-pixels:50000000}")
+    private long maxPixels;
+
+    private Semaphore memory;
+    private int totalKb;
+    private Timer waitTimer;
+
+    /**
+     * Dimensions lues dans l'en-tête
+     */
+    public record Dimensions(int width, int height) {}
+
+    @PostConstruct
+    void init() {
+        totalKb = maxMemoryMb * 1024;
+        memory = new Semaphore(totalKb, true);
+        Gauge.builder("image.decode.memory.available", memory, permits -> permits.availablePermits() / 1024.0)
+                .description("Mémoire de décodage encore disponible (Mo)")
+                .baseUnit("megabytes")
+                .register(meterRegistry);
+        waitTimer = Timer.builder("image.decode.wait")
+                .description("Attente de mémoire de décodage")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Lire largeur et hauteur sans décoder l'image
+     */
+    public Dimensions probe(byte[] content) {
+        return withReader(content, reader -> {
+            try {
+                return new Dimensions(reader.getWidth(0), reader.getHeight(0));
+            } catch (IOException e) {
+                throw new RuntimeException("Image illisible: " + e.getMessage(), e);
+            }
+        });
+    }
+
+    /**
+     * Décoder au plus près de la taille visée puis appliquer le traitement, sous le budget mémoire global
+     * L'image décodée ne doit pas sortir de work: la mémoire réservée est rendue à la fin
+     * @param targetWidth  largeur minimale voulue après décodage
+     * @param targetHeight hauteur minimale voulue (0: seule la largeur compte)
+     */
+    public <T> T decode(byte[] content, int targetWidth, int targetHeight, Function<BufferedImage, T> work) {
+        return withReader(content, reader -> {
+            try {
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                if ((long) width * height > maxPixels) {
+                    throw new RuntimeException("Image trop grande (" + width + "x" + height + ")");
+                }
+
+                // Facteur entier: l'image lue reste au moins aussi grande que la cible
+                int factor = Math.max(1, Math.min(width / targetWidth,
+                        targetHeight > 0 ? height / targetHeight : Integer.MAX_VALUE));
+                int permits = permitsFor(ceilDiv(width, factor), ceilDiv(height, factor));
+
+                acquire(permits);
+                try {
+                    ImageReadParam param = reader.getDefaultReadParam();
+                    param.setSourceSubsampling(factor, factor, 0, 0);
+                    BufferedImage image = reader.read(0, param);
+                    return work.apply(image);
+                } finally {
+                    memory.release(permits);
+                }
+            } catch (IOException e) {
+                throw new RuntimeException("Image illisible: " + e.getMessage(), e);
+            }
+        });
+    }
+
+    private int permitsFor(int width, int height) {
+        long kb = (long) width * height * BYTES_PER_PIXEL * WORKING_COPIES / 1024 + 1;
+        // Une image plus grosse que le budget passe seule
+        return (int) Math.min(kb, totalKb);
+    }
+
+    private void acquire(int permits) {
+        long start = System.nanoTime();
+        try {
+            memory.acquire(permits);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Décodage interrompu", e);
+        } finally {
+            waitTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private static <T> T withReader(byte[] content, Function<ImageReader, T> action) {
+        // Cache en mémoire: ImageIO.createImageInputStream passerait par un fichier temporaire
+        try (ImageInputStream input = new MemoryCacheImageInputStream(new ByteArrayInputStream(content))) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) {
+                throw new RuntimeException("Format d'image illisible");
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                return action.apply(reader);
+            } finally {
+                reader.dispose();
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Image illisible: " + e.getMessage(), e);
+        }
+    }
+
+    private static int ceilDiv(int value, int divisor) {
+        return (value + divisor - 1) / divisor;
+    }
+}
@@ -0,0 +1,347 @@
+package com.camerannonces.service;
+
+import com.camerannonces.enums.ImageStatus;
+import com.camerannonces.event.ListingImageUploadedEvent;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import net.coobird.thumbnailator.Thumbnails;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Traitement asynchrone des images d'annonces, hors des threads Tomcat
+ * - ImageService enregistre l'image (EN_COURS) et publie ListingImageUploadedEvent; après le commit,
+ *   le contenu entre dans une file bornée servie par un petit pool de workers
+ * - Un seul décodage par image, sous-échantillonné et sous le budget mémoire d'ImageDecoder:
+ *   1200 px (url), puis 600 px (mediumUrl) et 300 px (thumbnailUrl) dérivées de la variante précédente
+ * - Les trois variantes sont uploadées en parallèle vers B2, puis ImageService passe l'image en PRET
+ * - File pleine: le contrôleur refuse l'upload (hasCapacity); les clients suivent le traitement via
+ *   GET /api/images/{id}/status, avec attente optionnelle (whenProcessed)
+ * Métriques: image.pipeline.queue.depth, image.pipeline.active, image.pipeline.stage{stage},
+ * image.pipeline.images{result=pret|echec|rejete|supprime}
+ */
+@Service
+public class ImageProcessingPipeline {
+
+    private static final int LARGE_WIDTH = 1200;
+    private static final int MEDIUM_WIDTH = 600;
+
+    @Autowired
+    private ImageService imageService;
+
+    @Autowired
+    private ImageDecoder imageDecoder;
+
+    @Autowired
+    private BackblazeB2Service backblazeService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${upload.thumbnail-size:300}")
+    private int thumbnailSize;
+
+    @Value("${image.pipeline.workers:2}")
+    private int workers;
+
+    @Value("${image.pipeline.queue-capacity:32}")
+    private int queueCapacity;
+
+    @Value("${image.pipeline.upload-threads:6}")
+    private int uploadThreads;
+
+    private ThreadPoolExecutor workerPool;
+    private ExecutorService uploadPool;
+
+    // Images acceptées par ce nœud et pas encore traitées: statut final attendu par les clients
+    private final Map<Long, CompletableFuture<ImageStatus>> inFlight = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    void start() {
+        workerPool = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), threadFactory("image-worker-"));
+        uploadPool = Executors.newFixedThreadPool(uploadThreads, threadFactory("image-upload-"));
+
+        Gauge.builder("image.pipeline.queue.depth", workerPool, pool -> pool.getQueue().size())
+                .description("Images acceptées en attente d'un worker")
+                .register(meterRegistry);
+        Gauge.builder("image.pipeline.active", workerPool, ThreadPoolExecutor::getActiveCount)
+                .description("Images en cours de traitement")
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    void stop() {
+        // Images encore en file: ECHEC, le vendeur pourra les renvoyer; celles en cours se terminent
+        List<Runnable> pending = new ArrayList<>();
+        workerPool.getQueue().drainTo(pending);
+        workerPool.shutdown();
+        for (Runnable task : pending) {
+            if (task instanceof Job job) {
+                fail(job.imageId, "arrêt du serveur");
+            }
+        }
+        try {
+            workerPool.awaitTermination(30, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        uploadPool.shutdown();
+    }
+
+    /**
+     * Place disponible dans la file (vérifiée avant d'accepter un upload)
+     */
+    public boolean hasCapacity() {
+        return hasCapacity(1);
+    }
+
+    /**
+     * Place disponible pour un upload multiple
+     */
+    public boolean hasCapacity(int images) {
+        return workerPool.getQueue().remainingCapacity() >= images;
+    }
+
+    /**
+     * Statut final d'une image acceptée par ce nœud, ou null si elle n'est plus (ou pas) en traitement ici
+     */
+    public CompletableFuture<ImageStatus> whenProcessed(Long imageId) {
+        return inFlight.get(imageId);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onImageUploaded(ListingImageUploadedEvent event) {
+        inFlight.put(event.getImageId(), new CompletableFuture<>());
+        try {
+            workerPool.execute(new Job(event.getImageId(), event.getContent()));
+        } catch (RejectedExecutionException e) {
+            // File remplie entre hasCapacity() et le commit
+            meterRegistry.counter("image.pipeline.images", "result", "rejete").increment();
+            fail(event.getImageId(), "file de traitement pleine");
+        }
+    }
+
+    // ============================================
+    // TRAITEMENT
+    // ============================================
+
+    private void process(Job job) {
+        stage("queue").record(System.nanoTime() - job.acceptedAt, TimeUnit.NANOSECONDS);
+        try {
+            // Pixels en mémoire seulement pendant decode: les uploads ne portent que les JPEG encodés
+            long decodeStart = System.nanoTime();
+            Variants variants = imageDecoder.decode(job.takeContent(), LARGE_WIDTH, 0, source -> {
+                stage("decode").record(System.nanoTime() - decodeStart, TimeUnit.NANOSECONDS);
+                return encodeVariants(source);
+            });
+
+            String[] urls = stage("upload").record(() -> uploadAll(
+                    variant(variants.large(), "listings"),
+                    variant(variants.medium(), "listings/medium"),
+                    variant(variants.thumbnail(), "listings/thumbnails")));
+
+            boolean recorded = stage("record").record(() ->
+                    imageService.completeProcessing(job.imageId, urls[0], urls[1], urls[2]));
+            if (!recorded) {
+                // Image supprimée pendant le traitement
+                for (String url : urls) {
+                    backblazeService.deleteFile(url);
+                }
+                meterRegistry.counter("image.pipeline.images", "result", "supprime").increment();
+                finish(job.imageId, ImageStatus.SUPPRIMEE);
+                System.out.println("🗑️ Listing image deleted during processing: " + job.imageId);
+                return;
+            }
+
+            meterRegistry.counter("image.pipeline.images", "result", "pret").increment();
+            finish(job.imageId, ImageStatus.PRET);
+            System.out.println("🖼️ Listing image processed: " + job.imageId + " ("
+                    + (System.nanoTime() - job.acceptedAt) / 1_000_000 + " ms)");
+        } catch (Exception e) {
+            meterRegistry.counter("image.pipeline.images", "result", "echec").increment();
+            fail(job.imageId, e instanceof CompletionException && e.getCause() != null
+                    ? e.getCause().getMessage() : e.getMessage());
+        }
+    }
+
+    /**
+     * JPEG des trois variantes
+     */
+    private record Variants(byte[] large, byte[] medium, byte[] thumbnail) {}
+
+    private Variants encodeVariants(BufferedImage source) {
+        // Chaque variante est réduite depuis la précédente: une seule lecture du fichier d'origine
+        BufferedImage large = stage("resize").record(() -> resize(source, LARGE_WIDTH));
+        BufferedImage medium = stage("resize").record(() -> resize(large, MEDIUM_WIDTH));
+        BufferedImage thumbnail = stage("resize").record(() -> fitInBox(medium, thumbnailSize));
+
+        return stage("encode").record(() -> new Variants(
+                toJpeg(large, 0.9), toJpeg(medium, 0.85), toJpeg(thumbnail, 0.85)));
+    }
+
+    /**
+     * Réduire à la largeur donnée (jamais d'agrandissement)
+     */
+    private static BufferedImage resize(BufferedImage image, int maxWidth) {
+        if (image.getWidth() <= maxWidth) {
+            return image;
+        }
+        try {
+            return Thumbnails.of(image).width(maxWidth).asBufferedImage();
+        } catch (IOException e) {
+            throw new RuntimeException("Redimensionnement impossible: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Réduire pour tenir dans un carré (miniature des fils)
+     */
+    private static BufferedImage fitInBox(BufferedImage image, int size) {
+        if (image.getWidth() <= size && image.getHeight() <= size) {
+            return image;
+        }
+        try {
+            return Thumbnails.of(image).size(size, size).asBufferedImage();
+        } catch (IOException e) {
+            throw new RuntimeException("Redimensionnement impossible: " + e.getMessage(), e);
+        }
+    }
+
+    private static byte[] toJpeg(BufferedImage image, double quality) {
+        try {
+            ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+            Thumbnails.of(image)
+                    .scale(1.0)
+                    .outputFormat("jpg")
+                    .outputQuality(quality)
+                    .toOutputStream(outputStream);
+            return outputStream.toByteArray();
+        } catch (IOException e) {
+            throw new RuntimeException("Encodage JPEG impossible: " + e.getMessage(), e);
+        }
+    }
+
+    // ============================================
+    // UPLOAD
+    // ============================================
+
+    private Supplier<String> variant(byte[] content, String folder) {
+        return () -> backblazeService.uploadBytes(content, "image/jpeg", folder, ".jpg");
+    }
+
+    /**
+     * Uploader les variantes en parallèle; si l'une échoue, supprimer celles déjà envoyées
+     */
+    @SafeVarargs
+    private String[] uploadAll(Supplier<String>... uploads) {
+        @SuppressWarnings("unchecked")
+        CompletableFuture<String>[] futures = new CompletableFuture[uploads.length];
+        for (int i = 0; i < uploads.length; i++) {
+            futures[i] = CompletableFuture.supplyAsync(uploads[i], uploadPool);
+        }
+
+        try {
+            CompletableFuture.allOf(futures).join();
+        } catch (CompletionException e) {
+            // allOf n'échoue qu'une fois toutes les variantes terminées
+            for (CompletableFuture<String> future : futures) {
+                if (!future.isCompletedExceptionally()) {
+                    backblazeService.deleteFile(future.join());
+                }
+            }
+            throw e;
+        }
+
+        String[] urls = new String[futures.length];
+        for (int i = 0; i < futures.length; i++) {
+            urls[i] = futures[i].join();
+        }
+        return urls;
+    }
+
+    // ============================================
+    // SUIVI
+    // ============================================
+
+    private void fail(Long imageId, String reason) {
+        System.err.println("❌ Erreur traitement image " + imageId + ": " + reason);
+        try {
+            imageService.failProcessing(imageId);
+        } catch (RuntimeException e) {
+            System.err.println("❌ Statut ECHEC non enregistré pour l'image " + imageId + ": " + e.getMessage());
+        }
+        finish(imageId, ImageStatus.ECHEC);
+    }
+
+    private void finish(Long imageId, ImageStatus status) {
+        CompletableFuture<ImageStatus> done = inFlight.remove(imageId);
+        if (done != null) {
+            done.complete(status);
+        }
+    }
+
+    private Timer stage(String name) {
+        return meterRegistry.timer("image.pipeline.stage", "stage", name);
+    }
+
+    private static ThreadFactory threadFactory(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * Image en file: le contenu d'origine est libéré dès le décodage
+     */
+    private final class Job implements Runnable {
+
+        private final Long imageId;
+        private final long acceptedAt = System.nanoTime();
+        private byte[] content;
+
+        private Job(Long imageId, byte[] content) {
+            this.imageId = imageId;
+            this.content = content;
+        }
+
+        private byte[] takeContent() {
+            byte[] taken = content;
+            content = null;
+            return taken;
+        }
+
+        @Override
+        public void run() {
+            process(this);
+        }
+    }
+}
@@ -1,26 +1,37 @@
 package com.camerannonces.service;
 
+import com.camerannonces.dto.AuthenticatedUser;
 import com.camerannonces.entity.Listing;
 import com.camerannonces.entity.ListingImage;
 import com.camerannonces.entity.User;
+import com.camerannonces.enums.ImageStatus;
 import com.camerannonces.enums.PlanType;
+import com.camerannonces.event.ListingChangedEvent;
+import com.camerannonces.event.ListingImageUploadedEvent;
 import com.camerannonces.repository.ListingImageRepository;
 import com.camerannonces.repository.ListingRepository;
 import com.camerannonces.repository.UserRepository;
 import net.coobird.thumbnailator.Thumbnails;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 
-import javax.imageio.ImageIO;
-import java.awt.image.BufferedImage;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 
 /**
  * Service pour gérer les images (Profil + Listings)
@@ -33,6 +44,9 @@ public class ImageService {
     @Autowired
     private BackblazeB2Service backblazeService;
 
+    @Autowired
+    private ImageDecoder imageDecoder;
+
     @Autowired
     private ListingImageRepository listingImageRepository;
 
@@ -42,6 +56,12 @@ public class ImageService {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
     @Value("${upload.max-file-size:5242880}") // 5MB default
     private long maxFileSize;
 
@@ -143,53 +163,200 @@ public class ImageService {
     // ============================================
 
     /**
-     * Upload image pour une annonce
+     * Accepter une image pour une annonce: vérifications, puis ligne EN_COURS
+     * Décodage, variantes et upload B2 se font après le commit (ImageProcessingPipeline)
      */
-    public ListingImage saveListingImage(Long listingId, Long userId, MultipartFile file, boolean isPrincipale)
+    public ListingImage saveListingImage(Long listingId, AuthenticatedUser user, MultipartFile file, boolean isPrincipale)
             throws IOException {
 
         validateImageFile(file);
 
         // Vérifier que l'annonce existe et appartient à l'utilisateur
+        // (getId() sur le proxy LAZY du vendeur: pas de requête sur users)
         Listing listing = listingRepository.findById(listingId)
                 .orElseThrow(() -> new RuntimeException("Annonce non trouvée"));
 
-        if (!listing.getUser().getId().equals(userId)) {
+        if (!listing.getUser().getId().equals(user.id())) {
             throw new RuntimeException("Vous n'êtes pas autorisé à modifier cette annonce");
         }
 
-        // Vérifier le nombre d'images selon le plan
+        // Vérifier le nombre d'images selon le plan (celui de l'utilisateur authentifié, déjà en mémoire)
         long imageCount = listingImageRepository.countByListingId(listingId);
-        int maxImages = getMaxImagesForUser(listing.getUser().getPlanActuel());
+        int maxImages = getMaxImagesForUser(user.plan());
 
         if (imageCount >= maxImages) {
             throw new RuntimeException(
-                    "Limite atteinte: " + maxImages + " images max pour votre plan " +
-                            listing.getUser().getPlanActuel()
+                    "Limite atteinte: " + maxImages + " images max pour votre plan " + user.plan()
             );
         }
 
-        // Optimiser l'image pour listing (max 1200px width)
-        MultipartFile optimizedFile = optimizeImage(file, 1200);
-
-        // Upload vers Backblaze B2
-        String imageUrl = backblazeService.uploadFile(optimizedFile, "listings");
+        // Contenu illisible refusé tout de suite: seul l'en-tête est lu
+        byte[] content = file.getBytes();
+        imageDecoder.probe(content);
 
-        // Créer l'entrée en base de données
+        // Créer l'entrée en base de données (URLs renseignées à la fin du traitement)
         ListingImage image = new ListingImage();
         image.setListing(listing);
-        image.setUrl(imageUrl);
         image.setNomFichier(file.getOriginalFilename());
         image.setTailleFichier((int) file.getSize());
         image.setIsPrincipale(isPrincipale);
         image.setOrdreAffichage((int) imageCount + 1);
+        image.setStatutTraitement(ImageStatus.EN_COURS);
 
         ListingImage savedImage = listingImageRepository.save(image);
+        eventPublisher.publishEvent(new ListingImageUploadedEvent(savedImage.getId(), listingId, content));
 
-        System.out.println("✅ Listing image uploaded: " + listingId + " (image " + (imageCount + 1) + "/" + maxImages + ")");
+        System.out.println("📥 Listing image accepted: " + listingId + " (image " + (imageCount + 1) + "/" + maxImages + ")");
         return savedImage;
     }
 
+    /**
+     * Images acceptées d'un upload multiple (ids dans l'ordre des fichiers) et fichiers refusés
+     */
+    public record BatchUpload(List<Long> imageIds, List<String> erreurs) {}
+
+    /**
+     * Accepter plusieurs images pour une annonce en une fois
+     * - Annonce, propriétaire et nombre d'images vérifiés une seule fois; la ligne de l'annonce reste
+     *   verrouillée jusqu'au commit, deux envois simultanés ne dépassent donc pas la limite du plan
+     * - Fichiers acceptés dans l'ordre d'envoi, dans la limite des places restantes;
+     *   le premier accepté est l'image principale
+     * - Une seule requête INSERT pour toutes les lignes (EN_COURS); le traitement des variantes
+     *   se fait en parallèle dans ImageProcessingPipeline après le commit
+     */
+    public BatchUpload saveListingImages(Long listingId, AuthenticatedUser user, List<MultipartFile> files) {
+        List<Long> owners = jdbcTemplate.queryForList(
+                "SELECT user_id FROM listings WHERE id = ? FOR UPDATE", Long.class, listingId);
+        if (owners.isEmpty()) {
+            throw new RuntimeException("Annonce non trouvée");
+        }
+        if (!owners.get(0).equals(user.id())) {
+            throw new RuntimeException("Vous n'êtes pas autorisé à modifier cette annonce");
+        }
+
+        long imageCount = listingImageRepository.countByListingId(listingId);
+        int maxImages = getMaxImagesForUser(user.plan());
+        long remaining = maxImages - imageCount;
+        if (remaining <= 0) {
+            throw new RuntimeException(
+                    "Limite atteinte: " + maxImages + " images max pour votre plan " + user.plan()
+            );
+        }
+
+        List<MultipartFile> accepted = new ArrayList<>();
+        List<byte[]> contents = new ArrayList<>();
+        List<String> erreurs = new ArrayList<>();
+        for (int i = 0; i < files.size(); i++) {
+            MultipartFile file = files.get(i);
+            if (accepted.size() >= remaining) {
+                erreurs.add("Image " + (i + 1) + ": limite de " + maxImages + " images atteinte pour votre plan " + user.plan());
+                continue;
+            }
+            try {
+                validateImageFile(file);
+                byte[] content = file.getBytes();
+                imageDecoder.probe(content);
+                contents.add(content);
+                accepted.add(file);
+            } catch (Exception e) {
+                erreurs.add("Image " + (i + 1) + ": " + e.getMessage());
+            }
+        }
+        if (accepted.isEmpty()) {
+            return new BatchUpload(Collections.emptyList(), erreurs);
+        }
+
+        List<Long> imageIds = insertPending(listingId, accepted, (int) imageCount);
+        for (int i = 0; i < imageIds.size(); i++) {
+            eventPublisher.publishEvent(new ListingImageUploadedEvent(imageIds.get(i), listingId, contents.get(i)));
+        }
+
+        System.out.println("📥 Listing images accepted: " + listingId + " (" + accepted.size() + " images, "
+                + (imageCount + accepted.size()) + "/" + maxImages + ")");
+        return new BatchUpload(imageIds, erreurs);
+    }
+
+    /**
+     * Insérer les lignes EN_COURS en une requête
+     * @return ids dans l'ordre des fichiers (retrouvés par ordre d'affichage)
+     */
+    private List<Long> insertPending(Long listingId, List<MultipartFile> files, int imageCount) {
+        StringBuilder sql = new StringBuilder("INSERT INTO listing_images " +
+                "(listing_id, nom_fichier, taille_fichier, is_principale, ordre_affichage, statut_traitement, date_upload) VALUES ");
+        List<Object> params = new ArrayList<>();
+        for (int i = 0; i < files.size(); i++) {
+            MultipartFile file = files.get(i);
+            sql.append(i == 0 ? "" : ", ").append("(?, ?, ?, ?, ?, 'EN_COURS', now())");
+            params.add(listingId);
+            params.add(file.getOriginalFilename());
+            params.add((int) file.getSize());
+            params.add(i == 0); // Première image acceptée = principale
+            params.add(imageCount + i + 1);
+        }
+        sql.append(" RETURNING id, ordre_affichage");
+
+        Map<Integer, Long> idsByOrder = new HashMap<>();
+        jdbcTemplate.query(sql.toString(),
+                rs -> { idsByOrder.put(rs.getInt("ordre_affichage"), rs.getLong("id")); },
+                params.toArray());
+
+        List<Long> imageIds = new ArrayList<>(files.size());
+        for (int i = 0; i < files.size(); i++) {
+            imageIds.add(idsByOrder.get(imageCount + i + 1));
+        }
+        return imageIds;
+    }
+
+    /**
+     * Fin du traitement: URLs des variantes, statut PRET, image principale de l'annonce
+     * @return false si l'image a été supprimée entre-temps (les fichiers uploadés sont alors orphelins)
+     */
+    public boolean completeProcessing(Long imageId, String url, String mediumUrl, String thumbnailUrl) {
+        // Images d'une même annonce traitées en parallèle: verrouiller l'annonce avant de lire quoi que ce soit,
+        // pour que chaque recalcul de l'image principale voie les images terminées avant lui
+        List<Long> locked = jdbcTemplate.queryForList(
+                "SELECT l.id FROM listings l JOIN listing_images li ON li.listing_id = l.id " +
+                        "WHERE li.id = ? FOR UPDATE OF l", Long.class, imageId);
+        ListingImage image = locked.isEmpty() ? null : listingImageRepository.findById(imageId).orElse(null);
+        if (image == null) {
+            return false;
+        }
+
+        image.setUrl(url);
+        image.setMediumUrl(mediumUrl);
+        image.setThumbnailUrl(thumbnailUrl);
+        image.setStatutTraitement(ImageStatus.PRET);
+        listingImageRepository.save(image);
+        refreshMainImage(image.getListing());
+        return true;
+    }
+
+    /**
+     * Traitement impossible (image illisible, B2 indisponible, file pleine, arrêt du serveur)
+     * Transaction propre: appelable depuis un écouteur AFTER_COMMIT
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void failProcessing(Long imageId) {
+        listingImageRepository.findById(imageId).ifPresent(image -> {
+            image.setStatutTraitement(ImageStatus.ECHEC);
+            listingImageRepository.save(image);
+        });
+    }
+
+    /**
+     * Obtenir une image du vendeur connecté (suivi du traitement)
+     */
+    @Transactional(readOnly = true)
+    public ListingImage getOwnedImage(Long imageId, Long userId) {
+        ListingImage image = listingImageRepository.findById(imageId)
+                .orElseThrow(() -> new RuntimeException("Image non trouvée"));
+
+        if (!image.getListing().getUser().getId().equals(userId)) {
+            throw new RuntimeException("Vous n'êtes pas autorisé à consulter cette image");
+        }
+        return image;
+    }
+
     /**
      * Obtenir toutes les images d'une annonce
      */
@@ -217,11 +384,17 @@ public class ImageService {
             throw new RuntimeException("Vous n'êtes pas autorisé à supprimer cette image");
         }
 
-        // Supprimer de Backblaze B2
-        backblazeService.deleteFile(image.getUrl());
+        // Supprimer de Backblaze B2 (aucun fichier si le traitement n'a pas abouti)
+        for (String url : Arrays.asList(image.getUrl(), image.getMediumUrl(), image.getThumbnailUrl())) {
+            if (url != null) {
+                backblazeService.deleteFile(url);
+            }
+        }
 
         // Supprimer de la base de données
+        Listing listing = image.getListing();
         listingImageRepository.delete(image);
+        refreshMainImage(listing);
 
         System.out.println("🗑️ Listing image deleted: " + imageId);
     }
@@ -248,6 +421,7 @@ public class ImageService {
         // Définir comme principale
         image.setIsPrincipale(true);
         listingImageRepository.save(image);
+        refreshMainImage(image.getListing());
 
         System.out.println("📌 Main image set: " + imageId);
     }
@@ -271,53 +445,60 @@ public class ImageService {
             image.setOrdreAffichage(i + 1);
             listingImageRepository.save(image);
         }
+        refreshMainImage(listing);
 
         System.out.println("🔄 Images reordered for listing: " + listingId);
     }
 
+    /**
+     * Recopier l'image principale et sa miniature sur l'annonce (dans la transaction en cours)
+     * Même choix que la reprise V5: principale d'abord, puis ordre d'affichage
+     * Seules les images traitées (PRET) sont candidates
+     */
+    private void refreshMainImage(Listing listing) {
+        ListingImage main = listingImageRepository.findByListingId(listing.getId()).stream()
+                .filter(ListingImage::isPrete)
+                .min(Comparator.comparing((ListingImage img) -> !Boolean.TRUE.equals(img.getIsPrincipale()))
+                        .thenComparing(ListingImage::getOrdreAffichage, Comparator.nullsLast(Comparator.naturalOrder()))
+                        .thenComparing(ListingImage::getId))
+                .orElse(null);
+
+        String mainImageUrl = main != null ? main.getUrl() : null;
+        String thumbnailUrl = main != null && main.getThumbnailUrl() != null ? main.getThumbnailUrl() : mainImageUrl;
+        if (!Objects.equals(mainImageUrl, listing.getMainImageUrl())
+                || !Objects.equals(thumbnailUrl, listing.getThumbnailUrl())) {
+            listing.setMainImageUrl(mainImageUrl);
+            listing.setThumbnailUrl(thumbnailUrl);
+            listingRepository.save(listing);
+        }
+        // Galerie modifiée: détail en cache et index de recherche à rafraîchir après commit
+        eventPublisher.publishEvent(new ListingChangedEvent(listing.getId(), ListingChangedEvent.Type.UPDATED));
+    }
+
     // ============================================
     // IMAGE PROCESSING
     // ============================================
 
     /**
-     * Créer un thumbnail
+     * Créer un thumbnail (décodage sous-échantillonné, sous le budget mémoire d'ImageDecoder)
      */
     private MultipartFile createThumbnail(MultipartFile originalFile, int size) throws IOException {
-        BufferedImage originalImage = ImageIO.read(originalFile.getInputStream());
-
-        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
-        Thumbnails.of(originalImage)
-                .size(size, size)
-                .outputFormat("jpg")
-                .outputQuality(0.85)
-                .toOutputStream(outputStream);
-
-        byte[] thumbnailBytes = outputStream.toByteArray();
+        byte[] thumbnailBytes = imageDecoder.decode(originalFile.getBytes(), size, size, originalImage -> {
+            try {
+                ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+                Thumbnails.of(originalImage)
+                        .size(size, size)
+                        .outputFormat("jpg")
+                        .outputQuality(0.85)
+                        .toOutputStream(outputStream);
+                return outputStream.toByteArray();
+            } catch (IOException e) {
+                throw new RuntimeException("Miniature impossible: " + e.getMessage(), e);
+            }
+        });
         return createMultipartFile(originalFile, thumbnailBytes, "image/jpeg");
     }
 
-    /**
-     * Optimiser image
-     */
-    private MultipartFile optimizeImage(MultipartFile originalFile, int maxWidth) throws IOException {
-        BufferedImage originalImage = ImageIO.read(originalFile.getInputStream());
-
-        // Si déjà assez petite, retourner l'original
-        if (originalImage.getWidth() <= maxWidth) {
-            return originalFile;
-        }
-
-        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
-        Thumbnails.of(originalImage)
-                .width(maxWidth)
-                .outputFormat("jpg")
-                .outputQuality(0.9)
-                .toOutputStream(outputStream);
-
-        byte[] optimizedBytes = outputStream.toByteArray();
-        return createMultipartFile(originalFile, optimizedBytes, "image/jpeg");
-    }
-
     /**
      * Créer MultipartFile depuis byte array
      */
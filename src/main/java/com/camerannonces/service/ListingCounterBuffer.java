@@ -0,0 +1,251 @@
+package com.camerannonces.service;
+
+import com.camerannonces.entity.Listing;
+import com.camerannonces.event.ListingCountersFlushedEvent;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Compteurs de vues et de contacts WhatsApp en écriture différée
+ * Les incréments sont cumulés en mémoire (LongAdder par annonce) puis écrits périodiquement
+ * en un seul UPDATE ... FROM (VALUES ...), au lieu d'un UPDATE par requête sur une ligne chaude
+ */
+@Service
+public class ListingCounterBuffer {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Value("${listing.counters.batch-size:1000}")
+    private int batchSize;
+
+    // Génération qui reçoit les incréments
+    private volatile Generation active = new Generation();
+
+    // Génération en cours d'écriture (encore comptée dans les lectures jusqu'au commit)
+    private volatile Generation flushing = new Generation();
+
+    private volatile long lastFlushMillis = System.currentTimeMillis();
+
+    private Timer flushTimer;
+
+    @PostConstruct
+    void registerMetrics() {
+        Gauge.builder("listing.counters.buffer.size", this, buffer -> buffer.active.counters.size())
+                .description("Annonces ayant des incréments en attente d'écriture")
+                .register(meterRegistry);
+        TimeGauge.builder("listing.counters.flush.lag", this, TimeUnit.MILLISECONDS,
+                        buffer -> System.currentTimeMillis() - buffer.lastFlushMillis)
+                .description("Temps écoulé depuis le dernier vidage réussi")
+                .register(meterRegistry);
+        flushTimer = Timer.builder("listing.counters.flush")
+                .description("Durée d'un vidage des compteurs")
+                .register(meterRegistry);
+    }
+
+    // ============================================
+    // INCRÉMENTS
+    // ============================================
+
+    public void incrementViews(Long listingId) {
+        Generation generation = enter();
+        try {
+            generation.counters(listingId).views.increment();
+        } finally {
+            generation.writers.decrementAndGet();
+        }
+    }
+
+    public void incrementWhatsappContacts(Long listingId) {
+        Generation generation = enter();
+        try {
+            generation.counters(listingId).contacts.increment();
+        } finally {
+            generation.writers.decrementAndGet();
+        }
+    }
+
+    /**
+     * S'enregistrer comme écrivain de la génération active
+     * Si elle a été remplacée entre-temps, recommencer sur la nouvelle: flush() attend
+     * la fin des écrivains enregistrés avant de lire les compteurs, aucun incrément n'est perdu
+     */
+    private Generation enter() {
+        while (true) {
+            Generation generation = active;
+            generation.writers.incrementAndGet();
+            if (generation == active) {
+                return generation;
+            }
+            generation.writers.decrementAndGet();
+        }
+    }
+
+    // ============================================
+    // LECTURES (valeur en base + incréments en attente)
+    // ============================================
+
+    public int views(Listing listing) {
+        return views(listing.getId(), listing.getVues());
+    }
+
+    public int whatsappContacts(Listing listing) {
+        return whatsappContacts(listing.getId(), listing.getContactsWhatsapp());
+    }
+
+    public int views(Long listingId, Integer stored) {
+        return (stored != null ? stored : 0) + (int) pending(listingId, true);
+    }
+
+    public int whatsappContacts(Long listingId, Integer stored) {
+        return (stored != null ? stored : 0) + (int) pending(listingId, false);
+    }
+
+    private long pending(Long listingId, boolean views) {
+        long total = 0;
+        for (Generation generation : List.of(active, flushing)) {
+            Counters counters = generation.counters.get(listingId);
+            if (counters != null) {
+                total += views ? counters.views.sum() : counters.contacts.sum();
+            }
+        }
+        return total;
+    }
+
+    // ============================================
+    // VIDAGE
+    // ============================================
+
+    /**
+     * Écrire les incréments en attente (planifié, et à l'arrêt de l'application)
+     */
+    @Scheduled(fixedDelayString = "${listing.counters.flush-interval-ms:5000}")
+    public synchronized void flush() {
+        Generation retired = active;
+        flushing = retired;
+        active = new Generation();
+
+        // Attendre les incréments commencés sur l'ancienne génération (quelques nanosecondes)
+        while (retired.writers.get() != 0) {
+            Thread.onSpinWait();
+        }
+
+        // Trié par id: plusieurs instances verrouillent les lignes dans le même ordre (pas d'interblocage)
+        Map<Long, long[]> deltas = new TreeMap<>();
+        retired.counters.forEach((id, counters) -> {
+            long views = counters.views.sum();
+            long contacts = counters.contacts.sum();
+            if (views != 0 || contacts != 0) {
+                deltas.put(id, new long[]{views, contacts});
+            }
+        });
+
+        if (!deltas.isEmpty()) {
+            try {
+                // Tous les lots dans une transaction: en cas d'échec, aucun n'est appliqué
+                flushTimer.record(() -> transactionTemplate.executeWithoutResult(status -> write(deltas)));
+            } catch (RuntimeException e) {
+                // Rien n'est perdu: les incréments repartent dans la génération active
+                System.err.println("❌ Échec écriture compteurs (" + deltas.size() + " annonces): " + e.getMessage());
+                Generation generation = enter();
+                try {
+                    deltas.forEach((id, delta) -> {
+                        Counters counters = generation.counters(id);
+                        counters.views.add(delta[0]);
+                        counters.contacts.add(delta[1]);
+                    });
+                } finally {
+                    generation.writers.decrementAndGet();
+                }
+                flushing = new Generation();
+                return;
+            }
+        }
+
+        flushing = new Generation();
+        lastFlushMillis = System.currentTimeMillis();
+
+        // Copies en mémoire des compteurs (cache des détails d'annonce) à jour avec la base
+        if (!deltas.isEmpty()) {
+            eventPublisher.publishEvent(new ListingCountersFlushedEvent(deltas));
+        }
+    }
+
+    @PreDestroy
+    public void drain() {
+        flush();
+        System.out.println("✅ Compteurs d'annonces vidés avant arrêt");
+    }
+
+    private void write(Map<Long, long[]> deltas) {
+        List<Map.Entry<Long, long[]>> entries = new ArrayList<>(deltas.entrySet());
+        for (int from = 0; from < entries.size(); from += batchSize) {
+            List<Map.Entry<Long, long[]>> batch = entries.subList(from, Math.min(from + batchSize, entries.size()));
+
+            StringBuilder sql = new StringBuilder("UPDATE listings l SET " +
+                    "vues = COALESCE(l.vues, 0) + d.vues, " +
+                    "contacts_whatsapp = COALESCE(l.contacts_whatsapp, 0) + d.contacts " +
+                    "FROM (VALUES ");
+            Object[] args = new Object[batch.size() * 3];
+            for (int i = 0; i < batch.size(); i++) {
+                sql.append(i == 0 ? "" : ", ").append("(?::bigint, ?::int, ?::int)");
+                args[i * 3] = batch.get(i).getKey();
+                args[i * 3 + 1] = batch.get(i).getValue()[0];
+                args[i * 3 + 2] = batch.get(i).getValue()[1];
+            }
+            sql.append(") AS d(id, vues, contacts) WHERE l.id = d.id");
+
+            jdbcTemplate.update(sql.toString(), args);
+        }
+    }
+
+    /**
+     * Génération de compteurs et nombre d'incréments en cours sur celle-ci
+     */
+    private static final class Generation {
+        private final ConcurrentHashMap<Long, Counters> counters = new ConcurrentHashMap<>();
+        // AtomicLong et non LongAdder: flush() a besoin d'une lecture exacte de zéro
+        private final AtomicLong writers = new AtomicLong();
+
+        Counters counters(Long listingId) {
+            return counters.computeIfAbsent(listingId, id -> new Counters());
+        }
+    }
+
+    /**
+     * Incréments en attente d'une annonce
+     */
+    private static final class Counters {
+        private final LongAdder views = new LongAdder();
+        private final LongAdder contacts = new LongAdder();
+    }
+}
@@ -0,0 +1,186 @@
+package com.camerannonces.service;
+
+import com.camerannonces.dto.ListingDetailView;
+import com.camerannonces.event.ListingChangedEvent;
+import com.camerannonces.event.ListingCountersFlushedEvent;
+import com.camerannonces.event.ListingsExpiredEvent;
+import com.camerannonces.repository.ListingImageRepository;
+import com.camerannonces.repository.ListingRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Cache des détails d'annonce (GET /api/listings/{id}): annonce, galerie, vendeur et catégorie
+ * assemblés une fois puis servis sans requête SQL
+ * - Borné (Caffeine, taille max + expiration), invalidé après commit de chaque ListingChangedEvent
+ * - Un seul chargement par annonce à la fois: les requêtes concurrentes attendent son résultat
+ * - Version par annonce: un chargement qui croise une invalidation n'est pas gardé (lecture
+ *   possiblement antérieure au commit)
+ */
+@Service
+public class ListingDetailCache {
+
+    // Versions réparties sur des cases (collision = chargement non gardé, jamais une valeur périmée)
+    private static final int VERSION_STRIPES = 1024;
+
+    @Autowired
+    private ListingRepository listingRepository;
+
+    @Autowired
+    private ListingImageRepository listingImageRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${listing.detail-cache.max-size:10000}")
+    private long maxSize;
+
+    @Value("${listing.detail-cache.ttl-seconds:600}")
+    private long ttlSeconds;
+
+    private final ConcurrentHashMap<Long, CompletableFuture<Optional<ListingDetailView>>> loads = new ConcurrentHashMap<>();
+    private final AtomicLongArray versions = new AtomicLongArray(VERSION_STRIPES);
+
+    private Cache<Long, ListingDetailView> cache;
+    private TransactionTemplate readOnlyTransaction;
+
+    @PostConstruct
+    void init() {
+        cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "listing.detail");
+
+        readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+    }
+
+    // ============================================
+    // LECTURE
+    // ============================================
+
+    /**
+     * Détail d'une annonce (vues et contacts: valeurs en base, sans les incréments en attente)
+     */
+    public Optional<ListingDetailView> get(Long listingId) {
+        ListingDetailView cached = cache.getIfPresent(listingId);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+
+        CompletableFuture<Optional<ListingDetailView>> load = new CompletableFuture<>();
+        CompletableFuture<Optional<ListingDetailView>> inFlight = loads.putIfAbsent(listingId, load);
+        if (inFlight != null) {
+            return await(inFlight);
+        }
+
+        try {
+            Optional<ListingDetailView> detail = loadAndCache(listingId);
+            load.complete(detail);
+            return detail;
+        } catch (RuntimeException e) {
+            load.completeExceptionally(e);
+            throw e;
+        } finally {
+            loads.remove(listingId, load);
+        }
+    }
+
+    private Optional<ListingDetailView> loadAndCache(Long listingId) {
+        // Un chargement concurrent a pu se terminer entre getIfPresent et l'enregistrement du nôtre
+        ListingDetailView cached = cache.getIfPresent(listingId);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+
+        int stripe = stripe(listingId);
+        long version = versions.get(stripe);
+        Optional<ListingDetailView> detail = readOnlyTransaction.execute(status -> load(listingId));
+
+        if (detail.isPresent() && versions.get(stripe) == version) {
+            cache.put(listingId, detail.get());
+            // Invalidation entre la vérification et l'ajout: la retirer nous-mêmes
+            if (versions.get(stripe) != version) {
+                cache.asMap().remove(listingId, detail.get());
+            }
+        }
+        return detail;
+    }
+
+    private Optional<ListingDetailView> load(Long listingId) {
+        return listingRepository.findById(listingId)
+                .map(listing -> ListingDetailView.of(listing,
+                        listingImageRepository.findByListingIdOrderByOrdreAffichage(listingId)));
+    }
+
+    private static Optional<ListingDetailView> await(CompletableFuture<Optional<ListingDetailView>> load) {
+        try {
+            return load.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new RuntimeException("Erreur chargement annonce: " + e.getCause().getMessage(), e.getCause());
+        }
+    }
+
+    // ============================================
+    // INVALIDATION
+    // ============================================
+
+    /**
+     * Retirer une annonce: les chargements en cours ne seront pas gardés, les suivants relisent la base
+     */
+    public void invalidate(Long listingId) {
+        versions.incrementAndGet(stripe(listingId));
+        loads.remove(listingId);
+        cache.invalidate(listingId);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onListingChanged(ListingChangedEvent event) {
+        invalidate(event.getListingId());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onListingsExpired(ListingsExpiredEvent event) {
+        event.getListingIds().forEach(this::invalidate);
+    }
+
+    /**
+     * Retirer les annonces dont les compteurs viennent d'être écrits: le détail suivant relit les valeurs
+     * stockées. Reporter les deltas sur l'entrée en cache les compterait deux fois si elle a été chargée
+     * après l'écriture
+     */
+    @EventListener
+    public void onCountersFlushed(ListingCountersFlushedEvent event) {
+        event.getDeltas().keySet().forEach(this::invalidate);
+    }
+
+    private static int stripe(Long listingId) {
+        return Long.hashCode(listingId) & (VERSION_STRIPES - 1);
+    }
+}
@@ -0,0 +1,163 @@
+package com.camerannonces.service;
+
+import com.camerannonces.enums.ListingStatus;
+import com.camerannonces.event.ListingsExpiredEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Expiration des annonces (ACTIVE -> EXPIRE une fois dateExpiration passée), par lots bornés
+ * - Un lot = une transaction: ids verrouillés avec FOR UPDATE SKIP LOCKED (une annonce en cours de
+ *   modification est reprise au passage suivant), passage en EXPIRE, listing_stats ajusté
+ * - Une seule instance à la fois (ScheduledJobLock); un passage traite au plus max-chunks-per-run lots
+ * - Après chaque lot: ListingsExpiredEvent (index de recherche, cache des détails)
+ */
+@Service
+public class ListingExpirationJob {
+
+    private static final String JOB_NAME = "listing-expiration";
+
+    // Échéances les plus anciennes d'abord (index partiel sur date_expiration des annonces ACTIVE, V8)
+    private static final String EXPIRE_CHUNK = """
+            WITH lot AS (
+                SELECT id FROM listings
+                WHERE statut = 'ACTIVE' AND date_expiration < ?
+                ORDER BY date_expiration
+                LIMIT ?
+                FOR UPDATE SKIP LOCKED
+            )
+            UPDATE listings l SET statut = 'EXPIRE'
+            FROM lot
+            WHERE l.id = lot.id
+            RETURNING l.id, l.category_id, l.city_id, l.quartier_id
+            """;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ScheduledJobLock jobLock;
+
+    @Autowired
+    private ListingStatsService listingStatsService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${listing.expiration.chunk-size:1000}")
+    private int chunkSize;
+
+    @Value("${listing.expiration.max-chunks-per-run:100}")
+    private int maxChunksPerRun;
+
+    // Annonces ACTIVE échues restant à traiter, mesurées au dernier passage
+    private final AtomicLong backlog = new AtomicLong();
+
+    private Counter expiredCounter;
+    private Timer chunkTimer;
+
+    @PostConstruct
+    void registerMetrics() {
+        Gauge.builder("listing.expiration.backlog", backlog, AtomicLong::get)
+                .description("Annonces ACTIVE dont la date d'expiration est passée")
+                .register(meterRegistry);
+        expiredCounter = Counter.builder("listing.expiration.expired")
+                .description("Annonces passées en EXPIRE")
+                .register(meterRegistry);
+        chunkTimer = Timer.builder("listing.expiration.chunk")
+                .description("Durée d'un lot d'expiration (transaction comprise)")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Passage planifié: ne fait rien si une autre instance détient le verrou
+     */
+    @Scheduled(fixedDelayString = "${listing.expiration.interval-ms:60000}",
+            initialDelayString = "${listing.expiration.initial-delay-ms:30000}")
+    public void run() {
+        try {
+            if (!jobLock.runExclusively(JOB_NAME, this::expireDue)) {
+                meterRegistry.counter("listing.expiration.runs", "result", "skipped").increment();
+            }
+        } catch (RuntimeException e) {
+            System.err.println("❌ Erreur expiration des annonces: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Expirer les annonces échues, lot par lot
+     * @return nombre d'annonces passées en EXPIRE
+     */
+    public int expireDue() {
+        meterRegistry.counter("listing.expiration.runs", "result", "leader").increment();
+        LocalDateTime now = LocalDateTime.now();
+        long start = System.currentTimeMillis();
+
+        int total = 0;
+        for (int chunk = 0; chunk < maxChunksPerRun; chunk++) {
+            List<Long> expired = chunkTimer.record(() -> transactionTemplate.execute(status -> expireChunk(now)));
+            if (expired == null || expired.isEmpty()) {
+                break;
+            }
+            total += expired.size();
+            expiredCounter.increment(expired.size());
+            eventPublisher.publishEvent(new ListingsExpiredEvent(expired));
+            if (expired.size() < chunkSize) {
+                break;
+            }
+        }
+
+        backlog.set(countBacklog(now));
+        if (total > 0) {
+            System.out.println("⏰ " + total + " annonces expirées en " + (System.currentTimeMillis() - start)
+                    + " ms (reste: " + backlog.get() + ")");
+        }
+        return total;
+    }
+
+    private List<Long> expireChunk(LocalDateTime now) {
+        List<Long> ids = new ArrayList<>();
+        List<ListingStatsService.ListingKeys> keys = new ArrayList<>();
+        jdbcTemplate.query(EXPIRE_CHUNK, rs -> {
+            ids.add(rs.getLong("id"));
+            keys.add(new ListingStatsService.ListingKeys(
+                    rs.getObject("category_id", Long.class),
+                    rs.getObject("city_id", Long.class),
+                    rs.getObject("quartier_id", Long.class)));
+        }, Timestamp.valueOf(now), chunkSize);
+
+        if (!ids.isEmpty()) {
+            listingStatsService.recordBulkStatusChange(keys, ListingStatus.ACTIVE, ListingStatus.EXPIRE);
+        }
+        return ids;
+    }
+
+    private long countBacklog(LocalDateTime now) {
+        Long count = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM listings WHERE statut = 'ACTIVE' AND date_expiration < ?",
+                Long.class, Timestamp.valueOf(now));
+        return count != null ? count : 0;
+    }
+}
@@ -0,0 +1,132 @@
+package com.camerannonces.service;
+
+import com.camerannonces.event.ListingChangedEvent;
+import com.camerannonces.reference.CityRef;
+import com.camerannonces.reference.QuartierRef;
+import com.camerannonces.reference.ReferenceDataRegistry;
+import com.camerannonces.reference.ReferenceDataSnapshot;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Rattache au référentiel les annonces dont la ville ou le quartier n'a pas de clé
+ * (saisies libres antérieures à city_id/quartier_id que la migration V7 n'a pas reconnues:
+ * accents, tirets, espaces). Parcours par lots sur l'id, une transaction par lot, puis
+ * recalcul des compteurs par ville et quartier.
+ */
+@Component
+public class ListingLocationBackfill {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ReferenceDataRegistry referenceData;
+
+    @Autowired
+    private ListingStatsService listingStatsService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Value("${listing.location-backfill.batch-size:1000}")
+    private int batchSize;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillOnStartup() {
+        Thread worker = new Thread(this::backfill, "listing-location-backfill");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    void backfill() {
+        long start = System.currentTimeMillis();
+        try {
+            long afterId = 0L;
+            int scanned = 0;
+            int updated = 0;
+            while (true) {
+                List<Object[]> rows = jdbcTemplate.query(
+                        "SELECT id, ville, quartier, city_id FROM listings " +
+                                "WHERE id > ? AND ville IS NOT NULL " +
+                                "AND (city_id IS NULL OR (quartier IS NOT NULL AND quartier_id IS NULL)) " +
+                                "ORDER BY id LIMIT ?",
+                        (rs, rowNum) -> new Object[]{rs.getLong("id"), rs.getString("ville"),
+                                rs.getString("quartier"), (Long) rs.getObject("city_id", Long.class)},
+                        afterId, batchSize);
+                if (rows.isEmpty()) {
+                    break;
+                }
+                scanned += rows.size();
+                updated += canonicalize(rows);
+                afterId = (Long) rows.get(rows.size() - 1)[0];
+            }
+
+            if (updated > 0) {
+                listingStatsService.reconcile();
+            }
+            if (scanned > 0) {
+                System.out.println("📍 Localisation des annonces: " + updated + "/" + scanned
+                        + " annonces rattachées au référentiel en " + (System.currentTimeMillis() - start) + " ms");
+            }
+        } catch (Exception e) {
+            System.err.println("❌ Erreur rattachement des localisations d'annonces: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Résoudre un lot et écrire les clés et noms canoniques en un seul UPDATE ... FROM (VALUES ...)
+     */
+    private int canonicalize(List<Object[]> rows) {
+        ReferenceDataSnapshot snapshot = referenceData.snapshot();
+        List<Object[]> resolved = new ArrayList<>();
+        for (Object[] row : rows) {
+            Long storedCityId = (Long) row[3];
+            Optional<CityRef> city = storedCityId != null
+                    ? snapshot.getCity(storedCityId)
+                    : snapshot.resolveCity((String) row[1]);
+            if (city.isEmpty()) {
+                continue;
+            }
+            Optional<QuartierRef> quartier = snapshot.resolveQuartier(city.get().id(), (String) row[2]);
+            if (storedCityId != null && quartier.isEmpty()) {
+                continue;
+            }
+            resolved.add(new Object[]{row[0], city.get().id(), city.get().nom(),
+                    quartier.map(QuartierRef::id).orElse(null), quartier.map(QuartierRef::nom).orElse((String) row[2])});
+        }
+        if (resolved.isEmpty()) {
+            return 0;
+        }
+
+        StringBuilder sql = new StringBuilder("UPDATE listings l SET " +
+                "city_id = d.city_id, ville = d.ville, quartier_id = d.quartier_id, quartier = d.quartier " +
+                "FROM (VALUES ");
+        Object[] args = new Object[resolved.size() * 5];
+        for (int i = 0; i < resolved.size(); i++) {
+            sql.append(i == 0 ? "" : ", ").append("(?::bigint, ?::bigint, ?, ?::bigint, ?)");
+            System.arraycopy(resolved.get(i), 0, args, i * 5, 5);
+        }
+        sql.append(") AS d(id, city_id, ville, quartier_id, quartier) WHERE l.id = d.id");
+
+        transactionTemplate.executeWithoutResult(status -> jdbcTemplate.update(sql.toString(), args));
+        // Index de recherche (filtre sur city_id) et cache des détails
+        for (Object[] listing : resolved) {
+            eventPublisher.publishEvent(new ListingChangedEvent((Long) listing[0], ListingChangedEvent.Type.UPDATED));
+        }
+        return resolved.size();
+    }
+}
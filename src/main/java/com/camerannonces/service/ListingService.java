@@ -1,5 +1,8 @@
 package com.camerannonces.service;
 
+import com.camerannonces.dto.CursorPage;
+import com.camerannonces.dto.ListingDetailView;
+import com.camerannonces.dto.ListingSummaryView;
 import com.camerannonces.dto.ListingResponse;
 import com.camerannonces.dto.PageResponse;
 import com.camerannonces.entity.Listing;
@@ -7,14 +10,24 @@ import com.camerannonces.entity.User;
 import com.camerannonces.entity.Category;
 import com.camerannonces.enums.ListingStatus;
 import com.camerannonces.enums.EtatProduit;
+import com.camerannonces.enums.PlanType;
+import com.camerannonces.event.ListingChangedEvent;
+import com.camerannonces.reference.CityRef;
+import com.camerannonces.reference.QuartierRef;
+import com.camerannonces.reference.ReferenceDataRegistry;
+import com.camerannonces.reference.ReferenceDataSnapshot;
 import com.camerannonces.repository.ListingRepository;
 import com.camerannonces.repository.UserRepository;
 import com.camerannonces.repository.CategoryRepository;
+import com.camerannonces.util.ListingCursor;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
@@ -37,6 +50,24 @@ public class ListingService {
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private ListingCounterBuffer listingCounterBuffer;
+
+    @Autowired
+    private ListingDetailCache listingDetailCache;
+
+    @Autowired
+    private ListingStatsService listingStatsService;
+
+    @Autowired
+    private ListingExpirationJob listingExpirationJob;
+
+    @Autowired
+    private ReferenceDataRegistry referenceData;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     /**
      * Créer une nouvelle annonce
      */
@@ -47,17 +78,15 @@ public class ListingService {
                                  Boolean livraisonSurPlace, Boolean livraisonDomicile, Boolean livraisonGare,
                                  Boolean paiementCash, Boolean paiementMobileMoney, Boolean paiementVirement) {
 
-        // Vérifier si l'utilisateur peut publier
-        if (!userService.canPublishListing(userId)) {
-            throw new RuntimeException("Vous avez atteint la limite d'annonces pour votre plan. Passez à un plan supérieur.");
+        // Catégorie vérifiée sur le référentiel en mémoire (base seulement si elle n'y est pas encore)
+        ReferenceDataSnapshot locations = referenceData.snapshot();
+        if (locations.getCategory(categoryId).isEmpty() && !categoryRepository.existsById(categoryId)) {
+            throw new RuntimeException("Catégorie non trouvée");
         }
 
-        // Récupérer l'utilisateur et la catégorie
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new RuntimeException("Utilisateur non trouvé"));
-
-        Category category = categoryRepository.findById(categoryId)
-                .orElseThrow(() -> new RuntimeException("Catégorie non trouvée"));
+        // Références sans chargement: seules les clés étrangères sont écrites
+        User user = userRepository.getReferenceById(userId);
+        Category category = categoryRepository.getReferenceById(categoryId);
 
         // ✅ Telefonnummer bereinigen
         if (telephoneContact != null && telephoneContact.startsWith("+")) {
@@ -73,8 +102,15 @@ public class ListingService {
         listing.setPrix(prix);
         listing.setPrixNegociable(prixNegociable != null ? prixNegociable : true);
         listing.setEtatProduit(etatProduit != null ? etatProduit : EtatProduit.BON);
-        listing.setVille(ville);
-        listing.setQuartier(quartier);
+        // Ville et quartier rattachés au référentiel (nom canonique + clé)
+        CityRef city = locations.resolveCity(ville)
+                .orElseThrow(() -> new RuntimeException("Ville inconnue: " + ville));
+        listing.setVille(city.nom());
+        listing.setCityId(city.id());
+        // Un quartier absent du référentiel est gardé tel quel, sans clé
+        Optional<QuartierRef> quartierRef = locations.resolveQuartier(city.id(), quartier);
+        listing.setQuartier(quartierRef.map(QuartierRef::nom).orElse(quartier));
+        listing.setQuartierId(quartierRef.map(QuartierRef::id).orElse(null));
         listing.setAdresseComplete(adresseComplete);
         listing.setTelephoneContact(telephoneContact); // ✅ Jetzt ohne + jetzt
         listing.setEmailContact(emailContact);
@@ -93,15 +129,19 @@ public class ListingService {
         listing.setVues(0);
         listing.setContactsWhatsapp(0);
 
+        // Quota du plan réservé en une instruction atomique (utilisateur inexistant ou limite atteinte: exception),
+        // au plus près de l'insertion: le verrou sur la ligne users est tenu jusqu'au commit
+        PlanType plan = userService.reservePublication(userId);
+
         // Date d'expiration selon le plan
-        int joursExpiration = getExpirationDays(user.getPlanActuel());
+        int joursExpiration = getExpirationDays(plan);
         listing.setDateExpiration(LocalDateTime.now().plusDays(joursExpiration));
 
         // Sauvegarder
         listing = listingRepository.save(listing);
+        listingStatsService.recordCreated(listing);
 
-        // Incrémenter le compteur d'annonces de l'utilisateur
-        userService.incrementAnnoncesPubliees(userId);
+        eventPublisher.publishEvent(new ListingChangedEvent(listing.getId(), ListingChangedEvent.Type.CREATED));
 
         return listing;
     }
@@ -114,14 +154,17 @@ public class ListingService {
     }
 
     /**
-     * Obtenir une annonce par ID et incrémenter les vues
+     * Obtenir le détail d'une annonce et incrémenter les vues
+     * Sans transaction: servi par ListingDetailCache, qui n'ouvre la sienne qu'en cas d'absence
      */
-    public Optional<Listing> getListingByIdAndIncrementViews(Long id) {
-        Optional<Listing> listingOpt = listingRepository.findById(id);
-        if (listingOpt.isPresent()) {
-            listingRepository.incrementViews(id);
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public Optional<ListingDetailView> getListingDetailAndIncrementViews(Long id) {
+        Optional<ListingDetailView> detail = listingDetailCache.get(id);
+        if (detail.isPresent()) {
+            // Écriture différée (ListingCounterBuffer), pas d'UPDATE par consultation
+            listingCounterBuffer.incrementViews(id);
         }
-        return listingOpt;
+        return detail;
     }
 
     /**
@@ -147,7 +190,9 @@ public class ListingService {
         if (etatProduit != null) listing.setEtatProduit(etatProduit);
         if (adresseComplete != null) listing.setAdresseComplete(adresseComplete);
 
-        return listingRepository.save(listing);
+        listing = listingRepository.save(listing);
+        eventPublisher.publishEvent(new ListingChangedEvent(listingId, ListingChangedEvent.Type.UPDATED));
+        return listing;
     }
 
     /**
@@ -162,7 +207,9 @@ public class ListingService {
             throw new RuntimeException("Vous n'êtes pas autorisé à supprimer cette annonce");
         }
 
+        listingStatsService.recordDeleted(listing);
         listingRepository.delete(listing);
+        eventPublisher.publishEvent(new ListingChangedEvent(listingId, ListingChangedEvent.Type.DELETED));
     }
 
     /**
@@ -176,8 +223,11 @@ public class ListingService {
             throw new RuntimeException("Vous n'êtes pas autorisé à modifier cette annonce");
         }
 
+        ListingStatus previous = listing.getStatut();
         listing.setStatut(ListingStatus.VENDU);
         listingRepository.save(listing);
+        listingStatsService.recordStatusChange(listing, previous);
+        eventPublisher.publishEvent(new ListingChangedEvent(listingId, ListingChangedEvent.Type.STATUS_CHANGED));
     }
 
     /**
@@ -192,6 +242,7 @@ public class ListingService {
         }
 
         listingRepository.boostListing(listingId, LocalDateTime.now());
+        eventPublisher.publishEvent(new ListingChangedEvent(listingId, ListingChangedEvent.Type.UPDATED));
     }
 
     /**
@@ -209,32 +260,58 @@ public class ListingService {
     }
 
     /**
-     * Obtenir toutes les annonces actives
+     * Résumés des annonces actives (plus récentes d'abord), sans charger d'entités
      */
-    public Page<Listing> getAllActiveListings(Pageable pageable) {
-        return listingRepository.findByStatut(ListingStatus.ACTIVE, pageable);
+    public Page<ListingSummaryView> getActiveListingSummaries(Pageable pageable) {
+        return listingRepository.findSummariesByStatut(ListingStatus.ACTIVE, pageable);
     }
 
     /**
-     * Obtenir les annonces par catégorie
+     * Résumés des annonces actives d'une catégorie, sans charger d'entités
      */
-    public Page<Listing> getListingsByCategory(Long categoryId, Pageable pageable) {
-        return listingRepository.findByCategoryIdAndStatut(categoryId, ListingStatus.ACTIVE, pageable);
+    public Page<ListingSummaryView> getListingSummariesByCategory(Long categoryId, Pageable pageable) {
+        return listingRepository.findSummariesByCategoryIdAndStatut(categoryId, ListingStatus.ACTIVE, pageable);
+    }
+
+    /**
+     * Obtenir les annonces actives par curseur (plus récentes d'abord, sans COUNT)
+     */
+    public CursorPage<ListingSummaryView> getActiveListingsAfter(String after, int size) {
+        ListingCursor cursor = ListingCursor.decode(after);
+        Pageable limit = PageRequest.of(0, size);
+        Slice<ListingSummaryView> slice = cursor == null
+                ? listingRepository.findFeedByStatut(ListingStatus.ACTIVE, limit)
+                : listingRepository.findFeedByStatutAfter(ListingStatus.ACTIVE,
+                        cursor.requireFeedKey().getDate(), cursor.getId(), limit);
+        return toFeedPage(slice);
+    }
+
+    /**
+     * Obtenir les annonces d'une catégorie par curseur
+     */
+    public CursorPage<ListingSummaryView> getListingsByCategoryAfter(Long categoryId, String after, int size) {
+        ListingCursor cursor = ListingCursor.decode(after);
+        Pageable limit = PageRequest.of(0, size);
+        Slice<ListingSummaryView> slice = cursor == null
+                ? listingRepository.findFeedByCategoryIdAndStatut(categoryId, ListingStatus.ACTIVE, limit)
+                : listingRepository.findFeedByCategoryIdAndStatutAfter(categoryId, ListingStatus.ACTIVE,
+                        cursor.requireFeedKey().getDate(), cursor.getId(), limit);
+        return toFeedPage(slice);
     }
 
     /**
      * Incrémenter le compteur de contacts WhatsApp
      */
     public void incrementWhatsappContacts(Long listingId) {
-        listingRepository.incrementWhatsappContacts(listingId);
+        listingCounterBuffer.incrementWhatsappContacts(listingId);
     }
 
     /**
-     * Marquer les annonces expirées
+     * Marquer les annonces expirées (passage immédiat de la tâche planifiée, par lots)
      */
-    @Transactional
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public int markExpiredListings() {
-        return listingRepository.markExpiredListings(LocalDateTime.now());
+        return listingExpirationJob.expireDue();
     }
 
     /**
@@ -246,7 +323,7 @@ public class ListingService {
 
         return listingRepository.findSimilarListings(
                 listing.getCategory().getId(),
-                listing.getVille(),
+                listing.getCityId(),
                 listingId,
                 ListingStatus.ACTIVE,
                 org.springframework.data.domain.PageRequest.of(0, limit)
@@ -256,7 +333,7 @@ public class ListingService {
     /**
      * Obtenir le nombre de jours d'expiration selon le plan
      */
-    private int getExpirationDays(com.camerannonces.enums.PlanType plan) {
+    private int getExpirationDays(PlanType plan) {
         switch (plan) {
             case GRATUIT:
                 return 14; // 2 semaines
@@ -272,14 +349,39 @@ public class ListingService {
     }
 
     /**
-     * Obtenir les statistiques des annonces
+     * Convertir une tranche triée par (date_creation, id) en page à curseur
+     */
+    private CursorPage<ListingSummaryView> toFeedPage(Slice<ListingSummaryView> slice) {
+        List<ListingSummaryView> content = slice.getContent();
+        if (!slice.hasNext() || content.isEmpty()) {
+            return new CursorPage<>(content, null);
+        }
+        ListingSummaryView last = content.get(content.size() - 1);
+        return new CursorPage<>(content, ListingCursor.forFeed(last.dateCreation(), last.id()).encode());
+    }
+
+    /**
+     * Obtenir les statistiques des annonces actives: [nom de catégorie, nombre]
      */
     public List<Object[]> getListingStatsByCategory() {
-        return listingRepository.countByCategory(ListingStatus.ACTIVE);
+        ReferenceDataSnapshot snapshot = referenceData.snapshot();
+        return listingStatsService.countsByStatus(ListingStatsService.Dimension.CATEGORY, ListingStatus.ACTIVE)
+                .entrySet().stream()
+                .flatMap(count -> snapshot.getCategory(Long.valueOf(count.getKey())).stream()
+                        .map(category -> new Object[]{category.nom(), count.getValue()}))
+                .toList();
     }
 
+    /**
+     * [ville, nombre d'annonces actives], de la plus fournie à la moins fournie
+     */
     public List<Object[]> getListingStatsByCity() {
-        return listingRepository.countByCity(ListingStatus.ACTIVE);
+        ReferenceDataSnapshot snapshot = referenceData.snapshot();
+        return listingStatsService.countsByStatus(ListingStatsService.Dimension.CITY, ListingStatus.ACTIVE)
+                .entrySet().stream()
+                .flatMap(count -> snapshot.getCity(Long.valueOf(count.getKey())).stream()
+                        .map(city -> new Object[]{city.nom(), count.getValue()}))
+                .toList();
     }
 
 
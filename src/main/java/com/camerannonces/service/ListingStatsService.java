@@ -0,0 +1,213 @@
+package com.camerannonces.service;
+
+import com.camerannonces.entity.Listing;
+import com.camerannonces.enums.ListingStatus;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Nombre d'annonces par catégorie, ville et quartier, et par statut (table listing_stats)
+ * Ajusté dans la transaction de chaque création, changement de statut ou suppression
+ * d'annonce, puis recalculé chaque nuit depuis listings (source de vérité).
+ * Les lectures ne parcourent que les lignes d'une dimension, jamais la table listings.
+ */
+@Service
+public class ListingStatsService {
+
+    public enum Dimension {
+        CATEGORY,
+        CITY,
+        QUARTIER
+    }
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    // ============================================
+    // AJUSTEMENTS
+    // ============================================
+
+    public void recordCreated(Listing listing) {
+        adjust(listing, null, listing.getStatut());
+    }
+
+    public void recordStatusChange(Listing listing, ListingStatus previous) {
+        adjust(listing, previous, listing.getStatut());
+    }
+
+    public void recordDeleted(Listing listing) {
+        adjust(listing, listing.getStatut(), null);
+    }
+
+    /**
+     * Changement de statut d'un lot d'annonces modifiées en masse (clés renvoyées par l'UPDATE ... RETURNING)
+     * Un seul upsert pour tout le lot, deltas cumulés par clé
+     */
+    public void recordBulkStatusChange(List<ListingKeys> listings, ListingStatus from, ListingStatus to) {
+        Map<Key, Long> totals = new LinkedHashMap<>();
+        for (ListingKeys listing : listings) {
+            listing.keys().forEach((dimension, cle) -> totals.merge(new Key(dimension, cle), 1L, Long::sum));
+        }
+
+        List<Delta> deltas = new ArrayList<>();
+        totals.forEach((key, count) -> {
+            deltas.add(new Delta(key.dimension(), from, key.cle(), -count));
+            deltas.add(new Delta(key.dimension(), to, key.cle(), count));
+        });
+        write(deltas);
+    }
+
+    /**
+     * -1 sur l'ancien statut, +1 sur le nouveau, pour chaque dimension de l'annonce
+     * Doit être appelé dans la transaction qui modifie l'annonce
+     */
+    private void adjust(Listing listing, ListingStatus from, ListingStatus to) {
+        if (from == to) {
+            return;
+        }
+
+        List<Delta> deltas = new ArrayList<>();
+        for (Map.Entry<Dimension, String> key : ListingKeys.of(listing).keys().entrySet()) {
+            if (from != null) {
+                deltas.add(new Delta(key.getKey(), from, key.getValue(), -1));
+            }
+            if (to != null) {
+                deltas.add(new Delta(key.getKey(), to, key.getValue(), 1));
+            }
+        }
+        write(deltas);
+    }
+
+    private void write(List<Delta> deltas) {
+        if (deltas.isEmpty()) {
+            return;
+        }
+
+        // Ordre de la clé primaire: deux transactions verrouillent les lignes dans le même ordre
+        deltas.sort(Comparator.comparing((Delta delta) -> delta.dimension().name())
+                .thenComparing(delta -> delta.statut().name())
+                .thenComparing(Delta::cle));
+
+        StringBuilder sql = new StringBuilder("INSERT INTO listing_stats (dimension, cle, statut, total) VALUES ");
+        Object[] args = new Object[deltas.size() * 4];
+        for (int i = 0; i < deltas.size(); i++) {
+            Delta delta = deltas.get(i);
+            sql.append(i == 0 ? "" : ", ").append("(?, ?, ?, ?)");
+            args[i * 4] = delta.dimension().name();
+            args[i * 4 + 1] = delta.cle();
+            args[i * 4 + 2] = delta.statut().name();
+            args[i * 4 + 3] = delta.delta();
+        }
+        sql.append(" ON CONFLICT (dimension, statut, cle) DO UPDATE SET total = listing_stats.total + EXCLUDED.total");
+
+        jdbcTemplate.update(sql.toString(), args);
+    }
+
+    // ============================================
+    // LECTURES
+    // ============================================
+
+    /**
+     * Clés ayant au moins une annonce dans ce statut, de la plus fournie à la moins fournie
+     */
+    public Map<String, Long> countsByStatus(Dimension dimension, ListingStatus statut) {
+        Map<String, Long> counts = new LinkedHashMap<>();
+        jdbcTemplate.query("SELECT cle, total FROM listing_stats " +
+                        "WHERE dimension = ? AND statut = ? AND total > 0 ORDER BY total DESC, cle",
+                rs -> {
+                    counts.put(rs.getString("cle"), rs.getLong("total"));
+                },
+                dimension.name(), statut.name());
+        return counts;
+    }
+
+    /**
+     * Nombre d'annonces par clé, tous statuts confondus
+     */
+    public Map<String, Long> countsAllStatuses(Dimension dimension) {
+        Map<String, Long> counts = new LinkedHashMap<>();
+        jdbcTemplate.query("SELECT cle, SUM(total) AS total FROM listing_stats " +
+                        "WHERE dimension = ? GROUP BY cle",
+                rs -> {
+                    counts.put(rs.getString("cle"), rs.getLong("total"));
+                },
+                dimension.name());
+        return counts;
+    }
+
+    // ============================================
+    // RÉCONCILIATION
+    // ============================================
+
+    /**
+     * Recalculer les compteurs depuis listings (corrige les écarts: mises à jour en masse,
+     * suppressions en cascade, modifications faites hors de l'application)
+     */
+    @Scheduled(cron = "${listing.stats.reconcile-cron:0 30 3 * * *}")
+    public void reconcile() {
+        long start = System.currentTimeMillis();
+        try {
+            Integer rows = transactionTemplate.execute(status -> {
+                // Deux recalculs simultanés (planifié + ListingLocationBackfill) s'attendent au lieu de
+                // réinsérer les mêmes clés; les incréments concurrents s'appliquent avant ou après.
+                // Verrou pris avant la lecture de listings: le recalcul voit tout ce qu'ils ont validé
+                jdbcTemplate.execute("LOCK TABLE listing_stats IN EXCLUSIVE MODE");
+                jdbcTemplate.update("DELETE FROM listing_stats");
+                return jdbcTemplate.update("INSERT INTO listing_stats (dimension, cle, statut, total) " +
+                        "SELECT 'CATEGORY', category_id::text, statut, COUNT(*) FROM listings " +
+                        "WHERE statut IS NOT NULL GROUP BY category_id, statut " +
+                        "UNION ALL " +
+                        "SELECT 'CITY', city_id::text, statut, COUNT(*) FROM listings " +
+                        "WHERE statut IS NOT NULL AND city_id IS NOT NULL GROUP BY city_id, statut " +
+                        "UNION ALL " +
+                        "SELECT 'QUARTIER', quartier_id::text, statut, COUNT(*) FROM listings " +
+                        "WHERE statut IS NOT NULL AND quartier_id IS NOT NULL GROUP BY quartier_id, statut");
+            });
+            System.out.println("📊 Compteurs d'annonces recalculés: " + rows + " lignes en "
+                    + (System.currentTimeMillis() - start) + " ms");
+        } catch (RuntimeException e) {
+            System.err.println("❌ Erreur recalcul des compteurs d'annonces: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Clés d'une annonce dans chaque dimension (null: pas de ligne pour cette dimension)
+     */
+    public record ListingKeys(Long categoryId, Long cityId, Long quartierId) {
+
+        static ListingKeys of(Listing listing) {
+            return new ListingKeys(listing.getCategory() != null ? listing.getCategory().getId() : null,
+                    listing.getCityId(), listing.getQuartierId());
+        }
+
+        Map<Dimension, String> keys() {
+            Map<Dimension, String> keys = new LinkedHashMap<>();
+            if (categoryId != null) {
+                keys.put(Dimension.CATEGORY, String.valueOf(categoryId));
+            }
+            if (cityId != null) {
+                keys.put(Dimension.CITY, String.valueOf(cityId));
+            }
+            if (quartierId != null) {
+                keys.put(Dimension.QUARTIER, String.valueOf(quartierId));
+            }
+            return keys;
+        }
+    }
+
+    private record Key(Dimension dimension, String cle) {}
+
+    private record Delta(Dimension dimension, ListingStatus statut, String cle, long delta) {}
+}
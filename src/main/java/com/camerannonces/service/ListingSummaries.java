@@ -0,0 +1,34 @@
+package com.camerannonces.service;
+
+import com.camerannonces.entity.Category;
+import com.camerannonces.entity.Listing;
+import com.camerannonces.entity.User;
+
+import java.util.Map;
+
+/**
+ * Données associées à une page d'annonces, chargées en lot par ListingSummaryService
+ * Les recherches se font par id: aucun accès aux relations LAZY des annonces
+ * L'image principale et sa miniature sont lues sur l'annonce elle-même (Listing.getMainImageUrl)
+ */
+public final class ListingSummaries {
+
+    private final Map<Long, Category> categories;
+    private final Map<Long, User> sellers;
+
+    ListingSummaries(Map<Long, Category> categories, Map<Long, User> sellers) {
+        this.categories = categories;
+        this.sellers = sellers;
+    }
+
+    public Category category(Listing listing) {
+        return listing.getCategory() != null ? categories.get(listing.getCategory().getId()) : null;
+    }
+
+    /**
+     * Vendeur de l'annonce (chargé uniquement avec ListingSummaryService.loadWithSellers)
+     */
+    public User seller(Listing listing) {
+        return listing.getUser() != null ? sellers.get(listing.getUser().getId()) : null;
+    }
+}
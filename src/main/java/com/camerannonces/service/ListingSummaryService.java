@@ -0,0 +1,90 @@
+package com.camerannonces.service;
+
+import com.camerannonces.entity.Category;
+import com.camerannonces.entity.Listing;
+import com.camerannonces.entity.User;
+import com.camerannonces.repository.UserRepository;
+import jakarta.persistence.EntityManager;
+import org.hibernate.Session;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Assemblage des résumés d'une page d'annonces
+ * Catégories (et vendeurs) résolus en requêtes IN: le nombre de requêtes ne dépend pas
+ * de la taille de la page. Les images viennent de la ligne listings (aucune jointure à listing_images)
+ * Les catégories déjà dans le cache de second niveau ne sont pas relues
+ */
+@Service
+@Transactional(readOnly = true)
+public class ListingSummaryService {
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    /**
+     * Catégories (au plus 1 requête)
+     */
+    public ListingSummaries load(List<Listing> listings) {
+        return new ListingSummaries(loadCategories(listings), Map.of());
+    }
+
+    /**
+     * Catégories et vendeurs (au plus 2 requêtes)
+     */
+    public ListingSummaries loadWithSellers(List<Listing> listings) {
+        return new ListingSummaries(loadCategories(listings), loadSellers(listings));
+    }
+
+    private Map<Long, Category> loadCategories(List<Listing> listings) {
+        // getId() sur un proxy LAZY ne déclenche pas de chargement
+        Set<Long> categoryIds = listings.stream()
+                .map(Listing::getCategory)
+                .filter(Objects::nonNull)
+                .map(Category::getId)
+                .collect(Collectors.toSet());
+        if (categoryIds.isEmpty()) {
+            return Map.of();
+        }
+        // multiLoad consulte le cache de second niveau avant la base (findAllById: toujours une requête)
+        return entityManager.unwrap(Session.class)
+                .byMultipleIds(Category.class)
+                .multiLoad(List.copyOf(categoryIds)).stream()
+                .filter(Objects::nonNull)
+                .collect(Collectors.toMap(Category::getId, Function.identity()));
+    }
+
+    /**
+     * Vendeurs d'une page de résumés (ListingSummaryView.userId), en une requête
+     */
+    public Map<Long, User> loadSellersById(Collection<Long> userIds) {
+        Set<Long> ids = userIds.stream()
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        if (ids.isEmpty()) {
+            return Map.of();
+        }
+        return userRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(User::getId, Function.identity()));
+    }
+
+    private Map<Long, User> loadSellers(List<Listing> listings) {
+        return loadSellersById(listings.stream()
+                .map(Listing::getUser)
+                .filter(Objects::nonNull)
+                .map(User::getId)
+                .toList());
+    }
+}
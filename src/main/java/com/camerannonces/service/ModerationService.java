@@ -5,15 +5,23 @@ import com.camerannonces.entity.Listing;
 import com.camerannonces.entity.User;
 import com.camerannonces.enums.SignalReason;
 import com.camerannonces.enums.ListingStatus;
+import com.camerannonces.event.ListingChangedEvent;
 import com.camerannonces.repository.SignalRepository;
 import com.camerannonces.repository.ListingRepository;
 import com.camerannonces.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.sql.Timestamp;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
@@ -31,6 +39,27 @@ public class ModerationService {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private ListingStatsService listingStatsService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ScheduledJobLock jobLock;
+
+    @Value("${moderation.report-expiry.days:30}")
+    private int reportExpiryDays;
+
+    @Value("${moderation.report-expiry.chunk-size:1000}")
+    private int reportExpiryChunkSize;
+
     /**
      * Signaler une annonce
      */
@@ -136,8 +165,11 @@ public class ModerationService {
         Listing listing = listingRepository.findById(listingId)
                 .orElseThrow(() -> new RuntimeException("Annonce non trouvée"));
 
+        ListingStatus previous = listing.getStatut();
         listing.setStatut(ListingStatus.SUSPENDU);
         listingRepository.save(listing);
+        listingStatsService.recordStatusChange(listing, previous);
+        eventPublisher.publishEvent(new ListingChangedEvent(listingId, ListingChangedEvent.Type.STATUS_CHANGED));
 
         // TODO: Envoyer une notification à l'utilisateur
         // TODO: Logger l'action de modération
@@ -150,8 +182,11 @@ public class ModerationService {
         Listing listing = listingRepository.findById(listingId)
                 .orElseThrow(() -> new RuntimeException("Annonce non trouvée"));
 
+        ListingStatus previous = listing.getStatut();
         listing.setStatut(ListingStatus.ACTIVE);
         listingRepository.save(listing);
+        listingStatsService.recordStatusChange(listing, previous);
+        eventPublisher.publishEvent(new ListingChangedEvent(listingId, ListingChangedEvent.Type.STATUS_CHANGED));
 
         // TODO: Envoyer une notification à l'utilisateur
         // TODO: Logger l'action de modération
@@ -164,8 +199,11 @@ public class ModerationService {
         Listing listing = listingRepository.findById(listingId)
                 .orElseThrow(() -> new RuntimeException("Annonce non trouvée"));
 
+        ListingStatus previous = listing.getStatut();
         listing.setStatut(ListingStatus.SUSPENDU);
         listingRepository.save(listing);
+        listingStatsService.recordStatusChange(listing, previous);
+        eventPublisher.publishEvent(new ListingChangedEvent(listingId, ListingChangedEvent.Type.STATUS_CHANGED));
 
         // TODO: Notifier les administrateurs
         // TODO: Notifier l'utilisateur
@@ -211,25 +249,48 @@ public class ModerationService {
     }
 
     /**
-     * Traitement en lot des signalements anciens
+     * Passage planifié d'expiration des signalements en attente (une seule instance à la fois)
      */
-    @Transactional
-    public void processOldReports(int daysOld) {
-        LocalDateTime cutoffDate = LocalDateTime.now().minusDays(daysOld);
-
-        List<Signal> oldReports = signalRepository.findByDateSignalementBetween(
-                LocalDateTime.now().minusDays(365), cutoffDate
-        );
-
-        for (Signal signal : oldReports) {
-            if ("EN_ATTENTE".equals(signal.getStatut())) {
-                signal.setStatut("EXPIRE");
-                signal.setCommentaireAdmin("Signalement expiré automatiquement après " + daysOld + " jours");
-                signal.setDateTraitement(LocalDateTime.now());
-            }
+    @Scheduled(cron = "${moderation.report-expiry.cron:0 15 4 * * *}")
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void scheduledProcessOldReports() {
+        try {
+            jobLock.runExclusively("report-expiry", () -> processOldReports(reportExpiryDays));
+        } catch (RuntimeException e) {
+            System.err.println("❌ Erreur expiration des signalements: " + e.getMessage());
         }
+    }
 
-        signalRepository.saveAll(oldReports);
+    /**
+     * Traitement en lot des signalements anciens: EN_ATTENTE depuis plus de daysOld jours -> EXPIRE
+     * Par lots de report-expiry.chunk-size, un UPDATE ... RETURNING id par transaction: seules les
+     * lignes en attente sont touchées, rien n'est chargé en mémoire
+     * @return nombre de signalements expirés
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public int processOldReports(int daysOld) {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime cutoffDate = now.minusDays(daysOld);
+        String commentaire = "Signalement expiré automatiquement après " + daysOld + " jours";
+
+        int total = 0;
+        int updated;
+        do {
+            updated = transactionTemplate.execute(status -> jdbcTemplate.queryForList(
+                    "UPDATE signals SET statut = 'EXPIRE', commentaire_admin = ?, date_traitement = ? " +
+                            "WHERE id IN (SELECT id FROM signals " +
+                            "WHERE statut = 'EN_ATTENTE' AND date_signalement < ? " +
+                            "ORDER BY date_signalement LIMIT ? FOR UPDATE SKIP LOCKED) " +
+                            "RETURNING id",
+                    Long.class, commentaire, Timestamp.valueOf(now), Timestamp.valueOf(cutoffDate),
+                    reportExpiryChunkSize).size());
+            total += updated;
+        } while (updated == reportExpiryChunkSize);
+
+        if (total > 0) {
+            System.out.println("⏰ " + total + " signalements expirés (plus de " + daysOld + " jours)");
+        }
+        return total;
     }
 
     /**
@@ -0,0 +1,52 @@
+package com.camerannonces.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Élection d'un nœud pour une tâche planifiée: verrou consultatif PostgreSQL (pg_try_advisory_lock)
+ * tenu par une connexion dédiée le temps de la tâche. Les autres instances passent leur tour;
+ * si le nœud tombe, la session se ferme et le verrou est libéré.
+ * À appeler hors transaction: la tâche ouvre ses propres transactions (sur d'autres connexions).
+ */
+@Component
+public class ScheduledJobLock {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Exécuter la tâche si ce nœud obtient le verrou du nom donné
+     * @return false si une autre instance l'exécute déjà
+     */
+    public boolean runExclusively(String jobName, Runnable job) {
+        Boolean ran = jdbcTemplate.execute((ConnectionCallback<Boolean>) connection -> {
+            if (!advisoryLock(connection, "SELECT pg_try_advisory_lock(hashtext(?))", jobName)) {
+                return false;
+            }
+            try {
+                job.run();
+            } finally {
+                advisoryLock(connection, "SELECT pg_advisory_unlock(hashtext(?))", jobName);
+            }
+            return true;
+        });
+        return Boolean.TRUE.equals(ran);
+    }
+
+    private static boolean advisoryLock(Connection connection, String sql, String jobName) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            statement.setString(1, "job:" + jobName);
+            try (ResultSet rs = statement.executeQuery()) {
+                return rs.next() && rs.getBoolean(1);
+            }
+        }
+    }
+}
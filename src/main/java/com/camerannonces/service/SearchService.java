@@ -1,94 +1,102 @@
 package com.camerannonces.service;
 
+import com.camerannonces.dto.CursorPage;
+import com.camerannonces.dto.ListingSummaryView;
 import com.camerannonces.entity.Listing;
 import com.camerannonces.enums.EtatProduit;
 import com.camerannonces.enums.ListingStatus;
+import com.camerannonces.reference.CityRef;
+import com.camerannonces.reference.QuartierRef;
+import com.camerannonces.reference.ReferenceDataRegistry;
 import com.camerannonces.repository.ListingRepository;
-import com.camerannonces.util.KeywordEnricher;
+import com.camerannonces.search.ListingSearchIndex;
+import com.camerannonces.search.SearchHits;
+import com.camerannonces.util.ListingCursor;
+import com.camerannonces.util.SearchTerms;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.support.PageableExecutionUtils;
 import org.springframework.stereotype.Service;
 
+import java.sql.Timestamp;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
-import java.util.Set;
-import java.util.HashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
 public class SearchService {
 
+    // Ville ou quartier absent du référentiel: filtre qui ne correspond à aucune annonce
+    private static final Long UNKNOWN_LOCATION = -1L;
+
+    // Filtre quartier désactivé (filterQuartier = false): liste ignorée, non vide pour que IN reste valide
+    private static final List<Long> NO_QUARTIER_FILTER = List.of(UNKNOWN_LOCATION);
+
     @Autowired
     private ListingRepository listingRepository;
 
+    @Autowired
+    private ReferenceDataRegistry referenceData;
+
+    // Présent uniquement avec search.backend=memory
+    @Autowired(required = false)
+    private ListingSearchIndex searchIndex;
+
+    @Value("${search.backend:database}")
+    private String searchBackend;
+
     /**
      * Recherche simple par mot-clé avec enrichissement intelligent
+     * Tous les synonymes partent dans une seule requête classée et paginée
      */
-    public Page<Listing> searchByKeyword(String keyword, Pageable pageable) {
-        String enrichedKeyword = KeywordEnricher.enrich(keyword);
-
-        // Découper en mots individuels et chercher avec chacun
-        String[] words = enrichedKeyword.split("\\s+");
-        Set<Listing> allResults = new HashSet<>();
-
-        // Chercher avec chaque mot
-        for (String word : words) {
-            if (word.length() >= 3) { // Ignorer les mots trop courts
-                Page<Listing> results = listingRepository.searchByKeyword(word, "ACTIVE", PageRequest.of(0, 100));
-                allResults.addAll(results.getContent());
-            }
+    public Page<ListingSummaryView> searchByKeyword(String keyword, Pageable pageable) {
+        if (keyword == null || keyword.trim().isEmpty()) {
+            // Pas de mot-clé: toutes les annonces actives
+            return listingRepository.findSummariesByStatut(ListingStatus.ACTIVE, pageable);
         }
 
-        // Convertir Set en List et paginer
-        List<Listing> resultList = allResults.stream()
-                .sorted((a, b) -> b.getDateCreation().compareTo(a.getDateCreation()))
-                .collect(Collectors.toList());
-
-        int start = (int) pageable.getOffset();
-        int end = Math.min((start + pageable.getPageSize()), resultList.size());
+        SearchTerms terms = SearchTerms.from(keyword);
+        if (terms.isEmpty()) {
+            return Page.empty(pageable);
+        }
 
-        if (start >= resultList.size()) {
-            return new PageImpl<>(List.of(), pageable, resultList.size());
+        if (useMemoryIndex()) {
+            return searchInMemory(terms, null, null, pageable);
         }
 
-        List<Listing> pageContent = resultList.subList(start, end);
-        return new PageImpl<>(pageContent, pageable, resultList.size());
+        return searchRanked(terms, null, null, pageable);
     }
 
     /**
      * Recherche avec filtres basiques et enrichissement intelligent
      */
-    public Page<Listing> searchWithBasicFilters(String keyword, Long categoryId, String ville, Pageable pageable) {
-        String enrichedKeyword = KeywordEnricher.enrich(keyword);
-
-        // Découper et chercher
-        String[] words = enrichedKeyword.split("\\s+");
-        Set<Listing> allResults = new HashSet<>();
-
-        for (String word : words) {
-            if (word.length() >= 3) {
-                Page<Listing> results = listingRepository.searchWithFilters(word, categoryId, ville, "ACTIVE", PageRequest.of(0, 100));
-                allResults.addAll(results.getContent());
-            }
+    public Page<ListingSummaryView> searchWithBasicFilters(String keyword, Long categoryId, String ville,
+                                                           Pageable pageable) {
+        if (keyword == null || keyword.trim().isEmpty()) {
+            return listingRepository.findSummariesWithFilters(categoryId, cityId(ville), false, NO_QUARTIER_FILTER,
+                    null, null, null, null, ListingStatus.ACTIVE, pageable);
         }
 
-        List<Listing> resultList = allResults.stream()
-                .sorted((a, b) -> b.getDateCreation().compareTo(a.getDateCreation()))
-                .collect(Collectors.toList());
-
-        int start = (int) pageable.getOffset();
-        int end = Math.min((start + pageable.getPageSize()), resultList.size());
+        SearchTerms terms = SearchTerms.from(keyword);
+        if (terms.isEmpty()) {
+            return Page.empty(pageable);
+        }
 
-        if (start >= resultList.size()) {
-            return new PageImpl<>(List.of(), pageable, resultList.size());
+        if (useMemoryIndex()) {
+            return searchInMemory(terms, categoryId, ville, pageable);
         }
 
-        List<Listing> pageContent = resultList.subList(start, end);
-        return new PageImpl<>(pageContent, pageable, resultList.size());
+        return searchRanked(terms, categoryId, cityId(ville), pageable);
     }
 
     /**
@@ -97,38 +105,46 @@ public class SearchService {
     public Page<Listing> searchWithAllFilters(String keyword, Long categoryId, String ville, String quartier,
                                               Integer minPrix, Integer maxPrix, EtatProduit etatProduit,
                                               Boolean prixNegociable, Pageable pageable) {
+        Long cityId = cityId(ville);
+        List<Long> quartierIds = quartierIds(cityId, quartier);
         return listingRepository.findWithFilters(
-                categoryId, ville, quartier, minPrix, maxPrix,
-                etatProduit, prixNegociable, ListingStatus.ACTIVE, pageable
+                categoryId, cityId, quartierIds != null, quartierIds != null ? quartierIds : NO_QUARTIER_FILTER,
+                minPrix, maxPrix, etatProduit, prixNegociable, ListingStatus.ACTIVE, pageable
         );
     }
 
     /**
      * Recherche par catégorie
      */
-    public Page<Listing> searchByCategory(Long categoryId, Pageable pageable) {
-        return listingRepository.findByCategoryIdAndStatut(categoryId, ListingStatus.ACTIVE, pageable);
+    public Page<ListingSummaryView> searchByCategory(Long categoryId, Pageable pageable) {
+        return listingRepository.findSummariesByCategoryIdAndStatut(categoryId, ListingStatus.ACTIVE, pageable);
     }
 
     /**
      * Recherche par ville
      */
-    public Page<Listing> searchByCity(String ville, Pageable pageable) {
-        return listingRepository.findByVilleAndStatut(ville, ListingStatus.ACTIVE, pageable);
+    public Page<ListingSummaryView> searchByCity(String ville, Pageable pageable) {
+        return listingRepository.findSummariesByCityIdAndStatut(cityId(ville), ListingStatus.ACTIVE, pageable);
     }
 
     /**
      * Recherche par quartier
      */
     public Page<Listing> searchByQuartier(String quartier, Pageable pageable) {
-        return listingRepository.findByQuartierAndStatut(quartier, ListingStatus.ACTIVE, pageable);
+        List<Long> quartierIds = referenceData.snapshot().resolveQuartiers(quartier).stream()
+                .map(QuartierRef::id)
+                .toList();
+        if (quartierIds.isEmpty()) {
+            return Page.empty(pageable);
+        }
+        return listingRepository.findByQuartierIdInAndStatut(quartierIds, ListingStatus.ACTIVE, pageable);
     }
 
     /**
      * Recherche par fourchette de prix
      */
-    public Page<Listing> searchByPriceRange(Integer minPrix, Integer maxPrix, Pageable pageable) {
-        return listingRepository.findByPrixBetween(minPrix, maxPrix, ListingStatus.ACTIVE, pageable);
+    public Page<ListingSummaryView> searchByPriceRange(Integer minPrix, Integer maxPrix, Pageable pageable) {
+        return listingRepository.findSummariesByPrixBetween(minPrix, maxPrix, ListingStatus.ACTIVE, pageable);
     }
 
     /**
@@ -141,29 +157,29 @@ public class SearchService {
     /**
      * Obtenir les annonces premium
      */
-    public Page<Listing> getPremiumListings(Pageable pageable) {
-        return listingRepository.findByIsPremiumTrueAndStatutOrderByDateCreationDesc(ListingStatus.ACTIVE, pageable);
+    public Page<ListingSummaryView> getPremiumListings(Pageable pageable) {
+        return listingRepository.findPremiumSummaries(ListingStatus.ACTIVE, pageable);
     }
 
     /**
      * Obtenir les annonces urgentes
      */
-    public Page<Listing> getUrgentListings(Pageable pageable) {
-        return listingRepository.findByIsUrgentTrueAndStatutOrderByDateCreationDesc(ListingStatus.ACTIVE, pageable);
+    public Page<ListingSummaryView> getUrgentListings(Pageable pageable) {
+        return listingRepository.findUrgentSummaries(ListingStatus.ACTIVE, pageable);
     }
 
     /**
      * Obtenir les annonces de boutiques
      */
-    public Page<Listing> getBoutiqueListings(Pageable pageable) {
-        return listingRepository.findBoutiqueListings(ListingStatus.ACTIVE, pageable);
+    public Page<ListingSummaryView> getBoutiqueListings(Pageable pageable) {
+        return listingRepository.findBoutiqueSummaries(ListingStatus.ACTIVE, pageable);
     }
 
     /**
      * Obtenir les annonces les plus vues
      */
-    public Page<Listing> getMostViewedListings(Pageable pageable) {
-        return listingRepository.findMostViewedListings(ListingStatus.ACTIVE, pageable);
+    public Page<ListingSummaryView> getMostViewedListings(Pageable pageable) {
+        return listingRepository.findMostViewedSummaries(ListingStatus.ACTIVE, pageable);
     }
 
     /**
@@ -176,16 +192,16 @@ public class SearchService {
     /**
      * Obtenir les annonces récentes
      */
-    public Page<Listing> getRecentListings(int days, Pageable pageable) {
+    public Page<ListingSummaryView> getRecentListings(int days, Pageable pageable) {
         LocalDateTime since = LocalDateTime.now().minusDays(days);
-        return listingRepository.findByDateCreationAfterAndStatut(since, ListingStatus.ACTIVE, pageable);
+        return listingRepository.findRecentSummaries(since, ListingStatus.ACTIVE, pageable);
     }
 
     /**
      * Obtenir les annonces d'aujourd'hui
      */
     public List<Listing> getTodayListings() {
-        return listingRepository.findTodayListings(ListingStatus.ACTIVE);
+        return listingRepository.findTodayListings(LocalDate.now().atStartOfDay(), ListingStatus.ACTIVE);
     }
 
     /**
@@ -226,62 +242,45 @@ public class SearchService {
         Pageable pageable = PageRequest.of(page, size, sort);
 
         if (keyword != null && !keyword.trim().isEmpty()) {
-            String enrichedKeyword = KeywordEnricher.enrich(keyword);
-            String[] words = enrichedKeyword.split("\\s+");
-            Set<Listing> allResults = new HashSet<>();
-
-            for (String word : words) {
-                if (word.length() >= 3) {
-                    Page<Listing> results = listingRepository.searchWithFilters(word, categoryId, ville, "ACTIVE", PageRequest.of(0, 100));
-                    allResults.addAll(results.getContent());
-                }
-            }
-
-            List<Listing> resultList = allResults.stream()
-                    .sorted((a, b) -> b.getDateCreation().compareTo(a.getDateCreation()))
-                    .collect(Collectors.toList());
-
-            int start = (int) pageable.getOffset();
-            int end = Math.min((start + pageable.getPageSize()), resultList.size());
-
-            if (start >= resultList.size()) {
-                return new PageImpl<>(List.of(), pageable, resultList.size());
+            SearchTerms terms = SearchTerms.from(keyword);
+            if (terms.isEmpty()) {
+                return Page.empty(pageable);
             }
 
-            List<Listing> pageContent = resultList.subList(start, end);
-            return new PageImpl<>(pageContent, pageable, resultList.size());
+            // Requête native: le tri porte sur les colonnes SQL
+            Sort nativeSort = Sort.by(sort.stream()
+                    .map(order -> new Sort.Order(order.getDirection(), toColumnName(order.getProperty())))
+                    .toList())
+                    .and(Sort.by(Sort.Direction.DESC, "id"));
+            return listingRepository.searchByTermsSorted(terms.toTsQuery(), terms.toPattern(),
+                    categoryId, cityId(ville), "ACTIVE", PageRequest.of(page, size, nativeSort));
         } else {
-            return listingRepository.findWithFilters(categoryId, ville, null, null, null,
-                    null, null, ListingStatus.ACTIVE, pageable);
+            return listingRepository.findWithFilters(categoryId, cityId(ville), false, NO_QUARTIER_FILTER,
+                    null, null, null, null, ListingStatus.ACTIVE, pageable);
         }
     }
 
     /**
      * Obtenir des suggestions de recherche avec enrichissement intelligent
      */
-    public List<Listing> getSuggestions(String keyword, int limit) {
-        String enrichedKeyword = KeywordEnricher.enrich(keyword);
-        String[] words = enrichedKeyword.split("\\s+");
-        Set<Listing> allResults = new HashSet<>();
+    public List<ListingSummaryView> getSuggestions(String keyword, int limit) {
+        SearchTerms terms = SearchTerms.from(keyword);
+        if (terms.isEmpty()) {
+            return List.of();
+        }
 
-        for (String word : words) {
-            if (word.length() >= 3) {
-                Page<Listing> results = listingRepository.searchByKeyword(word, "ACTIVE", PageRequest.of(0, limit));
-                allResults.addAll(results.getContent());
-                if (allResults.size() >= limit) break;
-            }
+        if (useMemoryIndex()) {
+            return loadSummariesInOrder(searchIndex.search(terms.getTerms(), null, null, 0, limit).listingIds());
         }
 
-        return allResults.stream()
-                .sorted((a, b) -> b.getDateCreation().compareTo(a.getDateCreation()))
-                .limit(limit)
-                .collect(Collectors.toList());
+        return loadSummariesInOrder(listingRepository.searchIdsByTerms(terms.toTsQuery(), terms.toPattern(),
+                null, null, "ACTIVE", limit, 0));
     }
 
     /**
      * Recherche avancée avec tous les critères
      */
-    public Page<Listing> advancedSearch(String keyword, Long categoryId, String ville, String quartier,
+    public Page<ListingSummaryView> advancedSearch(String keyword, Long categoryId, String ville, String quartier,
                                         Integer minPrix, Integer maxPrix, EtatProduit etatProduit,
                                         Boolean prixNegociable, Boolean livraisonDomicile,
                                         Boolean paiementMobileMoney, Boolean isBoutique,
@@ -293,9 +292,11 @@ public class SearchService {
         Pageable pageable = PageRequest.of(page, size, sort);
 
         // TODO: Ajouter support pour livraisonDomicile, paiementMobileMoney, isBoutique
-        return listingRepository.findWithFilters(
-                categoryId, ville, quartier, minPrix, maxPrix,
-                etatProduit, prixNegociable, ListingStatus.ACTIVE, pageable
+        Long cityId = cityId(ville);
+        List<Long> quartierIds = quartierIds(cityId, quartier);
+        return listingRepository.findSummariesWithFilters(
+                categoryId, cityId, quartierIds != null, quartierIds != null ? quartierIds : NO_QUARTIER_FILTER,
+                minPrix, maxPrix, etatProduit, prixNegociable, ListingStatus.ACTIVE, pageable
         );
     }
 
@@ -304,26 +305,244 @@ public class SearchService {
      */
     public long countSearchResults(String keyword, Long categoryId, String ville) {
         if (keyword != null && !keyword.trim().isEmpty()) {
-            String enrichedKeyword = KeywordEnricher.enrich(keyword);
-            String[] words = enrichedKeyword.split("\\s+");
-            Set<Listing> allResults = new HashSet<>();
-
-            for (String word : words) {
-                if (word.length() >= 3) {
-                    Page<Listing> results = listingRepository.searchWithFilters(
-                            word, categoryId, ville, "ACTIVE", PageRequest.of(0, 100)
-                    );
-                    allResults.addAll(results.getContent());
-                }
+            SearchTerms terms = SearchTerms.from(keyword);
+            if (terms.isEmpty()) {
+                return 0;
             }
-
-            return allResults.size();
+            if (useMemoryIndex()) {
+                return searchIndex.search(terms.getTerms(), categoryId, cityId(ville), 0, 1).totalHits();
+            }
+            return listingRepository.countByTerms(terms.toTsQuery(), terms.toPattern(),
+                    categoryId, cityId(ville), "ACTIVE");
         } else {
-            Page<Listing> results = listingRepository.findWithFilters(
-                    categoryId, ville, null, null, null, null, null,
+            Page<ListingSummaryView> results = listingRepository.findSummariesWithFilters(
+                    categoryId, cityId(ville), false, NO_QUARTIER_FILTER, null, null, null, null,
                     ListingStatus.ACTIVE, PageRequest.of(0, 1)
             );
             return results.getTotalElements();
         }
     }
-}
\ No newline at end of file
+
+    // ============================================
+    // PAGINATION PAR CURSEUR (SANS COUNT)
+    // ============================================
+
+    /**
+     * Recherche par mot-clé, page suivant le curseur "after" (null ou vide: première page)
+     */
+    public CursorPage<ListingSummaryView> searchByKeywordAfter(String keyword, String after, int size) {
+        return searchWithBasicFiltersAfter(keyword, null, null, after, size);
+    }
+
+    /**
+     * Recherche avec filtres basiques par curseur
+     * Avec mot-clé: ordre de pertinence; sans mot-clé: plus récentes d'abord
+     */
+    public CursorPage<ListingSummaryView> searchWithBasicFiltersAfter(String keyword, Long categoryId, String ville,
+                                                                      String after, int size) {
+        ListingCursor cursor = ListingCursor.decode(after);
+        Pageable limit = PageRequest.of(0, size);
+
+        if (keyword == null || keyword.trim().isEmpty()) {
+            return feedAfter(categoryId, cityId(ville), cursor, limit);
+        }
+
+        SearchTerms terms = SearchTerms.from(keyword);
+        if (terms.isEmpty()) {
+            return CursorPage.empty();
+        }
+
+        if (useMemoryIndex()) {
+            return searchInMemoryAfter(terms, categoryId, ville, cursor, limit.getPageSize());
+        }
+
+        // Une ligne de plus que demandé pour savoir s'il existe une page suivante
+        Long cityId = cityId(ville);
+        List<Object[]> keys = cursor == null
+                ? listingRepository.searchKeysByTerms(terms.toTsQuery(), terms.toPattern(),
+                        categoryId, cityId, "ACTIVE", limit.getPageSize() + 1)
+                : listingRepository.searchKeysByTermsAfter(terms.toTsQuery(), terms.toPattern(),
+                        categoryId, cityId, "ACTIVE",
+                        cursor.requireSearchKey().getScore(), cursor.getPremium(), cursor.getDate(), cursor.getId(),
+                        limit.getPageSize() + 1);
+
+        boolean hasNext = keys.size() > limit.getPageSize();
+        List<Object[]> pageKeys = hasNext ? keys.subList(0, limit.getPageSize()) : keys;
+        List<Long> ids = pageKeys.stream()
+                .map(row -> ((Number) row[0]).longValue())
+                .toList();
+
+        String nextCursor = null;
+        if (hasNext) {
+            Object[] last = pageKeys.get(pageKeys.size() - 1);
+            nextCursor = ListingCursor.forSearch(((Number) last[1]).doubleValue(), Boolean.TRUE.equals(last[2]),
+                    toLocalDateTime(last[3]), ((Number) last[0]).longValue()).encode();
+        }
+        return new CursorPage<>(loadSummariesInOrder(ids), nextCursor);
+    }
+
+    /**
+     * Recherche par catégorie par curseur
+     */
+    public CursorPage<ListingSummaryView> searchByCategoryAfter(Long categoryId, String after, int size) {
+        return feedAfter(categoryId, null, ListingCursor.decode(after), PageRequest.of(0, size));
+    }
+
+    /**
+     * Recherche par ville par curseur
+     */
+    public CursorPage<ListingSummaryView> searchByCityAfter(String ville, String after, int size) {
+        return feedAfter(null, cityId(ville), ListingCursor.decode(after), PageRequest.of(0, size));
+    }
+
+    /**
+     * Fil des annonces actives (date_creation DESC, id DESC) filtré par catégorie et/ou ville
+     */
+    private CursorPage<ListingSummaryView> feedAfter(Long categoryId, Long cityId, ListingCursor cursor,
+                                                     Pageable limit) {
+        ListingStatus statut = ListingStatus.ACTIVE;
+        LocalDateTime afterDate = cursor != null ? cursor.requireFeedKey().getDate() : null;
+        Long afterId = cursor != null ? cursor.getId() : null;
+
+        Slice<ListingSummaryView> slice;
+        if (categoryId != null && cityId != null) {
+            slice = cursor == null
+                    ? listingRepository.findFeedByCityIdAndCategoryIdAndStatut(cityId, categoryId, statut, limit)
+                    : listingRepository.findFeedByCityIdAndCategoryIdAndStatutAfter(
+                            cityId, categoryId, statut, afterDate, afterId, limit);
+        } else if (categoryId != null) {
+            slice = cursor == null
+                    ? listingRepository.findFeedByCategoryIdAndStatut(categoryId, statut, limit)
+                    : listingRepository.findFeedByCategoryIdAndStatutAfter(categoryId, statut, afterDate, afterId, limit);
+        } else if (cityId != null) {
+            slice = cursor == null
+                    ? listingRepository.findFeedByCityIdAndStatut(cityId, statut, limit)
+                    : listingRepository.findFeedByCityIdAndStatutAfter(cityId, statut, afterDate, afterId, limit);
+        } else {
+            slice = cursor == null
+                    ? listingRepository.findFeedByStatut(statut, limit)
+                    : listingRepository.findFeedByStatutAfter(statut, afterDate, afterId, limit);
+        }
+
+        List<ListingSummaryView> content = slice.getContent();
+        if (!slice.hasNext() || content.isEmpty()) {
+            return new CursorPage<>(content, null);
+        }
+        ListingSummaryView last = content.get(content.size() - 1);
+        return new CursorPage<>(content, ListingCursor.forFeed(last.dateCreation(), last.id()).encode());
+    }
+
+    /**
+     * Index en mémoire: le curseur porte la clé (score, id) de la dernière annonce et l'instant de calcul
+     * des scores, repris tel quel pour les pages suivantes
+     */
+    private CursorPage<ListingSummaryView> searchInMemoryAfter(SearchTerms terms, Long categoryId, String ville,
+                                                               ListingCursor cursor, int size) {
+        long scoredAt = cursor != null ? cursor.requireIndexKey().getScoredAt() : System.currentTimeMillis();
+        SearchHits hits = searchIndex.searchAfter(terms.getTerms(), categoryId, cityId(ville),
+                cursor != null ? cursor.getScore() : null, cursor != null ? cursor.getId() : null, scoredAt, size);
+
+        String nextCursor = null;
+        if (hits.hasMore()) {
+            List<Long> ids = hits.listingIds();
+            nextCursor = ListingCursor.forIndex(hits.lastScore(), ids.get(ids.size() - 1), scoredAt).encode();
+        }
+        return new CursorPage<>(loadSummariesInOrder(hits.listingIds()), nextCursor);
+    }
+
+    /**
+     * Clé de la ville saisie (null: pas de filtre; ville inconnue: aucun résultat)
+     */
+    private Long cityId(String ville) {
+        if (ville == null || ville.isBlank()) {
+            return null;
+        }
+        return referenceData.snapshot().resolveCity(ville).map(CityRef::id).orElse(UNKNOWN_LOCATION);
+    }
+
+    /**
+     * Clés du quartier saisi (null: pas de filtre)
+     * Avec ville: le quartier de cette ville; sans ville: les quartiers homonymes de toutes les villes
+     * Quartier inconnu: aucun résultat, comme une ville inconnue
+     */
+    private List<Long> quartierIds(Long cityId, String quartier) {
+        if (quartier == null || quartier.isBlank()) {
+            return null;
+        }
+        List<Long> ids = cityId != null
+                ? referenceData.snapshot().resolveQuartier(cityId, quartier).map(QuartierRef::id).stream().toList()
+                : referenceData.snapshot().resolveQuartiers(quartier).stream().map(QuartierRef::id).toList();
+        return ids.isEmpty() ? List.of(UNKNOWN_LOCATION) : ids;
+    }
+
+    /**
+     * Colonne timestamp d'une requête native (Timestamp ou LocalDateTime selon le pilote)
+     */
+    private LocalDateTime toLocalDateTime(Object value) {
+        if (value instanceof Timestamp timestamp) {
+            return timestamp.toLocalDateTime();
+        }
+        return (LocalDateTime) value;
+    }
+
+    /**
+     * L'index en mémoire est utilisé s'il est configuré et entièrement construit
+     */
+    private boolean useMemoryIndex() {
+        return "memory".equalsIgnoreCase(searchBackend) && searchIndex != null && searchIndex.isReady();
+    }
+
+    /**
+     * Recherche classée en base: ids de la page dans l'ordre de pertinence, puis résumés par clé primaire
+     * Le COUNT n'est exécuté que si la page ne suffit pas à connaître le total
+     */
+    private Page<ListingSummaryView> searchRanked(SearchTerms terms, Long categoryId, Long cityId,
+                                                  Pageable pageable) {
+        List<Long> ids = listingRepository.searchIdsByTerms(terms.toTsQuery(), terms.toPattern(),
+                categoryId, cityId, "ACTIVE", pageable.getPageSize(), pageable.getOffset());
+        return PageableExecutionUtils.getPage(loadSummariesInOrder(ids), pageable,
+                () -> listingRepository.countByTerms(terms.toTsQuery(), terms.toPattern(), categoryId, cityId, "ACTIVE"));
+    }
+
+    /**
+     * Recherche dans l'index en mémoire, puis chargement des résumés de la page par clé primaire
+     */
+    private Page<ListingSummaryView> searchInMemory(SearchTerms terms, Long categoryId, String ville,
+                                                    Pageable pageable) {
+        SearchHits hits = searchIndex.search(terms.getTerms(), categoryId, cityId(ville),
+                (int) pageable.getOffset(), pageable.getPageSize());
+        return new PageImpl<>(loadSummariesInOrder(hits.listingIds()), pageable, hits.totalHits());
+    }
+
+    /**
+     * Charger les résumés (projection, sans entités) en conservant l'ordre de pertinence
+     * Seules les annonces encore actives sont gardées (index en mémoire mis à jour après coup)
+     */
+    private List<ListingSummaryView> loadSummariesInOrder(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, ListingSummaryView> byId = listingRepository.findSummariesByIdInAndStatut(ids, ListingStatus.ACTIVE)
+                .stream()
+                .collect(Collectors.toMap(ListingSummaryView::id, Function.identity()));
+        return ids.stream()
+                .map(byId::get)
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    /**
+     * Traduire une propriété de l'entité en colonne SQL pour les requêtes natives
+     */
+    private String toColumnName(String property) {
+        switch (property) {
+            case "prix":
+            case "vues":
+            case "titre":
+                return property;
+            case "dateCreation":
+            default:
+                return "date_creation";
+        }
+    }
+}
@@ -2,17 +2,26 @@ package com.camerannonces.service;
 
 import com.camerannonces.entity.User;
 import com.camerannonces.enums.PlanType;
+import com.camerannonces.event.UserChangedEvent;
 import com.camerannonces.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import java.time.LocalDate;
+import java.sql.Timestamp;
 import java.time.LocalDateTime;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Collectors;
 
 @Service
 @Transactional
@@ -21,6 +30,50 @@ public class UserService {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ScheduledJobLock jobLock;
+
+    @Value("${user.plan-expiry.chunk-size:1000}")
+    private int planExpiryChunkSize;
+
+    // ==========================================
+    // QUOTA DE PUBLICATION (voir reservePublication)
+    // ==========================================
+
+    // Un plan expiré compte comme GRATUIT
+    private static final String PLAN_EFFECTIF =
+            "CASE WHEN date_expiration_plan < now() THEN 'GRATUIT' ELSE COALESCE(plan_actuel, 'GRATUIT') END";
+
+    private static final String NOUVEAU_MOIS =
+            "(derniere_reinitialisation_compteur IS NULL " +
+                    "OR date_trunc('month', derniere_reinitialisation_compteur) < date_trunc('month', current_date))";
+
+    private static final String COMPTEUR_EFFECTIF =
+            "CASE WHEN " + NOUVEAU_MOIS + " THEN 0 ELSE COALESCE(annonces_publiees_ce_mois, 0) END";
+
+    // Limite mensuelle du plan effectif, tirée de PlanType (-1 = illimité)
+    private static final String LIMITE = Arrays.stream(PlanType.values())
+            .map(plan -> "WHEN '" + plan.name() + "' THEN " + plan.getMaxAnnonces())
+            .collect(Collectors.joining(" ", "(CASE " + PLAN_EFFECTIF + " ", " ELSE 0 END)"));
+
+    // Les expressions du SET et du WHERE lisent la ligne verrouillée (valeurs avant mise à jour)
+    private static final String RESERVER_PUBLICATION =
+            "UPDATE users SET " +
+                    "annonces_publiees_ce_mois = " + COMPTEUR_EFFECTIF + " + 1, " +
+                    "derniere_reinitialisation_compteur = CASE WHEN " + NOUVEAU_MOIS +
+                    " THEN current_date ELSE derniere_reinitialisation_compteur END " +
+                    "WHERE id = ? AND (" + LIMITE + " < 0 OR " + COMPTEUR_EFFECTIF + " < " + LIMITE + ") " +
+                    "RETURNING " + PLAN_EFFECTIF + " AS plan, date_expiration_plan < now() AS plan_expire";
+
     /**
      * Obtenir un utilisateur par ID
      */
@@ -80,27 +133,37 @@ public class UserService {
             user.setDateExpirationPlan(null);
         }
 
-        return userRepository.save(user);
+        User saved = userRepository.save(user);
+        eventPublisher.publishEvent(new UserChangedEvent(userId));
+        return saved;
     }
 
     /**
-     * Incrémenter le compteur d'annonces publiées ce mois
+     * Réserver une publication sur le quota mensuel du plan, en une seule instruction
+     * (remise à zéro du compteur au changement de mois comprise). Les créations concurrentes
+     * d'un même utilisateur se sérialisent sur sa ligne users: la limite est exacte.
+     * À appeler dans la transaction qui crée l'annonce (la réservation est annulée avec elle).
+     * @return le plan effectif (GRATUIT si le plan a expiré)
      */
-    public void incrementAnnoncesPubliees(Long userId) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new RuntimeException("Utilisateur non trouvé"));
-
-        // Réinitialiser le compteur si nouveau mois
-        LocalDate aujourdhui = LocalDate.now();
-        if (!aujourdhui.equals(user.getDerniereReinitialisationCompteur())) {
-            if (aujourdhui.getMonthValue() != user.getDerniereReinitialisationCompteur().getMonthValue()) {
-                user.setAnnoncesPublieesCeMois(0);
-                user.setDerniereReinitialisationCompteur(aujourdhui);
+    public PlanType reservePublication(Long userId) {
+        List<Object[]> rows = jdbcTemplate.query(RESERVER_PUBLICATION,
+                (rs, i) -> new Object[]{rs.getString("plan"), rs.getBoolean("plan_expire")}, userId);
+
+        if (rows.isEmpty()) {
+            // Aucune ligne: utilisateur absent ou quota atteint (instruction supplémentaire sur échec seulement)
+            if (!userRepository.existsById(userId)) {
+                throw new RuntimeException("Utilisateur non trouvé");
             }
+            throw new RuntimeException("Vous avez atteint la limite d'annonces pour votre plan. Passez à un plan supérieur.");
         }
 
-        user.setAnnoncesPublieesCeMois(user.getAnnoncesPublieesCeMois() + 1);
-        userRepository.save(user);
+        PlanType plan = PlanType.valueOf((String) rows.get(0)[0]);
+        if ((Boolean) rows.get(0)[1]) {
+            // Plan expiré: repasser en gratuit
+            userRepository.downgradeExpiredPlan(userId, LocalDateTime.now());
+            eventPublisher.publishEvent(new UserChangedEvent(userId));
+        }
+        return plan;
     }
 
     /**
@@ -116,6 +179,7 @@ public class UserService {
             user.setPlanActuel(PlanType.GRATUIT);
             user.setDateExpirationPlan(null);
             userRepository.save(user);
+            eventPublisher.publishEvent(new UserChangedEvent(userId));
         }
 
         // Vérifier les limites selon le plan
@@ -159,6 +223,7 @@ public class UserService {
 
         user.setIsActive(false);
         userRepository.save(user);
+        eventPublisher.publishEvent(new UserChangedEvent(userId));
     }
 
     /**
@@ -170,6 +235,7 @@ public class UserService {
 
         user.setIsActive(true);
         userRepository.save(user);
+        eventPublisher.publishEvent(new UserChangedEvent(userId));
     }
 
     /**
@@ -180,17 +246,45 @@ public class UserService {
     }
 
     /**
-     * Vérifier les plans expirés et les remettre en gratuit
+     * Passage planifié de remise en gratuit des plans expirés (une seule instance à la fois)
      */
-    @Transactional
-    public void resetExpiredPlans() {
-        List<User> expiredUsers = userRepository.findUsersWithExpiredPlan(LocalDateTime.now());
-
-        for (User user : expiredUsers) {
-            user.setPlanActuel(PlanType.GRATUIT);
-            user.setDateExpirationPlan(null);
+    @Scheduled(cron = "${user.plan-expiry.cron:0 5 * * * *}")
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void scheduledResetExpiredPlans() {
+        try {
+            jobLock.runExclusively("plan-expiry", this::resetExpiredPlans);
+        } catch (RuntimeException e) {
+            System.err.println("❌ Erreur remise en gratuit des plans expirés: " + e.getMessage());
         }
+    }
 
-        userRepository.saveAll(expiredUsers);
+    /**
+     * Vérifier les plans expirés et les remettre en gratuit
+     * Par lots de plan-expiry.chunk-size utilisateurs, un UPDATE ... RETURNING id par transaction:
+     * aucune entité chargée, mémoire constante quel que soit le nombre de plans expirés
+     * @return nombre d'utilisateurs repassés en gratuit
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public int resetExpiredPlans() {
+        LocalDateTime now = LocalDateTime.now();
+        int total = 0;
+        List<Long> ids;
+        do {
+            ids = transactionTemplate.execute(status -> jdbcTemplate.queryForList(
+                    "UPDATE users SET plan_actuel = 'GRATUIT', date_expiration_plan = NULL " +
+                            "WHERE id IN (SELECT id FROM users " +
+                            "WHERE date_expiration_plan < ? AND plan_actuel <> 'GRATUIT' " +
+                            "ORDER BY date_expiration_plan LIMIT ? FOR UPDATE SKIP LOCKED) " +
+                            "RETURNING id",
+                    Long.class, Timestamp.valueOf(now), planExpiryChunkSize));
+            // Après commit du lot: cache des utilisateurs authentifiés
+            ids.forEach(id -> eventPublisher.publishEvent(new UserChangedEvent(id)));
+            total += ids.size();
+        } while (ids.size() == planExpiryChunkSize);
+
+        if (total > 0) {
+            System.out.println("⏰ " + total + " plans expirés repassés en gratuit");
+        }
+        return total;
     }
-}
\ No newline at end of file
+}
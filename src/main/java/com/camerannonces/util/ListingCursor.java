@@ -0,0 +1,143 @@
+package com.camerannonces.util;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+/**
+ * Curseur opaque de pagination keyset (paramètre "after")
+ * Encode la clé de tri de la dernière annonce renvoyée:
+ * - fils d'annonces: (date_creation, id)
+ * - recherche classée: (pertinence, is_premium, date_creation, id)
+ * - index en mémoire: (score, id) et instant du calcul des scores (bonus premium et fraîcheur compris)
+ * Chaque type de recherche vérifie la clé attendue: un curseur d'un autre type est refusé
+ */
+public final class ListingCursor {
+
+    private static final String VERSION = "2";
+    private static final String SEPARATOR = "|";
+
+    private final Double score;
+    private final Boolean premium;
+    private final LocalDateTime date;
+    private final Long id;
+    private final Long scoredAt;
+
+    private ListingCursor(Double score, Boolean premium, LocalDateTime date, Long id, Long scoredAt) {
+        this.score = score;
+        this.premium = premium;
+        this.date = date;
+        this.id = id;
+        this.scoredAt = scoredAt;
+    }
+
+    /**
+     * Curseur des fils triés par date de création puis id (décroissants)
+     */
+    public static ListingCursor forFeed(LocalDateTime date, Long id) {
+        return new ListingCursor(null, null, date, id, null);
+    }
+
+    /**
+     * Curseur de la recherche classée par pertinence
+     */
+    public static ListingCursor forSearch(double score, boolean premium, LocalDateTime date, Long id) {
+        return new ListingCursor(score, premium, date, id, null);
+    }
+
+    /**
+     * Curseur de l'index en mémoire (scoredAt: instant de référence du bonus de fraîcheur, en ms)
+     */
+    public static ListingCursor forIndex(double score, Long id, long scoredAt) {
+        return new ListingCursor(score, null, null, id, scoredAt);
+    }
+
+    /**
+     * Encoder en base64 url-safe: "2|score|premium|date|id|scoredAt"
+     */
+    public String encode() {
+        String raw = String.join(SEPARATOR,
+                VERSION,
+                score != null ? Double.toString(score) : "",
+                premium != null ? premium.toString() : "",
+                date != null ? date.toString() : "",
+                id != null ? id.toString() : "",
+                scoredAt != null ? scoredAt.toString() : "");
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Décoder un curseur reçu du client
+     * Retourne null pour un curseur vide (première page)
+     */
+    public static ListingCursor decode(String token) {
+        if (token == null || token.trim().isEmpty()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token.trim()), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|", -1);
+            if (parts.length != 6 || !VERSION.equals(parts[0])) {
+                throw new IllegalArgumentException(raw);
+            }
+            return new ListingCursor(
+                    parts[1].isEmpty() ? null : Double.valueOf(parts[1]),
+                    parts[2].isEmpty() ? null : Boolean.valueOf(parts[2]),
+                    parts[3].isEmpty() ? null : LocalDateTime.parse(parts[3]),
+                    parts[4].isEmpty() ? null : Long.valueOf(parts[4]),
+                    parts[5].isEmpty() ? null : Long.valueOf(parts[5]));
+        } catch (RuntimeException e) {
+            throw new RuntimeException("Curseur de pagination invalide");
+        }
+    }
+
+    /**
+     * Vérifier que le curseur contient une clé de fil (date, id)
+     */
+    public ListingCursor requireFeedKey() {
+        if (date == null || id == null) {
+            throw new RuntimeException("Curseur de pagination invalide");
+        }
+        return this;
+    }
+
+    /**
+     * Vérifier que le curseur contient une clé de recherche (pertinence, premium, date, id)
+     */
+    public ListingCursor requireSearchKey() {
+        if (score == null || premium == null || date == null || id == null) {
+            throw new RuntimeException("Curseur de pagination invalide");
+        }
+        return this;
+    }
+
+    /**
+     * Vérifier que le curseur contient une clé de l'index en mémoire (score, id, instant du calcul)
+     */
+    public ListingCursor requireIndexKey() {
+        if (score == null || id == null || scoredAt == null) {
+            throw new RuntimeException("Curseur de pagination invalide");
+        }
+        return this;
+    }
+
+    public Double getScore() {
+        return score;
+    }
+
+    public Boolean getPremium() {
+        return premium;
+    }
+
+    public LocalDateTime getDate() {
+        return date;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public Long getScoredAt() {
+        return scoredAt;
+    }
+}
@@ -0,0 +1,94 @@
+package com.camerannonces.util;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Termes de recherche enrichis, prêts à être envoyés en une seule requête
+ * Combine tous les synonymes de KeywordEnricher dans un seul tsquery (OR) et un seul motif regex
+ */
+public final class SearchTerms {
+
+    // Les mots trop courts sont ignorés (même règle que l'ancienne recherche mot par mot)
+    private static final int MIN_TERM_LENGTH = 3;
+
+    private final List<String> terms;
+
+    private SearchTerms(List<String> terms) {
+        this.terms = terms;
+    }
+
+    /**
+     * Construire les termes à partir du mot-clé saisi (après enrichissement par synonymes)
+     */
+    public static SearchTerms from(String keyword) {
+        String enriched = KeywordEnricher.enrich(keyword);
+        if (enriched == null || enriched.trim().isEmpty()) {
+            return new SearchTerms(Collections.emptyList());
+        }
+
+        Set<String> uniqueTerms = new LinkedHashSet<>();
+        for (String word : enriched.trim().split("\\s+")) {
+            String cleaned = sanitize(word);
+            if (cleaned.length() >= MIN_TERM_LENGTH) {
+                uniqueTerms.add(cleaned.toLowerCase(Locale.ROOT));
+            }
+        }
+        return new SearchTerms(Collections.unmodifiableList(new ArrayList<>(uniqueTerms)));
+    }
+
+    /**
+     * Aucun terme exploitable (mot-clé vide ou trop court)
+     */
+    public boolean isEmpty() {
+        return terms.isEmpty();
+    }
+
+    public List<String> getTerms() {
+        return terms;
+    }
+
+    /**
+     * Requête PostgreSQL to_tsquery: 'terme1' | 'terme2' | ...
+     */
+    public String toTsQuery() {
+        StringBuilder sb = new StringBuilder();
+        for (String term : terms) {
+            if (sb.length() > 0) {
+                sb.append(" | ");
+            }
+            sb.append('\'').append(term).append('\'');
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Motif regex insensible à la casse (~*) : terme1|terme2|...
+     */
+    public String toPattern() {
+        return String.join("|", terms);
+    }
+
+    /**
+     * Garder uniquement lettres, chiffres et tirets (pas de caractères spéciaux tsquery/regex)
+     */
+    private static String sanitize(String word) {
+        StringBuilder sb = new StringBuilder(word.length());
+        for (int i = 0; i < word.length(); i++) {
+            char c = word.charAt(i);
+            if (Character.isLetterOrDigit(c) || c == '-') {
+                sb.append(c);
+            }
+        }
+        // Un tiret isolé en début/fin n'a pas de sens
+        int start = 0;
+        int end = sb.length();
+        while (start < end && sb.charAt(start) == '-') start++;
+        while (end > start && sb.charAt(end - 1) == '-') end--;
+        return sb.substring(start, end);
+    }
+}
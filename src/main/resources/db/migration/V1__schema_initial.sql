@@ -0,0 +1,126 @@
+-- ============================================
+-- SCHÉMA INITIAL (état créé jusqu'ici par ddl-auto=update)
+-- Idempotent: sans effet sur une base existante
+-- ============================================
+
+CREATE TABLE IF NOT EXISTS users (
+    id                                 BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    nom                                VARCHAR(100) NOT NULL,
+    telephone                          VARCHAR(15)  NOT NULL UNIQUE,
+    email                              VARCHAR(100),
+    mot_de_passe                       VARCHAR(255) NOT NULL,
+    ville                              VARCHAR(50),
+    quartier                           VARCHAR(50),
+    profile_image_url                  VARCHAR(500),
+    is_boutique                        BOOLEAN,
+    nom_boutique                       VARCHAR(100),
+    description_boutique               TEXT,
+    plan_actuel                        VARCHAR(255),
+    date_expiration_plan               TIMESTAMP(6),
+    annonces_publiees_ce_mois          INTEGER,
+    derniere_reinitialisation_compteur DATE,
+    is_active                          BOOLEAN,
+    date_creation                      TIMESTAMP(6),
+    derniere_connexion                 TIMESTAMP(6),
+    email_verified                     BOOLEAN      NOT NULL,
+    phone_verified                     BOOLEAN      NOT NULL,
+    country_code                       VARCHAR(5)   NOT NULL,
+    email_verification_code            VARCHAR(4),
+    email_verification_expiry          TIMESTAMP(6),
+    phone_verification_code            VARCHAR(4),
+    phone_verification_expiry          TIMESTAMP(6),
+    verification_code                  VARCHAR(4),
+    verification_code_expiry           TIMESTAMP(6)
+);
+
+CREATE TABLE IF NOT EXISTS categories (
+    id              BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    nom             VARCHAR(100) NOT NULL UNIQUE,
+    nom_anglais     VARCHAR(100),
+    emoji           VARCHAR(10),
+    description     TEXT,
+    ordre_affichage INTEGER,
+    is_active       BOOLEAN,
+    date_creation   TIMESTAMP(6)
+);
+
+CREATE TABLE IF NOT EXISTS cities (
+    id            BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    nom           VARCHAR(100) NOT NULL,
+    region        VARCHAR(50)  NOT NULL,
+    is_active     BOOLEAN,
+    date_creation TIMESTAMP(6)
+);
+
+CREATE TABLE IF NOT EXISTS quartiers (
+    id            BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    nom           VARCHAR(100) NOT NULL,
+    city_id       BIGINT       NOT NULL REFERENCES cities (id),
+    is_active     BOOLEAN,
+    date_creation TIMESTAMP(6)
+);
+
+CREATE TABLE IF NOT EXISTS listings (
+    id                     BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    user_id                BIGINT       NOT NULL REFERENCES users (id),
+    category_id            BIGINT       NOT NULL REFERENCES categories (id),
+    titre                  VARCHAR(200) NOT NULL,
+    description            TEXT         NOT NULL,
+    prix                   INTEGER,
+    prix_negociable        BOOLEAN,
+    etat_produit           VARCHAR(255),
+    ville                  VARCHAR(50),
+    quartier               VARCHAR(50),
+    adresse_complete       TEXT,
+    livraison_sur_place    BOOLEAN,
+    livraison_domicile     BOOLEAN,
+    livraison_gare         BOOLEAN,
+    paiement_cash          BOOLEAN,
+    paiement_mobile_money  BOOLEAN,
+    paiement_virement      BOOLEAN,
+    telephone_contact      VARCHAR(15)  NOT NULL,
+    email_contact          VARCHAR(100),
+    vues                   INTEGER,
+    contacts_whatsapp      INTEGER,
+    statut                 VARCHAR(255),
+    is_premium             BOOLEAN,
+    is_urgent              BOOLEAN,
+    date_creation          TIMESTAMP(6),
+    date_expiration        TIMESTAMP(6),
+    date_derniere_remontee TIMESTAMP(6),
+    is_verified            BOOLEAN,
+    date_verification      TIMESTAMP(6)
+);
+
+CREATE TABLE IF NOT EXISTS listing_images (
+    id              BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    listing_id      BIGINT       NOT NULL REFERENCES listings (id),
+    url             VARCHAR(500) NOT NULL,
+    nom_fichier     VARCHAR(255),
+    taille_fichier  INTEGER,
+    ordre_affichage INTEGER,
+    is_principale   BOOLEAN,
+    date_upload     TIMESTAMP(6)
+);
+
+CREATE TABLE IF NOT EXISTS user_favorites (
+    id         BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    user_id    BIGINT NOT NULL REFERENCES users (id),
+    listing_id BIGINT NOT NULL REFERENCES listings (id),
+    date_ajout TIMESTAMP(6),
+    UNIQUE (user_id, listing_id)
+);
+
+CREATE TABLE IF NOT EXISTS signals (
+    id                BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    listing_id        BIGINT       NOT NULL REFERENCES listings (id),
+    user_id           BIGINT REFERENCES users (id),
+    motif             VARCHAR(255) NOT NULL,
+    description       TEXT,
+    adresse_ip        VARCHAR(45),
+    statut            VARCHAR(20),
+    admin_id          BIGINT REFERENCES users (id),
+    commentaire_admin TEXT,
+    date_signalement  TIMESTAMP(6),
+    date_traitement   TIMESTAMP(6)
+);
@@ -0,0 +1,27 @@
+-- ============================================
+-- RECHERCHE PLEIN TEXTE INDEXÉE
+-- ============================================
+
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+-- Vecteur de recherche maintenu par PostgreSQL (titre prioritaire sur la description)
+ALTER TABLE listings
+    ADD COLUMN IF NOT EXISTS search_vector tsvector
+        GENERATED ALWAYS AS (
+            setweight(to_tsvector('french', COALESCE(titre, '')), 'A') ||
+            setweight(to_tsvector('french', COALESCE(description, '')), 'B')
+        ) STORED;
+
+CREATE INDEX IF NOT EXISTS idx_listings_search_vector
+    ON listings USING gin (search_vector);
+
+-- Trigrammes pour les recherches par sous-chaîne (ILIKE / ~*)
+CREATE INDEX IF NOT EXISTS idx_listings_titre_trgm
+    ON listings USING gin (titre gin_trgm_ops);
+
+CREATE INDEX IF NOT EXISTS idx_listings_description_trgm
+    ON listings USING gin (description gin_trgm_ops);
+
+-- Les catégories correspondantes sont résolues une fois puis filtrées par category_id
+CREATE INDEX IF NOT EXISTS idx_listings_category_id
+    ON listings (category_id);
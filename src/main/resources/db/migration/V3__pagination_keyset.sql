@@ -0,0 +1,17 @@
+-- ============================================
+-- PAGINATION PAR CURSEUR (KEYSET)
+-- ============================================
+-- Les fils sont lus dans l'ordre (date_creation DESC, id DESC) à partir du curseur:
+-- chaque page est un parcours d'index borné, quelle que soit sa profondeur.
+
+CREATE INDEX IF NOT EXISTS idx_listings_statut_date_id
+    ON listings (statut, date_creation DESC, id DESC);
+
+CREATE INDEX IF NOT EXISTS idx_listings_category_statut_date_id
+    ON listings (category_id, statut, date_creation DESC, id DESC);
+
+CREATE INDEX IF NOT EXISTS idx_listings_ville_statut_date_id
+    ON listings (ville, statut, date_creation DESC, id DESC);
+
+-- Couvert par le préfixe de idx_listings_category_statut_date_id
+DROP INDEX IF EXISTS idx_listings_category_id;
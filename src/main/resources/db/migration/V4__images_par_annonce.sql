@@ -0,0 +1,8 @@
+-- ============================================
+-- IMAGES PAR ANNONCE
+-- ============================================
+-- Sert la galerie d'une annonce et la résolution en lot des images principales
+-- (DISTINCT ON listing_id, voir ListingImageRepository.findMainImageUrls)
+
+CREATE INDEX IF NOT EXISTS idx_listing_images_listing
+    ON listing_images (listing_id, is_principale DESC NULLS LAST, ordre_affichage, id);
@@ -0,0 +1,24 @@
+-- ============================================
+-- IMAGE PRINCIPALE DÉNORMALISÉE SUR L'ANNONCE
+-- ============================================
+-- Les fils et la recherche affichent l'image principale et sa miniature depuis la ligne
+-- listings seule. ImageService les tient à jour à chaque modification des images.
+
+ALTER TABLE listing_images ADD COLUMN IF NOT EXISTS thumbnail_url VARCHAR(500);
+
+ALTER TABLE listings ADD COLUMN IF NOT EXISTS main_image_url VARCHAR(500);
+ALTER TABLE listings ADD COLUMN IF NOT EXISTS thumbnail_url VARCHAR(500);
+
+-- Reprise des annonces existantes: même choix que ImageService.refreshMainImage
+-- (principale d'abord, puis ordre d'affichage). Les images déjà stockées n'ont pas de
+-- miniature: l'image elle-même en tient lieu.
+UPDATE listings l
+SET main_image_url = m.url,
+    thumbnail_url  = COALESCE(m.thumbnail_url, m.url)
+FROM (
+    SELECT DISTINCT ON (li.listing_id) li.listing_id, li.url, li.thumbnail_url
+    FROM listing_images li
+    ORDER BY li.listing_id, li.is_principale DESC NULLS LAST, li.ordre_affichage, li.id
+) m
+WHERE l.id = m.listing_id
+  AND l.main_image_url IS NULL;
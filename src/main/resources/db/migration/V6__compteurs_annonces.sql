@@ -0,0 +1,33 @@
+-- ============================================
+-- COMPTEURS D'ANNONCES PAR CATÉGORIE, VILLE ET QUARTIER
+-- ============================================
+-- Les endpoints "popular" et "with-count" lisent ces compteurs au lieu d'un GROUP BY sur
+-- toute la table listings. ListingStatsService les ajuste dans la transaction de chaque
+-- changement de statut et les recalcule chaque nuit depuis listings.
+--
+-- dimension: CATEGORY (cle = category_id), CITY (cle = ville), QUARTIER (cle = ville/quartier)
+
+CREATE TABLE IF NOT EXISTS listing_stats (
+    dimension VARCHAR(20)  NOT NULL,
+    cle       VARCHAR(110) NOT NULL,
+    statut    VARCHAR(20)  NOT NULL,
+    total     BIGINT       NOT NULL DEFAULT 0,
+    PRIMARY KEY (dimension, statut, cle)
+);
+
+INSERT INTO listing_stats (dimension, cle, statut, total)
+SELECT 'CATEGORY', category_id::text, statut, COUNT(*)
+FROM listings
+WHERE statut IS NOT NULL
+GROUP BY category_id, statut
+UNION ALL
+SELECT 'CITY', ville, statut, COUNT(*)
+FROM listings
+WHERE statut IS NOT NULL AND ville IS NOT NULL
+GROUP BY ville, statut
+UNION ALL
+SELECT 'QUARTIER', ville || '/' || quartier, statut, COUNT(*)
+FROM listings
+WHERE statut IS NOT NULL AND ville IS NOT NULL AND quartier IS NOT NULL
+GROUP BY ville, quartier, statut
+ON CONFLICT DO NOTHING;
@@ -0,0 +1,57 @@
+-- ============================================
+-- VILLE ET QUARTIER DES ANNONCES PAR CLÉ ÉTRANGÈRE
+-- ============================================
+-- Les filtres de localisation et les compteurs comparent des entiers indexés au lieu de
+-- LOWER(l.ville) = LOWER(:ville) ou de jointures sur le nom. ListingService résout la ville
+-- et le quartier à la création; ville et quartier restent sur la ligne pour l'affichage.
+
+ALTER TABLE listings ADD COLUMN IF NOT EXISTS city_id BIGINT REFERENCES cities (id);
+ALTER TABLE listings ADD COLUMN IF NOT EXISTS quartier_id BIGINT REFERENCES quartiers (id);
+
+-- Premier passage: noms identiques à la casse et aux espaces près. Les variantes restantes
+-- (accents, tirets...) sont reprises par lots au démarrage (ListingLocationBackfill).
+-- Villes homonymes: une seule par nom, la ville active de plus petit id (même règle que
+-- ReferenceDataSnapshot.resolveCity), sinon la jointure choisirait au hasard.
+UPDATE listings l
+SET city_id = c.id,
+    ville   = c.nom
+FROM (SELECT DISTINCT ON (LOWER(nom)) id, nom
+      FROM cities
+      ORDER BY LOWER(nom), COALESCE(is_active, false) DESC, id) c
+WHERE l.city_id IS NULL
+  AND LOWER(TRIM(l.ville)) = LOWER(c.nom);
+
+UPDATE listings l
+SET quartier_id = q.id,
+    quartier    = q.nom
+FROM quartiers q
+WHERE l.quartier_id IS NULL
+  AND l.city_id = q.city_id
+  AND LOWER(TRIM(l.quartier)) = LOWER(q.nom);
+
+-- Fils par ville (curseur) et filtres ville + catégorie / quartier
+CREATE INDEX IF NOT EXISTS idx_listings_city_statut_date_id
+    ON listings (city_id, statut, date_creation DESC, id DESC);
+
+CREATE INDEX IF NOT EXISTS idx_listings_city_category_statut_date_id
+    ON listings (city_id, category_id, statut, date_creation DESC, id DESC);
+
+CREATE INDEX IF NOT EXISTS idx_listings_quartier_statut_date_id
+    ON listings (quartier_id, statut, date_creation DESC, id DESC);
+
+-- Remplacé par idx_listings_city_statut_date_id
+DROP INDEX IF EXISTS idx_listings_ville_statut_date_id;
+
+-- Compteurs par ville et par quartier: clé = city_id / quartier_id
+DELETE FROM listing_stats WHERE dimension IN ('CITY', 'QUARTIER');
+
+INSERT INTO listing_stats (dimension, cle, statut, total)
+SELECT 'CITY', city_id::text, statut, COUNT(*)
+FROM listings
+WHERE statut IS NOT NULL AND city_id IS NOT NULL
+GROUP BY city_id, statut
+UNION ALL
+SELECT 'QUARTIER', quartier_id::text, statut, COUNT(*)
+FROM listings
+WHERE statut IS NOT NULL AND quartier_id IS NOT NULL
+GROUP BY quartier_id, statut;
@@ -0,0 +1,75 @@
+-- ============================================
+-- INDEX DES CHEMINS D'ACCÈS DES REPOSITORIES
+-- ============================================
+-- Un index par famille de requêtes de ListingRepository, SignalRepository,
+-- UserFavoriteRepository et UserRepository. Les fils (statut / catégorie / ville / quartier)
+-- sont couverts par V3 et V7, la recherche textuelle par V2.
+-- Les requêtes publiques ne lisent que les annonces ACTIVE: index partiels, plus petits.
+-- Vérifié par RepositoryQueryPlanTests (EXPLAIN de chaque requête sur une base peuplée).
+
+-- Annonces d'un vendeur (mes annonces, boutique, quota mensuel)
+CREATE INDEX IF NOT EXISTS idx_listings_user_statut_date_id
+    ON listings (user_id, statut, date_creation DESC, id DESC);
+
+-- Mises en avant: premium, urgentes, vérifiées
+CREATE INDEX IF NOT EXISTS idx_listings_active_premium_date
+    ON listings (date_creation DESC, id DESC)
+    WHERE statut = 'ACTIVE' AND is_premium = true;
+
+CREATE INDEX IF NOT EXISTS idx_listings_active_urgent_date
+    ON listings (date_creation DESC, id DESC)
+    WHERE statut = 'ACTIVE' AND is_urgent = true;
+
+CREATE INDEX IF NOT EXISTS idx_listings_active_verified_date
+    ON listings (date_creation DESC, id DESC)
+    WHERE statut = 'ACTIVE' AND is_verified = true;
+
+-- Les plus vues / les plus contactées
+CREATE INDEX IF NOT EXISTS idx_listings_active_vues
+    ON listings (vues DESC, id DESC)
+    WHERE statut = 'ACTIVE';
+
+CREATE INDEX IF NOT EXISTS idx_listings_active_contacts
+    ON listings (contacts_whatsapp DESC, id DESC)
+    WHERE statut = 'ACTIVE';
+
+-- Fourchette de prix
+CREATE INDEX IF NOT EXISTS idx_listings_active_prix
+    ON listings (prix)
+    WHERE statut = 'ACTIVE';
+
+-- Expiration (annonces expirées et à expirer bientôt)
+CREATE INDEX IF NOT EXISTS idx_listings_active_expiration
+    ON listings (date_expiration)
+    WHERE statut = 'ACTIVE';
+
+-- Signalements: par annonce, par auteur, file de modération, par administrateur
+CREATE INDEX IF NOT EXISTS idx_signals_listing_date
+    ON signals (listing_id, date_signalement DESC);
+
+CREATE INDEX IF NOT EXISTS idx_signals_user_date
+    ON signals (user_id, date_signalement DESC);
+
+CREATE INDEX IF NOT EXISTS idx_signals_statut_date
+    ON signals (statut, date_signalement);
+
+CREATE INDEX IF NOT EXISTS idx_signals_admin_date
+    ON signals (admin_id, date_traitement DESC);
+
+CREATE INDEX IF NOT EXISTS idx_signals_date
+    ON signals (date_signalement);
+
+-- Favoris: (user_id, listing_id) est déjà couvert par la contrainte d'unicité
+CREATE INDEX IF NOT EXISTS idx_user_favorites_listing
+    ON user_favorites (listing_id);
+
+CREATE INDEX IF NOT EXISTS idx_user_favorites_user_date
+    ON user_favorites (user_id, date_ajout DESC);
+
+-- Utilisateurs: connexion par email, expiration des plans payants
+CREATE INDEX IF NOT EXISTS idx_users_email
+    ON users (email);
+
+CREATE INDEX IF NOT EXISTS idx_users_plan_expiration
+    ON users (date_expiration_plan)
+    WHERE plan_actuel <> 'GRATUIT';
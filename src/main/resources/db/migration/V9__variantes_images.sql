@@ -0,0 +1,13 @@
+-- ============================================
+-- VARIANTES D'IMAGES ET TRAITEMENT ASYNCHRONE
+-- ============================================
+-- Une image d'annonce est enregistrée dès l'upload (statut EN_COURS), puis
+-- ImageProcessingPipeline produit les variantes 300 / 600 / 1200 px et renseigne les URLs:
+-- url (1200 px), medium_url (600 px), thumbnail_url (300 px). En cas d'erreur: ECHEC.
+-- Les images existantes sont déjà traitées (PRET).
+
+ALTER TABLE listing_images ADD COLUMN IF NOT EXISTS medium_url VARCHAR(500);
+ALTER TABLE listing_images ADD COLUMN IF NOT EXISTS statut_traitement VARCHAR(20) NOT NULL DEFAULT 'PRET';
+
+-- Pas encore d'URL tant que le traitement n'est pas terminé
+ALTER TABLE listing_images ALTER COLUMN url DROP NOT NULL;
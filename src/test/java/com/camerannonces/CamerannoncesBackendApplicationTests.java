@@ -6,6 +6,7 @@ import com.camerannonces.repository.*;
 import com.camerannonces.entity.*;
 import com.camerannonces.enums.ListingStatus;
 import com.camerannonces.enums.PlanType;
+import com.camerannonces.service.ListingService;
 import com.camerannonces.repository.*;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -14,6 +15,8 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.test.context.ActiveProfiles;
 
+import java.util.List;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 @SpringBootTest
@@ -44,6 +47,9 @@ class CamerannoncesBackendApplicationTests {
     @Autowired
     private SignalRepository signalRepository;
 
+    @Autowired
+    private ListingService listingService;
+
     @Test
     void contextLoads() {
         // Test que le contexte Spring se charge correctement
@@ -216,8 +222,9 @@ class CamerannoncesBackendApplicationTests {
             System.out.println("🔍 RECHERCHE 'iPhone': " + searchResults.getTotalElements() + " résultats");
 
             // Test recherche par ville
-            var doualaListings = listingRepository.findByVilleAndStatut(
-                    "Douala",
+            Long doualaId = cityRepository.findByNom("Douala").map(City::getId).orElse(null);
+            var doualaListings = listingRepository.findByCityIdAndStatut(
+                    doualaId,
                     ListingStatus.ACTIVE,
                     PageRequest.of(0, 5)
             );
@@ -227,8 +234,9 @@ class CamerannoncesBackendApplicationTests {
             // Test filtres avancés
             var filteredResults = listingRepository.findWithFilters(
                     1L,        // Catégorie téléphones
-                    "Douala",  // Ville
-                    null,      // Quartier
+                    doualaId,  // Ville
+                    false,     // Pas de filtre quartier
+                    List.of(-1L), // Quartiers (ignorés)
                     100000,    // Prix min
                     600000,    // Prix max
                     null,      // État
@@ -253,14 +261,14 @@ class CamerannoncesBackendApplicationTests {
             System.out.println("📊 STATISTIQUES DÉTAILLÉES:");
 
             // Statistiques par catégorie
-            var categoryStats = listingRepository.countByCategory(ListingStatus.ACTIVE);
+            var categoryStats = listingService.getListingStatsByCategory();
             System.out.println("📂 Par catégorie:");
             for (Object[] stat : categoryStats) {
                 System.out.println("  " + stat[0] + ": " + stat[1] + " annonces");
             }
 
             // Statistiques par ville
-            var cityStats = listingRepository.countByCity(ListingStatus.ACTIVE);
+            var cityStats = listingService.getListingStatsByCity();
             System.out.println("🏙️ Par ville (top 5):");
             int count = 0;
             for (Object[] stat : cityStats) {
@@ -0,0 +1,107 @@
+package com.camerannonces;
+
+import com.camerannonces.enums.PlanType;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Vendeur, catégorie et ville de test insérés par JDBC, avec leurs annonces
+ * Pour les tests d'intégration sans @Transactional (chaque traitement valide sa propre transaction):
+ * remove() supprime tout ce qui a été créé, enfants d'abord (clés étrangères sans ON DELETE CASCADE)
+ * Public: utilisé par les tests des packages service, controller et repository
+ */
+public final class ListingFixture {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String label;
+    private final long suffix;
+    private final String telephone;
+    private final long userId;
+    private final long categoryId;
+    private Long cityId;
+    private String cityName;
+
+    private ListingFixture(JdbcTemplate jdbcTemplate, String label, PlanType plan) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.label = label;
+        this.suffix = System.nanoTime() % 1_000_000_000L;
+        this.telephone = String.format("239%09d", suffix);
+        this.userId = jdbcTemplate.queryForObject(
+                "INSERT INTO users (nom, telephone, mot_de_passe, is_boutique, plan_actuel, is_active, " +
+                        "email_verified, phone_verified, country_code, date_creation) " +
+                        "VALUES (?, ?, 'secret', false, ?, true, false, false, '+237', now()) RETURNING id",
+                Long.class, "Vendeur " + label, telephone, plan.name());
+        this.categoryId = jdbcTemplate.queryForObject(
+                "INSERT INTO categories (nom, emoji, is_active, date_creation) VALUES (?, '🧪', true, now()) RETURNING id",
+                Long.class, "Catégorie " + label + " " + suffix);
+    }
+
+    /**
+     * Insérer un vendeur actif et une catégorie
+     * @param label distingue les lignes du test (nom du vendeur, de la catégorie et de la ville)
+     */
+    public static ListingFixture create(JdbcTemplate jdbcTemplate, String label, PlanType plan) {
+        return new ListingFixture(jdbcTemplate, label, plan);
+    }
+
+    /**
+     * Insérer une ville active au nom unique (rafraîchir ensuite le référentiel si le test en dépend)
+     */
+    public long addCity() {
+        cityName = "Ville " + label + " " + suffix;
+        cityId = jdbcTemplate.queryForObject(
+                "INSERT INTO cities (nom, region, is_active, date_creation) VALUES (?, 'Littoral', true, now()) RETURNING id",
+                Long.class, cityName);
+        return cityId;
+    }
+
+    /**
+     * Insérer une annonce active du vendeur, à Douala, expirant dans 30 jours
+     */
+    public long addListing(String titre) {
+        return jdbcTemplate.queryForObject(
+                "INSERT INTO listings (user_id, category_id, titre, description, ville, telephone_contact, " +
+                        "vues, contacts_whatsapp, statut, date_creation, date_expiration) " +
+                        "VALUES (?, ?, ?, 'Description', 'Douala', '237690000000', 0, 0, 'ACTIVE', " +
+                        "now(), now() + interval '30 days') RETURNING id",
+                Long.class, userId, categoryId, titre);
+    }
+
+    /**
+     * Supprimer les annonces du vendeur (images, signalements, favoris compris), les compteurs
+     * de la catégorie et de la ville, puis le vendeur, la catégorie et la ville
+     */
+    public void remove() {
+        String listings = "SELECT id FROM listings WHERE user_id = ?";
+        jdbcTemplate.update("DELETE FROM listing_images WHERE listing_id IN (" + listings + ")", userId);
+        jdbcTemplate.update("DELETE FROM signals WHERE listing_id IN (" + listings + ")", userId);
+        jdbcTemplate.update("DELETE FROM user_favorites WHERE listing_id IN (" + listings + ")", userId);
+        jdbcTemplate.update("DELETE FROM listings WHERE user_id = ?", userId);
+        jdbcTemplate.update("DELETE FROM listing_stats WHERE (dimension = 'CATEGORY' AND cle = ?) " +
+                "OR (dimension = 'CITY' AND cle = ?)", String.valueOf(categoryId), String.valueOf(cityId));
+        jdbcTemplate.update("DELETE FROM users WHERE id = ?", userId);
+        jdbcTemplate.update("DELETE FROM categories WHERE id = ?", categoryId);
+        if (cityId != null) {
+            jdbcTemplate.update("DELETE FROM cities WHERE id = ?", cityId);
+        }
+    }
+
+    public String telephone() {
+        return telephone;
+    }
+
+    public long userId() {
+        return userId;
+    }
+
+    public long categoryId() {
+        return categoryId;
+    }
+
+    public Long cityId() {
+        return cityId;
+    }
+
+    public String cityName() {
+        return cityName;
+    }
+}
@@ -0,0 +1,125 @@
+package com.camerannonces.benchmark;
+
+import com.camerannonces.config.RouteTable;
+import com.camerannonces.jwt.JwtAuthenticationFilter;
+import com.camerannonces.jwt.JwtPrincipal;
+import com.camerannonces.jwt.JwtProperties;
+import com.camerannonces.jwt.JwtTokenProvider;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import jakarta.servlet.ServletException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.crypto.SecretKey;
+import java.io.IOException;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Authentification JWT d'une requête: ancien enchaînement du filtre (extractUsername, validateToken
+ * -> extractUsername + isTokenExpired, extractUserId: 4 vérifications HMAC, clé reconstruite à chaque fois)
+ * contre une vérification unique, sans puis avec le cache des tokens vérifiés, et le filtre complet
+ *
+ * Lancement: mvn test-compile exec:java -Dexec.classpathScope=test
+ *            -Dexec.mainClass=com.camerannonces.benchmark.JwtAuthenticationBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtAuthenticationBenchmark {
+
+    private static final String SECRET =
+            "Q2FtZXJBbm5vbmNlc1BsYXRmb3JtU2VjcmV0S2V5Rm9ySldUVG9rZW5HZW5lcmF0aW9uQW5kVmFsaWRhdGlvbjIwMjQ=";
+
+    private String token;
+    private JwtTokenProvider uncachedProvider;
+    private JwtTokenProvider cachedProvider;
+    private JwtAuthenticationFilter filter;
+
+    @Setup
+    public void setUp() {
+        uncachedProvider = provider(0);
+        cachedProvider = provider(10_000);
+        token = cachedProvider.generateAccessToken("237690000000", 42L);
+
+        JwtProperties properties = new JwtProperties();
+        filter = new JwtAuthenticationFilter();
+        ReflectionTestUtils.setField(filter, "jwtTokenProvider", cachedProvider);
+        ReflectionTestUtils.setField(filter, "jwtProperties", properties);
+        ReflectionTestUtils.setField(filter, "routeTable", new RouteTable());
+    }
+
+    @Benchmark
+    public Long legacyTokenChecks() {
+        String telephone = legacyClaims().getSubject();
+        boolean valid = legacyClaims().getSubject().equals(telephone)
+                && !legacyClaims().getExpiration().before(new Date());
+        return valid ? ((Number) legacyClaims().get("userId")).longValue() : null;
+    }
+
+    @Benchmark
+    public JwtPrincipal singleVerify() {
+        return uncachedProvider.verify(token);
+    }
+
+    @Benchmark
+    public JwtPrincipal cachedVerify() {
+        return cachedProvider.verify(token);
+    }
+
+    @Benchmark
+    public Object filter() throws ServletException, IOException {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/users/me");
+        request.addHeader("Authorization", "Bearer " + token);
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+        SecurityContextHolder.clearContext();
+        return request.getAttribute("userId");
+    }
+
+    /**
+     * Ancien extractAllClaims: secret décodé, clé et parseur reconstruits à chaque appel
+     */
+    private Claims legacyClaims() {
+        SecretKey key = Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET));
+        return Jwts.parser().verifyWith(key).build().parseSignedClaims(token).getPayload();
+    }
+
+    private static JwtTokenProvider provider(long verifiedCacheSize) {
+        JwtProperties properties = new JwtProperties();
+        properties.setSecret(SECRET);
+        properties.setVerifiedCacheSize(verifiedCacheSize);
+
+        JwtTokenProvider provider = new JwtTokenProvider();
+        ReflectionTestUtils.setField(provider, "jwtProperties", properties);
+        ReflectionTestUtils.invokeMethod(provider, "init");
+        return provider;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(JwtAuthenticationBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
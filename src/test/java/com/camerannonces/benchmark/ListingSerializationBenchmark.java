@@ -0,0 +1,167 @@
+package com.camerannonces.benchmark;
+
+import com.camerannonces.dto.ListingPageResponse;
+import com.camerannonces.dto.ListingSummaryResponse;
+import com.camerannonces.dto.ListingSummaryView;
+import com.camerannonces.entity.User;
+import com.camerannonces.enums.EtatProduit;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sérialisation d'une page de 20 résultats de recherche: HashMap imbriquées (ancien format des
+ * contrôleurs) contre records ListingPageResponse, avec et sans le module Blackbird
+ * Le profileur GC donne les octets alloués par page (gc.alloc.rate.norm)
+ *
+ * Lancement: mvn test-compile exec:java -Dexec.classpathScope=test
+ *            -Dexec.mainClass=com.camerannonces.benchmark.ListingSerializationBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ListingSerializationBenchmark {
+
+    private static final int PAGE_SIZE = 20;
+
+    private List<ListingSummaryView> listings;
+    private Map<Long, User> sellers;
+
+    private ObjectMapper reflectiveMapper;
+    private ObjectMapper blackbirdMapper;
+
+    @Setup
+    public void setUp() {
+        listings = new ArrayList<>();
+        sellers = new HashMap<>();
+        for (long i = 1; i <= PAGE_SIZE; i++) {
+            listings.add(new ListingSummaryView(
+                    i, "iPhone 13 Pro Max 256 Go très bon état " + i,
+                    "Téléphone en excellent état, batterie 92%, vendu avec chargeur et coque. ".repeat(3),
+                    (int) (350_000 + i * 1_000), true, EtatProduit.BON, "Douala", "Akwa", "237690000000",
+                    LocalDateTime.of(2024, 5, 1, 10, 30).plusHours(i), (int) (i * 37), (int) (i * 3),
+                    i % 5 == 0, i % 7 == 0,
+                    "https://f003.backblazeb2.com/file/annonces/listings/" + i + ".jpg",
+                    "https://f003.backblazeb2.com/file/annonces/listings/thumbnails/" + i + ".jpg",
+                    3L, "Téléphones", "📱", 100 + i % 4));
+        }
+        for (long id = 100; id < 104; id++) {
+            User user = new User("Vendeur " + id, "2376900000" + id, "secret");
+            user.setId(id);
+            user.setIsBoutique(id % 2 == 0);
+            user.setNomBoutique(id % 2 == 0 ? "Boutique " + id : null);
+            sellers.put(id, user);
+        }
+
+        // Même réglage que l'ObjectMapper de Spring Boot (dates ISO-8601, pas de typage par défaut)
+        reflectiveMapper = new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        blackbirdMapper = reflectiveMapper.copy().registerModule(new BlackbirdModule());
+    }
+
+    @Benchmark
+    public byte[] hashMaps() throws JsonProcessingException {
+        List<Map<String, Object>> items = new ArrayList<>(listings.size());
+        for (ListingSummaryView listing : listings) {
+            items.add(toMap(listing, sellers.get(listing.userId())));
+        }
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("listings", items);
+        response.put("totalElements", 1_250L);
+        response.put("totalPages", 63);
+        response.put("currentPage", 0);
+        response.put("keyword", "iphone");
+        return reflectiveMapper.writeValueAsBytes(response);
+    }
+
+    @Benchmark
+    public byte[] records() throws JsonProcessingException {
+        return reflectiveMapper.writeValueAsBytes(toRecord());
+    }
+
+    @Benchmark
+    public byte[] recordsBlackbird() throws JsonProcessingException {
+        return blackbirdMapper.writeValueAsBytes(toRecord());
+    }
+
+    private ListingPageResponse toRecord() {
+        List<ListingSummaryResponse> items = new ArrayList<>(listings.size());
+        for (ListingSummaryView listing : listings) {
+            items.add(ListingSummaryResponse.search(listing, listing.vues(), listing.contactsWhatsapp(),
+                    sellers.get(listing.userId())));
+        }
+        return new ListingPageResponse(true, items, 1_250L, 63, 0, null, null, "iphone", null, null, null);
+    }
+
+    /**
+     * Ancien format de SearchController.createListingResponse
+     */
+    private Map<String, Object> toMap(ListingSummaryView listing, User user) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("id", listing.id());
+        response.put("titre", listing.titre());
+        response.put("description", listing.description());
+        response.put("prix", listing.prix());
+        response.put("prixNegociable", listing.prixNegociable());
+        response.put("etatProduit", listing.etatProduit());
+        response.put("ville", listing.ville());
+        response.put("quartier", listing.quartier());
+        response.put("telephoneContact", listing.telephoneContact());
+        response.put("dateCreation", listing.dateCreation());
+        response.put("vues", listing.vues());
+        response.put("contactsWhatsapp", listing.contactsWhatsapp());
+        response.put("isPremium", listing.isPremium());
+        response.put("isUrgent", listing.isUrgent());
+        response.put("mainImageUrl", listing.mainImageUrl());
+        response.put("thumbnailUrl", listing.thumbnailUrl());
+
+        Map<String, Object> userInfo = new HashMap<>();
+        userInfo.put("id", user.getId());
+        userInfo.put("nom", user.getNom());
+        userInfo.put("isBoutique", user.getIsBoutique());
+        userInfo.put("nomBoutique", user.getNomBoutique());
+        response.put("user", userInfo);
+
+        Map<String, Object> categoryInfo = new HashMap<>();
+        categoryInfo.put("id", listing.categoryId());
+        categoryInfo.put("nom", listing.categoryNom());
+        categoryInfo.put("emoji", listing.categoryEmoji());
+        response.put("category", categoryInfo);
+        return response;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(ListingSerializationBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
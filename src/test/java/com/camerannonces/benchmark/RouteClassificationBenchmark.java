@@ -0,0 +1,114 @@
+package com.camerannonces.benchmark;
+
+import com.camerannonces.config.RouteTable;
+import com.camerannonces.jwt.JwtAuthenticationFilter;
+import com.camerannonces.jwt.JwtProperties;
+import jakarta.servlet.ServletException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Classification des routes par le filtre JWT: ancien isPublicEndpoint (startsWith + String.matches,
+ * regex compilée à chaque requête) contre la table compilée, puis le filtre complet sur une route publique
+ *
+ * Lancement: mvn test-compile exec:java -Dexec.classpathScope=test
+ *            -Dexec.mainClass=com.camerannonces.benchmark.RouteClassificationBenchmark
+ * Allocation: ajouter .addProfiler("gc") aux options
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RouteClassificationBenchmark {
+
+    private static final String[][] REQUESTS = {
+            {"GET", "/api/listings/42"},
+            {"GET", "/api/listings"},
+            {"GET", "/api/categories/with-count"},
+            {"GET", "/api/search/premium"},
+            {"POST", "/api/auth/login"},
+            {"GET", "/api/listings/42/similar"},
+            {"POST", "/api/listings"},
+            {"GET", "/api/user/profile"}
+    };
+
+    private RouteTable routeTable;
+    private JwtAuthenticationFilter filter;
+    private MockHttpServletRequest publicRequest;
+
+    @Setup
+    public void setUp() {
+        routeTable = new RouteTable();
+        filter = new JwtAuthenticationFilter();
+        ReflectionTestUtils.setField(filter, "jwtProperties", new JwtProperties());
+        ReflectionTestUtils.setField(filter, "routeTable", routeTable);
+        publicRequest = new MockHttpServletRequest("GET", "/api/listings/42");
+    }
+
+    @Benchmark
+    public void legacyClassification(Blackhole blackhole) {
+        for (String[] request : REQUESTS) {
+            blackhole.consume(legacyIsPublicEndpoint(request[1], request[0]));
+        }
+    }
+
+    @Benchmark
+    public void compiledClassification(Blackhole blackhole) {
+        for (String[] request : REQUESTS) {
+            blackhole.consume(routeTable.isPublic(request[0], request[1]));
+        }
+    }
+
+    @Benchmark
+    public void filterPublicRequest() throws ServletException, IOException {
+        filter.doFilter(publicRequest, new MockHttpServletResponse(), new MockFilterChain());
+    }
+
+    /**
+     * Ancienne implémentation de JwtAuthenticationFilter.isPublicEndpoint
+     */
+    private static boolean legacyIsPublicEndpoint(String path, String method) {
+        if (path.startsWith("/api/auth/")) {
+            return true;
+        }
+        if ("GET".equals(method)) {
+            return path.startsWith("/api/categories") ||
+                    path.startsWith("/api/cities") ||
+                    path.equals("/api/listings") ||
+                    path.matches("/api/listings/[0-9]+") ||
+                    path.startsWith("/api/search");
+        }
+        return path.startsWith("/error") ||
+                path.startsWith("/h2-console") ||
+                path.startsWith("/swagger") ||
+                path.startsWith("/v3/api-docs") ||
+                path.startsWith("/actuator");
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(RouteClassificationBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,130 @@
+package com.camerannonces.config;
+
+import com.camerannonces.reference.ReferenceDataRegistry;
+import com.camerannonces.reference.ReferenceDataSnapshot;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests des GET conditionnels (contrôleurs remplacés par une servlet qui compte ses appels)
+ * Détail d'annonce: voir ListingDetailConditionalGetTests (vrai contrôleur)
+ */
+class HttpCacheFilterTests {
+
+    private static final String JSON = "{\"success\":true,\"categories\":["
+            + "{\"id\":1,\"nom\":\"Téléphones\",\"emoji\":\"📱\"}".repeat(40) + "]}";
+
+    private final AtomicInteger handled = new AtomicInteger();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private HttpCacheFilter filter;
+    private String body = JSON;
+    private int status = HttpServletResponse.SC_OK;
+
+    @BeforeEach
+    void setUp() {
+        ReferenceDataSnapshot snapshot = mock(ReferenceDataSnapshot.class);
+        when(snapshot.getFingerprint()).thenReturn("0123456789abcdef");
+        ReferenceDataRegistry registry = mock(ReferenceDataRegistry.class);
+        when(registry.snapshot()).thenReturn(snapshot);
+
+        filter = new HttpCacheFilter();
+        ReflectionTestUtils.setField(filter, "referenceData", registry);
+        ReflectionTestUtils.setField(filter, "meterRegistry", meterRegistry);
+    }
+
+    @Test
+    void referenceDataIsRevalidatedWithoutRunningTheController() throws Exception {
+        MockHttpServletResponse first = get("/api/categories", null);
+        assertThat(first.getStatus()).isEqualTo(200);
+        assertThat(first.getHeader("ETag")).isEqualTo("\"ref-0123456789abcdef\"");
+        assertThat(first.getHeader("Cache-Control")).isEqualTo("public, max-age=300, stale-while-revalidate=86400");
+
+        MockHttpServletResponse second = get("/api/categories", first.getHeader("ETag"));
+        assertThat(second.getStatus()).isEqualTo(304);
+        assertThat(second.getContentAsByteArray()).isEmpty();
+        assertThat(handled.get()).isEqualTo(1);
+
+        System.out.println("📊 GET /api/categories: " + first.getContentAsByteArray().length
+                + " octets à froid, " + second.getContentAsByteArray().length + " avec If-None-Match");
+    }
+
+    @Test
+    void searchIsRevalidatedOnBodyHash() throws Exception {
+        MockHttpServletResponse first = get("/api/search", null);
+        String eTag = first.getHeader("ETag");
+        assertThat(eTag).startsWith("\"").endsWith("\"");
+        assertThat(first.getHeader("Cache-Control")).isEqualTo("public, max-age=30, stale-while-revalidate=120");
+
+        MockHttpServletResponse second = get("/api/search", eTag);
+        assertThat(second.getStatus()).isEqualTo(304);
+        assertThat(second.getContentAsByteArray()).isEmpty();
+        assertThat(meterRegistry.counter("http.cache.bytes.saved", "family", "search").count())
+                .isEqualTo(first.getContentAsByteArray().length);
+
+        // Nouvelle annonce: corps différent, réponse complète
+        body = JSON.replace("true", "false");
+        MockHttpServletResponse third = get("/api/search", eTag);
+        assertThat(third.getStatus()).isEqualTo(200);
+        assertThat(third.getHeader("ETag")).isNotEqualTo(eTag);
+        assertThat(handled.get()).isEqualTo(3);
+    }
+
+    @Test
+    void errorsAndOtherRoutesAreLeftAlone() throws Exception {
+        status = HttpServletResponse.SC_NOT_FOUND;
+        MockHttpServletResponse notFound = get("/api/listings/42", null);
+        assertThat(notFound.getHeader("ETag")).isNull();
+        assertThat(notFound.getHeader("Cache-Control")).isNull();
+
+        status = HttpServletResponse.SC_OK;
+        MockHttpServletResponse mine = get("/api/listings/my-listings", null);
+        assertThat(mine.getHeader("ETag")).isNull();
+        assertThat(mine.getContentAsString()).isEqualTo(JSON);
+    }
+
+    @Test
+    void authenticatedRequestsArePrivate() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/search/premium");
+        request.addHeader("Authorization", "Bearer token");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain(new JsonServlet()));
+
+        assertThat(response.getHeader("Cache-Control")).startsWith("private, ");
+    }
+
+    private MockHttpServletResponse get(String path, String ifNoneMatch) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", path);
+        if (ifNoneMatch != null) {
+            request.addHeader("If-None-Match", ifNoneMatch);
+        }
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain(new JsonServlet()));
+        return response;
+    }
+
+    private class JsonServlet extends HttpServlet {
+        @Override
+        protected void doGet(HttpServletRequest request, HttpServletResponse response) throws IOException {
+            handled.incrementAndGet();
+            response.setStatus(status);
+            response.setContentType("application/json;charset=UTF-8");
+            response.getWriter().write(body);
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.camerannonces.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.server.PathContainer;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Table des routes: l'arbre compilé (filtre JWT) rend la même décision que les règles
+ * évaluées dans l'ordre avec PathPattern (SecurityConfig)
+ */
+class RouteTableTests {
+
+    private static final List<String> METHODS = List.of("GET", "POST", "PUT", "DELETE", "PATCH");
+
+    private static final List<String> PATHS = List.of(
+            "/", "/error", "/actuator/health", "/api/auth/login", "/api/auth/refresh-token", "/api/authx",
+            "/api/test/hello", "/api/categories", "/api/categories/12", "/api/categories/with-count",
+            "/api/cities", "/api/cities/3/quartiers", "/api/search", "/api/search/premium",
+            "/api/listings", "/api/listings/", "/api/listings/42", "/api/listings/42/view",
+            "/api/listings/42/similar", "/api/listings/abc", "/api/listings/category/7",
+            "/api/listings/42/mark-sold", "/api/user/profile", "/api/favorites", "/api/images/profile",
+            "/api/moderation/stats", "/api/listingsx");
+
+    private final RouteTable routeTable = new RouteTable();
+
+    @Test
+    void compiledTableAgreesWithSecurityRules() {
+        for (String method : METHODS) {
+            for (String path : PATHS) {
+                RouteTable.Access expected = firstMatch(method, path);
+                RouteTable.Access actual = routeTable.classify(method, path);
+
+                assertThat(actual).as(method + " " + path).isEqualTo(expected);
+                // Une route ignorée par le filtre JWT doit être ouverte dans SecurityConfig
+                if (routeTable.isPublic(method, path)) {
+                    assertThat(expected.permitted()).as(method + " " + path).isTrue();
+                }
+            }
+        }
+    }
+
+    @Test
+    void publicRoutesMatchTheFilterContract() {
+        assertThat(routeTable.isPublic("GET", "/api/listings/42")).isTrue();
+        assertThat(routeTable.isPublic("GET", "/api/categories")).isTrue();
+        assertThat(routeTable.isPublic("POST", "/api/auth/login")).isTrue();
+        assertThat(routeTable.classify("GET", "/api/listings/category/7")).isEqualTo(RouteTable.Access.OPTIONAL_AUTH);
+        assertThat(routeTable.classify("POST", "/api/listings")).isEqualTo(RouteTable.Access.AUTHENTICATED);
+        assertThat(routeTable.classify("GET", "/actuator/metrics")).isEqualTo(RouteTable.Access.AUTHENTICATED);
+    }
+
+    @Test
+    void classificationDoesNotAllocate() {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        for (int i = 0; i < 10_000; i++) {
+            routeTable.classify("GET", "/api/listings/42/similar");
+        }
+
+        long before = threads.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < 100_000; i++) {
+            routeTable.classify("GET", "/api/listings/42/similar");
+            routeTable.classify("POST", "/api/user/profile");
+        }
+        long allocated = threads.getThreadAllocatedBytes(threadId) - before;
+
+        // Marge pour l'appel de mesure lui-même
+        assertThat(allocated).isLessThan(1_024);
+    }
+
+    /**
+     * Évaluation façon Spring Security: première règle dont la méthode et le PathPattern correspondent
+     */
+    private RouteTable.Access firstMatch(String method, String path) {
+        PathContainer container = PathContainer.parsePath(path);
+        for (RouteTable.Rule rule : routeTable.getRules()) {
+            if ((rule.method() == null || rule.method().equals(method))
+                    && PathPatternParser.defaultInstance.parse(rule.pattern()).matches(container)) {
+                return rule.access();
+            }
+        }
+        return RouteTable.Access.AUTHENTICATED;
+    }
+}
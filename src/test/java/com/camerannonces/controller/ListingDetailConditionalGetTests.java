@@ -0,0 +1,97 @@
+package com.camerannonces.controller;
+
+import com.camerannonces.ListingFixture;
+import com.camerannonces.enums.PlanType;
+import com.camerannonces.service.ListingCounterBuffer;
+import com.camerannonces.service.ListingDetailCache;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+/**
+ * GET conditionnel du détail d'annonce à travers HttpCacheFilter et le vrai contrôleur:
+ * ETag faible, 304 tant que le contenu ne change pas, et chaque lecture compte une vue, 304 compris
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class ListingDetailConditionalGetTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ListingCounterBuffer listingCounterBuffer;
+
+    @Autowired
+    private ListingDetailCache listingDetailCache;
+
+    private ListingFixture fixture;
+    private long listingId;
+
+    @BeforeEach
+    void seed() {
+        fixture = ListingFixture.create(jdbcTemplate, "détail", PlanType.GRATUIT);
+        listingId = fixture.addListing("Vélo de course");
+    }
+
+    @AfterEach
+    void cleanUp() {
+        listingCounterBuffer.flush();
+        fixture.remove();
+    }
+
+    @Test
+    void unchangedListingIsRevalidatedAndEveryReadIsCounted() throws Exception {
+        MockHttpServletResponse first = detail(null);
+        String eTag = first.getHeader("ETag");
+        assertThat(first.getStatus()).isEqualTo(200);
+        // Faible: les compteurs du corps changent à chaque lecture
+        assertThat(eTag).startsWith("W/\"");
+        assertThat(first.getHeader("Cache-Control")).isEqualTo("private, no-cache");
+
+        // Les vues changent à chaque lecture, l'ETag non
+        for (int i = 0; i < 2; i++) {
+            MockHttpServletResponse revalidated = detail(eTag);
+            assertThat(revalidated.getStatus()).isEqualTo(304);
+            assertThat(revalidated.getContentAsByteArray()).isEmpty();
+            assertThat(revalidated.getHeader("ETag")).isEqualTo(eTag);
+            assertThat(revalidated.getHeader("Cache-Control")).isEqualTo("private, no-cache");
+        }
+
+        // Contenu modifié: réponse complète avec un nouvel ETag
+        jdbcTemplate.update("UPDATE listings SET titre = 'Vélo de course révisé' WHERE id = ?", listingId);
+        listingDetailCache.invalidate(listingId);
+        MockHttpServletResponse changed = detail(eTag);
+        assertThat(changed.getStatus()).isEqualTo(200);
+        assertThat(changed.getHeader("ETag")).isNotEqualTo(eTag);
+        assertThat(changed.getContentAsString(StandardCharsets.UTF_8)).contains("Vélo de course révisé");
+
+        listingCounterBuffer.flush();
+        assertThat(jdbcTemplate.queryForObject("SELECT vues FROM listings WHERE id = ?", Integer.class, listingId))
+                .isEqualTo(4);
+    }
+
+    private MockHttpServletResponse detail(String ifNoneMatch) throws Exception {
+        var request = get("/api/listings/{id}", listingId);
+        if (ifNoneMatch != null) {
+            request.header("If-None-Match", ifNoneMatch);
+        }
+        return mockMvc.perform(request).andReturn().getResponse();
+    }
+}
@@ -0,0 +1,67 @@
+package com.camerannonces.dto;
+
+import com.camerannonces.entity.User;
+import com.camerannonces.enums.EtatProduit;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Les records gardent les noms de champs JSON des anciennes réponses HashMap
+ */
+class ListingSummaryResponseTests {
+
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .registerModule(new BlackbirdModule());
+
+    private final ListingSummaryView listing = new ListingSummaryView(
+            7L, "Frigo Samsung", "Très bon état", 150_000, true, EtatProduit.BON, "Yaoundé", "Bastos",
+            "237690000000", LocalDateTime.of(2024, 5, 1, 10, 30), 12, 3, true, false,
+            "https://img.test/7.jpg", "https://img.test/7-thumb.jpg", 2L, "Électroménager", "🧊", 42L);
+
+    @Test
+    void searchItemKeepsFieldNames() throws Exception {
+        User seller = new User("Awa", "237699999999", "secret");
+        seller.setId(42L);
+        seller.setIsBoutique(false);
+
+        JsonNode json = objectMapper.valueToTree(ListingSummaryResponse.search(listing, 15, 4, seller));
+
+        assertThat(json.get("isPremium").asBoolean()).isTrue();
+        assertThat(json.get("isUrgent").asBoolean()).isFalse();
+        assertThat(json.get("vues").asInt()).isEqualTo(15);
+        assertThat(json.get("contactsWhatsapp").asInt()).isEqualTo(4);
+        assertThat(json.get("telephoneContact").asText()).isEqualTo("237690000000");
+        assertThat(json.get("user").get("nom").asText()).isEqualTo("Awa");
+        assertThat(json.get("category").get("emoji").asText()).isEqualTo("🧊");
+        assertThat(json.has("isBoutique")).isFalse();
+    }
+
+    @Test
+    void feedItemAndPageOmitAbsentFields() throws Exception {
+        CursorPage<ListingSummaryView> page = new CursorPage<>(List.of(listing), "abc");
+        ListingPageResponse response = ListingPageResponse.of(page, List.of(ListingSummaryResponse.feed(listing, 12)))
+                .withCategoryId(2L);
+
+        JsonNode json = objectMapper.valueToTree(response);
+
+        assertThat(json.get("success").asBoolean()).isTrue();
+        assertThat(json.get("nextCursor").asText()).isEqualTo("abc");
+        assertThat(json.get("categoryId").asLong()).isEqualTo(2L);
+        assertThat(json.has("totalElements")).isFalse();
+
+        JsonNode item = json.get("listings").get(0);
+        assertThat(item.get("titre").asText()).isEqualTo("Frigo Samsung");
+        assertThat(item.has("telephoneContact")).isFalse();
+        assertThat(item.has("user")).isFalse();
+        assertThat(item.get("thumbnailUrl").asText()).endsWith("7-thumb.jpg");
+    }
+}
@@ -0,0 +1,52 @@
+package com.camerannonces.jwt;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Vérification unique des tokens et cache des tokens vérifiés
+ */
+class JwtTokenProviderTests {
+
+    private final JwtProperties properties = new JwtProperties();
+    private final JwtTokenProvider provider = new JwtTokenProvider();
+
+    @BeforeEach
+    void setUp() {
+        properties.setSecret("Q2FtZXJBbm5vbmNlc1BsYXRmb3JtU2VjcmV0S2V5Rm9ySldUVG9rZW5HZW5lcmF0aW9uQW5kVmFsaWRhdGlvbjIwMjQ=");
+        ReflectionTestUtils.setField(provider, "jwtProperties", properties);
+        provider.init();
+    }
+
+    @Test
+    void verifiedTokenIsServedFromCache() {
+        String token = provider.generateAccessToken("237690000000", 42L);
+
+        JwtPrincipal principal = provider.verify(token);
+        assertThat(principal.userId()).isEqualTo(42L);
+        assertThat(principal.telephone()).isEqualTo("237690000000");
+        assertThat(principal.type()).isEqualTo("access");
+        assertThat(provider.verify(token)).isSameAs(principal);
+        assertThat(provider.validateToken(token, "237690000000")).isTrue();
+    }
+
+    @Test
+    void tamperedOrExpiredTokensAreRejected() {
+        String token = provider.generateAccessToken("237690000000", 42L);
+        provider.verify(token);
+
+        // Même signature, autre contenu: autre empreinte, vérification complète
+        String[] parts = token.split("\\.");
+        String tampered = parts[0] + "." + parts[1].substring(0, parts[1].length() - 2) + "." + parts[2];
+        assertThatThrownBy(() -> provider.verify(tampered)).isInstanceOf(JwtException.class);
+
+        properties.getAccessToken().setExpiration(-1_000);
+        String expired = provider.generateAccessToken("237690000000", 42L);
+        assertThatThrownBy(() -> provider.verify(expired)).isInstanceOf(JwtException.class);
+        assertThat(provider.isTokenExpired(expired)).isTrue();
+    }
+}
@@ -0,0 +1,80 @@
+package com.camerannonces.reference;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests de la photo du référentiel (sans base de données)
+ */
+class ReferenceDataSnapshotTests {
+
+    private static final LocalDateTime NOW = LocalDateTime.now();
+
+    private static final CityRef DOUALA = new CityRef(1L, "Douala", "Littoral", true, NOW);
+    private static final CityRef YAOUNDE = new CityRef(2L, "Yaoundé", "Centre", true, NOW);
+    private static final CityRef EDEA = new CityRef(3L, "Édéa", "Littoral", false, NOW);
+
+    private final ReferenceDataSnapshot snapshot = new ReferenceDataSnapshot(1L,
+            List.of(
+                    new CategoryRef(10L, "Électroménager", "Appliances", "🧊", "Frigos, cuisinières", 2, true, NOW),
+                    new CategoryRef(11L, "Téléphones", "Phones", "📱", "Smartphones et tablettes", 1, true, NOW),
+                    new CategoryRef(12L, "Archives", "Archives", "📦", null, 3, false, NOW)),
+            List.of(YAOUNDE, EDEA, DOUALA),
+            List.of(
+                    new QuartierRef(100L, "Bonabéri", true, NOW, DOUALA),
+                    new QuartierRef(101L, "Akwa", true, NOW, DOUALA),
+                    new QuartierRef(102L, "Bastos", true, NOW, YAOUNDE),
+                    new QuartierRef(103L, "Akwa Nord", false, NOW, DOUALA)));
+
+    @Test
+    void listsKeepRepositoryOrderAndActiveFilter() {
+        assertThat(snapshot.getActiveCategories()).extracting(CategoryRef::id).containsExactly(11L, 10L);
+        assertThat(snapshot.getCategories()).hasSize(3);
+        assertThat(snapshot.getActiveCities()).extracting(CityRef::nom).containsExactly("Douala", "Yaoundé");
+        assertThat(snapshot.getRegions()).containsExactly("Centre", "Littoral");
+        assertThat(snapshot.getCityCountsByRegion()).extracting(data -> data[1]).containsExactly(1L, 2L);
+        assertThat(snapshot.getActiveQuartiersByCity(1L)).extracting(QuartierRef::nom)
+                .containsExactly("Akwa", "Bonabéri");
+        assertThat(snapshot.getActiveQuartiersByCityNom("Yaoundé")).extracting(QuartierRef::id).containsExactly(102L);
+        assertThat(snapshot.getQuartiersByRegion("Littoral")).hasSize(3);
+    }
+
+    @Test
+    void searchMatchesFoldedWordPrefixes() {
+        assertThat(snapshot.searchCategories("electro")).extracting(CategoryRef::id).containsExactly(10L);
+        assertThat(snapshot.searchCategories("phone")).extracting(CategoryRef::id).containsExactly(11L);
+        assertThat(snapshot.searchCities("littoral")).extracting(CityRef::nom).containsExactly("Douala", "Édéa");
+        assertThat(snapshot.searchCities("yaou")).extracting(CityRef::id).containsExactly(2L);
+        assertThat(snapshot.searchQuartiers("bonab")).extracting(QuartierRef::id).containsExactly(100L);
+        assertThat(snapshot.searchQuartiers("akwa doua")).extracting(QuartierRef::id).containsExactly(101L, 103L);
+        assertThat(snapshot.searchQuartiers("kwa")).isEmpty();
+        assertThat(snapshot.searchQuartiers("  ")).isEmpty();
+    }
+
+    @Test
+    void homonymousCitiesResolveToLowestActiveId() {
+        CityRef doublon = new CityRef(4L, "DOUALA", "Littoral", true, NOW);
+        CityRef ancienne = new CityRef(0L, "Douala", "Littoral", false, NOW);
+        ReferenceDataSnapshot homonyms = new ReferenceDataSnapshot(2L, List.of(),
+                List.of(doublon, YAOUNDE, ancienne, DOUALA), List.of());
+
+        assertThat(homonyms.resolveCity(" douala ")).contains(DOUALA);
+        assertThat(homonyms.resolveCity("yaounde")).contains(YAOUNDE);
+    }
+
+    @Test
+    void fingerprintDependsOnContentOnly() {
+        ReferenceDataSnapshot reloaded = new ReferenceDataSnapshot(2L, snapshot.getCategories(),
+                List.of(DOUALA, YAOUNDE, EDEA), List.of());
+        ReferenceDataSnapshot sameContent = new ReferenceDataSnapshot(3L, snapshot.getCategories(),
+                List.of(EDEA, DOUALA, YAOUNDE), List.of());
+
+        // Même contenu, autre version ou ordre de chargement: même ETag sur toutes les instances
+        assertThat(sameContent.getFingerprint()).isEqualTo(reloaded.getFingerprint());
+        assertThat(reloaded.getFingerprint()).isNotEqualTo(snapshot.getFingerprint()).hasSize(32);
+    }
+}
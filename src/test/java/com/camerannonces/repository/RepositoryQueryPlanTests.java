@@ -0,0 +1,379 @@
+package com.camerannonces.repository;
+
+import com.camerannonces.enums.ListingStatus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Parameter;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Chaque requête des repositories, exécutée sur une base peuplée, a un plan qui ne parcourt
+ * pas séquentiellement la table listings pour un filtre sélectif (index manquant).
+ * Les requêtes qui lisent par nature la majorité des annonces (comptages globaux,
+ * listes non paginées de toutes les annonces actives) restent permises.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+class RepositoryQueryPlanTests {
+
+    // Taille à partir de laquelle un parcours séquentiel de listings est un problème
+    private static final int SEQ_SCAN_THRESHOLD = 10_000;
+    private static final int SEEDED_LISTINGS = 20_000;
+
+    // Un parcours séquentiel qui retient moins de cette fraction de la table est un index manquant
+    private static final double MAX_SEQ_SCAN_SELECTIVITY = 0.2;
+
+    private static final Pattern LISTINGS_SEQ_SCAN = Pattern.compile("Seq Scan on listings\\s.*rows=(\\d+)");
+
+    private static final List<Class<?>> REPOSITORIES = List.of(
+            ListingRepository.class, SignalRepository.class, UserFavoriteRepository.class);
+
+    private static final Map<Class<?>, String> SORT_PROPERTY = Map.of(
+            ListingRepository.class, "dateCreation",
+            SignalRepository.class, "dateSignalement",
+            UserFavoriteRepository.class, "dateAjout");
+
+    @Autowired
+    private ApplicationContext applicationContext;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private long userId;
+    private long categoryId;
+    private long cityId;
+    private long quartierId;
+    private long listingId;
+    private long listingCount;
+
+    @BeforeEach
+    void seed() {
+        long suffix = System.nanoTime() % 100_000_000L;  // téléphone: 238 + 11 chiffres
+
+        List<Long> users = jdbcTemplate.queryForList(
+                "INSERT INTO users (nom, telephone, mot_de_passe, is_boutique, plan_actuel, is_active, " +
+                        "email_verified, phone_verified, country_code, date_creation) " +
+                        "SELECT 'Vendeur plan ' || n, '238' || lpad((? * 1000 + n)::text, 11, '0'), 'secret', " +
+                        "n % 10 = 0, 'GRATUIT', true, false, false, '+237', now() " +
+                        "FROM generate_series(1, 200) n RETURNING id",
+                Long.class, suffix);
+        List<Long> categories = jdbcTemplate.queryForList(
+                "INSERT INTO categories (nom, emoji, is_active, date_creation) " +
+                        "SELECT 'Catégorie plan ' || ? || '-' || n, '🧪', true, now() " +
+                        "FROM generate_series(1, 10) n RETURNING id",
+                Long.class, suffix);
+        List<Long> cities = jdbcTemplate.queryForList(
+                "INSERT INTO cities (nom, region, is_active, date_creation) " +
+                        "SELECT 'Ville plan ' || ? || '-' || n, 'Littoral', true, now() " +
+                        "FROM generate_series(1, 5) n RETURNING id",
+                Long.class, suffix);
+        List<Long> quartiers = jdbcTemplate.queryForList(
+                "INSERT INTO quartiers (nom, city_id, is_active, date_creation) " +
+                        "SELECT 'Quartier ' || n, c.id, true, now() " +
+                        "FROM unnest(?::bigint[]) AS c(id) CROSS JOIN generate_series(1, 5) n RETURNING id",
+                Long.class, array(cities));
+
+        jdbcTemplate.update(
+                "INSERT INTO listings (user_id, category_id, titre, description, prix, prix_negociable, " +
+                        "etat_produit, ville, quartier, city_id, quartier_id, telephone_contact, vues, " +
+                        "contacts_whatsapp, statut, is_premium, is_urgent, is_verified, date_creation, date_expiration) " +
+                        "SELECT u.ids[1 + n % array_length(u.ids, 1)], c.ids[1 + n % array_length(c.ids, 1)], " +
+                        "'Annonce ' || md5(n::text), 'Description ' || md5((n * 7)::text), " +
+                        "(n % 500) * 1000, n % 2 = 0, " +
+                        "(ARRAY['NEUF', 'TRES_BON', 'BON', 'MOYEN', 'A_REPARER'])[1 + n % 5], " +
+                        "ci.nom, q.nom, ci.id, q.id, '237690000000', n % 1000, n % 100, " +
+                        "CASE WHEN n % 10 = 0 THEN 'VENDU' WHEN n % 10 = 1 THEN 'EXPIRE' " +
+                        "WHEN n % 20 = 2 THEN 'SUSPENDU' ELSE 'ACTIVE' END, " +
+                        "n % 20 = 3, n % 25 = 4, n % 15 = 5, " +
+                        "now() - (n % 25) * interval '1 day' - n * interval '1 second', " +
+                        "now() - (n % 25) * interval '1 day' - n * interval '1 second' + interval '30 days' " +
+                        "FROM generate_series(1, ?) n " +
+                        "CROSS JOIN (SELECT ?::bigint[] AS ids) u " +
+                        "CROSS JOIN (SELECT ?::bigint[] AS ids) c " +
+                        "JOIN quartiers q ON q.id = (?::bigint[])[1 + (n / 3) % ?] " +
+                        "JOIN cities ci ON ci.id = q.city_id",
+                SEEDED_LISTINGS, array(users), array(categories), array(quartiers), quartiers.size());
+
+        jdbcTemplate.execute("ANALYZE listings, users, categories, cities, quartiers, signals, user_favorites");
+
+        userId = users.get(0);
+        categoryId = categories.get(0);
+        cityId = cities.get(0);
+        quartierId = quartiers.get(0);
+        listingId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM listings", Long.class);
+        listingCount = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM listings", Long.class);
+    }
+
+    @Test
+    void repositoryQueriesDoNotScanListings() throws Exception {
+        assertThat(listingCount).isGreaterThanOrEqualTo(SEQ_SCAN_THRESHOLD);
+
+        List<String> violations = new ArrayList<>();
+        int explained = 0;
+        for (Class<?> repositoryType : REPOSITORIES) {
+            Object repository = applicationContext.getBean(repositoryType);
+            List<Method> queries = Arrays.stream(repositoryType.getDeclaredMethods())
+                    .filter(method -> !method.isDefault() && !Modifier.isStatic(method.getModifiers()))
+                    .filter(method -> !method.isAnnotationPresent(Modifying.class))
+                    .filter(method -> !method.getName().startsWith("delete"))
+                    .sorted(Comparator.comparing(Method::toGenericString))
+                    .toList();
+
+            for (Method method : queries) {
+                Object[] args = Arrays.stream(method.getParameters())
+                        .map(parameter -> sampleArgument(repositoryType, method, parameter))
+                        .toArray();
+                List<CapturedQuery> executed = QueryCapture.capture(() -> method.invoke(repository, args));
+                for (CapturedQuery query : executed) {
+                    explained++;
+                    List<String> plan = explain(query);
+                    for (String line : plan) {
+                        Matcher seqScan = LISTINGS_SEQ_SCAN.matcher(line);
+                        if (seqScan.find() && Long.parseLong(seqScan.group(1)) < listingCount * MAX_SEQ_SCAN_SELECTIVITY) {
+                            violations.add(repositoryType.getSimpleName() + "." + method.getName() + "\n"
+                                    + query.sql() + "\n" + String.join("\n", plan));
+                        }
+                    }
+                }
+            }
+        }
+
+        assertThat(explained).isPositive();
+        assertThat(violations).as("Parcours séquentiels de listings (%d annonces)", listingCount).isEmpty();
+    }
+
+    // ============================================
+    // VALEURS D'EXEMPLE DES PARAMÈTRES
+    // ============================================
+
+    private Object sampleArgument(Class<?> repositoryType, Method method, Parameter parameter) {
+        Param param = parameter.getAnnotation(Param.class);
+        String name = (param != null ? param.value() : parameter.getName()).toLowerCase(Locale.ROOT);
+        Class<?> type = parameter.getType();
+
+        if (Pageable.class.isAssignableFrom(type)) {
+            return samplePage(repositoryType, method);
+        }
+        if (type == Long.class || type == long.class) {
+            if (name.contains("threshold")) return 2L;
+            if (name.startsWith("after")) return Long.MAX_VALUE;
+            if (name.contains("user") || name.contains("admin")) return userId;
+            if (name.contains("categor")) return categoryId;
+            if (name.contains("city")) return cityId;
+            if (name.contains("quartier")) return quartierId;
+            return listingId;
+        }
+        if (Collection.class.isAssignableFrom(type)) {
+            return name.contains("quartier") ? List.of(quartierId) : List.of(listingId);
+        }
+        if (type == ListingStatus.class) {
+            return ListingStatus.ACTIVE;
+        }
+        if (type.isEnum()) {
+            return type.getEnumConstants()[0];
+        }
+        if (type == String.class) {
+            if (name.equals("statut")) return ListingStatus.ACTIVE.name();
+            if (name.contains("quartier")) return "Quartier 1";
+            if (name.equals("tsquery")) return "'velo'";
+            return "velo";
+        }
+        if (type == Integer.class || type == int.class) {
+            if (name.contains("min")) return 1_000;
+            if (name.contains("max")) return 100_000;
+            return 20;
+        }
+        if (type == Double.class) {
+            return 0.0;
+        }
+        if (type == Boolean.class) {
+            return true;
+        }
+        if (type == LocalDateTime.class) {
+            if (name.equals("soon")) return LocalDateTime.now().plusDays(1);
+            if (name.equals("now") || name.equals("end") || name.startsWith("after")) return LocalDateTime.now();
+            return LocalDateTime.now().minusDays(1);
+        }
+        throw new IllegalArgumentException("Pas de valeur d'exemple pour " + method.getName() + "(" + type.getSimpleName() + " " + name + ")");
+    }
+
+    /**
+     * Page triée par date comme dans les contrôleurs, sauf si la requête impose déjà son ordre
+     */
+    private Pageable samplePage(Class<?> repositoryType, Method method) {
+        Query query = method.getAnnotation(Query.class);
+        boolean ordered = method.getName().contains("OrderBy")
+                || (query != null && query.value().toUpperCase(Locale.ROOT).contains("ORDER BY"));
+        if (ordered) {
+            return PageRequest.of(0, 20);
+        }
+        String property = query != null && query.nativeQuery() ? "date_creation" : SORT_PROPERTY.get(repositoryType);
+        return PageRequest.of(0, 20, Sort.by(Sort.Direction.DESC, property));
+    }
+
+    // ============================================
+    // EXPLAIN
+    // ============================================
+
+    private List<String> explain(CapturedQuery query) {
+        return jdbcTemplate.execute((ConnectionCallback<List<String>>) connection -> {
+            try (PreparedStatement statement = connection.prepareStatement("EXPLAIN " + query.sql())) {
+                for (Binding binding : query.bindings()) {
+                    binding.apply(statement);
+                }
+                List<String> plan = new ArrayList<>();
+                try (ResultSet rs = statement.executeQuery()) {
+                    while (rs.next()) {
+                        plan.add(rs.getString(1));
+                    }
+                }
+                return plan;
+            }
+        });
+    }
+
+    private static String array(List<Long> ids) {
+        return ids.stream().map(String::valueOf).collect(Collectors.joining(",", "{", "}"));
+    }
+
+    // ============================================
+    // CAPTURE DU SQL ET DES PARAMÈTRES
+    // ============================================
+
+    record Binding(Method setter, Object[] args) {
+        void apply(PreparedStatement statement) {
+            try {
+                setter.invoke(statement, args);
+            } catch (ReflectiveOperationException e) {
+                throw new IllegalStateException("Paramètre non rejouable: " + setter.getName(), e);
+            }
+        }
+    }
+
+    record CapturedQuery(String sql, List<Binding> bindings) {}
+
+    interface RepositoryCall {
+        void run() throws Exception;
+    }
+
+    /**
+     * Requêtes exécutées par le thread courant pendant capture(); chaque requête capturée
+     * ne renvoie qu'une ligne (le plan est obtenu à part, par EXPLAIN)
+     */
+    static final class QueryCapture {
+
+        private static final ThreadLocal<List<CapturedQuery>> CAPTURED = new ThreadLocal<>();
+
+        static List<CapturedQuery> capture(RepositoryCall call) throws Exception {
+            List<CapturedQuery> captured = new ArrayList<>();
+            CAPTURED.set(captured);
+            try {
+                call.run();
+            } catch (InvocationTargetException e) {
+                throw new AssertionError("Requête en échec avec les valeurs d'exemple", e.getCause());
+            } finally {
+                CAPTURED.remove();
+            }
+            return captured;
+        }
+
+        static DataSource wrap(DataSource dataSource) {
+            return proxy(DataSource.class, dataSource, (proxy, method, args) -> {
+                Object result = invoke(dataSource, method, args);
+                return result instanceof Connection connection ? wrap(connection) : result;
+            });
+        }
+
+        private static Connection wrap(Connection connection) {
+            return proxy(Connection.class, connection, (proxy, method, args) -> {
+                Object result = invoke(connection, method, args);
+                if (result instanceof PreparedStatement statement && method.getName().equals("prepareStatement")) {
+                    return wrap(statement, (String) args[0]);
+                }
+                return result;
+            });
+        }
+
+        private static PreparedStatement wrap(PreparedStatement statement, String sql) {
+            List<Binding> bindings = new ArrayList<>();
+            return proxy(PreparedStatement.class, statement, (proxy, method, args) -> {
+                String name = method.getName();
+                if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer) {
+                    bindings.add(new Binding(method, args.clone()));
+                } else if (name.equals("clearParameters")) {
+                    bindings.clear();
+                } else if (name.startsWith("execute") && CAPTURED.get() != null) {
+                    CAPTURED.get().add(new CapturedQuery(sql, List.copyOf(bindings)));
+                    statement.setMaxRows(1);
+                }
+                return invoke(statement, method, args);
+            });
+        }
+
+        @SuppressWarnings("unchecked")
+        private static <T> T proxy(Class<T> type, T target, InvocationHandler handler) {
+            return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, handler);
+        }
+
+        private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+
+    @TestConfiguration
+    static class QueryCaptureConfig {
+
+        @Bean
+        static BeanPostProcessor queryCapturingDataSource() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    return bean instanceof DataSource dataSource ? QueryCapture.wrap(dataSource) : bean;
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.camerannonces.repository;
+
+import com.camerannonces.ListingFixture;
+import com.camerannonces.entity.Listing;
+import com.camerannonces.enums.ListingStatus;
+import com.camerannonces.enums.PlanType;
+import com.camerannonces.util.SearchTerms;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Recherche multi-termes au-delà de 100 résultats: une seule requête pour tous les synonymes,
+ * total exact et pages complètes après la centième annonce
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class SearchByTermsPaginationTests {
+
+    // "poisson" est enrichi en poisson, fumé, braisé, tilapia (KeywordEnricher)
+    private static final String[] TITLES = {"Poisson du jour", "Maquereau fumé", "Bar braisé", "Tilapia frais"};
+    private static final int PER_SYNONYM = 32;
+    private static final int MATCHES = TITLES.length * PER_SYNONYM;
+    private static final int PAGE_SIZE = 50;
+
+    @Autowired
+    private ListingRepository listingRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private ListingFixture fixture;
+    private SearchTerms terms;
+
+    @BeforeEach
+    void seed() {
+        fixture = ListingFixture.create(jdbcTemplate, "recherche", PlanType.GRATUIT);
+        for (String titre : TITLES) {
+            for (int i = 1; i <= PER_SYNONYM; i++) {
+                fixture.addListing(titre + " n°" + i);
+            }
+        }
+        // Hors résultats: sans aucun terme, ou expirée
+        fixture.addListing("Sac à main en cuir");
+        long expired = fixture.addListing("Tilapia de la veille");
+        jdbcTemplate.update("UPDATE listings SET statut = 'EXPIRE' WHERE id = ?", expired);
+
+        terms = SearchTerms.from("poisson");
+    }
+
+    @AfterEach
+    void cleanUp() {
+        fixture.remove();
+    }
+
+    @Test
+    void countIsExactAcrossAllSynonyms() {
+        assertThat(listingRepository.countByTerms(terms.toTsQuery(), terms.toPattern(),
+                fixture.categoryId(), null, ListingStatus.ACTIVE.name())).isEqualTo(MATCHES);
+    }
+
+    @Test
+    void pagesPastTheHundredthResultAreComplete() {
+        List<Long> seen = new ArrayList<>();
+        for (int page = 0; page * PAGE_SIZE < MATCHES; page++) {
+            Page<Listing> result = listingRepository.searchByTerms(terms.toTsQuery(), terms.toPattern(),
+                    fixture.categoryId(), null, ListingStatus.ACTIVE.name(), PageRequest.of(page, PAGE_SIZE));
+            assertThat(result.getTotalElements()).isEqualTo(MATCHES);
+            result.forEach(listing -> seen.add(listing.getId()));
+        }
+
+        // Troisième page (annonces 101 à 128), identique en ids seuls
+        List<Long> thirdPage = seen.subList(2 * PAGE_SIZE, MATCHES);
+        assertThat(thirdPage).hasSize(MATCHES - 2 * PAGE_SIZE);
+        assertThat(listingRepository.searchIdsByTerms(terms.toTsQuery(), terms.toPattern(),
+                fixture.categoryId(), null, ListingStatus.ACTIVE.name(), PAGE_SIZE, 2L * PAGE_SIZE))
+                .containsExactlyElementsOf(thirdPage);
+
+        Set<Long> distinct = new HashSet<>(seen);
+        assertThat(distinct).hasSize(MATCHES);
+        assertThat(seen).hasSize(MATCHES);
+    }
+}
@@ -0,0 +1,177 @@
+package com.camerannonces.search;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests de l'index inversé en mémoire (sans base de données)
+ */
+class ListingSearchIndexTests {
+
+    private static final LocalDateTime NOW = LocalDateTime.now();
+
+    // Clé de ville: position dans la liste + 1 (listings.city_id)
+    private static final List<String> CITIES = List.of("Douala", "Yaoundé", "Bafoussam", "Garoua", "Bamenda");
+
+    private static IndexedListing listing(long id, String titre, String description, long categoryId,
+                                          String categoryNom, String ville, boolean premium, int ageDays) {
+        return new IndexedListing(id, titre, description, categoryId, categoryNom, cityId(ville), ville, "Akwa",
+                premium, NOW.minusDays(ageDays), null);
+    }
+
+    private static Long cityId(String ville) {
+        return (long) CITIES.indexOf(ville) + 1;
+    }
+
+    @Test
+    void titleMatchRanksAboveDescriptionMatch() {
+        ListingSearchIndex index = new ListingSearchIndex();
+        index.index(listing(1, "Canapé en cuir", "Très bon état, avec une Toyota en cadeau", 1, "Maison", "Douala", false, 1));
+        index.index(listing(2, "Toyota Corolla 2015", "Climatisation, boîte automatique", 2, "Véhicules", "Douala", false, 1));
+
+        SearchHits hits = index.search(List.of("toyota"), null, null, 0, 10);
+
+        assertThat(hits.totalHits()).isEqualTo(2);
+        assertThat(hits.listingIds()).containsExactly(2L, 1L);
+    }
+
+    @Test
+    void accentsCaseAndPluralsAreFolded() {
+        ListingSearchIndex index = new ListingSearchIndex();
+        index.index(listing(1, "Télévisions Samsung", "Écran 55 pouces", 1, "Électronique", "Yaoundé", false, 1));
+
+        assertThat(index.search(List.of("TELEVISION"), null, null, 0, 10).listingIds()).containsExactly(1L);
+        assertThat(index.search(List.of("ecrans"), null, null, 0, 10).listingIds()).containsExactly(1L);
+        assertThat(index.search(List.of("yaounde"), null, null, 0, 10).listingIds()).containsExactly(1L);
+    }
+
+    @Test
+    void filtersAndIncrementalUpdatesAreApplied() {
+        ListingSearchIndex index = new ListingSearchIndex();
+        index.index(listing(1, "iPhone 12", "Comme neuf", 1, "Téléphones", "Douala", false, 1));
+        index.index(listing(2, "iPhone 13", "Sous garantie", 1, "Téléphones", "Yaoundé", false, 1));
+
+        // Filtre sur la clé de ville, comme listings.city_id en base
+        assertThat(index.search(List.of("iphone"), null, cityId("Douala"), 0, 10).listingIds()).containsExactly(1L);
+        assertThat(index.search(List.of("iphone"), null, -1L, 0, 10).totalHits()).isZero();
+        assertThat(index.search(List.of("iphone"), 2L, null, 0, 10).totalHits()).isZero();
+
+        // Vendue: retirée de l'index
+        index.remove(1L);
+        assertThat(index.search(List.of("iphone"), null, null, 0, 10).listingIds()).containsExactly(2L);
+
+        // Modifiée: l'ancien titre ne correspond plus
+        index.index(listing(2, "Samsung Galaxy", "Sous garantie", 1, "Téléphones", "Yaoundé", false, 1));
+        assertThat(index.search(List.of("iphone"), null, null, 0, 10).totalHits()).isZero();
+        assertThat(index.search(List.of("galaxy"), null, null, 0, 10).listingIds()).containsExactly(2L);
+        assertThat(index.size()).isEqualTo(1);
+    }
+
+    @Test
+    void premiumAndRecentListingsAreBoosted() {
+        ListingSearchIndex index = new ListingSearchIndex();
+        index.index(listing(1, "Moto Yamaha", "Bon état", 3, "Véhicules", "Douala", false, 90));
+        index.index(listing(2, "Moto Yamaha", "Bon état", 3, "Véhicules", "Douala", false, 0));
+        index.index(listing(3, "Moto Yamaha", "Bon état", 3, "Véhicules", "Douala", true, 90));
+
+        List<Long> ids = index.search(List.of("moto"), null, null, 0, 10).listingIds();
+
+        assertThat(ids).hasSize(3);
+        assertThat(ids.get(2)).isEqualTo(1L);
+    }
+
+    @Test
+    void paginationSurvivesCompaction() {
+        ListingSearchIndex index = new ListingSearchIndex();
+        for (long id = 1; id <= 3_000; id++) {
+            index.index(listing(id, "Poulets de chair " + id, "Élevage local", 4, "Agriculture", "Bafoussam", false, 1));
+        }
+        // Plus de 20% de suppressions déclenche le compactage
+        for (long id = 1; id <= 1_000; id++) {
+            index.remove(id);
+        }
+
+        SearchHits firstPage = index.search(List.of("poulet"), null, null, 0, 20);
+        SearchHits secondPage = index.search(List.of("poulet"), null, null, 20, 20);
+
+        assertThat(firstPage.totalHits()).isEqualTo(2_000);
+        assertThat(firstPage.listingIds()).hasSize(20).doesNotContainAnyElementsOf(secondPage.listingIds());
+        assertThat(firstPage.listingIds()).allMatch(id -> id > 1_000);
+    }
+
+    @Test
+    void keysetPagesNeitherRepeatNorSkipListings() {
+        ListingSearchIndex index = new ListingSearchIndex();
+        for (long id = 1; id <= 250; id++) {
+            index.index(listing(id, "Robe en wax " + id, "Taille " + (id % 7), 5, "Mode", "Douala",
+                    id % 5 == 0, (int) (id % 30)));
+        }
+        long scoredAt = System.currentTimeMillis();
+
+        List<Long> seen = new ArrayList<>();
+        SearchHits page = index.searchAfter(List.of("robe"), null, null, null, null, scoredAt, 40);
+        seen.addAll(page.listingIds());
+        while (page.hasMore()) {
+            Long lastId = page.listingIds().get(page.listingIds().size() - 1);
+            // Pages suivantes demandées plus tard: même instant de référence, même classement
+            page = index.searchAfter(List.of("robe"), null, null, page.lastScore(), lastId, scoredAt, 40);
+            seen.addAll(page.listingIds());
+        }
+
+        assertThat(seen).hasSize(250).doesNotHaveDuplicates();
+    }
+
+    /**
+     * Latence sur un corpus de 500k annonces synthétiques
+     * mvn test -Dtest=ListingSearchIndexTests -Dsearch.benchmark=true
+     */
+    @Test
+    @EnabledIfSystemProperty(named = "search.benchmark", matches = "true")
+    void p99LatencyOnLargeCorpus() {
+        String[] vocabulary = {"iphone", "samsung", "toyota", "corolla", "appartement", "studio", "robe",
+                "perruque", "ordinateur", "television", "moto", "yamaha", "poulet", "cours", "chaussure",
+                "canape", "frigo", "climatiseur", "terrain", "chambre"};
+        Random random = new Random(42);
+
+        // Descriptions tirées d'un vocabulaire de 5000 mots: chaque terme recherché figure dans ~10% des annonces
+        ListingSearchIndex index = new ListingSearchIndex();
+        for (long id = 1; id <= 500_000; id++) {
+            StringBuilder description = new StringBuilder();
+            for (int w = 0; w < 12; w++) {
+                description.append("mot").append(random.nextInt(5_000)).append(' ');
+            }
+            description.append(vocabulary[random.nextInt(vocabulary.length)]);
+            index.index(listing(id,
+                    vocabulary[random.nextInt(vocabulary.length)] + " mot" + random.nextInt(5_000),
+                    description.toString(), 1 + random.nextInt(12), "Catégorie",
+                    CITIES.get(random.nextInt(CITIES.size())), random.nextInt(50) == 0, random.nextInt(365)));
+        }
+
+        // Préchauffage JIT
+        for (int i = 0; i < 300; i++) {
+            index.search(List.of(vocabulary[i % vocabulary.length]), null, null, 0, 20);
+        }
+
+        int runs = 1_000;
+        long[] durations = new long[runs];
+        for (int i = 0; i < runs; i++) {
+            String term = vocabulary[random.nextInt(vocabulary.length)];
+            long start = System.nanoTime();
+            index.search(List.of(term), null, (long) 1 + random.nextInt(CITIES.size()), 0, 20);
+            durations[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(durations);
+        double p99Millis = durations[(int) (runs * 0.99)] / 1_000_000.0;
+        System.out.println("🔎 p99 recherche en mémoire (500k annonces): " + p99Millis + " ms");
+
+        assertThat(p99Millis).isLessThan(5.0);
+    }
+}
@@ -0,0 +1,61 @@
+package com.camerannonces.service;
+
+import com.camerannonces.dto.AuthenticatedUser;
+import com.camerannonces.enums.PlanType;
+import com.camerannonces.event.UserChangedEvent;
+import com.camerannonces.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests du cache des utilisateurs authentifiés (repository remplacé par un mock)
+ */
+class AuthenticatedUserCacheTests {
+
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final AuthenticatedUserCache cache = new AuthenticatedUserCache();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(cache, "userRepository", userRepository);
+        ReflectionTestUtils.setField(cache, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(cache, "maxSize", 100L);
+        ReflectionTestUtils.setField(cache, "ttlSeconds", 30L);
+        cache.init();
+    }
+
+    @Test
+    void multiImageUploadLoadsUserOnce() {
+        when(userRepository.findAuthenticatedUser(7L))
+                .thenReturn(Optional.of(new AuthenticatedUser(7L, "237690000000", PlanType.PRO, true)));
+
+        for (int i = 0; i < 10; i++) {
+            assertThat(cache.require(7L).plan()).isEqualTo(PlanType.PRO);
+        }
+        verify(userRepository, times(1)).findAuthenticatedUser(7L);
+    }
+
+    @Test
+    void suspensionIsVisibleAfterInvalidation() {
+        when(userRepository.findAuthenticatedUser(8L))
+                .thenReturn(Optional.of(new AuthenticatedUser(8L, "237690000001", PlanType.GRATUIT, true)))
+                .thenReturn(Optional.of(new AuthenticatedUser(8L, "237690000001", PlanType.GRATUIT, false)));
+
+        cache.require(8L);
+        cache.onUserChanged(new UserChangedEvent(8L));
+
+        assertThatThrownBy(() -> cache.require(8L)).hasMessage("Compte suspendu");
+        assertThatThrownBy(() -> cache.require(null)).hasMessage("Utilisateur non authentifié");
+    }
+}
@@ -0,0 +1,140 @@
+package com.camerannonces.service;
+
+import com.camerannonces.ListingFixture;
+import com.camerannonces.enums.PlanType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.function.IntSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Plans expirés et signalements anciens sur 1 000 000 lignes: tout est traité,
+ * et le tas utilisé reste borné (aucune entité chargée, lots de 1000 ids)
+ * Les jobs portent sur toute la base: les attendus sont comptés globalement avant le traitement
+ * mvn test -Dtest=ExpiryBatchJobsTests -Dexpiry.stress=true
+ */
+@EnabledIfSystemProperty(named = "expiry.stress", matches = "true")
+@SpringBootTest(properties = {"user.plan-expiry.cron=-", "moderation.report-expiry.cron=-"})
+@ActiveProfiles("test")
+class ExpiryBatchJobsTests {
+
+    private static final int ROWS = 1_000_000;
+
+    // Charger 1M entités demanderait plusieurs centaines de Mo
+    private static final long MAX_HEAP_GROWTH = 64L * 1024 * 1024;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private ModerationService moderationService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private ListingFixture fixture;
+    private String prefix;
+    private long listingId;
+
+    @BeforeEach
+    void seed() {
+        prefix = String.format("241%03d", System.nanoTime() % 1_000);
+
+        // Moitié des plans expirés, moitié encore valides
+        jdbcTemplate.update(
+                "INSERT INTO users (nom, telephone, mot_de_passe, is_boutique, plan_actuel, date_expiration_plan, " +
+                        "is_active, email_verified, phone_verified, country_code, date_creation) " +
+                        "SELECT 'Vendeur lot', ? || lpad(n::text, 9, '0'), 'secret', false, 'PRO', " +
+                        "now() + CASE WHEN n % 2 = 0 THEN interval '-1 day' ELSE interval '1 day' END, " +
+                        "true, false, false, '+237', now() " +
+                        "FROM generate_series(1, ?) n",
+                prefix, ROWS);
+
+        // Vendeur GRATUIT sans date d'expiration: hors du périmètre du job des plans
+        fixture = ListingFixture.create(jdbcTemplate, "lot", PlanType.GRATUIT);
+        listingId = fixture.addListing("Annonce signalée");
+
+        // Signalements sur deux ans: en attente, traités, rejetés
+        jdbcTemplate.update(
+                "INSERT INTO signals (listing_id, motif, statut, date_signalement) " +
+                        "SELECT ?, 'SPAM', (ARRAY['EN_ATTENTE', 'EN_ATTENTE', 'TRAITE', 'REJETE'])[1 + n % 4], " +
+                        "now() - (n % 730) * interval '1 day' " +
+                        "FROM generate_series(1, ?) n",
+                listingId, ROWS);
+        jdbcTemplate.execute("ANALYZE users, signals");
+    }
+
+    @AfterEach
+    void cleanUp() {
+        fixture.remove();
+        jdbcTemplate.update("DELETE FROM users WHERE telephone LIKE ?", prefix + "%");
+    }
+
+    @Test
+    void expiredPlansAreResetInConstantMemory() throws Exception {
+        long expected = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM users WHERE telephone LIKE ? AND date_expiration_plan < now()",
+                Long.class, prefix + "%");
+
+        long expectedGlobal = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM users WHERE date_expiration_plan < now() AND plan_actuel <> 'GRATUIT'",
+                Long.class);
+
+        int reset = withPeakHeapCheck("plans expirés", userService::resetExpiredPlans);
+
+        assertThat(reset).isEqualTo((int) expectedGlobal);
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM users WHERE telephone LIKE ? AND plan_actuel = 'GRATUIT'",
+                Long.class, prefix + "%")).isEqualTo(expected);
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM users WHERE telephone LIKE ? AND plan_actuel = 'PRO'",
+                Long.class, prefix + "%")).isEqualTo(ROWS - expected);
+    }
+
+    @Test
+    void oldPendingReportsExpireInConstantMemory() throws Exception {
+        long expected = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM signals WHERE listing_id = ? AND statut = 'EN_ATTENTE' " +
+                        "AND date_signalement < now() - interval '30 days'",
+                Long.class, listingId);
+
+        long expectedGlobal = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM signals WHERE statut = 'EN_ATTENTE' " +
+                        "AND date_signalement < now() - interval '30 days'",
+                Long.class);
+
+        int expired = withPeakHeapCheck("signalements", () -> moderationService.processOldReports(30));
+
+        assertThat(expired).isEqualTo((int) expectedGlobal);
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM signals WHERE listing_id = ? AND statut = 'EXPIRE'",
+                Long.class, listingId)).isEqualTo(expected);
+        // Signalements traités ou rejetés: intacts
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM signals WHERE listing_id = ? AND statut IN ('TRAITE', 'REJETE') " +
+                        "AND date_traitement IS NOT NULL",
+                Long.class, listingId)).isZero();
+    }
+
+    /**
+     * Exécuter le traitement en mesurant le tas retenu (PeakHeap): la hausse maximale doit rester bornée
+     */
+    private int withPeakHeapCheck(String label, IntSupplier job) throws Exception {
+        int[] processed = new int[1];
+        long start = System.currentTimeMillis();
+        long growth = PeakHeap.measure(250, () -> processed[0] = job.getAsInt());
+
+        System.out.println("📊 " + label + ": " + processed[0] + " lignes en " + (System.currentTimeMillis() - start)
+                + " ms, hausse max du tas " + growth / (1024 * 1024) + " Mo");
+        assertThat(growth).isLessThan(MAX_HEAP_GROWTH);
+        return processed[0];
+    }
+}
@@ -0,0 +1,138 @@
+package com.camerannonces.service;
+
+import com.camerannonces.event.ListingImageUploadedEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.GradientPaint;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Décodage en mémoire bornée: dimensions lues sans décoder, lecture sous-échantillonnée,
+ * et 50 uploads simultanés de photos 4000x3000 sans dépasser le budget mémoire
+ * (décodées entièrement: 48 Mo chacune, 2,4 Go en tout)
+ */
+class ImageDecodingMemoryTests {
+
+    private static final int UPLOADS = 50;
+    private static final int BUDGET_MB = 64;
+
+    // Budget de décodage + JPEG encodés et marge du GC
+    private static final long MAX_HEAP_GROWTH = 2L * BUDGET_MB * 1024 * 1024;
+
+    private static byte[] photo;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ImageDecoder imageDecoder = new ImageDecoder();
+
+    @BeforeAll
+    static void createPhoto() throws IOException {
+        BufferedImage image = new BufferedImage(4000, 3000, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = image.createGraphics();
+        graphics.setPaint(new GradientPaint(0, 0, Color.ORANGE, 4000, 3000, Color.BLUE));
+        graphics.fillRect(0, 0, 4000, 3000);
+        graphics.dispose();
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "jpg", out);
+        photo = out.toByteArray();
+    }
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(imageDecoder, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(imageDecoder, "maxMemoryMb", BUDGET_MB);
+        ReflectionTestUtils.setField(imageDecoder, "maxPixels", 50_000_000L);
+        imageDecoder.init();
+    }
+
+    @Test
+    void dimensionsAreReadFromHeaderOnly() {
+        imageDecoder.probe(photo); // Chargement des classes ImageIO hors mesure
+
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long before = threads.getCurrentThreadAllocatedBytes();
+        ImageDecoder.Dimensions dimensions = imageDecoder.probe(photo);
+        long allocated = threads.getCurrentThreadAllocatedBytes() - before;
+
+        assertThat(dimensions).isEqualTo(new ImageDecoder.Dimensions(4000, 3000));
+        assertThat(allocated).isLessThan(1024 * 1024);
+    }
+
+    @Test
+    void decodingIsSubsampledTowardsTarget() {
+        int[] large = imageDecoder.decode(photo, 1200, 0, image -> new int[]{image.getWidth(), image.getHeight()});
+        int[] thumbnail = imageDecoder.decode(photo, 300, 300, image -> new int[]{image.getWidth(), image.getHeight()});
+
+        // Jamais plus petite que la cible, jamais deux fois plus grande
+        assertThat(large[0]).isBetween(1200, 2399);
+        assertThat(large[1]).isEqualTo(1000);
+        assertThat(thumbnail[0]).isGreaterThanOrEqualTo(300);
+        assertThat(thumbnail[1]).isBetween(300, 599);
+    }
+
+    @Test
+    void fiftyParallelUploadsStayWithinDecodeBudget() throws Exception {
+        ImageService imageService = mock(ImageService.class);
+        BackblazeB2Service backblazeService = mock(BackblazeB2Service.class);
+        when(backblazeService.uploadBytes(any(), anyString(), anyString(), anyString()))
+                .thenAnswer(call -> "https://b2.test/bucket/" + call.getArgument(2) + "/" + System.nanoTime() + ".jpg");
+        when(imageService.completeProcessing(anyLong(), anyString(), anyString(), anyString())).thenReturn(true);
+
+        // Pire configuration: autant de workers que d'uploads, seule la mémoire de décodage limite
+        ImageProcessingPipeline pipeline = new ImageProcessingPipeline();
+        ReflectionTestUtils.setField(pipeline, "imageService", imageService);
+        ReflectionTestUtils.setField(pipeline, "imageDecoder", imageDecoder);
+        ReflectionTestUtils.setField(pipeline, "backblazeService", backblazeService);
+        ReflectionTestUtils.setField(pipeline, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(pipeline, "thumbnailSize", 300);
+        ReflectionTestUtils.setField(pipeline, "workers", UPLOADS);
+        ReflectionTestUtils.setField(pipeline, "queueCapacity", UPLOADS);
+        ReflectionTestUtils.setField(pipeline, "uploadThreads", 8);
+        pipeline.start();
+
+        long start = System.currentTimeMillis();
+        long growth;
+        try {
+            growth = PeakHeap.measure(20, () -> {
+                for (long id = 1; id <= UPLOADS; id++) {
+                    pipeline.onImageUploaded(new ListingImageUploadedEvent(id, 1L, photo));
+                }
+                verify(imageService, timeout(120_000).times(UPLOADS))
+                        .completeProcessing(anyLong(), anyString(), anyString(), anyString());
+            });
+        } finally {
+            pipeline.stop();
+        }
+
+        System.out.println("📊 " + UPLOADS + " uploads 4000x3000 en " + (System.currentTimeMillis() - start)
+                + " ms, hausse max du tas " + growth / (1024 * 1024) + " Mo");
+        assertThat(growth).isLessThan(MAX_HEAP_GROWTH);
+        assertThat(meterRegistry.timer("image.decode.wait").count()).isEqualTo(UPLOADS);
+    }
+
+    // Toute la mémoire réservée est rendue, même après une erreur
+    @AfterEach
+    void checkBudgetReleased() {
+        assertThat(meterRegistry.get("image.decode.memory.available").gauge().value()).isEqualTo(BUDGET_MB);
+    }
+}
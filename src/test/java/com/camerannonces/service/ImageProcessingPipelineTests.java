@@ -0,0 +1,169 @@
+package com.camerannonces.service;
+
+import com.camerannonces.enums.ImageStatus;
+import com.camerannonces.event.ListingImageUploadedEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests du traitement asynchrone des images (ImageService et B2 remplacés par des mocks)
+ */
+class ImageProcessingPipelineTests {
+
+    private final ImageService imageService = mock(ImageService.class);
+    private final BackblazeB2Service backblazeService = mock(BackblazeB2Service.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ImageProcessingPipeline pipeline = new ImageProcessingPipeline();
+
+    // Variantes "uploadées", par dossier
+    private final Map<String, byte[]> uploaded = new ConcurrentHashMap<>();
+
+    @BeforeEach
+    void setUp() {
+        ImageDecoder imageDecoder = new ImageDecoder();
+        ReflectionTestUtils.setField(imageDecoder, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(imageDecoder, "maxMemoryMb", 64);
+        ReflectionTestUtils.setField(imageDecoder, "maxPixels", 50_000_000L);
+        imageDecoder.init();
+
+        ReflectionTestUtils.setField(pipeline, "imageService", imageService);
+        ReflectionTestUtils.setField(pipeline, "imageDecoder", imageDecoder);
+        ReflectionTestUtils.setField(pipeline, "backblazeService", backblazeService);
+        ReflectionTestUtils.setField(pipeline, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(pipeline, "thumbnailSize", 300);
+        ReflectionTestUtils.setField(pipeline, "workers", 2);
+        ReflectionTestUtils.setField(pipeline, "queueCapacity", 4);
+        ReflectionTestUtils.setField(pipeline, "uploadThreads", 3);
+        pipeline.start();
+
+        when(backblazeService.uploadBytes(any(), eq("image/jpeg"), anyString(), eq(".jpg"))).thenAnswer(call -> {
+            String folder = call.getArgument(2);
+            uploaded.put(folder, call.getArgument(0));
+            return "https://b2.test/bucket/" + folder + "/image.jpg";
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        pipeline.stop();
+    }
+
+    @Test
+    void uploadProducesThreeVariantsFromOneDecode() throws Exception {
+        when(imageService.completeProcessing(eq(1L), anyString(), anyString(), anyString())).thenReturn(true);
+
+        pipeline.onImageUploaded(new ListingImageUploadedEvent(1L, 10L, jpeg(4000, 3000)));
+
+        verify(imageService, timeout(30_000)).completeProcessing(1L,
+                "https://b2.test/bucket/listings/image.jpg",
+                "https://b2.test/bucket/listings/medium/image.jpg",
+                "https://b2.test/bucket/listings/thumbnails/image.jpg");
+        assertThat(width("listings")).isEqualTo(1200);
+        assertThat(width("listings/medium")).isEqualTo(600);
+        assertThat(width("listings/thumbnails")).isEqualTo(300);
+        assertThat(meterRegistry.timer("image.pipeline.stage", "stage", "decode").count()).isEqualTo(1);
+        assertThat(meterRegistry.timer("image.pipeline.stage", "stage", "upload").count()).isEqualTo(1);
+    }
+
+    @Test
+    void smallImageIsNeverEnlarged() throws Exception {
+        when(imageService.completeProcessing(eq(2L), anyString(), anyString(), anyString())).thenReturn(true);
+
+        pipeline.onImageUploaded(new ListingImageUploadedEvent(2L, 10L, jpeg(500, 400)));
+        verify(imageService, timeout(30_000)).completeProcessing(eq(2L), anyString(), anyString(), anyString());
+
+        assertThat(width("listings")).isEqualTo(500);
+        assertThat(width("listings/medium")).isEqualTo(500);
+        assertThat(width("listings/thumbnails")).isEqualTo(300);
+    }
+
+    @Test
+    void waitingClientIsNotifiedWhenProcessingEnds() throws Exception {
+        when(imageService.completeProcessing(eq(5L), anyString(), anyString(), anyString())).thenReturn(true);
+        // Workers occupés: l'image reste en file le temps de récupérer le futur
+        CountDownLatch release = new CountDownLatch(1);
+        when(imageService.completeProcessing(eq(6L), anyString(), anyString(), anyString())).thenAnswer(call -> {
+            release.await(30, TimeUnit.SECONDS);
+            return true;
+        });
+        when(imageService.completeProcessing(eq(7L), anyString(), anyString(), anyString())).thenAnswer(call -> {
+            release.await(30, TimeUnit.SECONDS);
+            return true;
+        });
+        pipeline.onImageUploaded(new ListingImageUploadedEvent(6L, 10L, jpeg(100, 100)));
+        pipeline.onImageUploaded(new ListingImageUploadedEvent(7L, 10L, jpeg(100, 100)));
+        pipeline.onImageUploaded(new ListingImageUploadedEvent(5L, 10L, jpeg(100, 100)));
+
+        CompletableFuture<ImageStatus> processed = pipeline.whenProcessed(5L);
+        assertThat(processed).isNotDone();
+        assertThat(meterRegistry.get("image.pipeline.queue.depth").gauge().value()).isEqualTo(1);
+
+        release.countDown();
+        assertThat(processed.get(30, TimeUnit.SECONDS)).isEqualTo(ImageStatus.PRET);
+        assertThat(pipeline.whenProcessed(5L)).isNull();
+    }
+
+    @Test
+    void unreadableImageIsMarkedAsFailed() {
+        pipeline.onImageUploaded(new ListingImageUploadedEvent(3L, 10L, new byte[]{1, 2, 3}));
+
+        verify(imageService, timeout(30_000)).failProcessing(3L);
+        verify(backblazeService, never()).uploadBytes(any(), anyString(), anyString(), anyString());
+    }
+
+    @Test
+    void filesAreDeletedWhenImageWasRemovedDuringProcessing() throws Exception {
+        // Enregistrement retenu le temps de récupérer le futur
+        CountDownLatch followed = new CountDownLatch(1);
+        when(imageService.completeProcessing(eq(4L), anyString(), anyString(), anyString())).thenAnswer(call -> {
+            followed.await(30, TimeUnit.SECONDS);
+            return false;
+        });
+
+        pipeline.onImageUploaded(new ListingImageUploadedEvent(4L, 10L, jpeg(800, 600)));
+        CompletableFuture<ImageStatus> processed = pipeline.whenProcessed(4L);
+        followed.countDown();
+
+        assertThat(processed.get(30, TimeUnit.SECONDS)).isEqualTo(ImageStatus.SUPPRIMEE);
+        verify(backblazeService).deleteFile("https://b2.test/bucket/listings/image.jpg");
+        verify(backblazeService).deleteFile("https://b2.test/bucket/listings/medium/image.jpg");
+        verify(backblazeService).deleteFile("https://b2.test/bucket/listings/thumbnails/image.jpg");
+        assertThat(meterRegistry.counter("image.pipeline.images", "result", "supprime").count()).isEqualTo(1);
+        assertThat(meterRegistry.counter("image.pipeline.images", "result", "pret").count()).isZero();
+    }
+
+    private int width(String folder) throws IOException {
+        return ImageIO.read(new ByteArrayInputStream(uploaded.get(folder))).getWidth();
+    }
+
+    private static byte[] jpeg(int width, int height) throws IOException {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "jpg", out);
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,67 @@
+package com.camerannonces.service;
+
+import com.camerannonces.ListingFixture;
+import com.camerannonces.entity.Listing;
+import com.camerannonces.enums.PlanType;
+import com.camerannonces.repository.ListingRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Un save() de l'annonce ne réécrit jamais les compteurs: les incréments vidés entre
+ * le chargement et l'enregistrement sont conservés
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class ListingCounterPersistenceTests {
+
+    @Autowired
+    private ListingRepository listingRepository;
+
+    @Autowired
+    private ListingCounterBuffer listingCounterBuffer;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private ListingFixture fixture;
+    private long listingId;
+
+    @BeforeEach
+    void seed() {
+        fixture = ListingFixture.create(jdbcTemplate, "compteurs", PlanType.GRATUIT);
+        listingId = fixture.addListing("Téléphone reconditionné");
+    }
+
+    @AfterEach
+    void cleanUp() {
+        fixture.remove();
+    }
+
+    @Test
+    void countersFlushedBetweenLoadAndSaveSurvive() {
+        Listing listing = listingRepository.findById(listingId).orElseThrow();
+
+        for (int i = 0; i < 3; i++) {
+            listingCounterBuffer.incrementViews(listingId);
+        }
+        listingCounterBuffer.incrementWhatsappContacts(listingId);
+        listingCounterBuffer.flush();
+
+        // Entité chargée avant le vidage: vues et contacts encore à 0
+        listing.setTitre("Téléphone reconditionné, garantie 6 mois");
+        listingRepository.save(listing);
+
+        assertThat(jdbcTemplate.queryForMap("SELECT titre, vues, contacts_whatsapp FROM listings WHERE id = ?", listingId))
+                .containsEntry("titre", "Téléphone reconditionné, garantie 6 mois")
+                .containsEntry("vues", 3)
+                .containsEntry("contacts_whatsapp", 1);
+    }
+}
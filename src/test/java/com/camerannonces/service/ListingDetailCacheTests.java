@@ -0,0 +1,135 @@
+package com.camerannonces.service;
+
+import com.camerannonces.dto.ListingDetailView;
+import com.camerannonces.entity.Category;
+import com.camerannonces.entity.Listing;
+import com.camerannonces.entity.User;
+import com.camerannonces.event.ListingCountersFlushedEvent;
+import com.camerannonces.repository.ListingImageRepository;
+import com.camerannonces.repository.ListingRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests du cache des détails d'annonce (repositories remplacés par des mocks comptant les chargements)
+ */
+class ListingDetailCacheTests {
+
+    private final ListingRepository listingRepository = mock(ListingRepository.class);
+    private final AtomicInteger loads = new AtomicInteger();
+
+    private ListingDetailCache cache;
+
+    @BeforeEach
+    void setUp() {
+        ListingImageRepository listingImageRepository = mock(ListingImageRepository.class);
+        when(listingImageRepository.findByListingIdOrderByOrdreAffichage(anyLong())).thenReturn(List.of());
+
+        cache = new ListingDetailCache();
+        ReflectionTestUtils.setField(cache, "listingRepository", listingRepository);
+        ReflectionTestUtils.setField(cache, "listingImageRepository", listingImageRepository);
+        ReflectionTestUtils.setField(cache, "transactionManager", mock(PlatformTransactionManager.class));
+        ReflectionTestUtils.setField(cache, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(cache, "maxSize", 100L);
+        ReflectionTestUtils.setField(cache, "ttlSeconds", 600L);
+        cache.init();
+    }
+
+    @Test
+    void concurrentMissesShareOneLoad() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        when(listingRepository.findById(1L)).thenAnswer(invocation -> {
+            loads.incrementAndGet();
+            release.await(5, TimeUnit.SECONDS);
+            return Optional.of(listing(1L, 10));
+        });
+
+        int threads = 16;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<Optional<ListingDetailView>>> results = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            results.add(executor.submit(() -> cache.get(1L)));
+        }
+        // Laisser les requêtes rejoindre le chargement en cours
+        Thread.sleep(200);
+        release.countDown();
+
+        for (Future<Optional<ListingDetailView>> result : results) {
+            assertThat(result.get(5, TimeUnit.SECONDS)).isPresent();
+        }
+        executor.shutdown();
+
+        assertThat(loads.get()).isEqualTo(1);
+        cache.get(1L);
+        assertThat(loads.get()).isEqualTo(1);
+    }
+
+    @Test
+    void loadCrossingAnInvalidationIsNotKept() {
+        when(listingRepository.findById(2L)).thenAnswer(invocation -> {
+            // Modification commitée pendant la lecture
+            if (loads.incrementAndGet() == 1) {
+                cache.invalidate(2L);
+            }
+            return Optional.of(listing(2L, 10));
+        });
+
+        assertThat(cache.get(2L)).isPresent();
+        assertThat(cache.get(2L)).isPresent();
+        assertThat(cache.get(2L)).isPresent();
+
+        // Premier chargement servi mais pas gardé, le second est en cache
+        assertThat(loads.get()).isEqualTo(2);
+    }
+
+    @Test
+    void flushedCountersAreNeverCountedTwice() {
+        // Détail chargé entre le commit du vidage et l'événement: la base contient déjà les 5 vues
+        when(listingRepository.findById(3L)).thenAnswer(invocation -> {
+            loads.incrementAndGet();
+            return Optional.of(listing(3L, 15));
+        });
+        cache.get(3L);
+
+        cache.onCountersFlushed(new ListingCountersFlushedEvent(Map.of(3L, new long[]{5, 2})));
+
+        ListingDetailView detail = cache.get(3L).orElseThrow();
+        assertThat(detail.vues()).isEqualTo(15);
+        assertThat(loads.get()).isEqualTo(2);
+    }
+
+    private static Listing listing(Long id, int vues) {
+        User user = new User("Vendeur", "237690000000", "secret");
+        user.setId(7L);
+        Category category = new Category("Téléphones", null, "📱");
+        category.setId(3L);
+
+        Listing listing = new Listing();
+        listing.setId(id);
+        listing.setTitre("Annonce " + id);
+        listing.setUser(user);
+        listing.setCategory(category);
+        listing.setVues(vues);
+        listing.setContactsWhatsapp(0);
+        return listing;
+    }
+}
@@ -0,0 +1,115 @@
+package com.camerannonces.service;
+
+import com.camerannonces.ListingFixture;
+import com.camerannonces.enums.PlanType;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.Statement;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Expiration par lots: toutes les annonces échues passent en EXPIRE, listing_stats suit,
+ * et un passage est sauté quand une autre instance tient le verrou
+ * Passage planifié repoussé: seuls les appels du test prennent le verrou
+ */
+@SpringBootTest(properties = "listing.expiration.initial-delay-ms=3600000")
+@ActiveProfiles("test")
+class ListingExpirationJobTests {
+
+    private static final int EXPIRED = 2_500;
+    private static final int STILL_ACTIVE = 300;
+
+    @Autowired
+    private ListingExpirationJob job;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private ListingFixture fixture;
+    private long userId;
+    private long categoryId;
+
+    @BeforeEach
+    void seed() {
+        fixture = ListingFixture.create(jdbcTemplate, "expiration", PlanType.GRATUIT);
+        userId = fixture.userId();
+        categoryId = fixture.categoryId();
+
+        jdbcTemplate.update(
+                "INSERT INTO listings (user_id, category_id, titre, description, ville, telephone_contact, " +
+                        "vues, contacts_whatsapp, statut, date_creation, date_expiration) " +
+                        "SELECT ?, ?, 'Annonce ' || n, 'Description', 'Douala', '237690000000', 0, 0, 'ACTIVE', " +
+                        "now() - interval '30 days', " +
+                        "CASE WHEN n <= ? THEN now() - n * interval '1 minute' ELSE now() + interval '1 day' END " +
+                        "FROM generate_series(1, ?) n",
+                userId, categoryId, EXPIRED, EXPIRED + STILL_ACTIVE);
+
+        ReflectionTestUtils.setField(job, "chunkSize", 1_000);
+    }
+
+    @AfterEach
+    void cleanUp() {
+        fixture.remove();
+    }
+
+    @Test
+    void dueListingsAreExpiredInChunks() {
+        long chunksBefore = meterRegistry.timer("listing.expiration.chunk").count();
+
+        job.run();
+
+        assertThat(countByStatus("EXPIRE")).isEqualTo(EXPIRED);
+        assertThat(countByStatus("ACTIVE")).isEqualTo(STILL_ACTIVE);
+        assertThat(meterRegistry.timer("listing.expiration.chunk").count() - chunksBefore).isGreaterThanOrEqualTo(3);
+        assertThat(meterRegistry.get("listing.expiration.backlog").gauge().value()).isZero();
+
+        // Annonces insérées sans listing_stats: seuls les deltas du passage apparaissent
+        assertThat(stat("ACTIVE")).isEqualTo(-EXPIRED);
+        assertThat(stat("EXPIRE")).isEqualTo(EXPIRED);
+    }
+
+    @Test
+    void runIsSkippedWhileAnotherNodeHoldsTheLock() throws Exception {
+        try (Connection other = dataSource.getConnection(); Statement statement = other.createStatement()) {
+            statement.execute("SELECT pg_advisory_lock(hashtext('job:listing-expiration'))");
+            double skipped = meterRegistry.counter("listing.expiration.runs", "result", "skipped").count();
+
+            job.run();
+
+            assertThat(countByStatus("EXPIRE")).isZero();
+            assertThat(meterRegistry.counter("listing.expiration.runs", "result", "skipped").count())
+                    .isEqualTo(skipped + 1);
+            statement.execute("SELECT pg_advisory_unlock(hashtext('job:listing-expiration'))");
+        }
+
+        job.run();
+        assertThat(countByStatus("EXPIRE")).isEqualTo(EXPIRED);
+    }
+
+    private long countByStatus(String statut) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM listings WHERE user_id = ? AND statut = ?",
+                Long.class, userId, statut);
+    }
+
+    private long stat(String statut) {
+        return jdbcTemplate.queryForObject("SELECT COALESCE(SUM(total), 0) FROM listing_stats " +
+                "WHERE dimension = 'CATEGORY' AND cle = ? AND statut = ?", Long.class, String.valueOf(categoryId), statut);
+    }
+}
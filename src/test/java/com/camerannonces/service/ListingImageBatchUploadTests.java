@@ -0,0 +1,170 @@
+package com.camerannonces.service;
+
+import com.camerannonces.ListingFixture;
+import com.camerannonces.dto.AuthenticatedUser;
+import com.camerannonces.enums.PlanType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.web.multipart.MultipartFile;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Upload multiple: vérifications une seule fois, une requête INSERT, ordre et image principale conservés,
+ * limite du plan respectée même avec deux envois simultanés
+ * Le traitement des variantes démarre après le commit (B2 remplacé par un mock)
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class ListingImageBatchUploadTests {
+
+    @Autowired
+    private ImageService imageService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @MockitoBean
+    private BackblazeB2Service backblazeService;
+
+    private ListingFixture fixture;
+    private long listingId;
+    private AuthenticatedUser user;
+
+    @BeforeEach
+    void seed() {
+        fixture = ListingFixture.create(jdbcTemplate, "images", PlanType.PRO);
+        listingId = fixture.addListing("Annonce avec photos");
+
+        // Deux images déjà en ligne: 8 places restantes sur 10 (PRO)
+        jdbcTemplate.update(
+                "INSERT INTO listing_images (listing_id, url, nom_fichier, taille_fichier, is_principale, " +
+                        "ordre_affichage, statut_traitement, date_upload) " +
+                        "SELECT ?, 'https://img.test/' || n || '.jpg', 'existante-' || n || '.jpg', 1000, false, n, 'PRET', now() " +
+                        "FROM generate_series(1, 2) n",
+                listingId);
+        user = new AuthenticatedUser(fixture.userId(), fixture.telephone(), PlanType.PRO, true);
+
+        when(backblazeService.uploadBytes(any(), anyString(), anyString(), anyString()))
+                .thenAnswer(call -> "https://b2.test/bucket/" + call.getArgument(2) + "/" + System.nanoTime() + ".jpg");
+    }
+
+    @AfterEach
+    void cleanUp() {
+        fixture.remove();
+    }
+
+    @Test
+    void batchKeepsOrderAndFillsRemainingSlots() throws Exception {
+        List<MultipartFile> files = new ArrayList<>();
+        for (int i = 1; i <= 10; i++) {
+            files.add(i == 2
+                    ? new MockMultipartFile("files", "notes.txt", "text/plain", new byte[]{1})
+                    : jpegFile("photo-" + i + ".jpg"));
+        }
+
+        ImageService.BatchUpload upload = imageService.saveListingImages(listingId, user, files);
+
+        // 9 fichiers valides pour 8 places: le dernier est refusé, le fichier texte aussi
+        assertThat(upload.imageIds()).hasSize(8);
+        assertThat(upload.erreurs()).hasSize(2);
+
+        List<Map<String, Object>> rows = jdbcTemplate.queryForList(
+                "SELECT id, nom_fichier, ordre_affichage, is_principale FROM listing_images " +
+                        "WHERE listing_id = ? AND ordre_affichage > 2 ORDER BY ordre_affichage", listingId);
+        assertThat(rows).extracting(row -> ((Number) row.get("id")).longValue())
+                .containsExactlyElementsOf(upload.imageIds());
+        assertThat(rows).extracting(row -> row.get("nom_fichier")).containsExactly(
+                "photo-1.jpg", "photo-3.jpg", "photo-4.jpg", "photo-5.jpg",
+                "photo-6.jpg", "photo-7.jpg", "photo-8.jpg", "photo-9.jpg");
+        assertThat(rows).extracting(row -> row.get("is_principale"))
+                .containsExactly(true, false, false, false, false, false, false, false);
+
+        // Variantes produites en parallèle: 3 uploads par image, puis toutes PRET
+        verify(backblazeService, timeout(60_000).times(24)).uploadBytes(any(), anyString(), anyString(), anyString());
+        awaitAllReady();
+        assertThat(jdbcTemplate.queryForObject("SELECT main_image_url FROM listings WHERE id = ?", String.class, listingId))
+                .startsWith("https://b2.test/bucket/listings/");
+    }
+
+    @Test
+    void concurrentBatchesNeverExceedPlanLimit() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<ImageService.BatchUpload>> uploads = new ArrayList<>();
+            for (int t = 0; t < 2; t++) {
+                List<MultipartFile> files = new ArrayList<>();
+                for (int i = 1; i <= 6; i++) {
+                    files.add(jpegFile("lot-" + t + "-" + i + ".jpg"));
+                }
+                uploads.add(executor.submit(() -> {
+                    start.await();
+                    return imageService.saveListingImages(listingId, user, files);
+                }));
+            }
+            start.countDown();
+
+            int accepted = 0;
+            for (Future<ImageService.BatchUpload> upload : uploads) {
+                accepted += upload.get().imageIds().size();
+            }
+            assertThat(accepted).isEqualTo(8);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM listing_images WHERE listing_id = ?", Long.class, listingId)).isEqualTo(10);
+        assertThat(jdbcTemplate.queryForList(
+                "SELECT DISTINCT ordre_affichage FROM listing_images WHERE listing_id = ?", Integer.class, listingId))
+                .hasSize(10);
+        verify(backblazeService, timeout(60_000).atLeast(24)).uploadBytes(any(), anyString(), anyString(), anyString());
+        awaitAllReady();
+    }
+
+    private void awaitAllReady() throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 60_000;
+        long pending;
+        do {
+            pending = jdbcTemplate.queryForObject(
+                    "SELECT COUNT(*) FROM listing_images WHERE listing_id = ? AND statut_traitement <> 'PRET'",
+                    Long.class, listingId);
+            if (pending > 0) {
+                Thread.sleep(100);
+            }
+        } while (pending > 0 && System.currentTimeMillis() < deadline);
+        assertThat(pending).isZero();
+    }
+
+    private static MockMultipartFile jpegFile(String name) throws IOException {
+        BufferedImage image = new BufferedImage(64, 48, BufferedImage.TYPE_INT_RGB);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "jpg", out);
+        return new MockMultipartFile("files", name, "image/jpeg", out.toByteArray());
+    }
+}
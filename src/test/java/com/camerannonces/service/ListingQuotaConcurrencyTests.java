@@ -0,0 +1,114 @@
+package com.camerannonces.service;
+
+import com.camerannonces.ListingFixture;
+import com.camerannonces.enums.PlanType;
+import com.camerannonces.reference.ReferenceDataRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Quota de publication sous concurrence: 50 créations simultanées pour un plan PRO (15 / mois),
+ * exactement 15 annonces créées et un compteur à 15
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class ListingQuotaConcurrencyTests {
+
+    private static final int THREADS = 50;
+
+    @Autowired
+    private ListingService listingService;
+
+    @Autowired
+    private ReferenceDataRegistry referenceData;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private ListingFixture fixture;
+    private long userId;
+    private long categoryId;
+    private String ville;
+
+    @BeforeEach
+    void seed() {
+        fixture = ListingFixture.create(jdbcTemplate, "quota", PlanType.PRO);
+        userId = fixture.userId();
+        categoryId = fixture.categoryId();
+        fixture.addCity();
+        ville = fixture.cityName();
+
+        // Compteur du mois précédent: la première réservation doit le remettre à zéro
+        jdbcTemplate.update("UPDATE users SET annonces_publiees_ce_mois = 14, " +
+                "derniere_reinitialisation_compteur = current_date - interval '1 month' WHERE id = ?", userId);
+        referenceData.refresh();
+    }
+
+    @AfterEach
+    void cleanUp() {
+        fixture.remove();
+        referenceData.refresh();
+    }
+
+    @Test
+    void parallelCreatesNeverExceedThePlanLimit() throws Exception {
+        int limit = PlanType.PRO.getMaxAnnonces();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<Boolean>> results = new ArrayList<>();
+
+        try {
+            for (int i = 0; i < THREADS; i++) {
+                int n = i;
+                results.add(executor.submit(() -> {
+                    start.await();
+                    try {
+                        listingService.createListing(userId, categoryId, "Annonce quota " + n, "Description",
+                                1000, true, null, ville, null, null, "237690000000", null,
+                                null, null, null, null, null, null);
+                        return true;
+                    } catch (RuntimeException e) {
+                        assertThat(e.getMessage()).contains("limite d'annonces");
+                        return false;
+                    }
+                }));
+            }
+            start.countDown();
+
+            int created = 0;
+            for (Future<Boolean> result : results) {
+                if (result.get(60, TimeUnit.SECONDS)) {
+                    created++;
+                }
+            }
+
+            assertThat(created).isEqualTo(limit);
+            assertThat(jdbcTemplate.queryForObject(
+                    "SELECT COUNT(*) FROM listings WHERE user_id = ?", Long.class, userId)).isEqualTo(limit);
+            assertThat(jdbcTemplate.queryForObject(
+                    "SELECT annonces_publiees_ce_mois FROM users WHERE id = ?", Integer.class, userId)).isEqualTo(limit);
+            assertThat(jdbcTemplate.queryForObject(
+                    "SELECT derniere_reinitialisation_compteur = current_date FROM users WHERE id = ?",
+                    Boolean.class, userId)).isTrue();
+
+            System.out.println("📊 " + THREADS + " créations simultanées, plan PRO: " + created + " acceptées");
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.camerannonces.service;
+
+import com.camerannonces.entity.Category;
+import com.camerannonces.entity.City;
+import com.camerannonces.entity.Listing;
+import com.camerannonces.entity.Quartier;
+import com.camerannonces.entity.User;
+import com.camerannonces.enums.ListingStatus;
+import com.camerannonces.repository.CategoryRepository;
+import com.camerannonces.repository.CityRepository;
+import com.camerannonces.repository.ListingRepository;
+import com.camerannonces.repository.QuartierRepository;
+import com.camerannonces.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Les compteurs ajustés à chaque transition donnent le même résultat que le recalcul complet
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+class ListingStatsServiceTests {
+
+    @Autowired
+    private ListingStatsService listingStatsService;
+
+    @Autowired
+    private ListingRepository listingRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CityRepository cityRepository;
+
+    @Autowired
+    private QuartierRepository quartierRepository;
+
+    @Test
+    void transitionsMatchReconciliation() {
+        long suffix = System.nanoTime() % 1_000_000_000L;
+        User user = userRepository.save(new User("Vendeur stats", String.format("237%09d", suffix), "secret"));
+        Category category = categoryRepository.save(new Category("Catégorie stats " + suffix, null, "🧪"));
+        City city = cityRepository.save(new City("Ville stats " + suffix, "Littoral"));
+        Quartier akwa = quartierRepository.save(new Quartier("Akwa", city));
+        Quartier bonapriso = quartierRepository.save(new Quartier("Bonapriso", city));
+
+        Listing sold = listing(user, category, city, akwa);
+        Listing suspended = listing(user, category, city, bonapriso);
+        Listing deleted = listing(user, category, city, akwa);
+
+        sold.setStatut(ListingStatus.VENDU);
+        listingStatsService.recordStatusChange(listingRepository.save(sold), ListingStatus.ACTIVE);
+        suspended.setStatut(ListingStatus.SUSPENDU);
+        listingStatsService.recordStatusChange(listingRepository.save(suspended), ListingStatus.ACTIVE);
+        listingStatsService.recordDeleted(deleted);
+        listingRepository.delete(deleted);
+        listingRepository.flush();
+
+        String categoryKey = String.valueOf(category.getId());
+        assertThat(active(ListingStatsService.Dimension.CATEGORY)).doesNotContainKey(categoryKey);
+        assertThat(listingStatsService.countsAllStatuses(ListingStatsService.Dimension.CATEGORY))
+                .containsEntry(categoryKey, 2L);
+        assertThat(listingStatsService.countsByStatus(ListingStatsService.Dimension.QUARTIER, ListingStatus.VENDU))
+                .containsEntry(String.valueOf(akwa.getId()), 1L);
+
+        String cityKey = String.valueOf(city.getId());
+        Map<String, Long> incremental = listingStatsService.countsAllStatuses(ListingStatsService.Dimension.CITY);
+        listingStatsService.reconcile();
+        assertThat(listingStatsService.countsAllStatuses(ListingStatsService.Dimension.CITY))
+                .containsEntry(cityKey, incremental.get(cityKey));
+    }
+
+    private Listing listing(User user, Category category, City city, Quartier quartier) {
+        Listing listing = new Listing();
+        listing.setUser(user);
+        listing.setCategory(category);
+        listing.setTitre("Annonce stats");
+        listing.setDescription("Description");
+        listing.setVille(city.getNom());
+        listing.setCityId(city.getId());
+        listing.setQuartier(quartier.getNom());
+        listing.setQuartierId(quartier.getId());
+        listing.setTelephoneContact("237690000000");
+        listing.setStatut(ListingStatus.ACTIVE);
+        listing = listingRepository.save(listing);
+        listingStatsService.recordCreated(listing);
+        return listing;
+    }
+
+    private Map<String, Long> active(ListingStatsService.Dimension dimension) {
+        return listingStatsService.countsByStatus(dimension, ListingStatus.ACTIVE);
+    }
+}
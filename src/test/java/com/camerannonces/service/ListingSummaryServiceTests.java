@@ -0,0 +1,223 @@
+package com.camerannonces.service;
+
+import com.camerannonces.dto.ListingSummaryView;
+import com.camerannonces.entity.Category;
+import com.camerannonces.entity.Listing;
+import com.camerannonces.entity.ListingImage;
+import com.camerannonces.entity.User;
+import com.camerannonces.enums.ListingStatus;
+import com.camerannonces.repository.CategoryRepository;
+import com.camerannonces.repository.ListingImageRepository;
+import com.camerannonces.repository.ListingRepository;
+import com.camerannonces.repository.UserRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Le nombre de requêtes pour assembler une page de résumés ne dépend pas de la taille de la page,
+ * et la projection alloue moins qu'une page d'entités
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@ActiveProfiles("test")
+@Transactional
+class ListingSummaryServiceTests {
+
+    @Autowired
+    private ListingSummaryService listingSummaryService;
+
+    @Autowired
+    private ListingRepository listingRepository;
+
+    @Autowired
+    private ListingImageRepository listingImageRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ImageService imageService;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private final List<Long> listingIds = new ArrayList<>();
+    private final List<Long> firstImageIds = new ArrayList<>();
+    private Long userId;
+
+    @BeforeEach
+    void createListings() {
+        long suffix = System.nanoTime() % 1_000_000_000L;
+        User user = userRepository.save(new User("Vendeur test", String.format("237%09d", suffix), "secret"));
+        userId = user.getId();
+
+        // Trois catégories pour que la page contienne plusieurs catégories et vendeurs distincts
+        List<Category> categories = new ArrayList<>();
+        for (int c = 0; c < 3; c++) {
+            categories.add(categoryRepository.save(new Category("Catégorie test " + suffix + "-" + c, null, "🧪")));
+        }
+
+        for (int i = 0; i < 40; i++) {
+            Listing listing = new Listing();
+            listing.setUser(user);
+            listing.setCategory(categories.get(i % categories.size()));
+            listing.setTitre("Annonce test " + i);
+            // La première annonce a une description plus longue que celle affichée dans les listes
+            listing.setDescription(i == 0 ? "Longue description ".repeat(40) : "Description " + i);
+            listing.setVille("Douala");
+            listing.setTelephoneContact("237690000000");
+            listing.setStatut(ListingStatus.ACTIVE);
+            listing = listingRepository.save(listing);
+            listingIds.add(listing.getId());
+
+            // Une annonce sur deux a deux images, dont la seconde est principale
+            if (i % 2 == 0) {
+                ListingImage first = new ListingImage(listing, "https://img.test/" + i + "/1.jpg");
+                first.setOrdreAffichage(1);
+                ListingImage main = new ListingImage(listing, "https://img.test/" + i + "/principale.jpg");
+                main.setOrdreAffichage(2);
+                main.setIsPrincipale(true);
+                firstImageIds.add(listingImageRepository.save(first).getId());
+                listingImageRepository.save(main);
+                listing.setMainImageUrl(main.getUrl());
+                listing.setThumbnailUrl(main.getUrl());
+            }
+        }
+
+        // Les annonces sont relues avec des relations LAZY non initialisées, comme dans un contrôleur
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void queryCountIsConstantWhateverThePageSize() {
+        long smallPage = countQueries(listingIds.subList(0, 5));
+        long largePage = countQueries(listingIds);
+
+        // Catégories, vendeurs (les images sont sur la ligne listings)
+        assertThat(smallPage).isEqualTo(2);
+        assertThat(largePage).isEqualTo(smallPage);
+    }
+
+    @Test
+    void mainImageIsCopiedOntoListingWhenImagesChange() {
+        Long listingId = listingIds.get(0);
+
+        imageService.setAsMainImage(firstImageIds.get(0), userId);
+        entityManager.flush();
+        entityManager.clear();
+
+        Listing listing = listingRepository.findById(listingId).orElseThrow();
+        assertThat(listing.getMainImageUrl()).endsWith("/0/1.jpg");
+        // Image sans miniature (antérieure à V5): l'image elle-même sert de miniature
+        assertThat(listing.getThumbnailUrl()).isEqualTo(listing.getMainImageUrl());
+
+        ListingSummaries summaries = listingSummaryService.load(List.of(listing));
+        assertThat(summaries.category(listing).getNom()).startsWith("Catégorie test");
+    }
+
+    @Test
+    void summaryProjectionLoadsNoEntity() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        List<ListingSummaryView> views = listingRepository.findSummariesByIdInAndStatut(listingIds, ListingStatus.ACTIVE);
+
+        // Une requête, aucune entité dans le contexte de persistance
+        assertThat(views).hasSize(listingIds.size());
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(statistics.getEntityLoadCount()).isZero();
+
+        ListingSummaryView first = views.stream()
+                .filter(view -> view.id().equals(listingIds.get(0)))
+                .findFirst()
+                .orElseThrow();
+        assertThat(first.description()).hasSize(ListingSummaryView.DESCRIPTION_LENGTH);
+        assertThat(first.categoryEmoji()).isEqualTo("🧪");
+        assertThat(first.mainImageUrl()).endsWith("/principale.jpg");
+    }
+
+    @Test
+    void summariesSkipListingsNoLongerActive() {
+        // Annonce vendue depuis son indexation: l'index en mémoire renvoie encore son id
+        entityManager.createNativeQuery("UPDATE listings SET statut = 'VENDU' WHERE id = :id")
+                .setParameter("id", listingIds.get(0))
+                .executeUpdate();
+
+        List<ListingSummaryView> views = listingRepository.findSummariesByIdInAndStatut(listingIds, ListingStatus.ACTIVE);
+
+        assertThat(views).hasSize(listingIds.size() - 1)
+                .extracting(ListingSummaryView::id)
+                .doesNotContain(listingIds.get(0));
+    }
+
+    @Test
+    void summaryPageAllocatesLessThanEntityPage() {
+        // Premier passage hors mesure: plans de requête et classes chargés
+        allocatedBy(() -> listingRepository.findAllById(listingIds));
+        allocatedBy(() -> listingRepository.findSummariesByIdInAndStatut(listingIds, ListingStatus.ACTIVE));
+
+        long entities = allocatedBy(() -> listingRepository.findAllById(listingIds));
+        long summaries = allocatedBy(() -> listingRepository.findSummariesByIdInAndStatut(listingIds, ListingStatus.ACTIVE));
+
+        System.out.println("📊 Page de " + listingIds.size() + " annonces: entités " + entities / 1024
+                + " Ko alloués, résumés " + summaries / 1024 + " Ko");
+        assertThat(summaries).isLessThan(entities);
+    }
+
+    /**
+     * Octets alloués par le thread courant pour charger une page à froid (ni contexte de persistance,
+     * ni cache de second niveau): mémoire par requête et pression sur le GC
+     */
+    private long allocatedBy(Runnable load) {
+        entityManager.clear();
+        entityManagerFactory.getCache().evictAll();
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long before = threads.getCurrentThreadAllocatedBytes();
+        load.run();
+        long allocated = threads.getCurrentThreadAllocatedBytes() - before;
+        entityManager.clear();
+        return allocated;
+    }
+
+    /**
+     * Requêtes exécutées pour charger les résumés et lire toutes les données affichées
+     */
+    private long countQueries(List<Long> ids) {
+        List<Listing> listings = listingRepository.findAllById(ids);
+        // Page lue à froid: les catégories de l'appel précédent ne doivent pas venir du cache de second niveau
+        entityManagerFactory.getCache().evictAll();
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        ListingSummaries summaries = listingSummaryService.loadWithSellers(listings);
+        for (Listing listing : listings) {
+            listing.getMainImageUrl();
+            assertThat(summaries.category(listing).getEmoji()).isEqualTo("🧪");
+            assertThat(summaries.seller(listing).getNom()).isEqualTo("Vendeur test");
+        }
+
+        long count = statistics.getPrepareStatementCount();
+        entityManager.clear();
+        return count;
+    }
+}
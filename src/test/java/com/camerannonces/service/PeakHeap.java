@@ -0,0 +1,56 @@
+package com.camerannonces.service;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Hausse maximale du tas retenu pendant un traitement (échantillons pris après GC explicite)
+ * Partagé par les tests de mémoire bornée (jobs d'expiration, décodage d'images)
+ */
+final class PeakHeap {
+
+    /**
+     * Traitement mesuré
+     */
+    interface Work {
+        void run() throws Exception;
+    }
+
+    private PeakHeap() {
+    }
+
+    /**
+     * Exécuter le traitement en échantillonnant le tas toutes les intervalMs
+     * @return hausse maximale par rapport au tas d'avant le traitement, en octets
+     */
+    static long measure(long intervalMs, Work work) throws Exception {
+        Runtime runtime = Runtime.getRuntime();
+        System.gc();
+        long baseline = runtime.totalMemory() - runtime.freeMemory();
+
+        AtomicLong peak = new AtomicLong(baseline);
+        AtomicBoolean running = new AtomicBoolean(true);
+        Thread sampler = new Thread(() -> {
+            while (running.get()) {
+                System.gc();
+                peak.accumulateAndGet(runtime.totalMemory() - runtime.freeMemory(), Math::max);
+                try {
+                    Thread.sleep(intervalMs);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        }, "peak-heap-sampler");
+        sampler.setDaemon(true);
+        sampler.start();
+
+        try {
+            work.run();
+        } finally {
+            running.set(false);
+            sampler.interrupt();
+            sampler.join();
+        }
+        return peak.get() - baseline;
+    }
+}
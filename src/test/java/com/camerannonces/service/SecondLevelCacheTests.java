@@ -0,0 +1,149 @@
+package com.camerannonces.service;
+
+import com.camerannonces.entity.Category;
+import com.camerannonces.entity.City;
+import com.camerannonces.entity.Listing;
+import com.camerannonces.entity.User;
+import com.camerannonces.enums.ListingStatus;
+import com.camerannonces.repository.CategoryRepository;
+import com.camerannonces.repository.CityRepository;
+import com.camerannonces.repository.ListingImageRepository;
+import com.camerannonces.repository.ListingRepository;
+import com.camerannonces.repository.UserRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Requêtes SQL par requête HTTP simulée, cache de second niveau vide puis chaud:
+ * détail d'une annonce (annonce, vendeur, catégorie, images) et page de 20 résumés
+ * Les nombres mesurés sont affichés pour comparaison
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+class SecondLevelCacheTests {
+
+    @Autowired
+    private ListingRepository listingRepository;
+
+    @Autowired
+    private ListingImageRepository listingImageRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private CityRepository cityRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ListingSummaryService listingSummaryService;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private final List<Long> listingIds = new ArrayList<>();
+    private Statistics statistics;
+
+    @BeforeEach
+    void createListings() {
+        long suffix = System.nanoTime() % 1_000_000_000L;
+        User user = userRepository.save(new User("Vendeur cache", String.format("237%09d", suffix), "secret"));
+        Category category = categoryRepository.save(new Category("Catégorie cache " + suffix, null, "🧪"));
+
+        for (int i = 0; i < 20; i++) {
+            Listing listing = new Listing();
+            listing.setUser(user);
+            listing.setCategory(category);
+            listing.setTitre("Annonce cache " + i);
+            listing.setDescription("Description " + i);
+            listing.setVille("Douala");
+            listing.setTelephoneContact("237690000000");
+            listing.setStatut(ListingStatus.ACTIVE);
+            listingIds.add(listingRepository.save(listing).getId());
+        }
+
+        entityManager.flush();
+        entityManager.clear();
+        entityManagerFactory.getCache().evictAll();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void listingDetailReadsCategoryFromCache() {
+        long cold = detailQueries(listingIds.get(0));
+        long warm = detailQueries(listingIds.get(1));
+        System.out.println("📊 Détail d'annonce: " + cold + " requêtes à froid, " + warm + " avec le cache");
+
+        // Annonce, vendeur, images: la catégorie vient du cache
+        assertThat(warm).isEqualTo(cold - 1);
+        assertThat(statistics.getSecondLevelCacheHitCount()).isPositive();
+    }
+
+    @Test
+    void summaryPageReadsCategoriesFromCache() {
+        long cold = pageQueries();
+        long warm = pageQueries();
+        System.out.println("📊 Page de 20 résumés: " + cold + " requêtes à froid, " + warm + " avec le cache");
+
+        // Vendeurs seulement
+        assertThat(warm).isEqualTo(cold - 1);
+    }
+
+    @Test
+    void referenceFindersUseQueryCache() {
+        // Table cities non modifiée dans cette transaction (une écriture invalide les résultats en cache)
+        List<City> cities = cityRepository.findByIsActiveTrueOrderByNom();
+        entityManager.clear();
+        statistics.clear();
+
+        assertThat(cityRepository.findByIsActiveTrueOrderByNom()).hasSameSizeAs(cities);
+        assertThat(statistics.getQueryCacheHitCount()).isEqualTo(1);
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+    }
+
+    /**
+     * Comme GET /api/listings/{id}: annonce, vendeur, catégorie et galerie
+     */
+    private long detailQueries(Long listingId) {
+        statistics.clear();
+        Listing listing = listingRepository.findById(listingId).orElseThrow();
+        assertThat(listing.getUser().getNom()).isEqualTo("Vendeur cache");
+        assertThat(listing.getCategory().getEmoji()).isEqualTo("🧪");
+        listingImageRepository.findByListingIdOrderByOrdreAffichage(listingId);
+        long count = statistics.getPrepareStatementCount();
+        entityManager.clear();
+        return count;
+    }
+
+    /**
+     * Comme une page de résultats: résumés avec catégories et vendeurs
+     */
+    private long pageQueries() {
+        List<Listing> listings = listingRepository.findAllById(listingIds);
+        statistics.clear();
+        ListingSummaries summaries = listingSummaryService.loadWithSellers(listings);
+        listings.forEach(listing -> assertThat(summaries.category(listing).getEmoji()).isEqualTo("🧪"));
+        long count = statistics.getPrepareStatementCount();
+        entityManager.clear();
+        return count;
+    }
+}
@@ -0,0 +1,55 @@
+package com.camerannonces.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Tests du curseur de pagination keyset
+ */
+class ListingCursorTests {
+
+    private static final LocalDateTime DATE = LocalDateTime.of(2025, 3, 14, 9, 26, 53, 589_793_000);
+
+    @Test
+    void searchKeyRoundTripsExactly() {
+        double score = 2.0 + 0.0607927;
+        String token = ListingCursor.forSearch(score, true, DATE, 42L).encode();
+
+        ListingCursor cursor = ListingCursor.decode(token).requireSearchKey();
+
+        assertThat(token).doesNotContain("|", "=", "+", "/");
+        assertThat(cursor.getScore()).isEqualTo(score);
+        assertThat(cursor.getPremium()).isTrue();
+        assertThat(cursor.getDate()).isEqualTo(DATE);
+        assertThat(cursor.getId()).isEqualTo(42L);
+    }
+
+    @Test
+    void emptyTokenMeansFirstPage() {
+        assertThat(ListingCursor.decode(null)).isNull();
+        assertThat(ListingCursor.decode("")).isNull();
+    }
+
+    @Test
+    void invalidOrMismatchedTokensAreRejected() {
+        assertThatThrownBy(() -> ListingCursor.decode("pas-un-curseur"))
+                .hasMessage("Curseur de pagination invalide");
+
+        ListingCursor feed = ListingCursor.decode(ListingCursor.forFeed(DATE, 7L).encode());
+        assertThat(feed.requireFeedKey().getId()).isEqualTo(7L);
+        assertThatThrownBy(feed::requireSearchKey).hasMessage("Curseur de pagination invalide");
+        assertThatThrownBy(feed::requireIndexKey).hasMessage("Curseur de pagination invalide");
+
+        // Curseurs de la recherche SQL et de l'index en mémoire non interchangeables
+        ListingCursor search = ListingCursor.decode(ListingCursor.forSearch(1.5, false, DATE, 7L).encode());
+        assertThatThrownBy(search::requireIndexKey).hasMessage("Curseur de pagination invalide");
+        ListingCursor index = ListingCursor.decode(ListingCursor.forIndex(1.5, 7L, 1_700_000_000_000L).encode());
+        assertThat(index.requireIndexKey().getScoredAt()).isEqualTo(1_700_000_000_000L);
+        assertThatThrownBy(index::requireSearchKey).hasMessage("Curseur de pagination invalide");
+        assertThatThrownBy(index::requireFeedKey).hasMessage("Curseur de pagination invalide");
+    }
+}
@@ -0,0 +1,47 @@
+package com.camerannonces.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests des termes de recherche (tsquery et motif regex)
+ */
+class SearchTermsTests {
+
+    @Test
+    void synonymsAreQuotedAndJoinedWithOr() {
+        SearchTerms terms = SearchTerms.from("poisson");
+
+        // "Poisson" en double dans les synonymes: un seul terme, en minuscules, ordre conservé
+        assertThat(terms.getTerms()).containsExactly("poisson", "fumé", "braisé", "tilapia");
+        assertThat(terms.toTsQuery()).isEqualTo("'poisson' | 'fumé' | 'braisé' | 'tilapia'");
+        assertThat(terms.toPattern()).isEqualTo("poisson|fumé|braisé|tilapia");
+    }
+
+    @Test
+    void tsqueryAndRegexOperatorsAreStripped() {
+        SearchTerms terms = SearchTerms.from("l'iphone  a&b:c|d  (sac)*  -");
+
+        assertThat(terms.getTerms()).containsExactly("liphone", "abcd", "sac");
+        assertThat(terms.toTsQuery()).isEqualTo("'liphone' | 'abcd' | 'sac'");
+    }
+
+    @Test
+    void innerHyphensAreKeptAndOuterOnesTrimmed() {
+        SearchTerms terms = SearchTerms.from("--deux-roues- -t-shirt");
+
+        assertThat(terms.getTerms()).containsExactly("deux-roues", "t-shirt");
+    }
+
+    @Test
+    void termsShorterThanThreeCharactersAreIgnored() {
+        // "pc" est enrichi: le synonyme "PC" (2 caractères) disparaît, les autres restent
+        assertThat(SearchTerms.from("pc").getTerms())
+                .containsExactly("ordinateur", "portable", "laptop", "desktop");
+        assertThat(SearchTerms.from("ab '' &&").isEmpty()).isTrue();
+        assertThat(SearchTerms.from("   ").isEmpty()).isTrue();
+        assertThat(SearchTerms.from(null).isEmpty()).isTrue();
+        assertThat(SearchTerms.from("ab").toTsQuery()).isEmpty();
+    }
+}
@@ -0,0 +1,104 @@
+-- ============================================
+-- BENCHMARK RECHERCHE (avant / après search_vector + trigrammes)
+-- ============================================
+-- Utilisation (base de test, migrations V1/V2 déjà appliquées) :
+--   psql -d CAMERANNONCES -v rows=100000  -f src/test/resources/benchmark/recherche_benchmark.sql
+--   psql -d CAMERANNONCES -v rows=1000000 -f src/test/resources/benchmark/recherche_benchmark.sql
+--
+-- Les données synthétiques sont créées dans un schéma "bench" isolé puis supprimées.
+-- "AVANT" = ancienne requête (to_tsvector recalculé + LOWER LIKE + jointure catégories)
+-- "APRÈS" = requête actuelle (search_vector GIN + ILIKE trigrammes + catégories résolues une fois)
+
+\set ON_ERROR_STOP on
+\timing on
+
+DROP SCHEMA IF EXISTS bench CASCADE;
+CREATE SCHEMA bench;
+
+CREATE TABLE bench.categories (LIKE public.categories INCLUDING ALL);
+INSERT INTO bench.categories SELECT * FROM public.categories;
+
+-- Copie de la structure (colonne générée et index compris), sans les clés étrangères
+CREATE TABLE bench.listings (LIKE public.listings INCLUDING ALL);
+
+WITH cats AS (SELECT array_agg(id ORDER BY id) AS ids FROM bench.categories)
+INSERT INTO bench.listings (user_id, category_id, titre, description, prix, ville, quartier,
+                            telephone_contact, statut, is_premium, vues, contacts_whatsapp,
+                            date_creation, date_expiration)
+SELECT 1,
+       cats.ids[1 + n % array_length(cats.ids, 1)],
+       (ARRAY['iPhone 12 Pro', 'Samsung Galaxy S21', 'Toyota Corolla 2015', 'Appartement meublé',
+              'Studio moderne', 'Robe de soirée', 'Perruque brésilienne', 'Ordinateur portable HP',
+              'Télévision Smart 55 pouces', 'Moto Yamaha', 'Poulets de chair', 'Cours de mathématiques'])[1 + n % 12]
+           || ' ' || md5(n::text),
+       'Annonce numéro ' || n || ' en très bon état, disponible immédiatement. '
+           || repeat(md5((n * 7)::text) || ' ', 5),
+       (n % 500) * 1000,
+       (ARRAY['Douala', 'Yaoundé', 'Bafoussam', 'Garoua', 'Bamenda'])[1 + n % 5],
+       (ARRAY['Akwa', 'Bonapriso', 'Bastos', 'Mvan', 'Tamdja'])[1 + n % 5],
+       '237690000000',
+       CASE WHEN n % 10 = 0 THEN 'VENDU' ELSE 'ACTIVE' END,
+       n % 50 = 0,
+       n % 1000,
+       n % 100,
+       now() - (n % 365) * interval '1 day',
+       now() + interval '30 days'
+FROM generate_series(1, :rows) AS n, cats;
+
+ANALYZE bench.categories;
+ANALYZE bench.listings;
+
+SET search_path = bench, public;
+
+-- ============================================
+-- AVANT
+-- ============================================
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT l.* FROM listings l
+LEFT JOIN categories c ON l.category_id = c.id
+WHERE l.statut = 'ACTIVE'
+AND (
+    to_tsvector('french', COALESCE(l.titre, '') || ' ' || COALESCE(l.description, ''))
+    @@ plainto_tsquery('french', 'corolla')
+    OR LOWER(l.titre) LIKE LOWER(CONCAT('%', 'corolla', '%'))
+    OR LOWER(l.description) LIKE LOWER(CONCAT('%', 'corolla', '%'))
+    OR LOWER(c.nom) LIKE LOWER(CONCAT('%', 'corolla', '%'))
+    OR LOWER(c.nom_anglais) LIKE LOWER(CONCAT('%', 'corolla', '%'))
+)
+ORDER BY l.is_premium DESC, l.date_creation DESC
+LIMIT 20;
+
+-- ============================================
+-- APRÈS
+-- ============================================
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT l.* FROM listings l
+WHERE l.statut = 'ACTIVE'
+AND (
+    l.search_vector @@ plainto_tsquery('french', 'corolla')
+    OR l.titre ILIKE CONCAT('%', 'corolla', '%')
+    OR l.description ILIKE CONCAT('%', 'corolla', '%')
+    OR l.category_id = ANY(ARRAY(
+        SELECT c.id FROM categories c
+        WHERE c.nom ILIKE CONCAT('%', 'corolla', '%')
+        OR c.nom_anglais ILIKE CONCAT('%', 'corolla', '%')))
+)
+ORDER BY l.is_premium DESC, l.date_creation DESC
+LIMIT 20;
+
+-- Recherche multi-termes (synonymes en une requête, cf. SearchTerms)
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT l.* FROM listings l
+WHERE l.statut = 'ACTIVE'
+AND (
+    l.search_vector @@ to_tsquery('french', '''toyota'' | ''corolla'' | ''voiture''')
+    OR l.titre ~* 'toyota|corolla|voiture'
+    OR l.description ~* 'toyota|corolla|voiture'
+    OR l.category_id = ANY(ARRAY(
+        SELECT c.id FROM categories c
+        WHERE c.nom ~* 'toyota|corolla|voiture' OR c.nom_anglais ~* 'toyota|corolla|voiture'))
+)
+LIMIT 20;
+
+RESET search_path;
+DROP SCHEMA bench CASCADE;